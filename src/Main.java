@@ -1,6 +1,11 @@
 ﻿import datastructures.*;
+import api.FleetHttpServer;
 import java.util.Scanner;
 import java.io.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 
 /**
  * Main class - Vehicle Tracking & Maintenance System
@@ -8,17 +13,74 @@ import java.io.*;
  * Uses various data structures: BST for vehicles, queues for drivers/deliveries, priority queue for maintenance
  */
 public class Main {
+    private static final int DELIVERY_QUEUE_CAPACITY = 10_000;           // room for a day's bulk-imported orders
+    private static final int TABLE_PAGE_SIZE = 50;                        // rows per page in interactive listings
+    private static final double TRUCK_SPEED_KMH = 50;                     // average road speeds for ETA estimates
+    private static final double VAN_SPEED_KMH = 65;
+    private static final DateTimeFormatter ETA_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
     // Core data structures for the system - all from custom datastructures package
     private static VehicleTree vehicleTree = new VehicleTree();           // BST for vehicle management
     private static DriverQueue driverQueue = new DriverQueue();           // Queue for driver assignments
-    private static DeliveryQueue deliveryQueue = new DeliveryQueue();     // Queue for delivery management
-    private static MaintenanceScheduler maintenanceScheduler = new MaintenanceScheduler(); // Priority queue for maintenance
+    private static DeliveryQueue deliveryQueue = new DeliveryQueue(DELIVERY_QUEUE_CAPACITY); // Queue for delivery management
+    private static OdometerLog odometerLog = new OdometerLog("data/odometer.log"); // recent readings - km/day per vehicle
+    private static MaintenanceScheduler maintenanceScheduler = new MaintenanceScheduler(odometerLog); // Priority queue for maintenance
+    private static MaintenanceHistoryStore maintenanceHistory = new MaintenanceHistoryStore("data/history"); // completed services
+    private static TownDirectory towns = new TownDirectory();             // town positions for nearest-driver assignment
+    private static RoadNetwork roads = new RoadNetwork(towns);            // road distances for routes and ETAs
+    private static boolean automaticMileage = true;                       // completed deliveries add their route distance
     private static Scanner scanner = new Scanner(System.in);              // Input scanner
 
+    // Journaled persistence - changes are appended to the journal, data files are rewritten in the background
+    private static final String JOURNAL_DIRECTORY = "data/journal";
+    private static final String LSN_HEADER = "# LSN ";                    // last journal record included in a data file
+    private static final long FLUSH_TIMEOUT_MILLIS = 10_000;
+    private static final int VEHICLES = 0, DRIVERS = 1, DELIVERIES = 2, MAINTENANCE = 3; // persister targets
+    private static final String[] DATA_FILES = {
+        "data/vehicles.txt", "data/drivers.txt", "data/deliveries.txt", "data/maintenance.txt"
+    };
+    private static final String[] PATCH_FILES = {
+        "data/vehicles.patch", "data/drivers.patch", "data/deliveries.patch", "data/maintenance.patch"
+    };
+    private static final int MIN_PATCH_LIMIT = 32;                        // patch lines allowed before a full rewrite
+    private static final long[] dataFileLsn = new long[DATA_FILES.length]; // journal position reflected in each file
+    private static final int[] patchRecords = new int[DATA_FILES.length];  // lines in each patch file
+    private static final boolean[] fullRewriteRequested = new boolean[DATA_FILES.length];
+    private static final Object dataLock = new Object();                  // guards data structures + journal order
+    private static WriteAheadLog journal;
+    private static BackgroundPersister persister;
+    private static FleetHttpServer httpServer;                            // only in --serve mode
+
     // Main method - entry point of the application
+    // "--batch <file>" runs a command script instead of the menu (see BATCH COMMAND MODE)
+    // "--serve <port>" serves the HTTP API instead of the menu (see HTTP API MODE)
     public static void main(String[] args) {
+        if (args.length >= 2 && args[0].equals("--serve")) {
+            // Read once when the JDK HTTP server first loads: headers and body are written separately,
+            // and without TCP_NODELAY small responses wait for delayed ACKs (~40 ms). Process-wide.
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+            loadDataAtStartup();
+            openPersistence();
+            runHttpServer(Integer.parseInt(args[1]));
+            return;
+        }
+        
+        if (args.length >= 2 && args[0].equals("--batch")) {
+            // Buffer console output so a large script is not slowed down by terminal I/O
+            PrintStream console = System.out;
+            System.setOut(new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), BATCH_OUTPUT_BUFFER), false));
+            loadDataAtStartup();
+            openPersistence();
+            int failed = runBatch(args[1]);
+            System.out.flush();
+            System.setOut(console);
+            System.exit(failed == 0 ? 0 : 1);
+        }
+        
         displayWelcomeMessage(); // Show welcome screen
         loadDataAtStartup();     // Automatically load all data files
+        openPersistence();       // Replay unsaved changes and start journaling
+        TableRenderer.setPaging(TABLE_PAGE_SIZE, Main::askForNextPage); // long listings stop after each page
         showMenu();              // Start interactive menu system
     }
 
@@ -46,8 +108,8 @@ public class Main {
             // Clear existing data structures
             vehicleTree = new VehicleTree();
             driverQueue = new DriverQueue();
-            deliveryQueue = new DeliveryQueue();
-            maintenanceScheduler = new MaintenanceScheduler();
+            deliveryQueue = new DeliveryQueue(DELIVERY_QUEUE_CAPACITY);
+            maintenanceScheduler = new MaintenanceScheduler(odometerLog);
             
             // Load data from files with progress indicators
             System.out.print("Loading vehicles... ");
@@ -62,10 +124,26 @@ public class Main {
             loadDeliveriesFromFile();
             System.out.println("Done");
             
+            System.out.print("Loading odometer readings... ");
+            System.out.print("Loaded readings of " + odometerLog.open() + " vehicles ");
+            System.out.println("Done");
+            
             System.out.print("Loading maintenance records... ");
             loadMaintenanceFromFile();
             System.out.println("Done");
             
+            System.out.print("Loading towns... ");
+            loadTownsFromFile();
+            System.out.println("Done");
+            
+            System.out.print("Loading roads... ");
+            loadRoadsFromFile();
+            System.out.println("Done");
+            
+            System.out.print("Loading maintenance history... ");
+            System.out.print("Loaded " + maintenanceHistory.open() + " service records from data/history ");
+            System.out.println("Done");
+            
             System.out.println("-".repeat(50));
             System.out.println("System Ready! All data loaded successfully.");
             System.out.println();
@@ -79,6 +157,229 @@ public class Main {
         }
     }
 
+    // Create the background persister, replay journal records newer than the data files, start journaling, then start the persister
+    private static void openPersistence() {
+        persister = new BackgroundPersister(dataLock, DATA_FILES.length, new BackgroundPersister.Source() {
+            @Override
+            public long beginSnapshot() throws IOException {
+                // Close the current journal segment so the snapshot matches its last record exactly
+                return journal != null ? journal.rotate() : highestDataFileLsn();
+            }
+
+            @Override
+            public BackgroundPersister.FileUpdate snapshot(int target, long lsn) {
+                return snapshotDataFile(target, lsn);
+            }
+
+            @Override
+            public void written(int target, BackgroundPersister.FileUpdate update, long lsn) {
+                dataFileLsn[target] = lsn;
+                if (!update.append) {
+                    // The rewritten data file contains everything the patch file had
+                    new File(PATCH_FILES[target]).delete();
+                }
+            }
+
+            @Override
+            public void writeFailed(int target, BackgroundPersister.FileUpdate update) {
+                // The drained changes are gone from the tracker, so only a full rewrite is safe now
+                synchronized (dataLock) {
+                    fullRewriteRequested[target] = true;
+                }
+            }
+
+            @Override
+            public void flushCompleted(long lsn) {
+                // Files that were clean already contain all of their records, so every closed segment can go
+                if (journal != null) {
+                    journal.discardUpTo(lsn);
+                }
+            }
+        });
+
+        clearChangeTrackers(); // everything loaded so far is already in the data files
+        
+        try {
+            journal = new WriteAheadLog(JOURNAL_DIRECTORY);
+            System.out.print("Replaying journal... ");
+            long lastLsn = replayJournal();
+            System.out.println("Done");
+
+            journal.open(Math.max(lastLsn, highestDataFileLsn()));
+        } catch (Exception e) {
+            journal = null;
+            System.out.println("\nWarning: Journal could not be opened: " + e.getMessage());
+            System.out.println("Changes will be saved to the data files in the background only.");
+            System.out.println();
+        }
+        
+        // Data files that were read in an older layout are rewritten straight away
+        synchronized (dataLock) {
+            for (int i = 0; i < fullRewriteRequested.length; i++) {
+                if (fullRewriteRequested[i]) {
+                    persister.markDirty(i);
+                }
+            }
+        }
+        
+        // Snapshots rotate the journal, so the persister only starts once replay is done and it is open
+        persister.start();
+    }
+
+    // Highest journal position contained in any data file
+    private static long highestDataFileLsn() {
+        long highest = 0;
+        for (long lsn : dataFileLsn) {
+            highest = Math.max(highest, lsn);
+        }
+        return highest;
+    }
+
+    // Re-apply one journal record to the data structures
+    // Records already contained in a data file (lsn <= that file's LSN) are skipped
+    private static void applyJournalRecord(long lsn, String[] record) {
+        switch (record[0]) {
+            case "VA": // vehicle added
+                if (isNewerThanDataFile(lsn, VEHICLES)) {
+                    vehicleTree.insert(new Vehicle(record[1], record[2], Integer.parseInt(record[3]),
+                        Double.parseDouble(record[4]), record[5]));
+                }
+                break;
+            case "VR": // vehicle removed
+                if (isNewerThanDataFile(lsn, VEHICLES)) {
+                    vehicleTree.remove(record[1]);
+                }
+                break;
+            case "VM": // vehicle mileage set
+                if (isNewerThanDataFile(lsn, VEHICLES)) {
+                    vehicleTree.updateMileage(record[1], Integer.parseInt(record[2]));
+                }
+                break;
+            case "VF": // vehicle fuel usage reading
+                if (isNewerThanDataFile(lsn, VEHICLES)) {
+                    vehicleTree.updateFuelUsage(record[1], Double.parseDouble(record[2]));
+                }
+                break;
+            case "DA": // driver added
+                if (isNewerThanDataFile(lsn, DRIVERS)) {
+                    driverQueue.enqueue(new Driver(record[1], record[2], Integer.parseInt(record[3]), record[4]));
+                }
+                break;
+            case "DD": // driver assigned (dequeued)
+                if (isNewerThanDataFile(lsn, DRIVERS)) {
+                    // The nearest driver is assigned, not the head of the queue, so the record names the driver
+                    if (record.length > 1) {
+                        driverQueue.removeById(record[1]);
+                    } else {
+                        driverQueue.dequeue();
+                    }
+                }
+                break;
+            case "PA": // delivery created
+                if (isNewerThanDataFile(lsn, DELIVERIES)) {
+                    deliveryQueue.enqueue(new Delivery(record[1], record[2], record[3], record[4], record[5], record[6]));
+                }
+                break;
+            case "PD": // delivery processed (dequeued)
+            case "PC": // delivery cancelled
+                if (isNewerThanDataFile(lsn, DELIVERIES)) {
+                    deliveryQueue.removeById(record[1]);
+                }
+                break;
+            case "PE": // delivery ETA changed
+                if (isNewerThanDataFile(lsn, DELIVERIES)) {
+                    deliveryQueue.reschedule(record[1], record[2]);
+                }
+                break;
+            case "PV": // delivery moved to another vehicle (and its driver) by the load planner
+                if (isNewerThanDataFile(lsn, DELIVERIES)) {
+                    Delivery planned = deliveryQueue.findDeliveryById(record[1]);
+                    if (planned != null) {
+                        deliveryQueue.reassign(record[1], record[2], record.length > 3 ? record[3] : planned.assignedDriver);
+                    }
+                }
+                break;
+            case "MA": // maintenance task scheduled
+                if (isNewerThanDataFile(lsn, MAINTENANCE)) {
+                    // Same ID as when it was first added, so a later MP record finds it
+                    int id = record.length > 3 ? Integer.parseInt(record[3]) : 0;
+                    maintenanceScheduler.addTask(new MaintenanceTask(id, record[1], Integer.parseInt(record[2])));
+                }
+                break;
+            case "MP": // maintenance task processed
+                if (isNewerThanDataFile(lsn, MAINTENANCE)) {
+                    // The heap order depends on the time and on km/day, so the record names the task
+                    if (record.length > 1) {
+                        maintenanceScheduler.removeTaskById(Integer.parseInt(record[1]));
+                    } else {
+                        maintenanceScheduler.pollNextTask();
+                    }
+                }
+                break;
+            case "MU": // maintenance schedules reduced after a delivery
+                if (isNewerThanDataFile(lsn, MAINTENANCE)) {
+                    maintenanceScheduler.updateTasksForVehicle(record[1], Integer.parseInt(record[2]));
+                }
+                break;
+            default:
+                System.out.println("Warning: Unknown journal record '" + record[0] + "' skipped.");
+        }
+    }
+
+    // Re-apply the journal to the loaded data - returns the last LSN found
+    // Alerts from replayed mileage were raised when the updates first happened, so they are dropped
+    private static long replayJournal() throws IOException {
+        long lastLsn = journal.replay(Main::applyJournalRecord);
+        maintenanceScheduler.drainAlerts();
+        return lastLsn;
+    }
+
+    // True if a replayed record is not yet in the target's data file - the file is then marked for rewriting
+    private static boolean isNewerThanDataFile(long lsn, int target) {
+        if (lsn <= dataFileLsn[target]) {
+            return false;
+        }
+        persister.markDirty(target);
+        return true;
+    }
+
+    // Append a change to the journal - call while holding dataLock, right after changing the data structure
+    // The matching data file is rewritten later by the background persister
+    // Returns the record's sequence number (0 when journaling is unavailable)
+    private static long journalChange(String op, Object... fields) {
+        switch (op.charAt(0)) {
+            case 'V': persister.markDirty(VEHICLES); break;
+            case 'D': persister.markDirty(DRIVERS); break;
+            case 'P': persister.markDirty(DELIVERIES); break;
+            case 'M': persister.markDirty(MAINTENANCE); break;
+            default: break;
+        }
+        return journal != null ? journal.append(op, fields) : 0;
+    }
+
+    // Wait until a journaled change is on disk
+    private static void awaitJournal(long lsn) throws IOException {
+        if (journal == null) {
+            throw new IOException("journal is not available");
+        }
+        journal.awaitDurable(lsn);
+    }
+
+    // Write pending changes and close the journal before the program exits
+    private static void shutdownPersistence() {
+        try {
+            persister.close(FLUSH_TIMEOUT_MILLIS);
+            if (journal != null) {
+                journal.close();
+            }
+            maintenanceHistory.close();
+            odometerLog.close();
+        } catch (IOException e) {
+            System.out.println("Warning: Data files could not be written on exit: " + e.getMessage());
+            System.out.println("Unsaved changes will be replayed from the journal at next startup.");
+        }
+    }
+
     // Main menu system - displays main categories and handles navigation
     private static void showMenu() {
         while (true) { // Continuous loop until user exits
@@ -127,6 +428,7 @@ public class Main {
                         showFileStorageMenu();
                         break;
                     case 8:
+                        shutdownPersistence();
                         System.out.println("\n" + "=".repeat(60));
                         System.out.println("Thank you for using Vehicle Tracking System!");
                         System.out.println("Have a great day!");
@@ -142,6 +444,549 @@ public class Main {
         }
     }
 
+    // ===== HTTP API MODE =====
+
+    // Serve the HTTP API on localhost until the process is stopped (Ctrl+C)
+    private static void runHttpServer(int port) {
+        try {
+            httpServer = new FleetHttpServer("localhost", port, new FleetHttpServer.Backend() {
+                @Override
+                public Vehicle findVehicle(String registrationNumber) {
+                    return vehicleTree.searchByRegistration(registrationNumber);
+                }
+
+                @Override
+                public Vehicle[] findVehiclesByMileage(int minMileage, int maxMileage) {
+                    if (minMileage > maxMileage) {
+                        throw new IllegalArgumentException("minMileage must not be greater than maxMileage");
+                    }
+                    return vehicleTree.searchByMileageRange(minMileage, maxMileage);
+                }
+
+                @Override
+                public FleetSummary fleetSummary() {
+                    return vehicleTree.getSummary();
+                }
+
+                @Override
+                public Driver assignDriver(String location) throws IOException {
+                    Driver assigned = null;
+                    long lsn = 0;
+                    synchronized (dataLock) {
+                        if (!driverQueue.isEmpty()) {
+                            assigned = location == null ? driverQueue.dequeue() : driverQueue.dequeueNearest(location, towns);
+                            lsn = journalChange("DD", assigned.driverId);
+                        }
+                    }
+                    if (assigned != null) {
+                        awaitSaved(lsn, "Driver assigned");
+                    }
+                    return assigned;
+                }
+
+                @Override
+                public Delivery addDelivery(String packageId, String origin, String destination,
+                                            String vehicle, String driver, String eta) throws IOException {
+                    Delivery delivery;
+                    long lsn;
+                    synchronized (dataLock) {
+                        Vehicle assigned = vehicleTree.searchByRegistration(vehicle);
+                        if (assigned == null) {
+                            throw new IllegalArgumentException("Vehicle " + vehicle + " not found");
+                        }
+                        if (eta == null) {
+                            eta = estimateEta(origin, destination, assigned);
+                            if (eta == null) {
+                                throw new IllegalArgumentException("No road route from " + origin + " to " + destination + " - give the eta");
+                            }
+                        }
+                        delivery = new Delivery(packageId, origin, destination, vehicle, driver, eta);
+                        if (deliveryQueue.deliveryExists(packageId)) {
+                            throw new IllegalStateException("Delivery " + packageId + " already exists");
+                        }
+                        if (deliveryQueue.size() >= deliveryQueue.capacity()) {
+                            throw new IllegalStateException("Delivery queue is full");
+                        }
+                        if (!deliveryQueue.enqueue(delivery)) {
+                            throw new IllegalStateException("Delivery queue is full");
+                        }
+                        lsn = journalChange("PA", packageId, origin, destination, vehicle, driver, delivery.eta);
+                    }
+                    awaitSaved(lsn, "Delivery added");
+                    return delivery;
+                }
+
+                @Override
+                public Delivery processNextDelivery() throws IOException {
+                    Delivery delivery = null;
+                    long lsn = 0;
+                    synchronized (dataLock) {
+                        if (!deliveryQueue.isEmpty()) {
+                            delivery = deliveryQueue.dequeueEarliest();
+                            lsn = journalChange("PD", delivery.packageId);
+                            int mileage = automaticMileage ? routeMileage(delivery) : 0;
+                            if (mileage > 0) {
+                                lsn = Math.max(lsn, accrueMileage(new String[] {delivery.assignedVehicle}, new int[] {mileage}, 1));
+                            }
+                        }
+                    }
+                    if (delivery != null) {
+                        awaitSaved(lsn, "Delivery processed");
+                        reportMaintenanceAlerts();
+                    }
+                    return delivery;
+                }
+
+                @Override
+                public MaintenanceTask scheduleMaintenance(String vehicle, int mileage) throws IOException {
+                    if (mileage < 0) {
+                        throw new IllegalArgumentException("Mileage cannot be negative");
+                    }
+                    MaintenanceTask task = new MaintenanceTask(vehicle, mileage);
+                    long lsn;
+                    synchronized (dataLock) {
+                        if (vehicleTree.searchByRegistration(vehicle) == null) {
+                            throw new IllegalArgumentException("Vehicle " + vehicle + " not found");
+                        }
+                        if (maintenanceScheduler.taskExists(vehicle, mileage)) {
+                            throw new IllegalStateException("Maintenance task for " + vehicle + " at " + mileage + " km already exists");
+                        }
+                        if (!maintenanceScheduler.addTask(task)) {
+                            throw new IllegalStateException("Maintenance scheduler is full");
+                        }
+                        lsn = journalChange("MA", vehicle, mileage, task.getId());
+                    }
+                    awaitSaved(lsn, "Maintenance task added");
+                    return task;
+                }
+            });
+        } catch (IOException e) {
+            System.out.println("Error: Could not start HTTP server on port " + port + ": " + e.getMessage());
+            shutdownPersistence();
+            return;
+        }
+
+        // Stopping the process (Ctrl+C) finishes running requests and writes the data files
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            httpServer.stop(1);
+            shutdownPersistence();
+        }));
+        httpServer.start();
+        System.out.println("HTTP API listening on http://localhost:" + httpServer.getPort() + " (Ctrl+C to stop)");
+    }
+
+    // Wait until an HTTP request's change is on disk; if it cannot be saved the request fails (500)
+    // Without a journal the background persister's flush is what makes it durable
+    private static void awaitSaved(long lsn, String change) throws IOException {
+        try {
+            if (journal != null) {
+                journal.awaitDurable(lsn);
+            } else {
+                persister.flush(FLUSH_TIMEOUT_MILLIS);
+            }
+        } catch (IOException e) {
+            System.out.println("Warning: " + change + " but failed to save to file: " + e.getMessage());
+            throw new IOException(change + " but could not be saved: " + e.getMessage(), e);
+        }
+    }
+
+    // ===== BATCH COMMAND MODE =====
+    //
+    // java Main --batch <script-file>   (or "-" to read commands from standard input)
+    // One command per line, fields separated by commas like the data files; blank lines and lines
+    // starting with '#' are skipped. Changes are journaled without waiting for each fsync - the
+    // journal is made durable at "sync" and at the end of the script (group commit does the rest).
+    //
+    //   vehicle-add,REG,TYPE,MILEAGE,FUEL[,DRIVER]    vehicle-remove,REG    vehicle-find,REG    vehicle-list
+    //   vehicle-fuel,REG,FUEL                         (new fuel usage reading in L/100km)
+    //   driver-add,ID,NAME,EXPERIENCE,LOCATION        driver-assign[,LOCATION]  driver-list
+    //   delivery-add,PACKAGE,ORIGIN,DESTINATION,VEHICLE,DRIVER[,TIME]         delivery-process[,KM|auto]
+    //   delivery-close-out[,N] (first N or all pending deliveries, road mileage applied once per vehicle)
+    //   delivery-plan[,apply]  (pack pending deliveries onto vehicles; apply reassigns them)
+    //   delivery-reschedule,PACKAGE,TIME     delivery-cancel,PACKAGE     delivery-list[,deadline]
+    //   maintenance-add,REG,MILEAGE                   maintenance-process   maintenance-list
+    //   maintenance-record,REG,DATE,SERVICE,COST      maintenance-history[,REG[,FROM,TO]]   (dates YYYY-MM-DD)
+    //   maintenance-costs[,REG|parts|vehicles[,FROM,TO|N]]  (monthly spend of the fleet or a vehicle,
+    //                     months YYYY-MM; or the top N parts/vehicles by cost, default 10)
+    //   sync    save    report[,text|csv|json]
+
+    private static final int BATCH_OUTPUT_BUFFER = 1 << 16; // console output is flushed in 64 KB blocks
+
+    // Run a command script instead of the interactive menu
+    // Returns the number of commands that failed
+    private static int runBatch(String scriptPath) {
+        int executed = 0;
+        int failed = 0;
+        long start = System.nanoTime();
+
+        try {
+            Reader source = scriptPath.equals("-")
+                ? new InputStreamReader(System.in)
+                : new FileReader(scriptPath);
+            BufferedReader reader = new BufferedReader(source);
+            try {
+                String line;
+                int lineNumber = 0;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    line = stripBatchComment(line.trim());
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    executed++;
+                    try {
+                        if (!runBatchCommand(line.split(",", -1))) {
+                            failed++;
+                            System.out.println("  (line " + lineNumber + ": " + line + ")");
+                        }
+                    } catch (Exception e) {
+                        failed++;
+                        System.out.println("Error: line " + lineNumber + ": " + e.getMessage());
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            System.out.println("Error: Could not read batch script " + scriptPath + ": " + e.getMessage());
+            failed++;
+        }
+
+        // Everything the script changed must be on disk before we report success
+        try {
+            if (journal != null) {
+                journal.flush();
+            }
+        } catch (IOException e) {
+            System.out.println("Warning: Journal could not be written: " + e.getMessage());
+            failed++;
+        }
+        shutdownPersistence();
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Batch complete: " + executed + " commands, " + failed + " failed, "
+            + elapsedMillis + " ms (" + (executed * 1000L / Math.max(1, elapsedMillis)) + " commands/s)");
+        return failed;
+    }
+
+    // Execute one batch command - returns false (after printing the reason) if it failed
+    private static boolean runBatchCommand(String[] args) throws IOException {
+        for (int i = 0; i < args.length; i++) {
+            args[i] = args[i].trim();
+        }
+
+        switch (args[0].toLowerCase()) {
+            case "vehicle-add": {
+                requireBatchArgs(args, 5);
+                String regNumber = args[1];
+                String type = args[2];
+                int mileage = Integer.parseInt(args[3]);
+                double fuelUsage = Double.parseDouble(args[4]);
+                String driverId = args.length > 5 && !args[5].isEmpty() ? args[5] : "UNASSIGNED";
+                if (Vehicle.typeCode(type) == Vehicle.OTHER) {
+                    System.out.println("Error: Vehicle type must be either 'Truck' or 'Van'");
+                    return false;
+                }
+                if (mileage < 0 || fuelUsage <= 0) {
+                    System.out.println("Error: Mileage cannot be negative and fuel usage must be greater than 0");
+                    return false;
+                }
+                synchronized (dataLock) {
+                    if (vehicleTree.searchByRegistration(regNumber) != null) {
+                        System.out.println("Error: Vehicle with registration " + regNumber + " already exists!");
+                        return false;
+                    }
+                    vehicleTree.insert(new Vehicle(regNumber, type, mileage, fuelUsage, driverId));
+                    journalChange("VA", regNumber, type, mileage, fuelUsage, driverId);
+                    recordOdometer(regNumber, mileage);
+                }
+                return true;
+            }
+            case "vehicle-remove": {
+                requireBatchArgs(args, 2);
+                synchronized (dataLock) {
+                    if (!vehicleTree.remove(args[1])) {
+                        System.out.println("Error: Vehicle with registration " + args[1] + " not found!");
+                        return false;
+                    }
+                    journalChange("VR", args[1]);
+                }
+                return true;
+            }
+            case "vehicle-find": {
+                requireBatchArgs(args, 2);
+                Vehicle found = vehicleTree.searchByRegistration(args[1]);
+                if (found == null) {
+                    System.out.println("Error: Vehicle with registration " + args[1] + " not found.");
+                    return false;
+                }
+                found.displayInfo();
+                return true;
+            }
+            case "vehicle-list":
+                vehicleTree.displayAllVehicles();
+                return true;
+            case "vehicle-fuel": {
+                requireBatchArgs(args, 3);
+                double fuelUsage = Double.parseDouble(args[2]);
+                if (fuelUsage <= 0) {
+                    System.out.println("Error: Fuel usage must be greater than 0");
+                    return false;
+                }
+                synchronized (dataLock) {
+                    if (vehicleTree.updateFuelUsage(args[1], fuelUsage) == null) {
+                        System.out.println("Error: Vehicle with registration " + args[1] + " not found.");
+                        return false;
+                    }
+                    journalChange("VF", args[1], fuelUsage);
+                }
+                return true;
+            }
+            case "driver-add": {
+                requireBatchArgs(args, 5);
+                int experience = Integer.parseInt(args[3]);
+                synchronized (dataLock) {
+                    if (driverQueue.driverExists(args[1])) {
+                        System.out.println("Error: Driver with ID '" + args[1] + "' already exists in the system!");
+                        return false;
+                    }
+                    driverQueue.enqueue(new Driver(args[1], args[2], experience, args[4]));
+                    journalChange("DA", args[1], args[2], experience, args[4]);
+                }
+                return true;
+            }
+            case "driver-assign": {
+                synchronized (dataLock) {
+                    Driver assigned = args.length > 1 && !args[1].isEmpty()
+                        ? driverQueue.dequeueNearest(args[1], towns) : driverQueue.dequeue();
+                    if (assigned == null) {
+                        return false;
+                    }
+                    journalChange("DD", assigned.driverId);
+                }
+                return true;
+            }
+            case "driver-list":
+                driverQueue.displayAvailableDrivers();
+                return true;
+            case "delivery-add": {
+                requireBatchArgs(args, 6);
+                synchronized (dataLock) {
+                    if (deliveryQueue.deliveryExists(args[1])) {
+                        System.out.println("Error: Delivery with Package ID '" + args[1] + "' already exists in the system!");
+                        return false;
+                    }
+                    Vehicle vehicle = vehicleTree.searchByRegistration(args[4]);
+                    if (vehicle == null) {
+                        System.out.println("Error: Vehicle with registration " + args[4] + " not found!");
+                        return false;
+                    }
+                    String eta = args.length > 6 && !args[6].isEmpty() ? args[6] : estimateEta(args[2], args[3], vehicle);
+                    if (eta == null) {
+                        System.out.println("Error: No road route known from " + args[2] + " to " + args[3] + " - give the time");
+                        return false;
+                    }
+                    Delivery delivery = new Delivery(args[1], args[2], args[3], args[4], args[5], eta);
+                    if (!deliveryQueue.enqueue(delivery)) {
+                        return false;
+                    }
+                    journalChange("PA", args[1], args[2], args[3], args[4], args[5], delivery.eta);
+                }
+                return true;
+            }
+            case "delivery-process": {
+                boolean byRoute = args.length > 1 && args[1].equalsIgnoreCase("auto");
+                int additionalMileage = !byRoute && args.length > 1 && !args[1].isEmpty() ? Integer.parseInt(args[1]) : 0;
+                if (additionalMileage < 0) {
+                    System.out.println("Error: Mileage cannot be negative!");
+                    return false;
+                }
+                synchronized (dataLock) {
+                    Delivery delivery = deliveryQueue.dequeueEarliest();
+                    if (delivery == null) {
+                        System.out.println("No deliveries to process!");
+                        return false;
+                    }
+                    journalChange("PD", delivery.packageId);
+                    if (byRoute) {
+                        additionalMileage = routeMileage(delivery);
+                        if (additionalMileage < 0) {
+                            System.out.println("Warning: No road route known from " + delivery.origin + " to "
+                                + delivery.destination + " - mileage not added");
+                            additionalMileage = 0;
+                        }
+                    }
+                    if (additionalMileage > 0) {
+                        // Same bookkeeping as the interactive mileage update after a delivery
+                        if (vehicleTree.searchByRegistration(delivery.assignedVehicle) == null) {
+                            System.out.println("Error: Vehicle not found for mileage update.");
+                            return false;
+                        }
+                        accrueMileage(new String[] {delivery.assignedVehicle}, new int[] {additionalMileage}, 1);
+                    }
+                }
+                reportMaintenanceAlerts();
+                return true;
+            }
+            case "delivery-close-out": {
+                int max = args.length > 1 && !args[1].isEmpty() ? Integer.parseInt(args[1]) : Integer.MAX_VALUE;
+                if (max <= 0) {
+                    System.out.println("Error: Number of deliveries must be greater than 0");
+                    return false;
+                }
+                MileageTally tally = new MileageTally();
+                Delivery[] processed = processDeliveries(max, tally, new long[1]);
+                System.out.println("Closed out " + processed.length + " deliveries, " + tally.size() + " vehicles updated");
+                reportMaintenanceAlerts();
+                return true;
+            }
+            case "delivery-plan": {
+                LoadPlan plan = planVehicleLoads();
+                if (plan == null) {
+                    System.out.println("Error: No pending deliveries or vehicles to plan with.");
+                    return false;
+                }
+                displayLoadPlan(plan);
+                if (args.length > 1 && args[1].equalsIgnoreCase("apply")) {
+                    System.out.println("Reassigned " + applyLoadPlan(plan, new long[1]) + " deliveries");
+                }
+                return true;
+            }
+            case "delivery-list":
+                if (args.length > 1 && args[1].equalsIgnoreCase("deadline")) {
+                    displayDeliveriesByDeadline();
+                } else {
+                    deliveryQueue.displayPendingDeliveries();
+                }
+                return true;
+            case "delivery-reschedule": {
+                requireBatchArgs(args, 3);
+                if (DeliveryScheduler.deadlineMinutes(args[2], FleetClock.nowMinutes()) == DeliveryScheduler.NO_DEADLINE) {
+                    System.out.println("Error: Time must be HH:mm or yyyy-MM-dd HH:mm");
+                    return false;
+                }
+                synchronized (dataLock) {
+                    Delivery delivery = deliveryQueue.reschedule(args[1], args[2]);
+                    if (delivery == null) {
+                        System.out.println("Error: Delivery " + args[1] + " not found!");
+                        return false;
+                    }
+                    journalChange("PE", args[1], delivery.eta);
+                }
+                return true;
+            }
+            case "delivery-cancel": {
+                requireBatchArgs(args, 2);
+                synchronized (dataLock) {
+                    if (deliveryQueue.removeById(args[1]) == null) {
+                        System.out.println("Error: Delivery " + args[1] + " not found!");
+                        return false;
+                    }
+                    journalChange("PC", args[1]);
+                }
+                return true;
+            }
+            case "maintenance-add": {
+                requireBatchArgs(args, 3);
+                int mileage = Integer.parseInt(args[2]);
+                if (mileage < 0) {
+                    System.out.println("Error: Mileage cannot be negative!");
+                    return false;
+                }
+                synchronized (dataLock) {
+                    if (vehicleTree.searchByRegistration(args[1]) == null) {
+                        System.out.println("Error: Vehicle with registration " + args[1] + " not found!");
+                        return false;
+                    }
+                    if (maintenanceScheduler.taskExists(args[1], mileage)) {
+                        System.out.println("Error: Maintenance task for vehicle '" + args[1] + "' with mileage " + mileage + " already exists!");
+                        return false;
+                    }
+                    MaintenanceTask task = new MaintenanceTask(args[1], mileage);
+                    if (!maintenanceScheduler.addTask(task)) {
+                        return false;
+                    }
+                    journalChange("MA", args[1], mileage, task.getId());
+                }
+                return true;
+            }
+            case "maintenance-process": {
+                synchronized (dataLock) {
+                    MaintenanceTask processed = maintenanceScheduler.pollNextTask();
+                    if (processed == null) {
+                        System.out.println("No maintenance tasks available.");
+                        return false;
+                    }
+                    journalChange("MP", processed.getId());
+                }
+                return true;
+            }
+            case "maintenance-list":
+                maintenanceScheduler.showAllTasks();
+                return true;
+            case "maintenance-record": {
+                requireBatchArgs(args, 5);
+                if (vehicleTree.searchByRegistration(args[1]) == null) {
+                    System.out.println("Error: Vehicle with registration " + args[1] + " not found!");
+                    return false;
+                }
+                maintenanceHistory.append(new MaintenanceRecord(args[1], args[2], args[3], Double.parseDouble(args[4])));
+                return true;
+            }
+            case "maintenance-history": {
+                String vehicle = args.length > 1 && !args[1].isEmpty() ? args[1] : null;
+                String from = args.length > 2 && !args[2].isEmpty() ? args[2] : null;
+                String to = args.length > 3 && !args[3].isEmpty() ? args[3] : null;
+                displayMaintenanceHistory(vehicle, from, to);
+                return true;
+            }
+            case "maintenance-costs": {
+                String target = args.length > 1 && !args[1].isEmpty() ? args[1] : null;
+                if ("parts".equalsIgnoreCase(target) || "vehicles".equalsIgnoreCase(target)) {
+                    int n = args.length > 2 && !args[2].isEmpty() ? Integer.parseInt(args[2]) : 10;
+                    displayTopMaintenanceCosts(target.equalsIgnoreCase("parts"), n);
+                } else {
+                    String from = args.length > 2 && !args[2].isEmpty() ? args[2] : null;
+                    String to = args.length > 3 && !args[3].isEmpty() ? args[3] : null;
+                    displayMonthlyMaintenanceCosts(target, from, to);
+                }
+                return true;
+            }
+            case "sync":
+                if (journal != null) {
+                    journal.flush();
+                }
+                return true;
+            case "save":
+                saveAllDataToFiles();
+                return true;
+            case "report": {
+                String format = args.length > 1 && !args[1].isEmpty() ? args[1] : "text";
+                return writeSystemReport(SystemReport.Format.valueOf(format.toUpperCase()));
+            }
+            default:
+                System.out.println("Error: Unknown command '" + args[0] + "'");
+                return false;
+        }
+    }
+
+    // Cut off a comment: "#" at the start of the line or after a space or tab, up to the end of the line
+    private static String stripBatchComment(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '#' && (i == 0 || line.charAt(i - 1) == ' ' || line.charAt(i - 1) == '\t')) {
+                return line.substring(0, i).trim();
+            }
+        }
+        return line;
+    }
+
+    // Check that a batch command has at least the given number of fields (command name included)
+    private static void requireBatchArgs(String[] args, int count) {
+        if (args.length < count) {
+            throw new IllegalArgumentException(args[0] + " needs " + (count - 1) + " arguments, got " + (args.length - 1));
+        }
+    }
+
     // ===== SUB-MENU METHODS =====
 
     // Vehicle Management Sub-Menu
@@ -235,10 +1080,15 @@ public class Main {
                 System.out.println("=".repeat(60));
                 System.out.println("  1. Create New Delivery Record");
                 System.out.println("  2. View Pending Deliveries");
-                System.out.println("  3. Process Next Delivery");
-                System.out.println("  4. ← Back to Main Menu");
+                System.out.println("  3. Process Next Delivery (earliest deadline)");
+                System.out.println("  4. Process Deliveries in Bulk (route mileage)");
+                System.out.println("  5. Plan Vehicle Loads");
+                System.out.println("  6. View Deliveries by Deadline");
+                System.out.println("  7. Reschedule or Cancel Delivery");
+                System.out.println("  8. Automatic Mileage from Routes: " + (automaticMileage ? "ON" : "OFF"));
+                System.out.println("  9. ← Back to Main Menu");
                 System.out.println("=".repeat(60));
-                System.out.print("Enter your choice (1-4): ");
+                System.out.print("Enter your choice (1-9): ");
 
                 int choice = getIntInputSafe();
                 
@@ -253,9 +1103,26 @@ public class Main {
                         processNextDelivery();
                         break;
                     case 4:
+                        processDeliveriesInBulk();
+                        break;
+                    case 5:
+                        planVehicleLoadsMenu();
+                        break;
+                    case 6:
+                        viewDeliveriesByDeadline();
+                        break;
+                    case 7:
+                        rescheduleOrCancelDelivery();
+                        break;
+                    case 8:
+                        automaticMileage = !automaticMileage;
+                        System.out.println("Automatic mileage is now " + (automaticMileage ? "ON" : "OFF")
+                            + (automaticMileage ? " - completed deliveries add their road distance." : " - mileage is asked for each delivery."));
+                        break;
+                    case 9:
                         return; // Go back to main menu
                     default:
-                        System.out.println(" Invalid option. Please enter a number between 1-4.");
+                        System.out.println(" Invalid option. Please enter a number between 1-9.");
                 }
             } catch (Exception e) {
                 System.out.println(" Error in delivery operations: " + e.getMessage());
@@ -275,9 +1142,11 @@ public class Main {
                 System.out.println("  3. View Scheduled Maintenance");
                 System.out.println("  4. Process Next Maintenance Task");
                 System.out.println("  5. Check Vehicle Maintenance Due");
-                System.out.println("  6. ← Back to Main Menu");
+                System.out.println("  6. View Maintenance History");
+                System.out.println("  7. Maintenance Cost Analytics");
+                System.out.println("  8. ← Back to Main Menu");
                 System.out.println("=".repeat(60));
-                System.out.print("Enter your choice (1-6): ");
+                System.out.print("Enter your choice (1-8): ");
 
                 int choice = getIntInputSafe();
                 
@@ -298,9 +1167,15 @@ public class Main {
                         checkVehicleMaintenanceDue();
                         break;
                     case 6:
+                        viewMaintenanceHistory();
+                        break;
+                    case 7:
+                        viewMaintenanceCosts();
+                        break;
+                    case 8:
                         return; // Go back to main menu
                     default:
-                        System.out.println("Error: Invalid option. Please enter a number between 1-6.");
+                        System.out.println("Error: Invalid option. Please enter a number between 1-8.");
                 }
             } catch (Exception e) {
                 System.out.println("Error in maintenance management: " + e.getMessage());
@@ -319,9 +1194,10 @@ public class Main {
                 System.out.println("  2. View Fuel Outliers");
                 System.out.println("  3. Filter Vehicles by Fuel Performance");
                 System.out.println("  4. Sort Vehicles by Fuel Efficiency");
-                System.out.println("  5. ← Back to Main Menu");
+                System.out.println("  5. Record Fuel Reading");
+                System.out.println("  6. ← Back to Main Menu");
                 System.out.println("=".repeat(60));
-                System.out.print("Enter your choice (1-5): ");
+                System.out.print("Enter your choice (1-6): ");
 
                 int choice = getIntInputSafe();
                 
@@ -339,9 +1215,12 @@ public class Main {
                         sortVehiclesByFuelEfficiency();
                         break;
                     case 5:
+                        recordFuelReading();
+                        break;
+                    case 6:
                         return; // Go back to main menu
                     default:
-                        System.out.println("Error: Invalid option. Please enter a number between 1-5.");
+                        System.out.println("Error: Invalid option. Please enter a number between 1-6.");
                 }
             } catch (Exception e) {
                 System.out.println("Error in fuel efficiency reports: " + e.getMessage());
@@ -442,7 +1321,7 @@ public class Main {
             String type = getStringInputSafe("Enter Vehicle Type (Truck/Van): ");
             
             // Input validation - ensure data integrity
-            if (!type.equalsIgnoreCase("Truck") && !type.equalsIgnoreCase("Van")) {
+            if (Vehicle.typeCode(type) == Vehicle.OTHER) {
                 System.out.println("Error: Error: Vehicle type must be either 'Truck' or 'Van'");
                 pauseForUser();
                 return;
@@ -473,11 +1352,16 @@ public class Main {
             }
             
             Vehicle newVehicle = new Vehicle(regNumber, type, mileage, fuelUsage, driverId);
-            vehicleTree.insert(newVehicle);
+            long lsn;
+            synchronized (dataLock) {
+                vehicleTree.insert(newVehicle);
+                lsn = journalChange("VA", regNumber, type, mileage, fuelUsage, driverId);
+                recordOdometer(regNumber, mileage);
+            }
             
-            // Automatically save the updated vehicle data to file
+            // Automatically save the change to the journal
             try {
-                saveVehiclesToFile();
+                awaitJournal(lsn);
             } catch (IOException e) {
                 System.out.println("Warning: Vehicle added but failed to save to file: " + e.getMessage());
             }
@@ -511,8 +1395,21 @@ public class Main {
             Vehicle.displayTableFooter();
             
             if (getConfirmation("\nAre you sure you want to remove this vehicle?")) {
-                if (vehicleTree.remove(regNumber)) {
+                boolean removed;
+                long lsn = 0;
+                synchronized (dataLock) {
+                    removed = vehicleTree.remove(regNumber);
+                    if (removed) {
+                        lsn = journalChange("VR", regNumber);
+                    }
+                }
+                if (removed) {
                     System.out.println("Success: Vehicle removed successfully!");
+                    try {
+                        awaitJournal(lsn);
+                    } catch (IOException e) {
+                        System.out.println("Warning: Vehicle removed but failed to save to file: " + e.getMessage());
+                    }
                 } else {
                     System.out.println("Error: Error: Failed to remove vehicle.");
                 }
@@ -610,11 +1507,15 @@ public class Main {
             String location = getStringInputSafe("Enter Location/Base: ");
             
             Driver newDriver = new Driver(driverId, name, experience, location);
-            driverQueue.enqueue(newDriver);
+            long lsn;
+            synchronized (dataLock) {
+                driverQueue.enqueue(newDriver);
+                lsn = journalChange("DA", driverId, name, experience, location);
+            }
             
-            // Automatically save the updated driver data to file
+            // Automatically save the change to the journal
             try {
-                saveDriversToFile();
+                awaitJournal(lsn);
             } catch (IOException e) {
                 System.out.println("Warning: Driver added but failed to save to file: " + e.getMessage());
             }
@@ -645,8 +1546,29 @@ public class Main {
     private static void assignDriver() {
         try {
             System.out.println("\n=== Assign Next Available Driver ===");
-            Driver assignedDriver = driverQueue.dequeue();
+            System.out.print("Enter pickup location (or press Enter for the next driver in line): ");
+            String location = scanner.nextLine().trim();
+            Driver assignedDriver;
+            long lsn = 0;
+            synchronized (dataLock) {
+                if (location.isEmpty()) {
+                    assignedDriver = driverQueue.dequeue();
+                } else {
+                    if (driverQueue.countAt(location) == 0 && !driverQueue.isEmpty()) {
+                        System.out.println("No driver waiting in " + location + " - taking the nearest available driver.");
+                    }
+                    assignedDriver = driverQueue.dequeueNearest(location, towns);
+                }
+                if (assignedDriver != null) {
+                    lsn = journalChange("DD", assignedDriver.driverId);
+                }
+            }
             if (assignedDriver != null) {
+                try {
+                    awaitJournal(lsn);
+                } catch (IOException e) {
+                    System.out.println("Warning: Driver assigned but failed to save to file: " + e.getMessage());
+                }
                 System.out.println("Success: Driver assigned:");
                 Driver.displayTableHeader();
                 assignedDriver.displayInfo();
@@ -662,6 +1584,17 @@ public class Main {
         }
     }
 
+    // Estimated arrival (yyyy-MM-dd HH:mm) for a vehicle leaving now on the shortest road route, or null if there is none
+    private static String estimateEta(String origin, String destination, Vehicle vehicle) {
+        Route route = roads.route(origin, destination);
+        return route == null ? null : estimateEta(route, vehicle);
+    }
+
+    private static String estimateEta(Route route, Vehicle vehicle) {
+        double speed = vehicle.typeCode == Vehicle.TRUCK ? TRUCK_SPEED_KMH : VAN_SPEED_KMH;
+        return LocalDateTime.now().plusMinutes(route.travelMinutes(speed)).format(ETA_FORMAT);
+    }
+
     private static void createDeliveryRecord() {
         try {
             System.out.println("\n=== Create Delivery Record ===");
@@ -696,16 +1629,40 @@ public class Main {
             }
             
             String driverId = getStringInputSafe("Enter Driver ID (e.g., DRV001): ");
-            String deliveryTime = getStringInputSafe("Enter Delivery Time: ");
-            
-            Delivery delivery = new Delivery(packageId, origin, destination, vehicleReg, driverId, deliveryTime);
+            
+            // Suggest the arrival time from the shortest road route
+            String deliveryTime;
+            Route route = roads.route(origin, destination);
+            if (route != null) {
+                String estimatedEta = estimateEta(route, vehicle);
+                System.out.println("Route: " + route.describe());
+                System.out.printf("Estimated distance: %.0f km, arrival about %s%n", route.distanceKm, estimatedEta);
+                System.out.print("Enter Delivery Time (press Enter for " + estimatedEta + "): ");
+                deliveryTime = scanner.nextLine().trim();
+                if (deliveryTime.isEmpty()) {
+                    deliveryTime = estimatedEta;
+                }
+            } else {
+                System.out.println("Note: No road route known from " + origin + " to " + destination + ".");
+                deliveryTime = getStringInputSafe("Enter Delivery Time: ");
+            }
+            
+            Delivery delivery = new Delivery(packageId, origin, destination, vehicleReg, driverId, deliveryTime);
             
             // Add delivery to queue
-            deliveryQueue.enqueue(delivery);
+            long lsn;
+            synchronized (dataLock) {
+                if (!deliveryQueue.enqueue(delivery)) {
+                    System.out.println("Error: Delivery record not created - the delivery queue is full.");
+                    pauseForUser();
+                    return;
+                }
+                lsn = journalChange("PA", packageId, origin, destination, vehicleReg, driverId, delivery.eta);
+            }
             
-            // Automatically save the updated delivery data to file
+            // Automatically save the change to the journal
             try {
-                saveDeliveriesToFile();
+                awaitJournal(lsn);
             } catch (IOException e) {
                 System.out.println("Warning: Delivery added but failed to save to file: " + e.getMessage());
             }
@@ -728,8 +1685,10 @@ public class Main {
             System.out.println("\n=== Pending Deliveries ===");
             deliveryQueue.displayPendingDeliveries();
             
-            if (!deliveryQueue.isEmpty()) {
-                System.out.println("\nNote: Deliveries are processed in First-In-First-Out (FIFO) order.");
+            Delivery next = deliveryQueue.peekEarliest();
+            if (next != null) {
+                System.out.println("\nNote: Deliveries are listed in the order they were booked; they are processed");
+                System.out.println("earliest deadline first. Next up: " + next.packageId + " (" + dueText(next, FleetClock.nowMinutes()) + ").");
             }
             pauseForUser();
         } catch (Exception e) {
@@ -738,12 +1697,124 @@ public class Main {
         }
     }
 
+    private static void viewDeliveriesByDeadline() {
+        try {
+            System.out.println("\n=== Deliveries by Deadline ===");
+            displayDeliveriesByDeadline();
+            pauseForUser();
+        } catch (Exception e) {
+            System.out.println("Error: Error viewing deliveries: " + e.getMessage());
+            pauseForUser();
+        }
+    }
+
+    // Pending deliveries in the order they will be processed, with the time left until each ETA
+    private static void displayDeliveriesByDeadline() {
+        Delivery[] deliveries = deliveryQueue.getDeliveriesByDeadline();
+        if (deliveries.length == 0) {
+            System.out.println("No pending deliveries.");
+            return;
+        }
+        long now = FleetClock.nowMinutes();
+        System.out.printf("%-4s %-10s %-30s %-12s %-16s %s%n", "#", "Pkg ID", "Route", "Vehicle", "ETA", "Due");
+        System.out.println("-".repeat(92));
+        for (int i = 0; i < deliveries.length; i++) {
+            Delivery delivery = deliveries[i];
+            System.out.printf("%-4d %-10s %-30s %-12s %-16s %s%n", i + 1, delivery.packageId,
+                delivery.origin + " -> " + delivery.destination, delivery.assignedVehicle, delivery.eta, dueText(delivery, now));
+        }
+    }
+
+    // "in 2h 05m", "overdue 0h 40m" or "no valid ETA"
+    private static String dueText(Delivery delivery, long nowMinutes) {
+        if (delivery.deadline == DeliveryScheduler.NO_DEADLINE) {
+            return "no valid ETA";
+        }
+        long minutes = delivery.deadline - nowMinutes;
+        long abs = Math.abs(minutes);
+        return String.format("%s%dh %02dm", minutes < 0 ? "overdue " : "in ", abs / 60, abs % 60);
+    }
+
+    // Give a pending delivery a new ETA (it moves to its new place in the schedule) or cancel it
+    private static void rescheduleOrCancelDelivery() {
+        try {
+            System.out.println("\n=== Reschedule or Cancel Delivery ===");
+            String packageId = getStringInputSafe("Enter Package ID: ");
+            Delivery delivery = deliveryQueue.findDeliveryById(packageId);
+            if (delivery == null) {
+                System.out.println("Error: Delivery " + packageId + " not found!");
+                pauseForUser();
+                return;
+            }
+            System.out.println("Current ETA: " + delivery.eta + " (" + dueText(delivery, FleetClock.nowMinutes()) + ")");
+            System.out.print("Enter new Delivery Time (HH:mm), C to cancel the delivery, or Enter to keep it: ");
+            String input = scanner.nextLine().trim();
+            long lsn;
+            if (input.isEmpty()) {
+                System.out.println("Delivery unchanged.");
+                pauseForUser();
+                return;
+            } else if (input.equalsIgnoreCase("c")) {
+                if (!getConfirmation("Cancel delivery " + packageId + "?")) {
+                    pauseForUser();
+                    return;
+                }
+                synchronized (dataLock) {
+                    if (deliveryQueue.removeById(packageId) == null) {
+                        System.out.println("Error: Delivery " + packageId + " is no longer pending.");
+                        pauseForUser();
+                        return;
+                    }
+                    lsn = journalChange("PC", packageId);
+                }
+                System.out.println("Success: Delivery " + packageId + " cancelled.");
+            } else {
+                if (DeliveryScheduler.deadlineMinutes(input, FleetClock.nowMinutes()) == DeliveryScheduler.NO_DEADLINE) {
+                    System.out.println("Error: Time must be HH:mm (or yyyy-MM-dd HH:mm).");
+                    pauseForUser();
+                    return;
+                }
+                synchronized (dataLock) {
+                    if (deliveryQueue.reschedule(packageId, input) == null) {
+                        System.out.println("Error: Delivery " + packageId + " is no longer pending.");
+                        pauseForUser();
+                        return;
+                    }
+                    lsn = journalChange("PE", packageId, delivery.eta);
+                }
+                System.out.println("Success: Delivery " + packageId + " now due " + delivery.eta + " ("
+                    + dueText(delivery, FleetClock.nowMinutes()) + ").");
+            }
+            try {
+                awaitJournal(lsn);
+            } catch (IOException e) {
+                System.out.println("Warning: Delivery changed but failed to save to file: " + e.getMessage());
+            }
+            pauseForUser();
+        } catch (Exception e) {
+            System.out.println("Error: Error changing delivery: " + e.getMessage());
+            pauseForUser();
+        }
+    }
+
     private static void processNextDelivery() {
         try {
             System.out.println("\n=== Process Next Delivery ===");
             
-            Delivery nextDelivery = deliveryQueue.dequeue();
+            Delivery nextDelivery;
+            long lsn = 0;
+            synchronized (dataLock) {
+                nextDelivery = deliveryQueue.dequeueEarliest();
+                if (nextDelivery != null) {
+                    lsn = journalChange("PD", nextDelivery.packageId);
+                }
+            }
             if (nextDelivery != null) {
+                try {
+                    awaitJournal(lsn);
+                } catch (IOException e) {
+                    System.out.println("Warning: Delivery processed but failed to save to file: " + e.getMessage());
+                }
                 System.out.println("Success: Processing delivery:");
                 Delivery.displayTableHeader();
                 nextDelivery.displayInfo();
@@ -763,78 +1834,304 @@ public class Main {
     }
 
     private static void updateVehicleMileageAfterDelivery(Delivery delivery) {
-        System.out.print("\nWould you like to update vehicle mileage after this delivery? (y/n): ");
-        String updateChoice = scanner.nextLine();
-        
-        if (updateChoice.equalsIgnoreCase("y") || updateChoice.equalsIgnoreCase("yes")) {
+        int additionalMileage = automaticMileage ? routeMileage(delivery) : -1;
+        if (additionalMileage >= 0) {
+            System.out.println("\nRoad distance " + delivery.origin + " -> " + delivery.destination + ": " + additionalMileage + " km");
+        } else {
+            if (automaticMileage) {
+                System.out.println("\nNo road route known from " + delivery.origin + " to " + delivery.destination + ".");
+            }
+            System.out.print("\nWould you like to update vehicle mileage after this delivery? (y/n): ");
+            String updateChoice = scanner.nextLine();
+            if (!updateChoice.equalsIgnoreCase("y") && !updateChoice.equalsIgnoreCase("yes")) {
+                return;
+            }
             System.out.print("Enter additional mileage for this delivery: ");
-            int additionalMileage = getIntInput();
-            
-            if (additionalMileage > 0) {
-                // Find the vehicle and update its mileage
-                Vehicle vehicle = vehicleTree.searchByRegistration(delivery.assignedVehicle);
-                if (vehicle != null) {
-                    int currentMileage = vehicle.mileage;
-                    vehicle.mileage = currentMileage + additionalMileage;
-                    
-                    // Automatically save the updated vehicle data
-                    try {
-                        saveVehiclesToFile();
-                    } catch (IOException e) {
-                        System.out.println("Warning: Mileage updated but failed to save to file: " + e.getMessage());
-                    }
-                    
-                    // Update maintenance schedules for this vehicle
-                    maintenanceScheduler.updateTasksForVehicle(delivery.assignedVehicle, additionalMileage);
-                    
-                    // Automatically save the updated maintenance data
-                    try {
-                        saveMaintenanceToFile();
-                    } catch (IOException e) {
-                        System.out.println("Warning: Maintenance schedules updated but failed to save to file: " + e.getMessage());
-                    }
-                    
-                    System.out.println("Success: Vehicle mileage updated:");
-                    System.out.println("  Vehicle: " + delivery.assignedVehicle);
-                    System.out.println("  Previous mileage: " + currentMileage + " km");
-                    System.out.println("  Additional mileage: " + additionalMileage + " km");
-                    System.out.println("  New mileage: " + vehicle.mileage + " km");
-                    
-                    // Check if any maintenance is now due or overdue
-                    checkForOverdueMaintenance(delivery.assignedVehicle);
-                } else {
-                    System.out.println("Error: Vehicle not found for mileage update.");
+            additionalMileage = getIntInput();
+        }
+        
+        if (additionalMileage > 0) {
+            // Find the vehicle and update its mileage
+            Vehicle vehicle = vehicleTree.searchByRegistration(delivery.assignedVehicle);
+            if (vehicle != null) {
+                int currentMileage;
+                long lsn;
+                synchronized (dataLock) {
+                    currentMileage = vehicle.mileage;
+                    lsn = accrueMileage(new String[] {delivery.assignedVehicle}, new int[] {additionalMileage}, 1);
                 }
-            } else if (additionalMileage == 0) {
-                System.out.println("No mileage added - vehicle mileage remains unchanged.");
+                
+                // Automatically save both changes (one wait covers both journal records)
+                try {
+                    awaitJournal(lsn);
+                } catch (IOException e) {
+                    System.out.println("Warning: Mileage and maintenance schedules updated but failed to save to file: " + e.getMessage());
+                }
+                
+                System.out.println("Success: Vehicle mileage updated:");
+                System.out.println("  Vehicle: " + delivery.assignedVehicle);
+                System.out.println("  Previous mileage: " + currentMileage + " km");
+                System.out.println("  Additional mileage: " + additionalMileage + " km");
+                System.out.println("  New mileage: " + vehicle.mileage + " km");
+                
+                // Show any maintenance that just became more urgent
+                reportMaintenanceAlerts();
             } else {
-                System.out.println("Error: Mileage cannot be negative!");
+                System.out.println("Error: Vehicle not found for mileage update.");
             }
+        } else if (additionalMileage == 0) {
+            System.out.println("No mileage added - vehicle mileage remains unchanged.");
+        } else {
+            System.out.println("Error: Mileage cannot be negative!");
         }
     }
 
-    // Check if a vehicle has overdue maintenance and display warnings
-    private static void checkForOverdueMaintenance(String vehicleReg) {
-        MaintenanceTask[] allTasks = maintenanceScheduler.getAllTasks();
-        boolean hasOverdueTasks = false;
-        
-        for (MaintenanceTask task : allTasks) {
-            if (task.vehicleNumber.equals(vehicleReg)) {
-                if (task.mileage <= 0) {
-                    if (!hasOverdueTasks) {
-                        System.out.println("\n*** MAINTENANCE ALERT ***");
-                        hasOverdueTasks = true;
+    // Process pending deliveries in bulk: road mileage is added up per vehicle and applied once
+    // per vehicle, the overdue check runs once per vehicle and the journal is waited for once
+    private static void processDeliveriesInBulk() {
+        try {
+            System.out.println("\n=== Process Deliveries in Bulk ===");
+            if (deliveryQueue.isEmpty()) {
+                System.out.println("Error: No pending deliveries to process.");
+                pauseForUser();
+                return;
+            }
+            System.out.print("How many deliveries to process (" + deliveryQueue.size() + " pending, press Enter for all): ");
+            String input = scanner.nextLine().trim();
+            int max = input.isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(input);
+            if (max <= 0) {
+                System.out.println("Error: Enter a number greater than 0.");
+                pauseForUser();
+                return;
+            }
+            
+            MileageTally tally = new MileageTally();
+            long[] lsn = new long[1];
+            Delivery[] processed = processDeliveries(max, tally, lsn);
+            if (processed.length == 0) {
+                System.out.println("Error: No pending deliveries to process.");
+                pauseForUser();
+                return;
+            }
+            try {
+                awaitJournal(lsn[0]); // one wait covers every record of the batch
+            } catch (IOException e) {
+                System.out.println("Warning: Deliveries processed but failed to save to file: " + e.getMessage());
+            }
+            
+            System.out.println("Success: " + processed.length + " deliveries completed, "
+                + tally.size() + " vehicles updated:");
+            String[] vehicles = tally.vehicles();
+            int[] mileage = tally.mileage();
+            for (int i = 0; i < tally.size(); i++) {
+                System.out.printf("  %-12s +%d km%n", vehicles[i], mileage[i]);
+            }
+            int withoutRoute = 0;
+            for (Delivery delivery : processed) {
+                if (routeMileage(delivery) < 0) {
+                    if (withoutRoute++ == 0) {
+                        System.out.println("No road route known - mileage not added for:");
                     }
-                    if (task.mileage <= -500) {
-                        System.out.println("  CRITICAL: Vehicle " + vehicleReg + " is " + Math.abs(task.mileage) + " km OVERDUE for maintenance!");
-                    } else if (task.mileage <= 0) {
-                        System.out.println("  URGENT: Vehicle " + vehicleReg + " needs immediate maintenance!");
+                    System.out.println("  " + delivery.packageId + " (" + delivery.origin + " -> " + delivery.destination + ")");
+                }
+            }
+            reportMaintenanceAlerts();
+            pauseForUser();
+        } catch (NumberFormatException e) {
+            System.out.println("Error: Please enter a valid number.");
+            pauseForUser();
+        } catch (Exception e) {
+            System.out.println("Error: Error processing deliveries: " + e.getMessage());
+            pauseForUser();
+        }
+    }
+
+    // Take up to max deliveries off the queue in one go (earliest deadline first), add their road mileage up per vehicle in
+    // tally and apply it with one tree update per vehicle and one scheduler pass for all of them
+    // Returns the processed deliveries; lsn[0] is set to the last journal record written
+    private static Delivery[] processDeliveries(int max, MileageTally tally, long[] lsn) {
+        synchronized (dataLock) {
+            Delivery[] batch = new Delivery[Math.min(max, deliveryQueue.size())];
+            int taken = deliveryQueue.drainEarliest(batch, batch.length);
+            for (int i = 0; i < taken; i++) {
+                lsn[0] = journalChange("PD", batch[i].packageId);
+                int mileage = routeMileage(batch[i]);
+                if (mileage > 0) {
+                    tally.add(batch[i].assignedVehicle, mileage);
+                }
+            }
+            if (tally.size() > 0) {
+                lsn[0] = Math.max(lsn[0], accrueMileage(tally.vehicles(), tally.mileage(), tally.size()));
+            }
+            return taken == batch.length ? batch : Arrays.copyOf(batch, taken);
+        }
+    }
+
+    // Pack the pending deliveries onto vehicles by corridor and show the plan; on confirmation
+    // every delivery is reassigned to its planned vehicle (its driver stays the same)
+    private static void planVehicleLoadsMenu() {
+        try {
+            System.out.println("\n=== Plan Vehicle Loads ===");
+            LoadPlan plan = planVehicleLoads();
+            if (plan == null) {
+                System.out.println("Error: No pending deliveries or vehicles to plan with.");
+                pauseForUser();
+                return;
+            }
+            displayLoadPlan(plan);
+            if (plan.loads.length > 0 && getConfirmation("\nApply this plan and reassign the deliveries?")) {
+                long[] lsn = new long[1];
+                int reassigned = applyLoadPlan(plan, lsn);
+                try {
+                    awaitJournal(lsn[0]);
+                } catch (IOException e) {
+                    System.out.println("Warning: Plan applied but failed to save to file: " + e.getMessage());
+                }
+                System.out.println("Success: " + reassigned + " deliveries reassigned.");
+            }
+            pauseForUser();
+        } catch (Exception e) {
+            System.out.println("Error: Error planning vehicle loads: " + e.getMessage());
+            pauseForUser();
+        }
+    }
+
+    // Plan loads for all pending deliveries over the whole fleet, or null if either is empty
+    private static LoadPlan planVehicleLoads() {
+        synchronized (dataLock) {
+            Delivery[] pending = deliveryQueue.getAllDeliveries();
+            Vehicle[] vehicles = vehicleTree.getAllVehicles(); // lowest mileage first
+            if (pending.length == 0 || vehicles.length == 0) {
+                return null;
+            }
+            return LoadPlanner.plan(pending, vehicles);
+        }
+    }
+
+    private static void displayLoadPlan(LoadPlan plan) {
+        System.out.printf("%-12s %-6s %-14s %-30s %8s %7s%n", "Vehicle", "Type", "Origin", "Destinations", "Parcels", "Fill %");
+        System.out.println("-".repeat(82));
+        for (LoadPlan.Load load : plan.loads) {
+            System.out.printf("%-12s %-6s %-14s %-30s %4d/%-3d %6.1f%n", load.vehicle.registrationNumber,
+                load.vehicle.getType(), load.origin, destinationsOf(load), load.size(), load.capacity, load.fillPercent());
+        }
+        System.out.println("-".repeat(82));
+        System.out.printf("%d deliveries on %d vehicles, average fill %.1f%%, planned in %.2f ms%n",
+            plan.plannedCount(), plan.loads.length, plan.averageFillPercent(), plan.planningMillis);
+        if (plan.unplanned.length > 0) {
+            System.out.println("Not enough vehicles - " + plan.unplanned.length + " deliveries left unplanned:");
+            for (Delivery delivery : plan.unplanned) {
+                System.out.println("  " + delivery.packageId + " (" + delivery.origin + " -> " + delivery.destination + ")");
+            }
+        }
+    }
+
+    // Distinct destinations of a load, e.g. "Kumasi/Tema"
+    private static String destinationsOf(LoadPlan.Load load) {
+        Delivery[] deliveries = load.deliveries();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < deliveries.length; i++) {
+            boolean seen = false;
+            for (int j = 0; j < i && !seen; j++) {
+                seen = deliveries[j].destinationCode == deliveries[i].destinationCode;
+            }
+            if (!seen) {
+                sb.append(sb.length() == 0 ? "" : "/").append(deliveries[i].destination);
+            }
+        }
+        return sb.toString();
+    }
+
+    // Reassign every planned delivery to its vehicle, journaling each move
+    // Returns the number of deliveries that changed vehicle; lsn[0] is set to the last journal record
+    private static int applyLoadPlan(LoadPlan plan, long[] lsn) {
+        int reassigned = 0;
+        synchronized (dataLock) {
+            for (LoadPlan.Load load : plan.loads) {
+                // The driver goes with the vehicle, so one vehicle never carries deliveries for several drivers
+                String vehicle = load.vehicle.registrationNumber;
+                String driver = load.vehicle.driverId;
+                for (Delivery delivery : load.deliveries()) {
+                    if ((vehicle.equals(delivery.assignedVehicle) && driver.equals(delivery.assignedDriver))
+                            || deliveryQueue.findDeliveryById(delivery.packageId) != delivery) {
+                        continue; // already on this vehicle, or processed since the plan was made
                     }
+                    deliveryQueue.reassign(delivery.packageId, vehicle, driver);
+                    lsn[0] = journalChange("PV", delivery.packageId, vehicle, driver);
+                    reassigned++;
                 }
             }
         }
-        
-        if (hasOverdueTasks) {
+        return reassigned;
+    }
+
+    // Road distance of a delivery in whole km, or -1 if no route is known
+    private static int routeMileage(Delivery delivery) {
+        double distance = roads.distanceKm(delivery.originCode, delivery.destinationCode);
+        return distance == RoadNetwork.NO_ROUTE ? -1 : (int) Math.round(distance);
+    }
+
+    // Add driven mileage to vehicles and their maintenance schedules, journaling every change
+    // The scheduler is updated for all vehicles in one pass; unknown vehicles are skipped
+    // Call while holding dataLock. Returns the LSN of the last journal record (0 if none)
+    private static long accrueMileage(String[] vehicles, int[] mileage, int count) {
+        long lsn = 0;
+        String[] readVehicles = new String[count];
+        int[] readings = new int[count];
+        int read = 0;
+        for (int i = 0; i < count; i++) {
+            if (mileage[i] <= 0) {
+                continue;
+            }
+            Vehicle vehicle = vehicleTree.searchByRegistration(vehicles[i]);
+            if (vehicle == null) {
+                System.out.println("Warning: Vehicle " + vehicles[i] + " not found for mileage update.");
+                mileage[i] = 0;
+                continue;
+            }
+            vehicleTree.updateMileage(vehicles[i], vehicle.mileage + mileage[i]);
+            lsn = journalChange("VM", vehicles[i], vehicle.mileage);
+            readVehicles[read] = vehicles[i];
+            readings[read++] = vehicle.mileage;
+        }
+        // New readings first, so the tasks are projected from the updated km/day
+        try {
+            odometerLog.recordAll(readVehicles, readings, read, FleetClock.nowMinutes());
+        } catch (IOException e) {
+            System.out.println("Warning: Odometer readings could not be saved: " + e.getMessage());
+        }
+        maintenanceScheduler.updateTasksForVehicles(vehicles, mileage, count);
+        for (int i = 0; i < count; i++) {
+            if (mileage[i] > 0) {
+                lsn = journalChange("MU", vehicles[i], mileage[i]);
+            }
+        }
+        return lsn;
+    }
+
+    // Record a vehicle's odometer reading now (new vehicles - later readings come from accrueMileage)
+    private static void recordOdometer(String vehicleReg, int mileage) {
+        try {
+            odometerLog.record(vehicleReg, mileage, FleetClock.nowMinutes());
+        } catch (IOException e) {
+            System.out.println("Warning: Odometer reading could not be saved: " + e.getMessage());
+        }
+    }
+
+    // Print the maintenance alerts raised by mileage updates since the last report
+    // Each task is reported once per band it enters (MEDIUM, HIGH, CRITICAL, DUE)
+    private static void reportMaintenanceAlerts() {
+        MaintenanceAlert[] alerts = maintenanceScheduler.drainAlerts();
+        if (alerts.length == 0) {
+            return;
+        }
+        System.out.println("\n*** MAINTENANCE ALERT ***");
+        boolean urgent = false;
+        for (MaintenanceAlert alert : alerts) {
+            System.out.println("  " + alert.describe());
+            urgent |= alert.remainingKm <= MaintenanceAlertWheel.CRITICAL_KM;
+        }
+        if (urgent) {
             System.out.println("  Recommendation: Schedule maintenance immediately to prevent breakdowns.");
         }
     }
@@ -843,18 +2140,19 @@ public class Main {
         try {
             System.out.println("\n=== Create Maintenance Record ===");
             
+            String vehicleReg = getStringInputSafe("Enter Vehicle Registration Number: ");
+            if (vehicleTree.searchByRegistration(vehicleReg) == null) {
+                System.out.println("Error: Vehicle with registration " + vehicleReg + " not found!");
+                pauseForUser();
+                return;
+            }
             String date = getStringInputSafe("Enter Maintenance Date (YYYY-MM-DD): ");
             String serviceType = getStringInputSafe("Enter Service Type (e.g., Oil Change, Brake Pads, etc.): ");
             
             System.out.print("Enter Cost: GH₵");
             double cost = getDoubleInput();
             
-            MaintenanceRecord maintenance = new MaintenanceRecord(date, serviceType, cost);
-            
-            System.out.println("\nSuccess: Maintenance record created successfully!");
-            MaintenanceRecord.displayTableHeader();
-            maintenance.displayInfo();
-            MaintenanceRecord.displayTableFooter();
+            saveMaintenanceRecord(new MaintenanceRecord(vehicleReg, date, serviceType, cost));
             pauseForUser();
             
         } catch (Exception e) {
@@ -898,11 +2196,18 @@ public class Main {
         }
         
         MaintenanceTask task = new MaintenanceTask(vehicleReg, mileage);
-        maintenanceScheduler.addTask(task);
+        long lsn;
+        synchronized (dataLock) {
+            if (!maintenanceScheduler.addTask(task)) {
+                System.out.println("Error: Maintenance task not scheduled - the scheduler is full.");
+                return;
+            }
+            lsn = journalChange("MA", vehicleReg, mileage, task.getId());
+        }
         
-        // Automatically save the updated maintenance data to file
+        // Automatically save the change to the journal
         try {
-            saveMaintenanceToFile();
+            awaitJournal(lsn);
         } catch (IOException e) {
             System.out.println("Warning: Maintenance task added but failed to save to file: " + e.getMessage());
         }
@@ -926,14 +2231,28 @@ public class Main {
 
     private static void processNextMaintenanceTask() {
         System.out.println("\n=== Process Next Maintenance Task ===");
-        maintenanceScheduler.processNextTask();
+        MaintenanceTask processed;
+        long lsn = 0;
+        synchronized (dataLock) {
+            processed = maintenanceScheduler.processNextTask();
+            if (processed != null) {
+                lsn = journalChange("MP", processed.getId());
+            }
+        }
+        if (processed != null) {
+            try {
+                awaitJournal(lsn);
+            } catch (IOException e) {
+                System.out.println("Warning: Maintenance task processed but failed to save to file: " + e.getMessage());
+            }
+        }
         
-        if (!maintenanceScheduler.isEmpty()) {
+        if (processed != null) {
             System.out.print("\nWould you like to create a maintenance record for this service? (y/n): ");
             String createRecord = scanner.nextLine();
             
             if (createRecord.equalsIgnoreCase("y") || createRecord.equalsIgnoreCase("yes")) {
-                createMaintenanceRecordAfterService();
+                createMaintenanceRecordAfterService(processed.vehicleNumber);
             }
         }
     }
@@ -946,7 +2265,7 @@ public class Main {
             return;
         }
         
-        System.out.println("Current maintenance priorities (lower mileage = higher priority):");
+        System.out.println("Current maintenance priorities (earliest projected due date first, from each vehicle's km/day):");
         System.out.println("=".repeat(60));
         maintenanceScheduler.showAllTasks();
         
@@ -957,11 +2276,15 @@ public class Main {
         System.out.println("   2000+ km:    LOW - Monitor for future service");
     }
 
-    private static void createMaintenanceRecordAfterService() {
+    private static void createMaintenanceRecordAfterService(String vehicleReg) {
         System.out.println("\n=== Create Maintenance Record After Service ===");
+        System.out.println("Vehicle: " + vehicleReg);
         
-        System.out.print("Enter Service Date (YYYY-MM-DD): ");
-        String date = scanner.nextLine();
+        System.out.print("Enter Service Date (YYYY-MM-DD, press Enter for today): ");
+        String date = scanner.nextLine().trim();
+        if (date.isEmpty()) {
+            date = LocalDate.now().toString();
+        }
         
         System.out.print("Enter Service Type (e.g., Oil Change, Brake Service, etc.): ");
         String serviceType = scanner.nextLine();
@@ -969,10 +2292,143 @@ public class Main {
         System.out.print("Enter Cost: GH₵");
         double cost = getDoubleInput();
         
-        MaintenanceRecord maintenance = new MaintenanceRecord(date, serviceType, cost);
-        
-        System.out.println("\nSuccess: Maintenance record created successfully!");
-        maintenance.displayInfo();
+        saveMaintenanceRecord(new MaintenanceRecord(vehicleReg, date, serviceType, cost));
+    }
+
+    // Append a service to the maintenance history and show it with the vehicle's totals
+    private static void saveMaintenanceRecord(MaintenanceRecord record) {
+        try {
+            maintenanceHistory.append(record);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            return;
+        } catch (IOException e) {
+            System.out.println("Error: Maintenance record could not be saved: " + e.getMessage());
+            return;
+        }
+        System.out.println("\nSuccess: Maintenance record saved to the vehicle's history!");
+        MaintenanceRecord.displayTableHeader();
+        record.displayInfo();
+        MaintenanceRecord.displayTableFooter();
+        System.out.printf("%s: %d service(s), GH₵%.2f in total%n", record.vehicleNumber,
+            maintenanceHistory.serviceCount(record.vehicleNumber), maintenanceHistory.totalCost(record.vehicleNumber));
+    }
+
+    private static void viewMaintenanceHistory() {
+        try {
+            System.out.println("\n=== Maintenance History ===");
+            System.out.print("Enter Vehicle Registration Number (press Enter for the whole fleet): ");
+            String vehicleReg = scanner.nextLine().trim();
+            System.out.print("From date (YYYY-MM-DD, press Enter for the first record): ");
+            String from = scanner.nextLine().trim();
+            System.out.print("To date (YYYY-MM-DD, press Enter for the last record): ");
+            String to = scanner.nextLine().trim();
+            if ((!from.isEmpty() && MaintenanceHistoryStore.dateKey(from) < 0)
+                    || (!to.isEmpty() && MaintenanceHistoryStore.dateKey(to) < 0)) {
+                System.out.println("Error: Dates must be YYYY-MM-DD.");
+                pauseForUser();
+                return;
+            }
+            displayMaintenanceHistory(vehicleReg.isEmpty() ? null : vehicleReg, from.isEmpty() ? null : from, to.isEmpty() ? null : to);
+            pauseForUser();
+        } catch (Exception e) {
+            System.out.println("Error: Error reading maintenance history: " + e.getMessage());
+            pauseForUser();
+        }
+    }
+
+    // Services in a date range (null = open end) for one vehicle, or the whole fleet if vehicleReg is null
+    private static void displayMaintenanceHistory(String vehicleReg, String from, String to) throws IOException {
+        MaintenanceRecord[] records = vehicleReg == null
+            ? maintenanceHistory.between(from, to)
+            : maintenanceHistory.history(vehicleReg, from, to);
+        if (records.length == 0) {
+            System.out.println("No maintenance records found.");
+        } else {
+            MaintenanceRecord.displayTable(records);
+            double cost = 0;
+            for (MaintenanceRecord record : records) {
+                cost += record.cost;
+            }
+            System.out.printf("%d service(s), GH₵%.2f%n", records.length, cost);
+        }
+        if (vehicleReg != null) {
+            MaintenanceRecord last = maintenanceHistory.lastService(vehicleReg);
+            System.out.printf("All time for %s: %d service(s), GH₵%.2f, last service %s%n", vehicleReg,
+                maintenanceHistory.serviceCount(vehicleReg), maintenanceHistory.totalCost(vehicleReg),
+                last == null ? "never" : last.date + " (" + last.partReplaced + ")");
+        }
+    }
+
+    private static void viewMaintenanceCosts() {
+        try {
+            System.out.println("\n=== Maintenance Cost Analytics ===");
+            System.out.println("  1. Spend per Month (fleet or one vehicle)");
+            System.out.println("  2. Most Expensive Parts");
+            System.out.println("  3. Most Expensive Vehicles");
+            System.out.print("Enter your choice (1-3): ");
+            int choice = getIntInputSafe();
+            if (choice == 1) {
+                System.out.print("Enter Vehicle Registration Number (press Enter for the whole fleet): ");
+                String vehicleReg = scanner.nextLine().trim();
+                System.out.print("From month (YYYY-MM, press Enter for the first month): ");
+                String from = scanner.nextLine().trim();
+                System.out.print("To month (YYYY-MM, press Enter for the last month): ");
+                String to = scanner.nextLine().trim();
+                if ((!from.isEmpty() && MaintenanceCostRollup.monthKey(from) < 0)
+                        || (!to.isEmpty() && MaintenanceCostRollup.monthKey(to) < 0)) {
+                    System.out.println("Error: Months must be YYYY-MM.");
+                    pauseForUser();
+                    return;
+                }
+                displayMonthlyMaintenanceCosts(vehicleReg.isEmpty() ? null : vehicleReg,
+                    from.isEmpty() ? null : from, to.isEmpty() ? null : to);
+            } else if (choice == 2 || choice == 3) {
+                System.out.print("How many to show (1-100): ");
+                int n = getIntInputSafe();
+                if (n < 1 || n > 100) {
+                    System.out.println("Error: Please enter a number between 1-100.");
+                    pauseForUser();
+                    return;
+                }
+                displayTopMaintenanceCosts(choice == 2, n);
+            } else {
+                System.out.println("Error: Invalid option. Please enter a number between 1-3.");
+            }
+            pauseForUser();
+        } catch (Exception e) {
+            System.out.println("Error: Error reading maintenance costs: " + e.getMessage());
+            pauseForUser();
+        }
+    }
+
+    // Spend per month of one vehicle, or of the whole fleet if vehicleReg is null (months YYYY-MM, null = open end)
+    private static void displayMonthlyMaintenanceCosts(String vehicleReg, String from, String to) {
+        MaintenanceCostRollup.Total[] months = maintenanceHistory.monthlySpend(vehicleReg, from, to);
+        String subject = vehicleReg == null ? "Fleet" : vehicleReg;
+        if (months.length == 0) {
+            System.out.println("No maintenance spend recorded for " + (vehicleReg == null ? "the fleet" : vehicleReg) + ".");
+            return;
+        }
+        MaintenanceCostRollup.Total.displayTable("Month", months);
+        double cost = 0;
+        int services = 0;
+        for (MaintenanceCostRollup.Total month : months) {
+            cost += month.cost;
+            services += month.services;
+        }
+        System.out.printf("%s: %d service(s), GH₵%.2f over %d month(s)%n", subject, services, cost, months.length);
+    }
+
+    // The n most expensive parts (or vehicles) over the whole history
+    private static void displayTopMaintenanceCosts(boolean parts, int n) {
+        MaintenanceCostRollup.Total[] top = parts ? maintenanceHistory.topParts(n) : maintenanceHistory.topVehicles(n);
+        if (top.length == 0) {
+            System.out.println("No maintenance records found.");
+            return;
+        }
+        MaintenanceCostRollup.Total.displayTable(parts ? "Service/Part" : "Vehicle", top);
+        System.out.printf("Fleet total: %d service(s), GH₵%.2f%n", maintenanceHistory.size(), maintenanceHistory.fleetCost());
     }
 
     // Input validation method for integers - prevents crashes from invalid input
@@ -1056,6 +2512,16 @@ public class Main {
         }
     }
 
+    // Pager for long tables - ask before showing the next page
+    private static boolean askForNextPage(int rowsShown, int totalRows) {
+        try {
+            System.out.print("-- " + rowsShown + " of " + totalRows + " rows - press Enter for more, q to stop: ");
+            return !scanner.nextLine().trim().equalsIgnoreCase("q");
+        } catch (Exception e) {
+            return false; // no more input - stop paging
+        }
+    }
+
     // Confirmation method for important operations
     private static boolean getConfirmation(String message) {
         try {
@@ -1087,9 +2553,6 @@ public class Main {
                 return;
             }
 
-            double totalFuelUsage = 0;
-            int count = 0;
-
             System.out.println("\nVehicle Fuel Efficiency Details:");
             System.out.println("Vehicle ID | Type  | Fuel Usage (L/100km) | Status");
             System.out.println("-----------|-------|---------------------|--------");
@@ -1099,32 +2562,33 @@ public class Main {
                     vehicle.registrationNumber, 
                     vehicle.type, 
                     vehicle.fuelUsage,
-                    vehicle.fuelUsage > 15 ? "High Usage" : "Normal");
-                totalFuelUsage += vehicle.fuelUsage;
-                count++;
+                    vehicle.fuelUsage > FleetAnalytics.HIGH_FUEL_USAGE ? "High Usage" : "Normal");
             }
 
-            double averageFuelUsage = totalFuelUsage / count;
-            System.out.printf("\nTotal Vehicles: %d%n", count);
-            System.out.printf("Average Fuel Usage: %.2f L/100km%n", averageFuelUsage);
-            
-            // Find best and worst performers
-            Vehicle mostEfficient = vehicles[0];
-            Vehicle leastEfficient = vehicles[0];
-            
-            for (Vehicle vehicle : vehicles) {
-                if (vehicle.fuelUsage < mostEfficient.fuelUsage) {
-                    mostEfficient = vehicle;
-                }
-                if (vehicle.fuelUsage > leastEfficient.fuelUsage) {
-                    leastEfficient = vehicle;
-                }
-            }
+            // Totals and best/worst performers are maintained by the tree - no second pass
+            FleetSummary summary = vehicleTree.getSummary();
+            System.out.printf("\nTotal Vehicles: %d%n", summary.vehicleCount);
+            System.out.printf("Average Fuel Usage: %.2f L/100km%n", summary.averageFuelUsage());
             
             System.out.printf("\nMost Efficient: %s (%.2f L/100km)%n", 
-                mostEfficient.registrationNumber, mostEfficient.fuelUsage);
+                summary.mostEfficient.registrationNumber, summary.mostEfficient.fuelUsage);
             System.out.printf("Least Efficient: %s (%.2f L/100km)%n", 
-                leastEfficient.registrationNumber, leastEfficient.fuelUsage);
+                summary.leastEfficient.registrationNumber, summary.leastEfficient.fuelUsage);
+
+            // Per-type breakdown from one pass over the tree's column arrays
+            FleetAnalytics analytics = vehicleTree.analyzeFleet(FleetAnalytics.HIGH_FUEL_USAGE);
+            System.out.println("\nBreakdown by Vehicle Type:");
+            System.out.println("Type  | Vehicles | Avg Mileage | Avg Fuel Usage | High Usage | Est. Fuel Used");
+            System.out.println("------|----------|-------------|----------------|------------|---------------");
+            for (int type = Vehicle.TRUCK; type <= Vehicle.OTHER; type++) {
+                if (analytics.vehicles[type] == 0) {
+                    continue;
+                }
+                System.out.printf("%-5s | %-8d | %-11.0f | %-14.2f | %-10d | %.0f L%n",
+                    Vehicle.typeName(type), analytics.vehicles[type], analytics.averageMileage(type),
+                    analytics.averageFuelUsage(type), analytics.highUsage[type], analytics.estimatedFuelLitres[type]);
+            }
+            System.out.printf("Vehicles without a driver: %d%n", analytics.unassigned);
             pauseForUser();
             
         } catch (Exception e) {
@@ -1133,6 +2597,8 @@ public class Main {
         }
     }
 
+    // Show each vehicle type's fuel baseline and the vehicles far above it
+    // Baselines and outliers are maintained as readings arrive, so nothing is scanned here
     private static void viewFuelOutliers() {
         try {
             System.out.println("\n===== FUEL EFFICIENCY OUTLIERS =====");
@@ -1142,53 +2608,98 @@ public class Main {
                 return;
             }
 
-            Vehicle[] vehicles = vehicleTree.getAllVehicles();
-            if (vehicles.length == 0) {
-                System.out.println("Error: No vehicles found.");
+            System.out.println("Baselines per vehicle type (outlier above Q3 + 1.5 x IQR):");
+            System.out.println("Type  | Readings | Median | Q1    | Q3    | Mean  | Std Dev | Threshold");
+            System.out.println("------|----------|--------|-------|-------|-------|---------|----------");
+            FuelBaseline[] baselines = new FuelBaseline[3];
+            for (int type = Vehicle.TRUCK; type <= Vehicle.OTHER; type++) {
+                baselines[type] = vehicleTree.getFuelBaseline(type);
+                FuelBaseline baseline = baselines[type];
+                if (baseline.readings == 0) {
+                    continue;
+                }
+                System.out.printf("%-5s | %-8d | %-6.2f | %-5.2f | %-5.2f | %-5.2f | %-7.2f | %.2f L/100km%n",
+                    baseline.type, baseline.readings, baseline.median, baseline.lowerQuartile,
+                    baseline.upperQuartile, baseline.mean, baseline.standardDeviation, baseline.upperFence());
+            }
+
+            Vehicle[] outliers = vehicleTree.findFuelOutliers();
+            if (outliers.length == 0) {
+                System.out.println("\nSuccess: No fuel efficiency outliers found.");
                 pauseForUser();
                 return;
             }
 
-            // Calculate average
-            double totalFuelUsage = 0;
-            for (Vehicle vehicle : vehicles) {
-                totalFuelUsage += vehicle.fuelUsage;
+            System.out.println("\nVehicles with High Fuel Usage (Outliers):");
+            System.out.println("Vehicle ID | Type  | Fuel Usage | Above Median     | Z-Score");
+            System.out.println("-----------|-------|------------|------------------|--------");
+            for (Vehicle vehicle : outliers) {
+                FuelBaseline baseline = baselines[vehicle.typeCode];
+                System.out.printf("%-10s | %-5s | %-10.2f | +%-5.2f L/100km  | %.1f%n",
+                    vehicle.registrationNumber,
+                    vehicle.type,
+                    vehicle.fuelUsage,
+                    vehicle.fuelUsage - baseline.median,
+                    baseline.zScore(vehicle.fuelUsage));
             }
-            double averageFuelUsage = totalFuelUsage / vehicles.length;
-
-            // Define outlier threshold (vehicles using 50% more than average)
-            double outlierThreshold = averageFuelUsage * 1.5;
+            pauseForUser();
+            
+        } catch (Exception e) {
+            System.out.println("Error: Error viewing fuel outliers: " + e.getMessage());
+            pauseForUser();
+        }
+    }
 
-            System.out.printf("Average Fuel Usage: %.2f L/100km%n", averageFuelUsage);
-            System.out.printf("Outlier Threshold: %.2f L/100km%n", outlierThreshold);
-            System.out.println("\nVehicles with High Fuel Usage (Outliers):");
-            System.out.println("Vehicle ID | Type  | Fuel Usage | Excess Usage");
-            System.out.println("-----------|-------|------------|-------------");
+    // Record a new fuel usage reading for a vehicle (updates its baseline and the outliers)
+    private static void recordFuelReading() {
+        try {
+            System.out.println("\n===== RECORD FUEL READING =====");
+            String regNumber = getStringInputSafe("Enter Registration Number: ");
+            System.out.print("Enter measured Fuel Usage (Litres per 100km): ");
+            double fuelUsage = getDoubleInput();
+            if (fuelUsage <= 0) {
+                System.out.println("Error: Fuel usage must be greater than 0!");
+                pauseForUser();
+                return;
+            }
 
-            boolean foundOutliers = false;
-            for (Vehicle vehicle : vehicles) {
-                if (vehicle.fuelUsage > outlierThreshold) {
-                    double excess = vehicle.fuelUsage - averageFuelUsage;
-                    System.out.printf("%-10s | %-5s | %-10.2f | +%.2f L/100km%n", 
-                        vehicle.registrationNumber, 
-                        vehicle.type, 
-                        vehicle.fuelUsage,
-                        excess);
-                    foundOutliers = true;
+            Vehicle vehicle;
+            long lsn = 0;
+            synchronized (dataLock) {
+                vehicle = vehicleTree.updateFuelUsage(regNumber, fuelUsage);
+                if (vehicle != null) {
+                    lsn = journalChange("VF", regNumber, fuelUsage);
                 }
             }
+            if (vehicle == null) {
+                System.out.println("Error: Vehicle with registration " + regNumber + " not found.");
+                pauseForUser();
+                return;
+            }
 
-            if (!foundOutliers) {
-                System.out.println("Success: No fuel efficiency outliers found.");
+            try {
+                awaitJournal(lsn);
+            } catch (IOException e) {
+                System.out.println("Warning: Reading recorded but failed to save to file: " + e.getMessage());
+            }
+
+            FuelBaseline baseline = vehicleTree.getFuelBaseline(vehicle.typeCode);
+            System.out.println("\nSuccess: Fuel reading recorded.");
+            vehicle.displayInfo();
+            System.out.printf("%s median: %.2f L/100km, outlier threshold: %.2f L/100km%n",
+                baseline.type, baseline.median, baseline.upperFence());
+            if (fuelUsage > baseline.upperFence()) {
+                System.out.println("Warning: This vehicle is now a fuel usage outlier.");
             }
             pauseForUser();
-            
         } catch (Exception e) {
-            System.out.println("Error: Error viewing fuel outliers: " + e.getMessage());
+            System.out.println("Error: Error recording fuel reading: " + e.getMessage());
             pauseForUser();
         }
     }
 
+    // Filter vehicles by fuel usage band - answered from the tree's fuel usage index,
+    // so only the matching vehicles are visited and they come back already ordered
     private static void filterVehiclesByFuelPerformance() {
         System.out.println("\n===== FILTER VEHICLES BY FUEL PERFORMANCE =====");
         if (vehicleTree.isEmpty()) {
@@ -1206,40 +2717,20 @@ public class Main {
         int choice = scanner.nextInt();
         scanner.nextLine(); // consume newline
 
-        Vehicle[] vehicles = vehicleTree.getAllVehicles();
-        boolean foundVehicles = false;
-
-        System.out.println("\nFiltered Results:");
-        System.out.println("Vehicle ID | Type  | Fuel Usage | Efficiency");
-        System.out.println("-----------|-------|------------|----------");
-
+        Vehicle[] vehicles;
+        String efficiency;
         switch (choice) {
             case 1: // High Efficiency
-                for (Vehicle vehicle : vehicles) {
-                    if (vehicle.fuelUsage < 8) {
-                        System.out.printf("%-10s | %-5s | %-10.2f | High%n", 
-                            vehicle.registrationNumber, vehicle.type, vehicle.fuelUsage);
-                        foundVehicles = true;
-                    }
-                }
+                vehicles = vehicleTree.findFuelUsageBelow(8);
+                efficiency = "High";
                 break;
             case 2: // Medium Efficiency
-                for (Vehicle vehicle : vehicles) {
-                    if (vehicle.fuelUsage >= 8 && vehicle.fuelUsage <= 12) {
-                        System.out.printf("%-10s | %-5s | %-10.2f | Medium%n", 
-                            vehicle.registrationNumber, vehicle.type, vehicle.fuelUsage);
-                        foundVehicles = true;
-                    }
-                }
+                vehicles = vehicleTree.findByFuelUsage(8, 12);
+                efficiency = "Medium";
                 break;
             case 3: // Low Efficiency
-                for (Vehicle vehicle : vehicles) {
-                    if (vehicle.fuelUsage > 12) {
-                        System.out.printf("%-10s | %-5s | %-10.2f | Low%n", 
-                            vehicle.registrationNumber, vehicle.type, vehicle.fuelUsage);
-                        foundVehicles = true;
-                    }
-                }
+                vehicles = vehicleTree.findFuelUsageAbove(12);
+                efficiency = "Low";
                 break;
             case 4: // Custom Range
                 System.out.print("Enter minimum fuel usage (L/100km): ");
@@ -1247,25 +2738,28 @@ public class Main {
                 System.out.print("Enter maximum fuel usage (L/100km): ");
                 double maxUsage = scanner.nextDouble();
                 scanner.nextLine(); // consume newline
-
-                for (Vehicle vehicle : vehicles) {
-                    if (vehicle.fuelUsage >= minUsage && vehicle.fuelUsage <= maxUsage) {
-                        System.out.printf("%-10s | %-5s | %-10.2f | Custom%n", 
-                            vehicle.registrationNumber, vehicle.type, vehicle.fuelUsage);
-                        foundVehicles = true;
-                    }
-                }
+                vehicles = vehicleTree.findByFuelUsage(minUsage, maxUsage);
+                efficiency = "Custom";
                 break;
             default:
                 System.out.println("Invalid option.");
                 return;
         }
 
-        if (!foundVehicles) {
+        System.out.println("\nFiltered Results:");
+        System.out.println("Vehicle ID | Type  | Fuel Usage | Efficiency");
+        System.out.println("-----------|-------|------------|----------");
+        for (Vehicle vehicle : vehicles) {
+            System.out.printf("%-10s | %-5s | %-10.2f | %s%n", 
+                vehicle.registrationNumber, vehicle.type, vehicle.fuelUsage, efficiency);
+        }
+
+        if (vehicles.length == 0) {
             System.out.println("No vehicles found matching the filter criteria.");
         }
     }
 
+    // List vehicles by fuel usage - read in order from the fuel usage index, no sorting needed
     private static void sortVehiclesByFuelEfficiency() {
         System.out.println("\n===== SORT VEHICLES BY FUEL EFFICIENCY =====");
         if (vehicleTree.isEmpty()) {
@@ -1273,12 +2767,6 @@ public class Main {
             return;
         }
 
-        Vehicle[] vehicles = vehicleTree.getAllVehicles();
-        if (vehicles.length == 0) {
-            System.out.println("No vehicles found.");
-            return;
-        }
-
         System.out.println("Sort Options:");
         System.out.println("1. Most Efficient First (Low to High fuel usage)");
         System.out.println("2. Least Efficient First (High to Low fuel usage)");
@@ -1286,26 +2774,19 @@ public class Main {
 
         int choice = scanner.nextInt();
         scanner.nextLine(); // consume newline
-
-        // Simple bubble sort for demonstration
-        for (int i = 0; i < vehicles.length - 1; i++) {
-            for (int j = 0; j < vehicles.length - 1 - i; j++) {
-                boolean shouldSwap = false;
-                
-                if (choice == 1) { // Most efficient first (ascending)
-                    shouldSwap = vehicles[j].fuelUsage > vehicles[j + 1].fuelUsage;
-                } else if (choice == 2) { // Least efficient first (descending)
-                    shouldSwap = vehicles[j].fuelUsage < vehicles[j + 1].fuelUsage;
-                }
-                
-                if (shouldSwap) {
-                    Vehicle temp = vehicles[j];
-                    vehicles[j] = vehicles[j + 1];
-                    vehicles[j + 1] = temp;
-                }
-            }
+        if (choice != 1 && choice != 2) {
+            System.out.println("Invalid option.");
+            return;
         }
 
+        System.out.print("How many vehicles to show (press Enter for all): ");
+        String countInput = scanner.nextLine().trim();
+        int count = countInput.isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(countInput);
+
+        Vehicle[] vehicles = choice == 1
+            ? vehicleTree.mostFuelEfficient(count)
+            : vehicleTree.leastFuelEfficient(count);
+
         System.out.println("\nSorted Vehicle List:");
         System.out.println("Rank | Vehicle ID | Type  | Fuel Usage | Efficiency Rating");
         System.out.println("-----|-----------|-------|------------|------------------");
@@ -1316,7 +2797,7 @@ public class Main {
                 efficiency = "Excellent";
             } else if (vehicles[i].fuelUsage <= 12) {
                 efficiency = "Good";
-            } else if (vehicles[i].fuelUsage <= 15) {
+            } else if (vehicles[i].fuelUsage <= FleetAnalytics.HIGH_FUEL_USAGE) {
                 efficiency = "Fair";
             } else {
                 efficiency = "Poor";
@@ -1462,18 +2943,19 @@ public class Main {
         System.out.println("\n Saving all data to files...");
         
         try {
-            // Save vehicles to data/vehicles.txt
-            saveVehiclesToFile();
-            
-            // Save drivers to data/drivers.txt
-            saveDriversToFile();
-            
-            // Save deliveries to data/deliveries.txt
-            saveDeliveriesToFile();
-            
-            // Save maintenance tasks to data/maintenance.txt
-            saveMaintenanceToFile();
+            // Rewrite every data file now and wait for the background persister to finish
+            synchronized (dataLock) {
+                for (int i = 0; i < fullRewriteRequested.length; i++) {
+                    fullRewriteRequested[i] = true;
+                }
+            }
+            persister.markAllDirty();
+            persister.flush(FLUSH_TIMEOUT_MILLIS);
             
+            System.out.println("Vehicles saved to data/vehicles.txt");
+            System.out.println("Drivers saved to data/drivers.txt");
+            System.out.println("Deliveries saved to data/deliveries.txt");
+            System.out.println("Maintenance tasks saved to data/maintenance.txt");
             System.out.println("Success: All data saved successfully!");
             
         } catch (IOException e) {
@@ -1481,106 +2963,146 @@ public class Main {
         }
     }
 
-    private static void saveVehiclesToFile() throws IOException {
-        FileWriter writer = new FileWriter("data/vehicles.txt");
-        PrintWriter pw = new PrintWriter(writer);
+    // Decide between an incremental patch and a full rewrite of one data file
+    // Called by the background persister while holding dataLock
+    private static BackgroundPersister.FileUpdate snapshotDataFile(int target, long lsn) {
+        ChangeTracker changes = changeTrackerFor(target);
+        int limit = Math.max(MIN_PATCH_LIMIT, recordCountFor(target) / 2);
+        
+        // Small change sets are appended to the patch file; the LSN line marks the batch as complete
+        if (!fullRewriteRequested[target] && patchRecords[target] + changes.size() <= limit) {
+            patchRecords[target] += changes.size();
+            return BackgroundPersister.FileUpdate.append(PATCH_FILES[target],
+                changes.drainPatch() + LSN_HEADER + lsn + "\n");
+        }
+        
+        // Patch file too big (or a full save was asked for) - rewrite the data file, the patch is deleted afterwards
+        fullRewriteRequested[target] = false;
+        patchRecords[target] = 0;
+        changes.clear();
+        if (target == MAINTENANCE) {
+            maintenanceScheduler.renumberTasks(); // task IDs must match the file order at the next load
+        }
+        return BackgroundPersister.FileUpdate.replace(DATA_FILES[target], formatDataFile(target, lsn));
+    }
+
+    private static ChangeTracker changeTrackerFor(int target) {
+        switch (target) {
+            case VEHICLES: return vehicleTree.getChanges();
+            case DRIVERS: return driverQueue.getChanges();
+            case DELIVERIES: return deliveryQueue.getChanges();
+            default: return maintenanceScheduler.getChanges();
+        }
+    }
+
+    private static int recordCountFor(int target) {
+        switch (target) {
+            case VEHICLES: return vehicleTree.size();
+            case DRIVERS: return driverQueue.size();
+            case DELIVERIES: return deliveryQueue.size();
+            default: return maintenanceScheduler.getTaskCount();
+        }
+    }
+
+    // Loaded records are already on disk - stop tracking them as changes
+    private static void clearChangeTrackers() {
+        for (int i = 0; i < DATA_FILES.length; i++) {
+            changeTrackerFor(i).clear();
+        }
+    }
+
+    // Render the full content of one data file, stamped with the journal position it reflects
+    // Called by the background persister while holding dataLock
+    private static String formatDataFile(int target, long lsn) {
+        switch (target) {
+            case VEHICLES: return formatVehicles(lsn);
+            case DRIVERS: return formatDrivers(lsn);
+            case DELIVERIES: return formatDeliveries(lsn);
+            default: return formatMaintenance(lsn);
+        }
+    }
+
+    private static String formatVehicles(long lsn) {
+        StringBuilder sb = new StringBuilder();
         
         Vehicle[] vehicles = vehicleTree.getAllVehicles();
-        pw.println("# Vehicle Data - Registration,Type,Mileage,FuelUsage,DriverId");
+        sb.append("# Vehicle Data - Registration,Type,Mileage,FuelUsage,DriverId\n");
+        sb.append(LSN_HEADER).append(lsn).append('\n');
         
         for (Vehicle vehicle : vehicles) {
-            pw.printf("%s,%s,%d,%.2f,%s%n",
-                vehicle.registrationNumber,
-                vehicle.type,
-                vehicle.mileage,
-                vehicle.fuelUsage,
-                vehicle.driverId
-            );
+            sb.append(vehicle.toRecord()).append('\n');
         }
-        
-        pw.close();
-        writer.close();
-        System.out.println("Vehicles saved to data/vehicles.txt");
+        return sb.toString();
     }
 
-    private static void saveDriversToFile() throws IOException {
-        FileWriter writer = new FileWriter("data/drivers.txt");
-        PrintWriter pw = new PrintWriter(writer);
+    private static String formatDrivers(long lsn) {
+        StringBuilder sb = new StringBuilder();
         
         Driver[] drivers = driverQueue.getAllDrivers();
-        pw.println("# Driver Data - DriverId,Name,ExperienceYears,CurrentLocation");
+        sb.append("# Driver Data - DriverId,Name,ExperienceYears,CurrentLocation\n");
+        sb.append(LSN_HEADER).append(lsn).append('\n');
         
         for (Driver driver : drivers) {
-            pw.printf("%s,%s,%d,%s%n",
-                driver.driverId,
-                driver.name,
-                driver.experienceYears,
-                driver.currentLocation
-            );
+            sb.append(driver.toRecord()).append('\n');
         }
-        
-        pw.close();
-        writer.close();
-        System.out.println("Drivers saved to data/drivers.txt");
+        return sb.toString();
     }
 
-    private static void saveDeliveriesToFile() throws IOException {
-        FileWriter writer = new FileWriter("data/deliveries.txt");
-        PrintWriter pw = new PrintWriter(writer);
+    private static String formatDeliveries(long lsn) {
+        StringBuilder sb = new StringBuilder();
         
         Delivery[] deliveries = deliveryQueue.getAllDeliveries();
-        pw.println("# Delivery Data - PackageId,Origin,Destination,AssignedVehicle,AssignedDriver,ETA");
+        sb.append("# Delivery Data - PackageId,Origin,Destination,AssignedVehicle,AssignedDriver,ETA\n");
+        sb.append(LSN_HEADER).append(lsn).append('\n');
         
         for (Delivery delivery : deliveries) {
-            pw.printf("%s,%s,%s,%s,%s,%s%n",
-                delivery.packageId,
-                delivery.origin,
-                delivery.destination,
-                delivery.assignedVehicle,
-                delivery.assignedDriver,
-                delivery.eta
-            );
+            sb.append(delivery.toRecord()).append('\n');
         }
-        
-        pw.close();
-        writer.close();
-        System.out.println("Deliveries saved to data/deliveries.txt");
+        return sb.toString();
     }
 
-    private static void saveMaintenanceToFile() throws IOException {
-        FileWriter writer = new FileWriter("data/maintenance.txt");
-        PrintWriter pw = new PrintWriter(writer);
+    private static String formatMaintenance(long lsn) {
+        StringBuilder sb = new StringBuilder();
         
         MaintenanceTask[] tasks = maintenanceScheduler.getAllTasks();
-        pw.println("# Maintenance Data - VehicleNumber,Mileage");
+        sb.append("# Maintenance Data - VehicleNumber,Mileage\n");
+        sb.append(LSN_HEADER).append(lsn).append('\n');
         
         for (MaintenanceTask task : tasks) {
-            pw.printf("%s,%d%n",
+            sb.append(String.format("%s,%d%n",
                 task.vehicleNumber,
                 task.mileage
-            );
+            ));
         }
-        
-        pw.close();
-        writer.close();
-        System.out.println("Maintenance tasks saved to data/maintenance.txt");
+        return sb.toString();
     }
 
     private static void loadAllDataFromFiles() {
         System.out.println("\n Loading all data from files...");
         
         try {
-            // Clear existing data
-            vehicleTree = new VehicleTree();
-            driverQueue = new DriverQueue();
-            deliveryQueue = new DeliveryQueue();
-            maintenanceScheduler = new MaintenanceScheduler();
-            
-            // Load data from files
-            loadVehiclesFromFile();
-            loadDriversFromFile();
-            loadDeliveriesFromFile();
-            loadMaintenanceFromFile();
+            synchronized (dataLock) {
+                // Make sure every journaled change is on disk so it can be replayed
+                if (journal != null) {
+                    journal.flush();
+                }
+                
+                // Clear existing data
+                vehicleTree = new VehicleTree();
+                driverQueue = new DriverQueue();
+                deliveryQueue = new DeliveryQueue(DELIVERY_QUEUE_CAPACITY);
+                maintenanceScheduler = new MaintenanceScheduler(odometerLog);
+                
+                // Load data from files, then re-apply changes not yet folded into them
+                loadVehiclesFromFile();
+                loadDriversFromFile();
+                loadDeliveriesFromFile();
+                loadMaintenanceFromFile();
+                clearChangeTrackers();
+                if (journal != null) {
+                    replayJournal();
+                }
+            }
             
             System.out.println("Success: All data loaded successfully!");
             
@@ -1591,12 +3113,126 @@ public class Main {
         }
     }
 
+    // Apply the complete batches of a patch file on top of its data file
+    // A batch ends with a "# LSN n" line; a batch without one was cut off by a crash and is ignored
+    private static void loadPatchFile(int target) throws IOException {
+        patchRecords[target] = 0;
+        File file = new File(PATCH_FILES[target]);
+        if (!file.exists()) {
+            return;
+        }
+        
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        StringBuilder batch = new StringBuilder();
+        String line;
+        
+        while ((line = reader.readLine()) != null) {
+            long lsn = parseLsnHeader(line);
+            if (lsn < 0) {
+                if (!line.trim().isEmpty()) {
+                    batch.append(line).append('\n');
+                }
+                continue;
+            }
+            
+            // Skip batches the data file already contains (it was rewritten after them)
+            if (lsn > dataFileLsn[target] && batch.length() > 0) {
+                for (String record : batch.toString().split("\n")) {
+                    applyPatchRecord(target, record.split(",", -1));
+                    patchRecords[target]++;
+                }
+            }
+            dataFileLsn[target] = Math.max(dataFileLsn[target], lsn);
+            batch.setLength(0);
+        }
+        
+        reader.close();
+    }
+
+    // Apply one patch line: U = add or update a record, X = remove it
+    private static void applyPatchRecord(int target, String[] record) {
+        boolean update = record[0].equals("U");
+        switch (target) {
+            case VEHICLES:
+                if (!update) {
+                    vehicleTree.remove(record[1]);
+                } else if (vehicleTree.searchByRegistration(record[1]) == null) {
+                    vehicleTree.insert(new Vehicle(record[1], record[2], Integer.parseInt(record[3].trim()),
+                        Double.parseDouble(record[4].trim()), record[5]));
+                } else {
+                    vehicleTree.update(record[1], record[2], Integer.parseInt(record[3].trim()),
+                        Double.parseDouble(record[4].trim()), record[5]);
+                }
+                break;
+            case DRIVERS:
+                if (!update) {
+                    driverQueue.removeById(record[1]);
+                } else if (driverQueue.findDriverById(record[1]) == null) {
+                    driverQueue.enqueue(new Driver(record[1], record[2], Integer.parseInt(record[3].trim()), record[4]));
+                } else {
+                    Driver driver = driverQueue.findDriverById(record[1]);
+                    driver.name = record[2];
+                    driver.experienceYears = Integer.parseInt(record[3].trim());
+                    driverQueue.relocate(driver, record[4]);
+                }
+                break;
+            case DELIVERIES:
+                if (!update) {
+                    deliveryQueue.removeById(record[1]);
+                } else {
+                    Delivery delivery = deliveryQueue.findDeliveryById(record[1]);
+                    if (delivery == null) {
+                        delivery = new Delivery(record[1], record[2], record[3], record[4], record[5], record[6]);
+                        deliveryQueue.enqueue(delivery);
+                    } else {
+                        delivery.setRoute(record[2], record[3]);
+                        delivery.setAssignment(record[4], record[5]);
+                        deliveryQueue.reschedule(record[1], record[6]);
+                    }
+                    if (!record[6].equals(delivery.eta)) {
+                        fullRewriteRequested[DELIVERIES] = true; // older patch with a bare HH:mm time - store the date
+                    }
+                }
+                break;
+            default:
+                int id = Integer.parseInt(record[1].trim());
+                MaintenanceTask task = maintenanceScheduler.findTaskById(id);
+                if (!update) {
+                    maintenanceScheduler.removeTaskById(id);
+                } else if (task == null) {
+                    maintenanceScheduler.addTask(new MaintenanceTask(id, record[2], Integer.parseInt(record[3].trim())));
+                } else {
+                    maintenanceScheduler.updateTaskMileage(task, Integer.parseInt(record[3].trim()));
+                }
+        }
+    }
+
+    // Read the journal position from a "# LSN n" header line, or -1 if the line is not one
+    private static long parseLsnHeader(String line) {
+        if (!line.startsWith(LSN_HEADER)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(line.substring(LSN_HEADER.length()).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
     private static void loadVehiclesFromFile() throws IOException {
         BufferedReader reader = new BufferedReader(new FileReader("data/vehicles.txt"));
         String line;
         int count = 0;
+        dataFileLsn[VEHICLES] = 0;
         
         while ((line = reader.readLine()) != null) {
+            // Remember which journal records are already part of this file
+            long lsn = parseLsnHeader(line);
+            if (lsn >= 0) {
+                dataFileLsn[VEHICLES] = lsn;
+                continue;
+            }
+            
             // Skip comment lines
             if (line.startsWith("#") || line.trim().isEmpty()) {
                 continue;
@@ -1618,14 +3254,24 @@ public class Main {
         
         reader.close();
         System.out.println("Loaded " + count + " vehicles from data/vehicles.txt");
+        // Apply incremental changes saved since the data file was last rewritten
+        loadPatchFile(VEHICLES);
     }
 
     private static void loadDriversFromFile() throws IOException {
         BufferedReader reader = new BufferedReader(new FileReader("data/drivers.txt"));
         String line;
         int count = 0;
+        dataFileLsn[DRIVERS] = 0;
         
         while ((line = reader.readLine()) != null) {
+            // Remember which journal records are already part of this file
+            long lsn = parseLsnHeader(line);
+            if (lsn >= 0) {
+                dataFileLsn[DRIVERS] = lsn;
+                continue;
+            }
+            
             // Skip comment lines
             if (line.startsWith("#") || line.trim().isEmpty()) {
                 continue;
@@ -1646,14 +3292,87 @@ public class Main {
         
         reader.close();
         System.out.println("Loaded " + count + " drivers from data/drivers.txt");
+        // Apply incremental changes saved since the data file was last rewritten
+        loadPatchFile(DRIVERS);
+    }
+
+    // Town positions used to find the nearest driver - reference data, not journaled
+    // A missing file only disables the nearest-town fallback
+    private static void loadTownsFromFile() throws IOException {
+        towns = new TownDirectory();
+        File file = new File("data/towns.txt");
+        if (!file.exists()) {
+            System.out.println("Warning: data/towns.txt not found - drivers are assigned in queue order only");
+            return;
+        }
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        String line;
+        
+        while ((line = reader.readLine()) != null) {
+            // Skip comment lines
+            if (line.startsWith("#") || line.trim().isEmpty()) {
+                continue;
+            }
+            
+            String[] parts = line.split(",");
+            if (parts.length == 3) {
+                towns.add(parts[0].trim(), Double.parseDouble(parts[1].trim()), Double.parseDouble(parts[2].trim()));
+            }
+        }
+        
+        reader.close();
+        System.out.println("Loaded " + towns.size() + " towns from data/towns.txt");
+    }
+
+    // Road distances between towns - reference data, not journaled
+    // Distances from the origins of pending deliveries (the depots) are worked out right away
+    private static void loadRoadsFromFile() throws IOException {
+        roads = new RoadNetwork(towns);
+        File file = new File("data/roads.txt");
+        if (!file.exists()) {
+            System.out.println("Warning: data/roads.txt not found - delivery times must be entered manually");
+            return;
+        }
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        String line;
+        
+        while ((line = reader.readLine()) != null) {
+            // Skip comment lines
+            if (line.startsWith("#") || line.trim().isEmpty()) {
+                continue;
+            }
+            
+            String[] parts = line.split(",");
+            if (parts.length == 3) {
+                roads.addRoad(parts[0].trim(), parts[1].trim(), Double.parseDouble(parts[2].trim()));
+            }
+        }
+        
+        reader.close();
+        System.out.println("Loaded " + roads.roadCount() + " roads from data/roads.txt");
+        
+        Delivery[] pending = deliveryQueue.getAllDeliveries();
+        String[] depots = new String[pending.length];
+        for (int i = 0; i < pending.length; i++) {
+            depots[i] = pending[i].origin;
+        }
+        roads.warmUp(depots);
     }
 
     private static void loadDeliveriesFromFile() throws IOException {
         BufferedReader reader = new BufferedReader(new FileReader("data/deliveries.txt"));
         String line;
         int count = 0;
+        dataFileLsn[DELIVERIES] = 0;
         
         while ((line = reader.readLine()) != null) {
+            // Remember which journal records are already part of this file
+            long lsn = parseLsnHeader(line);
+            if (lsn >= 0) {
+                dataFileLsn[DELIVERIES] = lsn;
+                continue;
+            }
+            
             // Skip comment lines
             if (line.startsWith("#") || line.trim().isEmpty()) {
                 continue;
@@ -1670,20 +3389,33 @@ public class Main {
                 
                 Delivery delivery = new Delivery(packageId, origin, destination, assignedVehicle, assignedDriver, eta);
                 deliveryQueue.enqueue(delivery);
+                if (!eta.equals(delivery.eta)) {
+                    fullRewriteRequested[DELIVERIES] = true; // older file with bare HH:mm times - store the dates
+                }
                 count++;
             }
         }
         
         reader.close();
         System.out.println("Loaded " + count + " deliveries from data/deliveries.txt");
+        // Apply incremental changes saved since the data file was last rewritten
+        loadPatchFile(DELIVERIES);
     }
 
     private static void loadMaintenanceFromFile() throws IOException {
         BufferedReader reader = new BufferedReader(new FileReader("data/maintenance.txt"));
         String line;
         int count = 0;
+        dataFileLsn[MAINTENANCE] = 0;
         
         while ((line = reader.readLine()) != null) {
+            // Remember which journal records are already part of this file
+            long lsn = parseLsnHeader(line);
+            if (lsn >= 0) {
+                dataFileLsn[MAINTENANCE] = lsn;
+                continue;
+            }
+            
             // Skip comment lines
             if (line.startsWith("#") || line.trim().isEmpty()) {
                 continue;
@@ -1702,119 +3434,39 @@ public class Main {
         
         reader.close();
         System.out.println("Loaded " + count + " maintenance tasks from data/maintenance.txt");
+        // Apply incremental changes saved since the data file was last rewritten
+        loadPatchFile(MAINTENANCE);
     }
 
     private static void exportSystemReport() {
+        System.out.println("\nReport format:");
+        System.out.println("  1. Text");
+        System.out.println("  2. CSV");
+        System.out.println("  3. JSON");
+        System.out.print("Choose format (1-3): ");
+        int choice = getIntInputSafe();
+        if (choice < 1 || choice > 3) {
+            System.out.println("Error: Invalid option. Please enter a number between 1-3.");
+            return;
+        }
+        writeSystemReport(SystemReport.Format.values()[choice - 1]);
+    }
+
+    // Stream the report for the current data in one pass - returns false if it could not be written
+    private static boolean writeSystemReport(SystemReport.Format format) {
+        String fileName = "system_report." + format.extension;
         System.out.println("\n Generating comprehensive system report...");
-        
         try {
-            FileWriter writer = new FileWriter("system_report.txt");
-            PrintWriter pw = new PrintWriter(writer);
-            
-            // Header
-            pw.println("=== VEHICLE TRACKING & MAINTENANCE SYSTEM REPORT ===");
-            pw.println("Generated on: " + java.time.LocalDateTime.now());
-            pw.println("===============================================\n");
-            
-            // Vehicle Summary
-            Vehicle[] vehicles = vehicleTree.getAllVehicles();
-            pw.println("VEHICLE SUMMARY:");
-            pw.println("Total Vehicles: " + vehicles.length);
-            
-            int trucks = 0, vans = 0;
-            double totalMileage = 0, totalFuelUsage = 0;
-            
-            for (Vehicle vehicle : vehicles) {
-                if (vehicle.type.equalsIgnoreCase("truck")) trucks++;
-                else if (vehicle.type.equalsIgnoreCase("van")) vans++;
-                totalMileage += vehicle.mileage;
-                totalFuelUsage += vehicle.fuelUsage;
-            }
-            
-            pw.println("- Trucks: " + trucks);
-            pw.println("- Vans: " + vans);
-            if (vehicles.length > 0) {
-                pw.printf("- Average Mileage: %.2f km%n", totalMileage / vehicles.length);
-                pw.printf("- Average Fuel Usage: %.2f L/100km%n", totalFuelUsage / vehicles.length);
-            }
-            pw.println();
-            
-            // Driver Summary
-            Driver[] drivers = driverQueue.getAllDrivers();
-            pw.println("DRIVER SUMMARY:");
-            pw.println("Total Available Drivers: " + drivers.length);
-            
-            if (drivers.length > 0) {
-                double totalExperience = 0;
-                for (Driver driver : drivers) {
-                    totalExperience += driver.experienceYears;
-                }
-                pw.printf("- Average Experience: %.1f years%n", totalExperience / drivers.length);
-            }
-            pw.println();
-            
-            // Delivery Summary
-            Delivery[] deliveries = deliveryQueue.getAllDeliveries();
-            pw.println("DELIVERY SUMMARY:");
-            pw.println("Pending Deliveries: " + deliveries.length);
-            pw.println();
-            
-            // Maintenance Summary
-            MaintenanceTask[] tasks = maintenanceScheduler.getAllTasks();
-            pw.println("MAINTENANCE SUMMARY:");
-            pw.println("Pending Maintenance Tasks: " + tasks.length);
-            
-            if (tasks.length > 0) {
-                // Find most urgent task (lowest mileage)
-                MaintenanceTask mostUrgent = tasks[0];
-                for (MaintenanceTask task : tasks) {
-                    if (task.mileage < mostUrgent.mileage) {
-                        mostUrgent = task;
-                    }
-                }
-                pw.println("Most Urgent: Vehicle " + mostUrgent.vehicleNumber + " (" + mostUrgent.mileage + " km until service)");
+            synchronized (dataLock) {
+                SystemReport.write(fileName, format, java.time.LocalDateTime.now().toString(),
+                    vehicleTree, driverQueue, deliveryQueue, maintenanceScheduler);
             }
-            pw.println();
-            
-            // Detailed Vehicle List
-            pw.println("DETAILED VEHICLE LIST:");
-            pw.println("Reg Number\tType\tMileage\tFuel Usage\tDriver ID");
-            pw.println("--------------------------------------------------------");
-            for (Vehicle vehicle : vehicles) {
-                pw.printf("%s\t%s\t%d\t%.2f\t%s%n",
-                    vehicle.registrationNumber,
-                    vehicle.type,
-                    vehicle.mileage,
-                    vehicle.fuelUsage,
-                    vehicle.driverId);
-            }
-            pw.println();
-            
-            // Detailed Driver List
-            if (drivers.length > 0) {
-                pw.println("DETAILED DRIVER LIST:");
-                pw.println("Driver ID\tName\tExperience\tLocation");
-                pw.println("-------------------------------------------");
-                for (Driver driver : drivers) {
-                    pw.printf("%s\t%s\t%d years\t%s%n",
-                        driver.driverId,
-                        driver.name,
-                        driver.experienceYears,
-                        driver.currentLocation);
-                }
-                pw.println();
-            }
-            
-            pw.println("=== END OF REPORT ===");
-            
-            pw.close();
-            writer.close();
-            
-            System.out.println("Success: System report exported to system_report.txt");
+            System.out.println("Success: System report exported to " + fileName);
             System.out.println(" Report includes vehicle, driver, delivery, and maintenance summaries");
-            
+            return true;
         } catch (IOException e) {
             System.out.println("Error: Error generating report: " + e.getMessage());
+            return false;
         }
     }
 }
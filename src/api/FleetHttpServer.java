@@ -0,0 +1,277 @@
+package api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import datastructures.*;
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * FleetHttpServer class - embedded HTTP API for fleet queries and operations
+ * Every request runs on its own virtual thread, so a request waiting for the journal does not
+ * hold up the others; the data structures are thread-safe, so lookups run in parallel.
+ *
+ * GET  /vehicles/{registration}                 one vehicle
+ * GET  /vehicles?minMileage=a&maxMileage=b      vehicles in a mileage range (sorted by mileage)
+ * GET  /fleet/summary                           fleet totals, averages and extremes (for dashboards)
+ * POST /drivers/assign[?location=town]          take the next available driver (nearest to the town if given)
+ * POST /deliveries                              packageId, origin, destination, vehicle, driver[, eta]
+ * POST /deliveries/next                         process the next delivery
+ * POST /maintenance                             vehicle, mileage
+ *
+ * Parameters are read from the query string or a form-encoded body; responses are JSON.
+ * A change that could not be saved is answered with 500 even though it was applied in memory.
+ * Small responses are only fast with -Dsun.net.httpserver.nodelay=true (Main sets it at startup).
+ * Needs JDK 21 (virtual threads).
+ */
+public class FleetHttpServer {
+    private static final int BACKLOG = 256; // pending connections before the OS refuses new ones
+
+    // Operations behind the endpoints - implemented by the owner of the data structures
+    // Throw IllegalArgumentException for bad input (400) and IllegalStateException for conflicts (409)
+    public interface Backend {
+        Vehicle findVehicle(String registrationNumber);
+
+        Vehicle[] findVehiclesByMileage(int minMileage, int maxMileage);
+
+        FleetSummary fleetSummary();
+
+        // Longest-waiting driver in or nearest to location (null = front of the queue)
+        // Returns null if no driver is available
+        Driver assignDriver(String location) throws IOException;
+
+        // eta null = estimate it from the road route
+        Delivery addDelivery(String packageId, String origin, String destination,
+                             String vehicle, String driver, String eta) throws IOException;
+
+        // Returns null if the delivery queue is empty
+        Delivery processNextDelivery() throws IOException;
+
+        MaintenanceTask scheduleMaintenance(String vehicle, int mileage) throws IOException;
+    }
+
+    private final Backend backend;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    // Constructor - binds to host:port (port 0 picks a free port) but does not start serving yet
+    public FleetHttpServer(String host, int port, Backend backend) throws IOException {
+        this.backend = backend;
+        this.server = HttpServer.create(new InetSocketAddress(host, port), BACKLOG);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/vehicles", this::handleVehicles);
+        server.createContext("/fleet", this::handleFleet);
+        server.createContext("/drivers", this::handleDrivers);
+        server.createContext("/deliveries", this::handleDeliveries);
+        server.createContext("/maintenance", this::handleMaintenance);
+    }
+
+    // Start accepting requests
+    public void start() {
+        server.start();
+    }
+
+    // Stop accepting requests, give running ones up to delaySeconds to finish
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    // Port the server is listening on
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleVehicles(HttpExchange exchange) throws IOException {
+        try {
+            requireMethod(exchange, "GET");
+            String path = exchange.getRequestURI().getPath();
+            StringBuilder sb = new StringBuilder(256);
+            if (path.length() > "/vehicles/".length()) {
+                // GET /vehicles/{registration}
+                String registration = path.substring("/vehicles/".length());
+                Vehicle vehicle = backend.findVehicle(registration);
+                if (vehicle == null) {
+                    send(exchange, 404, Json.error("Vehicle " + registration + " not found"));
+                    return;
+                }
+                send(exchange, 200, Json.vehicle(sb, vehicle).toString());
+            } else {
+                // GET /vehicles?minMileage=a&maxMileage=b
+                String[] params = readParams(exchange);
+                int minMileage = intParam(params, "minMileage", 0);
+                int maxMileage = intParam(params, "maxMileage", Integer.MAX_VALUE);
+                send(exchange, 200, Json.vehicles(sb, backend.findVehiclesByMileage(minMileage, maxMileage)).toString());
+            }
+        } catch (Exception e) {
+            sendError(exchange, e);
+        }
+    }
+
+    private void handleFleet(HttpExchange exchange) throws IOException {
+        try {
+            requireMethod(exchange, "GET");
+            requirePath(exchange, "/fleet/summary");
+            send(exchange, 200, Json.fleetSummary(new StringBuilder(1024), backend.fleetSummary()).toString());
+        } catch (Exception e) {
+            sendError(exchange, e);
+        }
+    }
+
+    private void handleDrivers(HttpExchange exchange) throws IOException {
+        try {
+            requireMethod(exchange, "POST");
+            requirePath(exchange, "/drivers/assign");
+            Driver driver = backend.assignDriver(optionalParam(readParams(exchange), "location"));
+            if (driver == null) {
+                send(exchange, 404, Json.error("No drivers available"));
+                return;
+            }
+            send(exchange, 200, Json.driver(new StringBuilder(128), driver).toString());
+        } catch (Exception e) {
+            sendError(exchange, e);
+        }
+    }
+
+    private void handleDeliveries(HttpExchange exchange) throws IOException {
+        try {
+            requireMethod(exchange, "POST");
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/deliveries/next")) {
+                Delivery delivery = backend.processNextDelivery();
+                if (delivery == null) {
+                    send(exchange, 404, Json.error("No pending deliveries"));
+                    return;
+                }
+                send(exchange, 200, Json.delivery(new StringBuilder(192), delivery).toString());
+                return;
+            }
+            requirePath(exchange, "/deliveries");
+            String[] params = readParams(exchange);
+            Delivery delivery = backend.addDelivery(requiredParam(params, "packageId"),
+                requiredParam(params, "origin"), requiredParam(params, "destination"),
+                requiredParam(params, "vehicle"), requiredParam(params, "driver"), optionalParam(params, "eta"));
+            send(exchange, 201, Json.delivery(new StringBuilder(192), delivery).toString());
+        } catch (Exception e) {
+            sendError(exchange, e);
+        }
+    }
+
+    private void handleMaintenance(HttpExchange exchange) throws IOException {
+        try {
+            requireMethod(exchange, "POST");
+            requirePath(exchange, "/maintenance");
+            String[] params = readParams(exchange);
+            MaintenanceTask task = backend.scheduleMaintenance(requiredParam(params, "vehicle"),
+                Integer.parseInt(requiredParam(params, "mileage")));
+            send(exchange, 201, Json.maintenanceTask(new StringBuilder(96), task).toString());
+        } catch (Exception e) {
+            sendError(exchange, e);
+        }
+    }
+
+    // Thrown for requests that do not match an endpoint
+    private static class RouteException extends Exception {
+        private static final long serialVersionUID = 1L;
+        final int status;
+
+        RouteException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) throws RouteException {
+        if (!exchange.getRequestMethod().equalsIgnoreCase(method)) {
+            throw new RouteException(405, "Use " + method + " for " + exchange.getRequestURI().getPath());
+        }
+    }
+
+    private static void requirePath(HttpExchange exchange, String path) throws RouteException {
+        if (!exchange.getRequestURI().getPath().equals(path)) {
+            throw new RouteException(404, "Unknown endpoint " + exchange.getRequestURI().getPath());
+        }
+    }
+
+    // Map an exception to a status code and JSON error body
+    private static void sendError(HttpExchange exchange, Exception e) throws IOException {
+        int status;
+        if (e instanceof RouteException) {
+            status = ((RouteException) e).status;
+        } else if (e instanceof IllegalArgumentException) {
+            status = 400; // includes NumberFormatException
+        } else if (e instanceof IllegalStateException) {
+            status = 409;
+        } else {
+            status = 500; // includes IOException - the change could not be saved
+        }
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        send(exchange, status, Json.error(message));
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        OutputStream out = exchange.getResponseBody();
+        try {
+            out.write(bytes);
+        } finally {
+            out.close();
+        }
+    }
+
+    // Read query string and form body parameters as name/value pairs: [name0, value0, name1, value1, ...]
+    private static String[] readParams(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getRawQuery();
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        String all = (query != null ? query : "") + (query != null && !body.isEmpty() ? "&" : "") + body;
+        if (all.isEmpty()) {
+            return new String[0];
+        }
+
+        String[] pairs = all.split("&");
+        String[] params = new String[pairs.length * 2];
+        for (int i = 0; i < pairs.length; i++) {
+            int equals = pairs[i].indexOf('=');
+            String name = equals < 0 ? pairs[i] : pairs[i].substring(0, equals);
+            String value = equals < 0 ? "" : pairs[i].substring(equals + 1);
+            params[2 * i] = URLDecoder.decode(name, StandardCharsets.UTF_8);
+            params[2 * i + 1] = URLDecoder.decode(value, StandardCharsets.UTF_8).trim();
+        }
+        return params;
+    }
+
+    private static String param(String[] params, String name) {
+        for (int i = 0; i < params.length; i += 2) {
+            if (params[i].equals(name)) {
+                return params[i + 1];
+            }
+        }
+        return null;
+    }
+
+    // Parameter value, or null if missing or empty
+    private static String optionalParam(String[] params, String name) {
+        String value = param(params, name);
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static String requiredParam(String[] params, String name) {
+        String value = param(params, name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter '" + name + "'");
+        }
+        return value;
+    }
+
+    private static int intParam(String[] params, String name, int defaultValue) {
+        String value = param(params, name);
+        return value == null || value.isEmpty() ? defaultValue : Integer.parseInt(value);
+    }
+}
@@ -0,0 +1,132 @@
+package api;
+
+import datastructures.*;
+
+/**
+ * Json class - builds the JSON responses of the HTTP API
+ * Writes straight into a StringBuilder; only the few value types the API returns are supported.
+ */
+public class Json {
+
+    // Append a string value with quotes and escapes
+    public static StringBuilder string(StringBuilder sb, String value) {
+        if (value == null) {
+            return sb.append("null");
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"');
+    }
+
+    // {"error":"message"}
+    public static String error(String message) {
+        StringBuilder sb = new StringBuilder(message.length() + 16);
+        sb.append("{\"error\":");
+        string(sb, message);
+        return sb.append('}').toString();
+    }
+
+    public static StringBuilder vehicle(StringBuilder sb, Vehicle vehicle) {
+        sb.append("{\"registrationNumber\":");
+        string(sb, vehicle.registrationNumber);
+        sb.append(",\"type\":");
+        string(sb, vehicle.type);
+        sb.append(",\"mileage\":").append(vehicle.mileage);
+        sb.append(",\"fuelUsage\":").append(vehicle.fuelUsage);
+        sb.append(",\"driverId\":");
+        string(sb, vehicle.driverId);
+        return sb.append('}');
+    }
+
+    public static StringBuilder vehicles(StringBuilder sb, Vehicle[] vehicles) {
+        sb.append('[');
+        for (int i = 0; i < vehicles.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            vehicle(sb, vehicles[i]);
+        }
+        return sb.append(']');
+    }
+
+    public static StringBuilder driver(StringBuilder sb, Driver driver) {
+        sb.append("{\"driverId\":");
+        string(sb, driver.driverId);
+        sb.append(",\"name\":");
+        string(sb, driver.name);
+        sb.append(",\"experienceYears\":").append(driver.experienceYears);
+        sb.append(",\"currentLocation\":");
+        string(sb, driver.currentLocation);
+        return sb.append('}');
+    }
+
+    public static StringBuilder delivery(StringBuilder sb, Delivery delivery) {
+        sb.append("{\"packageId\":");
+        string(sb, delivery.packageId);
+        sb.append(",\"origin\":");
+        string(sb, delivery.origin);
+        sb.append(",\"destination\":");
+        string(sb, delivery.destination);
+        sb.append(",\"assignedVehicle\":");
+        string(sb, delivery.assignedVehicle);
+        sb.append(",\"assignedDriver\":");
+        string(sb, delivery.assignedDriver);
+        sb.append(",\"eta\":");
+        string(sb, delivery.eta);
+        return sb.append('}');
+    }
+
+    public static StringBuilder fleetSummary(StringBuilder sb, FleetSummary summary) {
+        sb.append("{\"vehicleCount\":").append(summary.vehicleCount);
+        sb.append(",\"truckCount\":").append(summary.truckCount);
+        sb.append(",\"vanCount\":").append(summary.vanCount);
+        sb.append(",\"totalMileage\":").append(summary.totalMileage);
+        sb.append(",\"averageMileage\":").append(summary.averageMileage());
+        sb.append(",\"averageFuelUsage\":").append(summary.averageFuelUsage());
+        sb.append(",\"mostEfficient\":");
+        optionalVehicle(sb, summary.mostEfficient);
+        sb.append(",\"leastEfficient\":");
+        optionalVehicle(sb, summary.leastEfficient);
+        sb.append(",\"lowestMileage\":");
+        optionalVehicle(sb, summary.lowestMileage);
+        sb.append(",\"highestMileage\":");
+        optionalVehicle(sb, summary.highestMileage);
+        return sb.append('}');
+    }
+
+    private static void optionalVehicle(StringBuilder sb, Vehicle vehicle) {
+        if (vehicle == null) {
+            sb.append("null");
+        } else {
+            vehicle(sb, vehicle);
+        }
+    }
+
+    public static StringBuilder maintenanceTask(StringBuilder sb, MaintenanceTask task) {
+        sb.append("{\"id\":").append(task.getId());
+        sb.append(",\"vehicleNumber\":");
+        string(sb, task.vehicleNumber);
+        sb.append(",\"mileage\":").append(task.mileage);
+        sb.append(",\"priority\":");
+        string(sb, task.getPriorityLevel());
+        sb.append(",\"kmPerDay\":").append(Math.round(task.kmPerDay));
+        sb.append(",\"projectedDue\":");
+        string(sb, task.projectedDueText());
+        return sb.append('}');
+    }
+}
@@ -0,0 +1,89 @@
+package api;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * LoadGenerator class - measures latency of the HTTP API from the local machine
+ * Sends GET requests from many virtual threads and reports throughput and p50/p99/max latency.
+ *
+ * java -cp src api.LoadGenerator [baseUrl] [requests] [concurrency] [path ...]
+ * e.g. java -cp src api.LoadGenerator http://localhost:8080 20000 64 /vehicles/GT1234-22 "/vehicles?minMileage=0&maxMileage=20000"
+ */
+public class LoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+        String[] paths = args.length > 3
+            ? Arrays.copyOfRange(args, 3, args.length)
+            : new String[] {"/vehicles/GT1234-22", "/vehicles?minMileage=10000&maxMileage=20000"};
+
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1) // the JDK server does not speak HTTP/2, skip the upgrade attempt
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+        HttpRequest[] templates = new HttpRequest[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            templates[i] = HttpRequest.newBuilder(URI.create(baseUrl + paths[i])).GET().build();
+        }
+
+        // Warm up the connections and the server before measuring
+        for (int i = 0; i < Math.min(1000, requests); i++) {
+            client.send(templates[i % templates.length], HttpResponse.BodyHandlers.discarding());
+        }
+
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        long start = System.nanoTime();
+
+        // Each worker takes the next request number until all requests are sent
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        for (int w = 0; w < concurrency; w++) {
+            workers.submit(() -> {
+                int n;
+                while ((n = next.getAndIncrement()) < requests) {
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(templates[n % templates.length],
+                            HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 500) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies[n] = System.nanoTime() - sent;
+                }
+            });
+        }
+        workers.shutdown();
+        while (!workers.awaitTermination(1, java.util.concurrent.TimeUnit.SECONDS)) {
+            // keep waiting
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.println("Requests:    " + requests + " (" + errors.get() + " errors), concurrency " + concurrency);
+        System.out.printf("Throughput:  %.0f requests/s%n", requests / (elapsed / 1e9));
+        System.out.printf("Latency p50: %.3f ms%n", percentile(latencies, 50) / 1e6);
+        System.out.printf("Latency p99: %.3f ms%n", percentile(latencies, 99) / 1e6);
+        System.out.printf("Latency max: %.3f ms%n", latencies[latencies.length - 1] / 1e6);
+    }
+
+    // Nearest-rank percentile of a sorted array
+    private static long percentile(long[] sorted, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
@@ -0,0 +1,310 @@
+package datastructures;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * BackgroundPersister class - writes data files from a background thread
+ * Callers only mark a file as dirty; the persister waits for changes to settle (debouncing),
+ * writes each dirty file once no matter how many changes were made (coalescing), and never
+ * lets a change wait longer than the maximum flush latency.
+ * Full files are replaced atomically (temp file + rename), so a crash never leaves a half-written file;
+ * incremental updates are appended to a patch file and fsynced.
+ * Nothing is written before start() is called, so the owner can finish loading (and open
+ * whatever beginSnapshot uses) while changes are already being marked.
+ */
+public class BackgroundPersister {
+    private static final long DEBOUNCE_MILLIS = 200;      // quiet time before a flush
+    private static final long MAX_LATENCY_MILLIS = 1000;  // upper bound from first change to flush start
+    private static final long RETRY_MILLIS = 1000;        // wait before retrying a failed flush
+
+    // Supplies file contents - implemented by the owner of the data structures
+    public interface Source {
+        // Called while holding the snapshot lock, before any target is rendered
+        // Returns a version number stored with the snapshot (e.g. a journal position)
+        long beginSnapshot() throws IOException;
+
+        // Render one target - either its full file or a patch to append - called while holding the snapshot lock
+        FileUpdate snapshot(int target, long version);
+
+        // The update for this target is on disk
+        void written(int target, FileUpdate update, long version);
+
+        // The update for this target could not be written (it will be snapshotted again)
+        void writeFailed(int target, FileUpdate update);
+
+        // Every target that was dirty at snapshot time has been written
+        void flushCompleted(long version);
+    }
+
+    // One file write produced by a snapshot
+    public static class FileUpdate {
+        public final String path;
+        public final String content;
+        public final boolean append; // true = append to the file, false = replace the whole file
+
+        private FileUpdate(String path, String content, boolean append) {
+            this.path = path;
+            this.content = content;
+            this.append = append;
+        }
+
+        // Replace the whole file
+        public static FileUpdate replace(String path, String content) {
+            return new FileUpdate(path, content, false);
+        }
+
+        // Append to the end of the file (creating it if needed)
+        public static FileUpdate append(String path, String content) {
+            return new FileUpdate(path, content, true);
+        }
+    }
+
+    private final Object snapshotLock;
+    private final Source source;
+
+    // Dirty tracking - guarded by this
+    private final boolean[] dirty;
+    private boolean anyDirty = false;
+    private long firstMarkMillis;      // when the oldest unflushed change was made
+    private long lastMarkMillis;       // when the newest change was made
+    private long markedGeneration = 0; // increases on every markDirty
+    private long flushedGeneration = 0;
+    private boolean flushRequested = false;
+    private boolean running = true;
+    private IOException lastError;
+
+    private Thread worker; // null until start() - guarded by this
+
+    // Constructor - targets are numbered 0..targetCount-1; snapshotLock must guard the data being rendered
+    public BackgroundPersister(Object snapshotLock, int targetCount, Source source) {
+        this.snapshotLock = snapshotLock;
+        this.source = source;
+        this.dirty = new boolean[targetCount];
+    }
+
+    // Start the background thread - call once the Source can take snapshots
+    public synchronized void start() {
+        if (worker == null) {
+            worker = new Thread(this::runLoop, "background-persister");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    // Record that a target changed - cheap, never blocks on I/O
+    public synchronized void markDirty(int target) {
+        long now = System.currentTimeMillis();
+        if (!anyDirty) {
+            anyDirty = true;
+            firstMarkMillis = now;
+        }
+        dirty[target] = true;
+        lastMarkMillis = now;
+        markedGeneration++;
+        notifyAll();
+    }
+
+    // Mark every target dirty (used for a full save)
+    public synchronized void markAllDirty() {
+        for (int i = 0; i < dirty.length; i++) {
+            markDirty(i);
+        }
+    }
+
+    // Skip the debounce delay and flush as soon as possible
+    public synchronized void requestFlush() {
+        flushRequested = true;
+        notifyAll();
+    }
+
+    // Wait until every change marked before this call has been written
+    // Returns false if the timeout expired first
+    public boolean awaitFlushed(long timeoutMillis) throws InterruptedException {
+        synchronized (this) {
+            long target = markedGeneration;
+            long deadline = System.currentTimeMillis() + timeoutMillis;
+            while (flushedGeneration < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0 || !running) {
+                    return false;
+                }
+                wait(remaining);
+            }
+            return true;
+        }
+    }
+
+    // Flush now and wait for it - throws if the data could not be written in time
+    public void flush(long timeoutMillis) throws IOException {
+        requestFlush();
+        try {
+            if (!awaitFlushed(timeoutMillis)) {
+                IOException error = getLastError();
+                throw error != null ? error : new IOException("Timed out waiting for data files to be written");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for data files to be written");
+        }
+    }
+
+    // Flush pending changes and stop the background thread
+    public void close(long timeoutMillis) throws IOException {
+        try {
+            flush(timeoutMillis);
+        } finally {
+            synchronized (this) {
+                running = false;
+                notifyAll();
+            }
+        }
+    }
+
+    // Error from the most recent failed write (null if the last flush succeeded)
+    public synchronized IOException getLastError() {
+        return lastError;
+    }
+
+    // Background loop - wait for dirty targets, debounce, then flush
+    private void runLoop() {
+        while (true) {
+            synchronized (this) {
+                try {
+                    while (running && !anyDirty) {
+                        wait();
+                    }
+                    if (!running) {
+                        return;
+                    }
+                    // Wait for a quiet period, but never past the latency bound
+                    while (running && !flushRequested) {
+                        long now = System.currentTimeMillis();
+                        long deadline = Math.min(lastMarkMillis + DEBOUNCE_MILLIS, firstMarkMillis + MAX_LATENCY_MILLIS);
+                        if (now >= deadline) {
+                            break;
+                        }
+                        wait(deadline - now);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+
+            if (!flushOnce()) {
+                try {
+                    Thread.sleep(RETRY_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Snapshot every dirty target under the snapshot lock, then write the files without holding it
+    private boolean flushOnce() {
+        boolean[] captured = new boolean[dirty.length];
+        FileUpdate[] updates = new FileUpdate[dirty.length];
+        long generation;
+        long version;
+
+        synchronized (snapshotLock) {
+            synchronized (this) {
+                for (int i = 0; i < dirty.length; i++) {
+                    captured[i] = dirty[i];
+                    dirty[i] = false;
+                }
+                anyDirty = false;
+                flushRequested = false;
+                generation = markedGeneration;
+            }
+            try {
+                version = source.beginSnapshot();
+                for (int i = 0; i < captured.length; i++) {
+                    if (captured[i]) {
+                        updates[i] = source.snapshot(i, version);
+                    }
+                }
+            } catch (IOException e) {
+                failed(captured, e);
+                return false;
+            }
+        }
+
+        boolean[] failedTargets = new boolean[captured.length];
+        IOException error = null;
+        for (int i = 0; i < updates.length; i++) {
+            if (updates[i] == null) {
+                continue;
+            }
+            try {
+                if (updates[i].append) {
+                    appendDurably(updates[i].path, updates[i].content);
+                } else {
+                    writeAtomically(updates[i].path, updates[i].content);
+                }
+                source.written(i, updates[i], version);
+            } catch (IOException e) {
+                source.writeFailed(i, updates[i]);
+                failedTargets[i] = true;
+                error = e;
+            }
+        }
+        if (error != null) {
+            failed(failedTargets, error);
+            return false;
+        }
+
+        source.flushCompleted(version);
+        synchronized (this) {
+            flushedGeneration = Math.max(flushedGeneration, generation);
+            lastError = null;
+            notifyAll();
+        }
+        return true;
+    }
+
+    // Put targets back on the dirty list so the next flush retries them
+    private synchronized void failed(boolean[] targets, IOException error) {
+        for (int i = 0; i < targets.length; i++) {
+            if (targets[i]) {
+                markDirty(i);
+            }
+        }
+        lastError = error;
+        notifyAll();
+    }
+
+    // Append to a file and fsync it before returning
+    public static void appendDurably(String path, String content) throws IOException {
+        FileOutputStream out = new FileOutputStream(path, true);
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(content);
+            writer.flush();
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+    }
+
+    // Write a file atomically - write a temp file, fsync it, then rename it over the old one
+    public static void writeAtomically(String path, String content) throws IOException {
+        File target = new File(path);
+        File temp = new File(path + ".tmp");
+
+        FileOutputStream out = new FileOutputStream(temp);
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(content);
+            writer.flush();
+            out.getFD().sync(); // make sure the data is on disk before it replaces the old file
+        } finally {
+            out.close();
+        }
+
+        Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -20,6 +20,7 @@ public class BinarySearch {
         
         // Sort the array first by registration number
         sortVehiclesByRegistration(vehicles);
+        long targetKey = RegistrationCodec.encode(targetRegistration);
         
         int left = 0;
         int right = vehicles.length - 1;
@@ -28,7 +29,8 @@ public class BinarySearch {
             int middle = left + (right - left) / 2;
             
             // Compare registration numbers
-            int comparison = vehicles[middle].registrationNumber.compareToIgnoreCase(targetRegistration);
+            int comparison = RegistrationCodec.compare(vehicles[middle].registrationKey,
+                vehicles[middle].registrationNumber, targetKey, targetRegistration);
             
             if (comparison == 0) {
                 // Found the vehicle
@@ -131,6 +133,7 @@ public class BinarySearch {
         
         // Sort the array first
         sortVehiclesByRegistration(vehicles);
+        long targetKey = RegistrationCodec.encode(targetRegistration);
         
         int left = 0;
         int right = vehicles.length - 1;
@@ -140,7 +143,8 @@ public class BinarySearch {
             comparisons++;
             int middle = left + (right - left) / 2;
             
-            int comparison = vehicles[middle].registrationNumber.compareToIgnoreCase(targetRegistration);
+            int comparison = RegistrationCodec.compare(vehicles[middle].registrationKey,
+                vehicles[middle].registrationNumber, targetKey, targetRegistration);
             
             if (comparison == 0) {
                 foundVehicle = vehicles[middle];
@@ -163,7 +167,7 @@ public class BinarySearch {
         int n = vehicles.length;
         for (int i = 0; i < n - 1; i++) {
             for (int j = 0; j < n - 1 - i; j++) {
-                if (vehicles[j].registrationNumber.compareToIgnoreCase(vehicles[j + 1].registrationNumber) > 0) {
+                if (RegistrationCodec.compare(vehicles[j], vehicles[j + 1]) > 0) {
                     // Swap vehicles
                     Vehicle temp = vehicles[j];
                     vehicles[j] = vehicles[j + 1];
@@ -0,0 +1,76 @@
+package datastructures;
+
+/**
+ * ChangeTracker class - remembers which records of a data structure changed since the last save
+ * Changed records are kept in the order they first changed, each at most once, so the cost of
+ * an incremental save depends on the number of changes and not on the size of the fleet.
+ * Patch lines: "U,<record>" for an added/updated record, "X,<key>" for a removed one.
+ */
+public class ChangeTracker {
+    private VersionedEntity[] changed = new VersionedEntity[16]; // updated records (null for removals)
+    private String[] removedKeys = new String[16];               // removed keys (null for updates)
+    private int count = 0;
+
+    // Record that an entity was added or updated
+    public synchronized void changed(VersionedEntity entity) {
+        if (!entity.queued) {
+            entity.queued = true;
+            add(entity, null);
+        }
+    }
+
+    // Record that an entity was removed
+    public synchronized void removed(VersionedEntity entity) {
+        add(null, entity.key());
+    }
+
+    // Number of pending patch lines
+    public synchronized int size() {
+        return count;
+    }
+
+    // Render all pending changes as patch lines and start tracking from scratch
+    public synchronized String drainPatch() {
+        StringBuilder sb = new StringBuilder(count * 48);
+        for (int i = 0; i < count; i++) {
+            if (changed[i] != null) {
+                sb.append("U,").append(changed[i].toRecord()).append('\n');
+            } else {
+                sb.append("X,").append(removedKeys[i]).append('\n');
+            }
+        }
+        reset();
+        return sb.toString();
+    }
+
+    // Forget pending changes (after a full save or a load - the data file already has them)
+    public synchronized void clear() {
+        reset();
+    }
+
+    private void reset() {
+        for (int i = 0; i < count; i++) {
+            if (changed[i] != null) {
+                changed[i].queued = false;
+                changed[i] = null;
+            }
+            removedKeys[i] = null;
+        }
+        count = 0;
+    }
+
+    private void add(VersionedEntity entity, String removedKey) {
+        if (count == changed.length) {
+            // Grow both arrays (double the capacity)
+            VersionedEntity[] biggerChanged = new VersionedEntity[count * 2];
+            String[] biggerKeys = new String[count * 2];
+            System.arraycopy(changed, 0, biggerChanged, 0, count);
+            System.arraycopy(removedKeys, 0, biggerKeys, 0, count);
+            changed = biggerChanged;
+            removedKeys = biggerKeys;
+        }
+        changed[count] = entity;
+        removedKeys[count] = removedKey;
+        count++;
+    }
+}
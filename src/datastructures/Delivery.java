@@ -3,44 +3,92 @@ package datastructures;
 /**
  * Delivery class - represents a delivery record in the system
  * Contains package information and assignment details
+ * Locations, vehicle and driver are shared strings from SymbolTable.SHARED; origin and
+ * destination also carry their codes, so change them with setRoute.
  */
-public class Delivery {
+public class Delivery extends VersionedEntity {
     // Delivery attributes
     public String packageId;
     public String origin;
     public String destination;
+    public int originCode;      // codes in SymbolTable.SHARED
+    public int destinationCode;
     public String assignedVehicle;
     public String assignedDriver;
     public String eta; // estimated time of arrival
+    public long deadline = DeliveryScheduler.NO_DEADLINE; // eta in minutes since the epoch, set when queued
+    long sequence;          // DeliveryScheduler: order added, breaks deadline ties
+    int scheduleIndex = -1; // DeliveryScheduler: position in the heap (-1 = not scheduled)
 
     // Constructor to create a new delivery record
     public Delivery(String packageId, String origin, String destination, String assignedVehicle, String assignedDriver, String eta) {
         this.packageId = packageId;
-        this.origin = origin;
-        this.destination = destination;
-        this.assignedVehicle = assignedVehicle;
-        this.assignedDriver = assignedDriver;
+        this.originCode = SymbolTable.SHARED.intern(origin);
+        this.origin = SymbolTable.SHARED.symbol(originCode);
+        this.destinationCode = SymbolTable.SHARED.intern(destination);
+        this.destination = SymbolTable.SHARED.symbol(destinationCode);
+        this.assignedVehicle = SymbolTable.SHARED.canonical(assignedVehicle);
+        this.assignedDriver = SymbolTable.SHARED.canonical(assignedDriver);
         this.eta = eta;
     }
 
+    // Set origin and destination with their codes
+    public void setRoute(String origin, String destination) {
+        this.originCode = SymbolTable.SHARED.intern(origin);
+        this.origin = SymbolTable.SHARED.symbol(originCode);
+        this.destinationCode = SymbolTable.SHARED.intern(destination);
+        this.destination = SymbolTable.SHARED.symbol(destinationCode);
+    }
+
+    // Set the assigned vehicle and driver
+    public void setAssignment(String assignedVehicle, String assignedDriver) {
+        this.assignedVehicle = SymbolTable.SHARED.canonical(assignedVehicle);
+        this.assignedDriver = SymbolTable.SHARED.canonical(assignedDriver);
+    }
+
+    // Package ID identifies the delivery in patch files
+    @Override
+    public String key() {
+        return packageId;
+    }
+
+    // Record format used in data/deliveries.txt
+    @Override
+    public String toRecord() {
+        return packageId + "," + origin + "," + destination + "," + assignedVehicle + "," + assignedDriver + "," + eta;
+    }
+
+    // Column layout of delivery tables
+    public static final TableRenderer TABLE = new TableRenderer(
+        new String[] {"Pkg ID", "Origin", "Destination", "Vehicle", "Driver", "ETA"},
+        new int[] {8, 12, 12, 12, 8, 16});
+
+    // Add this delivery as one row of a delivery table
+    public void appendRow(TableRenderer.Row row) {
+        // Truncate ETA if too long to fit in table
+        row.cell(packageId).cell(origin).cell(destination).cell(assignedVehicle).cell(assignedDriver)
+            .cellTruncated(eta).end();
+    }
+
     // Display delivery information in table format
     public void displayInfo() {
-        // Truncate ETA if too long to fit in table
-        String displayEta = eta.length() > 16 ? eta.substring(0, 16) : eta;
-        System.out.printf("| %-8s | %-12s | %-12s | %-12s | %-8s | %-16s |%n", 
-            packageId, origin, destination, assignedVehicle, assignedDriver, displayEta);
+        TableRenderer.Row row = TABLE.row();
+        appendRow(row);
+        row.printTo(System.out);
+    }
+
+    // Display a list of deliveries as a complete table (buffered, paged if enabled)
+    public static void displayTable(Delivery[] deliveries) {
+        TABLE.render(System.out, deliveries.length, (i, row) -> deliveries[i].appendRow(row));
     }
 
     // Static method to display table header for deliveries
     public static void displayTableHeader() {
-        System.out.println("+" + "-".repeat(10) + "+" + "-".repeat(14) + "+" + "-".repeat(14) + "+" + "-".repeat(14) + "+" + "-".repeat(10) + "+" + "-".repeat(18) + "+");
-        System.out.printf("| %-8s | %-12s | %-12s | %-12s | %-8s | %-16s |%n", 
-            "Pkg ID", "Origin", "Destination", "Vehicle", "Driver", "ETA");
-        System.out.println("+" + "-".repeat(10) + "+" + "-".repeat(14) + "+" + "-".repeat(14) + "+" + "-".repeat(14) + "+" + "-".repeat(10) + "+" + "-".repeat(18) + "+");
+        TABLE.printHeader(System.out);
     }
 
     // Static method to display table footer
     public static void displayTableFooter() {
-        System.out.println("+" + "-".repeat(10) + "+" + "-".repeat(14) + "+" + "-".repeat(14) + "+" + "-".repeat(14) + "+" + "-".repeat(10) + "+" + "-".repeat(18) + "+");
+        TABLE.printFooter(System.out);
     }
 }
@@ -1,97 +1,229 @@
 package datastructures;
 
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
- * DeliveryQueue class - implements circular queue for managing delivery orders
- * Processes deliveries in FIFO order to ensure fair scheduling
+ * DeliveryQueue class - pending delivery orders, by deadline and in booking order
+ * New deliveries go into a lock-free ring buffer (MpmcRingBuffer), so order-intake threads never
+ * wait for each other or for dispatch. Every other operation first moves what has arrived into a
+ * DeliveryScheduler and works there under the scheduler's monitor: dequeueEarliest/drainEarliest
+ * take the most urgent ETA first, and reschedule/removeById change or cancel a delivery in
+ * O(log n). The booking-order (FIFO) view for the menu and the data file is built only when asked
+ * for, by sorting the scheduled deliveries on the order they were added. New deliveries are
+ * recorded in the change tracker when they reach the schedule, and getChanges() moves them
+ * there first, so an incremental save still sees every delivery enqueued before it.
  */
 public class DeliveryQueue {
-    private static final int MAX = 100; // Maximum queue capacity
-    private Delivery[] queue = new Delivery[MAX]; // Array to store deliveries
-    private int front = 0;  // Points to first delivery
-    private int rear = -1;  // Points to last delivery
-    private int count = 0;  // Current number of deliveries in queue
-
-    // Add delivery to the back of the queue
-    public void enqueue(Delivery delivery) {
-        if (count == MAX) {
+    private static final int MAX = 100; // Default queue capacity
+    private final int capacity;
+    private final AtomicInteger pending = new AtomicInteger(); // in the intake ring or the schedule
+    private final MpmcRingBuffer<Delivery> intake; // enqueued, not yet in the schedule
+    private final ChangeTracker changes = new ChangeTracker(); // deliveries added/removed since the last save
+    private final DeliveryScheduler scheduler = new DeliveryScheduler(); // by deadline; its own monitor guards it
+    private final Delivery[] arrivals = new Delivery[64]; // moves intake to the schedule, guarded by scheduler
+
+    // Constructor - queue with the default capacity
+    public DeliveryQueue() {
+        this(MAX);
+    }
+
+    // Constructor - queue holding at most capacity deliveries (for high-rate order intake)
+    public DeliveryQueue(int capacity) {
+        this.capacity = capacity;
+        this.intake = new MpmcRingBuffer<>(capacity);
+    }
+
+    // Add delivery to the back of the queue - lock-free
+    // A bare "HH:mm" ETA is resolved to its date first (DeliveryScheduler.resolveEta)
+    // Returns false if the queue is full
+    public boolean enqueue(Delivery delivery) {
+        // Reserve a place first, so the ring can never be fuller than the queue's capacity
+        boolean added = pending.incrementAndGet() <= capacity;
+        if (added) {
+            delivery.eta = DeliveryScheduler.resolveEta(delivery.eta, FleetClock.nowMinutes());
+            added = intake.offer(delivery);
+        }
+        if (!added) {
+            pending.decrementAndGet();
             System.out.println("Delivery queue is full!");
-            return;
         }
-        rear = (rear + 1) % MAX; // Circular increment
-        queue[rear] = delivery;
-        count++;
+        return added;
+    }
+
+    // Remove a delivery from anywhere in the queue (e.g. a cancellation) - O(log n)
+    // Returns the removed delivery, or null if not found
+    public Delivery removeById(String packageId) {
+        Delivery removed;
+        synchronized (scheduler) {
+            absorbIntake();
+            removed = scheduler.find(packageId);
+            if (removed == null) {
+                return null;
+            }
+            scheduler.remove(removed);
+            changes.removed(removed);
+        }
+        pending.decrementAndGet();
+        return removed;
+    }
+
+    // Remove and return the delivery with the earliest deadline (null if the queue is empty)
+    public Delivery dequeueEarliest() {
+        Delivery[] next = new Delivery[1];
+        return drainEarliest(next, 1) == 0 ? null : next[0];
+    }
+
+    // Remove up to max deliveries into target[0..], earliest deadline first - O(log n) each
+    // Returns the number of deliveries taken (0 if the queue is empty)
+    public int drainEarliest(Delivery[] target, int max) {
+        int taken = 0;
+        synchronized (scheduler) {
+            absorbIntake();
+            int limit = Math.min(max, target.length);
+            while (taken < limit && scheduler.size() > 0) {
+                target[taken] = scheduler.poll();
+                changes.removed(target[taken++]);
+            }
+        }
+        pending.addAndGet(-taken);
+        return taken;
+    }
+
+    // Delivery with the earliest deadline, left in the queue (null if empty)
+    public Delivery peekEarliest() {
+        synchronized (scheduler) {
+            absorbIntake();
+            return scheduler.peek();
+        }
+    }
+
+    // Change the ETA of a pending delivery and move it to its new place in the schedule
+    // A bare "HH:mm" ETA is resolved to its date first (DeliveryScheduler.resolveEta)
+    // Returns the delivery, or null if not found
+    public Delivery reschedule(String packageId, String eta) {
+        synchronized (scheduler) {
+            absorbIntake();
+            Delivery delivery = scheduler.find(packageId);
+            if (delivery != null) {
+                long now = FleetClock.nowMinutes();
+                delivery.eta = DeliveryScheduler.resolveEta(eta, now);
+                scheduler.reschedule(delivery, now);
+                changes.changed(delivery);
+            }
+            return delivery;
+        }
+    }
+
+    // Move a pending delivery to another vehicle and driver (load planning), tracked for the next save
+    // Returns the delivery, or null if not found
+    public Delivery reassign(String packageId, String vehicle, String driver) {
+        synchronized (scheduler) {
+            absorbIntake();
+            Delivery delivery = scheduler.find(packageId);
+            if (delivery != null) {
+                delivery.setAssignment(vehicle, driver);
+                changes.changed(delivery);
+            }
+            return delivery;
+        }
     }
 
-    // Remove and return next delivery to process
-    public Delivery dequeue() {
-        if (count == 0) {
-            System.out.println("No deliveries to process!");
-            return null;
+    // All pending deliveries, earliest deadline first
+    public Delivery[] getDeliveriesByDeadline() {
+        synchronized (scheduler) {
+            absorbIntake();
+            return scheduler.inDeadlineOrder();
         }
+    }
 
-        Delivery processed = queue[front];
-        front = (front + 1) % MAX; // Circular increment
-        count--;
-        return processed;
+    // Move the deliveries waiting in the intake ring into the schedule, in arrival order, and
+    // record them for the next save - call while holding the scheduler's monitor
+    private void absorbIntake() {
+        long now = -1;
+        int count;
+        while ((count = intake.drainTo(arrivals, 0, arrivals.length)) > 0) {
+            if (now < 0) {
+                now = FleetClock.nowMinutes();
+            }
+            for (int i = 0; i < count; i++) {
+                scheduler.add(arrivals[i], now);
+                changes.changed(arrivals[i]);
+                arrivals[i] = null;
+            }
+        }
     }
 
     // Display all pending deliveries in queue
     public void displayPendingDeliveries() {
-        if (count == 0) {
+        Delivery[] allDeliveries = getAllDeliveries();
+        if (allDeliveries.length == 0) {
             System.out.println("No pending deliveries.");
             return;
         }
         System.out.println("Pending Deliveries:");
-        Delivery.displayTableHeader();
-        // Traverse queue from front to rear
-        for (int i = 0; i < count; i++) {
-            int index = (front + i) % MAX;
-            queue[index].displayInfo();
+        Delivery.displayTable(allDeliveries); // front to rear
+    }
+
+    // Visit every delivery from front to rear (booking order)
+    public void forEachDelivery(RecordVisitor<Delivery> visitor) throws IOException {
+        for (Delivery delivery : getAllDeliveries()) {
+            visitor.visit(delivery);
         }
-        Delivery.displayTableFooter();
     }
 
-    // Get all deliveries as an array (for file storage)
+    // Get all deliveries in booking order (for file storage) - O(n log n)
     public Delivery[] getAllDeliveries() {
-        Delivery[] allDeliveries = new Delivery[count];
-        for (int i = 0; i < count; i++) {
-            int index = (front + i) % MAX;
-            allDeliveries[i] = queue[index];
+        synchronized (scheduler) {
+            absorbIntake();
+            return scheduler.inAddedOrder();
         }
-        return allDeliveries;
     }
 
     // Check if the queue is empty
     public boolean isEmpty() {
-        return count == 0;
+        return pending.get() == 0;
+    }
+
+    // Get the number of deliveries in the queue
+    public int size() {
+        return pending.get();
+    }
+
+    // Get the maximum number of deliveries the queue can hold
+    public int capacity() {
+        return capacity;
+    }
+
+    // Deliveries added/removed since the last save (for incremental saving)
+    public ChangeTracker getChanges() {
+        synchronized (scheduler) {
+            absorbIntake(); // deliveries still in the intake ring are not tracked yet
+        }
+        return changes;
     }
 
     // Check if a delivery with the given package ID already exists
     public boolean deliveryExists(String packageId) {
-        for (int i = 0; i < count; i++) {
-            int index = (front + i) % MAX;
-            if (queue[index].packageId.equals(packageId)) {
-                return true;
-            }
-        }
-        return false;
+        return findDeliveryById(packageId) != null;
     }
 
-    // Find a delivery by package ID
+    // Find a delivery by package ID - O(1)
     public Delivery findDeliveryById(String packageId) {
-        for (int i = 0; i < count; i++) {
-            int index = (front + i) % MAX;
-            if (queue[index].packageId.equals(packageId)) {
-                return queue[index];
-            }
+        synchronized (scheduler) {
+            absorbIntake();
+            return scheduler.find(packageId);
         }
-        return null;
     }
 
     // Clear all deliveries from queue
     public void clear() {
-        front = 0;
-        rear = -1;
-        count = 0;
+        int cleared;
+        synchronized (scheduler) {
+            absorbIntake();
+            cleared = scheduler.size();
+            scheduler.clear();
+        }
+        pending.addAndGet(-cleared);
     }
 }
@@ -0,0 +1,281 @@
+package datastructures;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+/**
+ * DeliveryScheduler class - pending deliveries ordered by deadline (earliest deadline first)
+ * The ETA of each delivery is parsed into minutes since the epoch and kept in a binary min-heap
+ * of the deliveries themselves; every delivery remembers its heap position, so changing an ETA
+ * or cancelling a delivery moves or removes it in O(log n) without searching. Deliveries with
+ * the same deadline come out in the order they were added, and ETAs that cannot be read go last.
+ * A hash table on the package ID finds a delivery in O(1).
+ * Not thread-safe on its own - DeliveryQueue calls it while holding the scheduler's lock.
+ */
+public class DeliveryScheduler {
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("H:mm");
+
+    private Delivery[] heap = new Delivery[32];
+    private int size = 0;
+    private long added = 0;                       // sequence for ties - smaller = added earlier
+    private Delivery[] byId = new Delivery[64];   // open addressing on packageId, null = empty
+
+    // Deadline of an ETA in minutes since the epoch, or NO_DEADLINE if it cannot be read
+    // "yyyy-MM-dd HH:mm" is taken as is; a bare "HH:mm" is the occurrence of that time nearest
+    // to now (within 12 hours either way), so "01:30" written late in the evening is tomorrow
+    public static long deadlineMinutes(String eta, long nowMinutes) {
+        if (eta == null) {
+            return NO_DEADLINE;
+        }
+        String text = eta.trim();
+        ZonedDateTime now = Instant.ofEpochSecond(nowMinutes * 60).atZone(ZoneId.systemDefault());
+        try {
+            if (text.length() > 5) {
+                return LocalDateTime.parse(text, FleetClock.DATE_TIME_FORMAT).atZone(now.getZone()).toEpochSecond() / 60;
+            }
+            ZonedDateTime due = now.with(LocalTime.parse(text, TIME_FORMAT));
+            if (due.isBefore(now.minusHours(12))) {
+                due = due.plusDays(1);
+            } else if (due.isAfter(now.plusHours(12))) {
+                due = due.minusDays(1);
+            }
+            return due.toEpochSecond() / 60;
+        } catch (DateTimeParseException e) {
+            return NO_DEADLINE;
+        }
+    }
+
+    // The ETA with a bare "HH:mm" resolved to "yyyy-MM-dd HH:mm" (see deadlineMinutes), so it keeps
+    // meaning the same moment when it is read again later; other ETAs are returned unchanged
+    public static String resolveEta(String eta, long nowMinutes) {
+        if (eta == null || eta.trim().length() > 5) {
+            return eta;
+        }
+        long deadline = deadlineMinutes(eta, nowMinutes);
+        if (deadline == NO_DEADLINE) {
+            return eta;
+        }
+        return FleetClock.format(deadline);
+    }
+
+    // Schedule a delivery by its ETA - O(log n)
+    void add(Delivery delivery, long nowMinutes) {
+        delivery.deadline = deadlineMinutes(delivery.eta, nowMinutes);
+        delivery.sequence = added++;
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        heap[size] = delivery;
+        delivery.scheduleIndex = size;
+        siftUp(size++);
+        index(delivery);
+    }
+
+    // Delivery with the earliest deadline, or null if none
+    Delivery peek() {
+        return size == 0 ? null : heap[0];
+    }
+
+    // Take the delivery with the earliest deadline, or null if none - O(log n)
+    Delivery poll() {
+        Delivery first = peek();
+        if (first != null) {
+            remove(first);
+        }
+        return first;
+    }
+
+    // Take a delivery out of the schedule wherever it is - O(log n)
+    // Returns false if it was not scheduled
+    boolean remove(Delivery delivery) {
+        int index = delivery.scheduleIndex;
+        if (index < 0 || index >= size || heap[index] != delivery) {
+            return false;
+        }
+        Delivery last = heap[--size];
+        heap[size] = null;
+        delivery.scheduleIndex = -1;
+        if (last != delivery) {
+            heap[index] = last;
+            last.scheduleIndex = index;
+            siftDown(index);
+            siftUp(last.scheduleIndex);
+        }
+        unindex(delivery);
+        return true;
+    }
+
+    // Move a scheduled delivery to the deadline of its (changed) ETA - O(log n)
+    void reschedule(Delivery delivery, long nowMinutes) {
+        int index = delivery.scheduleIndex;
+        if (index < 0 || index >= size || heap[index] != delivery) {
+            return;
+        }
+        delivery.deadline = deadlineMinutes(delivery.eta, nowMinutes);
+        siftDown(index);
+        siftUp(delivery.scheduleIndex);
+    }
+
+    // Scheduled delivery with this package ID, or null - O(1)
+    Delivery find(String packageId) {
+        int mask = byId.length - 1;
+        for (int slot = slot(packageId, mask); byId[slot] != null; slot = (slot + 1) & mask) {
+            if (byId[slot].packageId.equals(packageId)) {
+                return byId[slot];
+            }
+        }
+        return null;
+    }
+
+    // All scheduled deliveries, earliest deadline first - O(n log n), the schedule is not changed
+    Delivery[] inDeadlineOrder() {
+        Delivery[] sorted = Arrays.copyOf(heap, size);
+        // Heapsort on the copy: the minimum goes to the back each round, then reverse
+        for (int end = size - 1; end > 0; end--) {
+            Delivery first = sorted[0];
+            sorted[0] = sorted[end];
+            sorted[end] = first;
+            int index = 0;
+            Delivery moving = sorted[0];
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= end) {
+                    break;
+                }
+                if (child + 1 < end && before(sorted[child + 1], sorted[child])) {
+                    child++;
+                }
+                if (!before(sorted[child], moving)) {
+                    break;
+                }
+                sorted[index] = sorted[child];
+                index = child;
+            }
+            sorted[index] = moving;
+        }
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            Delivery swap = sorted[i];
+            sorted[i] = sorted[j];
+            sorted[j] = swap;
+        }
+        return sorted;
+    }
+
+    // All scheduled deliveries in the order they were added - O(n log n), the schedule is not changed
+    Delivery[] inAddedOrder() {
+        Delivery[] sorted = Arrays.copyOf(heap, size);
+        Arrays.sort(sorted, (a, b) -> Long.compare(a.sequence, b.sequence));
+        return sorted;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            heap[i].scheduleIndex = -1;
+            heap[i] = null;
+        }
+        size = 0;
+        Arrays.fill(byId, null);
+    }
+
+    // Earlier deadline first, then earlier added
+    private static boolean before(Delivery a, Delivery b) {
+        return a.deadline != b.deadline ? a.deadline < b.deadline : a.sequence < b.sequence;
+    }
+
+    private void siftUp(int index) {
+        Delivery moving = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!before(moving, heap[parent])) {
+                break;
+            }
+            heap[index] = heap[parent];
+            heap[index].scheduleIndex = index;
+            index = parent;
+        }
+        heap[index] = moving;
+        moving.scheduleIndex = index;
+    }
+
+    private void siftDown(int index) {
+        Delivery moving = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], moving)) {
+                break;
+            }
+            heap[index] = heap[child];
+            heap[index].scheduleIndex = index;
+            index = child;
+        }
+        heap[index] = moving;
+        moving.scheduleIndex = index;
+    }
+
+    private void index(Delivery delivery) {
+        if (size * 2 > byId.length) {
+            Delivery[] old = byId;
+            byId = new Delivery[old.length * 2];
+            for (Delivery indexed : old) {
+                if (indexed != null) {
+                    byId[freeSlot(indexed.packageId)] = indexed;
+                }
+            }
+        }
+        byId[freeSlot(delivery.packageId)] = delivery;
+    }
+
+    // Remove from the ID table, shifting later entries of the probe run back into the gap
+    private void unindex(Delivery delivery) {
+        int mask = byId.length - 1;
+        int gap = slot(delivery.packageId, mask);
+        while (byId[gap] != delivery) {
+            if (byId[gap] == null) {
+                return;
+            }
+            gap = (gap + 1) & mask;
+        }
+        int next = (gap + 1) & mask;
+        while (byId[next] != null) {
+            int home = slot(byId[next].packageId, mask);
+            // The entry may fill the gap if its home slot is not between the gap and itself
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                byId[gap] = byId[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        byId[gap] = null;
+    }
+
+    private int freeSlot(String packageId) {
+        int mask = byId.length - 1;
+        int slot = slot(packageId, mask);
+        while (byId[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int slot(String packageId, int mask) {
+        int hash = packageId.hashCode() * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
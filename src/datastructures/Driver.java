@@ -2,38 +2,75 @@ package datastructures;
 
 /**
  * Driver class - represents a driver in the vehicle tracking system
+ * Driver ID and location are shared strings from SymbolTable.SHARED with their codes alongside;
+ * change the location with setCurrentLocation so the code stays in step.
  */
-public class Driver {
+public class Driver extends VersionedEntity {
     // Driver attributes
     public String driverId;
+    public int driverCode; // driverId's code in SymbolTable.SHARED
     public String name;
     public int experienceYears;
     public String currentLocation;
+    public int locationCode; // currentLocation's code in SymbolTable.SHARED
 
     // Constructor to create a new driver
     public Driver(String driverId, String name, int experienceYears, String currentLocation) {
-        this.driverId = driverId;
+        this.driverCode = SymbolTable.SHARED.intern(driverId);
+        this.driverId = SymbolTable.SHARED.symbol(driverCode);
         this.name = name;
         this.experienceYears = experienceYears;
-        this.currentLocation = currentLocation;
+        this.locationCode = SymbolTable.SHARED.intern(currentLocation);
+        this.currentLocation = SymbolTable.SHARED.symbol(locationCode);
+    }
+
+    // Set the location and its code
+    public void setCurrentLocation(String currentLocation) {
+        this.locationCode = SymbolTable.SHARED.intern(currentLocation);
+        this.currentLocation = SymbolTable.SHARED.symbol(locationCode);
     }
     
+    // Driver ID identifies the driver in patch files
+    @Override
+    public String key() {
+        return driverId;
+    }
+
+    // Record format used in data/drivers.txt
+    @Override
+    public String toRecord() {
+        return driverId + "," + name + "," + experienceYears + "," + currentLocation;
+    }
+
+    // Column layout of driver tables
+    public static final TableRenderer TABLE = new TableRenderer(
+        new String[] {"ID", "Name", "Exp", "Location"},
+        new int[] {8, 20, 4, 15});
+
+    // Add this driver as one row of a driver table
+    public void appendRow(TableRenderer.Row row) {
+        row.cell(driverId).cell(name).cell(experienceYears).cell(currentLocation).end();
+    }
+
     // Display driver information in table format
     public void displayInfo() {
-        System.out.printf("| %-8s | %-20s | %-4d | %-15s |%n", 
-            driverId, name, experienceYears, currentLocation);
+        TableRenderer.Row row = TABLE.row();
+        appendRow(row);
+        row.printTo(System.out);
+    }
+
+    // Display a list of drivers as a complete table (buffered, paged if enabled)
+    public static void displayTable(Driver[] drivers) {
+        TABLE.render(System.out, drivers.length, (i, row) -> drivers[i].appendRow(row));
     }
 
     // Static method to display table header for drivers
     public static void displayTableHeader() {
-        System.out.println("+" + "-".repeat(10) + "+" + "-".repeat(22) + "+" + "-".repeat(6) + "+" + "-".repeat(17) + "+");
-        System.out.printf("| %-8s | %-20s | %-4s | %-15s |%n", 
-            "ID", "Name", "Exp", "Location");
-        System.out.println("+" + "-".repeat(10) + "+" + "-".repeat(22) + "+" + "-".repeat(6) + "+" + "-".repeat(17) + "+");
+        TABLE.printHeader(System.out);
     }
 
     // Static method to display table footer
     public static void displayTableFooter() {
-        System.out.println("+" + "-".repeat(10) + "+" + "-".repeat(22) + "+" + "-".repeat(6) + "+" + "-".repeat(17) + "+");
+        TABLE.printFooter(System.out);
     }
 }
@@ -0,0 +1,203 @@
+package datastructures;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * DriverLocationIndex class - available drivers in arrival order, overall and per town
+ * Every driver sits in two doubly linked lists at once: the global FIFO (everyone, longest
+ * waiting first) and the FIFO of their current town. Both lists run through the same node,
+ * so taking a driver from either end unlinks them from the other in O(1), and "next driver
+ * in Accra" is the head of one list instead of a scan of the whole queue.
+ * Lists and nodes are found by SymbolTable.SHARED codes (Driver.locationCode, Driver.driverCode).
+ * Not thread-safe on its own - DriverQueue calls it under its lock.
+ */
+public class DriverLocationIndex {
+    // One waiting driver, linked into the global list and its town's list
+    private static class Node {
+        final Driver driver;
+        final long arrival;     // order of arrival - smaller = waiting longer
+        int town;               // locationCode the node is filed under
+        Node previous, next;            // global list
+        Node previousInTown, nextInTown; // town list
+
+        Node(Driver driver, long arrival) {
+            this.driver = driver;
+            this.arrival = arrival;
+        }
+    }
+
+    private Node head, tail;                     // global FIFO
+    private Node[] townHeads = new Node[16];     // per locationCode
+    private Node[] townTails = new Node[16];
+    private int[] townSizes = new int[16];
+    private Node[] byDriver = new Node[16];      // per driverCode, for lookups and removal by ID
+    private long arrivals = 0;
+    private int size = 0;
+
+    // Add a driver at the back of the global list and of their town's list
+    void add(Driver driver) {
+        Node node = new Node(driver, arrivals++);
+        node.town = driver.locationCode;
+        node.previous = tail;
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+        }
+        tail = node;
+        linkIntoTown(node);
+        byDriver = ensureCapacity(byDriver, driver.driverCode);
+        byDriver[driver.driverCode] = node;
+        size++;
+    }
+
+    // Take the driver who has waited longest (null if none)
+    Driver pollFirst() {
+        return head == null ? null : unlink(head);
+    }
+
+    // Take the driver who has waited longest in a town (null if none there)
+    Driver pollAt(int town) {
+        if (town < 0 || town >= townHeads.length || townHeads[town] == null) {
+            return null;
+        }
+        return unlink(townHeads[town]);
+    }
+
+    // Number of drivers waiting in a town
+    int sizeAt(int town) {
+        return town < 0 || town >= townSizes.length ? 0 : townSizes[town];
+    }
+
+    // Driver with this ID code (null if not waiting)
+    Driver find(int driverCode) {
+        Node node = nodeOf(driverCode);
+        return node == null ? null : node.driver;
+    }
+
+    // Take a driver out by ID code (null if not waiting)
+    Driver remove(int driverCode) {
+        Node node = nodeOf(driverCode);
+        return node == null ? null : unlink(node);
+    }
+
+    // Move a waiting driver to another town; they keep their place in the queue
+    void relocate(Driver driver, String location) {
+        Node node = nodeOf(driver.driverCode);
+        if (node == null || node.driver != driver) {
+            driver.setCurrentLocation(location);
+            return;
+        }
+        unlinkFromTown(node);
+        driver.setCurrentLocation(location);
+        node.town = driver.locationCode;
+        linkIntoTown(node);
+    }
+
+    // Number of waiting drivers
+    int size() {
+        return size;
+    }
+
+    // Visit every driver, longest waiting first
+    void forEach(RecordVisitor<? super Driver> visitor) throws IOException {
+        for (Node node = head; node != null; node = node.next) {
+            visitor.visit(node.driver);
+        }
+    }
+
+    // All drivers, longest waiting first
+    Driver[] toArray() {
+        Driver[] drivers = new Driver[size];
+        int i = 0;
+        for (Node node = head; node != null; node = node.next) {
+            drivers[i++] = node.driver;
+        }
+        return drivers;
+    }
+
+    // Remove everyone
+    void clear() {
+        head = tail = null;
+        townHeads = new Node[16];
+        townTails = new Node[16];
+        townSizes = new int[16];
+        byDriver = new Node[16];
+        size = 0;
+    }
+
+    private Node nodeOf(int driverCode) {
+        return driverCode < 0 || driverCode >= byDriver.length ? null : byDriver[driverCode];
+    }
+
+    // Unlink a node from both lists and return its driver
+    private Driver unlink(Node node) {
+        if (node.previous == null) {
+            head = node.next;
+        } else {
+            node.previous.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.previous;
+        } else {
+            node.next.previous = node.previous;
+        }
+        unlinkFromTown(node);
+        if (byDriver[node.driver.driverCode] == node) {
+            byDriver[node.driver.driverCode] = null;
+        }
+        size--;
+        return node.driver;
+    }
+
+    // File a node under its town, behind everyone in that town who arrived earlier
+    // (new arrivals go straight to the back; a relocated driver may slot in further forward)
+    private void linkIntoTown(Node node) {
+        int town = node.town;
+        if (town >= townHeads.length) {
+            int length = Math.max(town + 1, townHeads.length * 2);
+            townHeads = Arrays.copyOf(townHeads, length);
+            townTails = Arrays.copyOf(townTails, length);
+            townSizes = Arrays.copyOf(townSizes, length);
+        }
+        Node after = townTails[town];
+        while (after != null && after.arrival > node.arrival) {
+            after = after.previousInTown;
+        }
+        Node before = after == null ? townHeads[town] : after.nextInTown;
+        node.previousInTown = after;
+        node.nextInTown = before;
+        if (after == null) {
+            townHeads[town] = node;
+        } else {
+            after.nextInTown = node;
+        }
+        if (before == null) {
+            townTails[town] = node;
+        } else {
+            before.previousInTown = node;
+        }
+        townSizes[town]++;
+    }
+
+    private void unlinkFromTown(Node node) {
+        int town = node.town;
+        if (node.previousInTown == null) {
+            townHeads[town] = node.nextInTown;
+        } else {
+            node.previousInTown.nextInTown = node.nextInTown;
+        }
+        if (node.nextInTown == null) {
+            townTails[town] = node.previousInTown;
+        } else {
+            node.nextInTown.previousInTown = node.previousInTown;
+        }
+        node.previousInTown = node.nextInTown = null;
+        townSizes[town]--;
+    }
+
+    private static Node[] ensureCapacity(Node[] nodes, int index) {
+        return index < nodes.length ? nodes : Arrays.copyOf(nodes, Math.max(index + 1, nodes.length * 2));
+    }
+}
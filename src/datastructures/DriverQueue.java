@@ -1,96 +1,149 @@
 package datastructures;
 
+import java.io.IOException;
+
 /**
- * DriverQueue class - implements circular queue for managing available drivers
+ * DriverQueue class - implements queue for managing available drivers
  * Uses FIFO (First In, First Out) principle for fair driver assignment
+ * Drivers are also filed by their current town (DriverLocationIndex), so the next available
+ * driver in a given town - or, failing that, in the nearest town that has one - is found in
+ * O(1) without scanning the queue; within a town drivers still leave in order of arrival.
+ * Safe to use from several threads: every operation holds the queue's lock for a few pointer updates.
  */
 public class DriverQueue {
     private static final int MAX = 100; // Maximum queue capacity
-    private Driver[] drivers = new Driver[MAX]; // Array to store drivers
-    private int front = 0;  // Points to first element
-    private int rear = -1;  // Points to last element
-    private int count = 0;  // Current number of drivers in queue
+    private final DriverLocationIndex drivers = new DriverLocationIndex(); // drivers by arrival, overall and per town
+    private final ChangeTracker changes = new ChangeTracker(); // drivers added/removed since the last save
 
     // Add driver to the back of the queue
     public void enqueue(Driver driver) {
-        if (count == MAX) {
+        boolean added = false;
+        synchronized (this) {
+            if (drivers.size() < MAX) {
+                drivers.add(driver);
+                changes.changed(driver);
+                added = true;
+            }
+        }
+        if (!added) {
             System.out.println("Queue is full!");
-            return;
         }
-        rear = (rear + 1) % MAX; // Circular increment
-        drivers[rear] = driver;
-        count++;
     }
 
     // Remove and return driver from front of queue (assign driver)
     public Driver dequeue() {
-        if (count == 0) {
+        Driver assigned;
+        synchronized (this) {
+            assigned = drivers.pollFirst();
+            if (assigned != null) {
+                changes.removed(assigned);
+            }
+        }
+        if (assigned == null) {
             System.out.println("No available drivers!");
-            return null;
         }
-        Driver assigned = drivers[front];
-        front = (front + 1) % MAX; // Circular increment
-        count--;
         return assigned;
     }
 
+    // Remove and return the driver who has waited longest in a town; if nobody is there, the
+    // longest-waiting driver of the nearest town that has one, and if the town has no known
+    // position, the front of the queue
+    public Driver dequeueNearest(String location, TownDirectory towns) {
+        Driver assigned;
+        int town = SymbolTable.SHARED.code(location);
+        synchronized (this) {
+            assigned = drivers.pollAt(town);
+            if (assigned == null && towns.contains(town)) {
+                for (int nearby : towns.nearest(town)) {
+                    if (drivers.sizeAt(nearby) > 0) {
+                        assigned = drivers.pollAt(nearby);
+                        break;
+                    }
+                }
+            }
+            if (assigned == null) {
+                assigned = drivers.pollFirst();
+            }
+            if (assigned != null) {
+                changes.removed(assigned);
+            }
+        }
+        if (assigned == null) {
+            System.out.println("No available drivers!");
+        }
+        return assigned;
+    }
+
+    // Number of drivers waiting in a town
+    public synchronized int countAt(String location) {
+        return drivers.sizeAt(SymbolTable.SHARED.code(location));
+    }
+
+    // Move a waiting driver to another town without changing their place in the queue
+    public synchronized void relocate(Driver driver, String location) {
+        drivers.relocate(driver, location);
+        changes.changed(driver);
+    }
+
+    // Remove a driver from anywhere in the queue, keeping the order of the others
+    // Returns the removed driver, or null if not found
+    public synchronized Driver removeById(String driverId) {
+        Driver removed = drivers.remove(SymbolTable.SHARED.code(driverId));
+        if (removed != null) {
+            changes.removed(removed);
+        }
+        return removed;
+    }
+
     // Display all drivers currently in the queue
     public void displayAvailableDrivers() {
-        if (count == 0) {
+        Driver[] allDrivers = getAllDrivers();
+        if (allDrivers.length == 0) {
             System.out.println("No drivers available.");
             return;
         }
         System.out.println("Available Drivers:");
-        Driver.displayTableHeader();
-        // Traverse queue from front to rear
-        for (int i = 0; i < count; i++) {
-            int index = (front + i) % MAX;
-            drivers[index].displayInfo();
-        }
-        Driver.displayTableFooter();
+        Driver.displayTable(allDrivers); // front to rear
+    }
+
+    // Visit every driver from front to rear without copying the queue
+    // Enqueue/dequeue wait until the visit is over
+    public synchronized void forEachDriver(RecordVisitor<Driver> visitor) throws IOException {
+        drivers.forEach(visitor);
     }
 
     // Get all drivers as an array (for file storage)
-    public Driver[] getAllDrivers() {
-        Driver[] allDrivers = new Driver[count];
-        for (int i = 0; i < count; i++) {
-            int index = (front + i) % MAX;
-            allDrivers[i] = drivers[index];
-        }
-        return allDrivers;
+    public synchronized Driver[] getAllDrivers() {
+        return drivers.toArray();
     }
 
     // Check if queue is empty
-    public boolean isEmpty() {
-        return count == 0;
+    public synchronized boolean isEmpty() {
+        return drivers.size() == 0;
+    }
+
+    // Get the number of drivers in the queue
+    public synchronized int size() {
+        return drivers.size();
+    }
+
+    // Drivers added/removed since the last save (for incremental saving)
+    public ChangeTracker getChanges() {
+        return changes;
     }
 
     // Check if a driver with the given ID already exists
     public boolean driverExists(String driverId) {
-        for (int i = 0; i < count; i++) {
-            int index = (front + i) % MAX;
-            if (drivers[index].driverId.equals(driverId)) {
-                return true;
-            }
-        }
-        return false;
+        return findDriverById(driverId) != null;
     }
 
     // Find a driver by ID
-    public Driver findDriverById(String driverId) {
-        for (int i = 0; i < count; i++) {
-            int index = (front + i) % MAX;
-            if (drivers[index].driverId.equals(driverId)) {
-                return drivers[index];
-            }
-        }
-        return null;
+    public synchronized Driver findDriverById(String driverId) {
+        return drivers.find(SymbolTable.SHARED.code(driverId));
     }
 
     // Clear all drivers from queue
-    public void clear() {
-        front = 0;
-        rear = -1;
-        count = 0;
+    public synchronized void clear() {
+        drivers.clear();
     }
 }
@@ -0,0 +1,46 @@
+package datastructures;
+
+/**
+ * FleetAggregates class - fleet totals kept up to date as vehicles change
+ * VehicleTree calls add/remove for every insert, removal and update, so counts, sums and the
+ * most/least fuel-efficient vehicles are always current and a summary needs no pass over the
+ * fleet. Not thread-safe on its own - VehicleTree calls it under its lock.
+ */
+public class FleetAggregates {
+    private final int[] counts = new int[3];
+    private final long[] mileageTotals = new long[3];
+    private final double[] fuelTotals = new double[3];
+    private final VehicleMultiset byFuelUsage = new VehicleMultiset(); // fuel usage index: extremes and ranges
+
+    // Count a vehicle in with its current field values
+    void add(Vehicle vehicle) {
+        int type = vehicle.typeCode;
+        counts[type]++;
+        mileageTotals[type] += vehicle.mileage;
+        fuelTotals[type] += vehicle.fuelUsage;
+        byFuelUsage.add(vehicle.fuelUsage, vehicle);
+    }
+
+    // Count a vehicle out - call before its fields change, with the values it was added with
+    void remove(Vehicle vehicle) {
+        int type = vehicle.typeCode;
+        counts[type]--;
+        mileageTotals[type] -= vehicle.mileage;
+        fuelTotals[type] -= vehicle.fuelUsage;
+        if (counts[type] == 0) {
+            fuelTotals[type] = 0; // drop rounding left over from the subtractions
+        }
+        byFuelUsage.remove(vehicle.fuelUsage, vehicle);
+    }
+
+    // Every vehicle ordered by fuel usage (secondary index for VehicleTree's fuel queries)
+    VehicleMultiset byFuelUsage() {
+        return byFuelUsage;
+    }
+
+    // Snapshot of the current totals (lowest/highest mileage come from the tree itself)
+    FleetSummary summary(Vehicle lowestMileage, Vehicle highestMileage) {
+        return new FleetSummary(counts.clone(), mileageTotals.clone(), fuelTotals.clone(),
+            byFuelUsage.first(), byFuelUsage.last(), lowestMileage, highestMileage);
+    }
+}
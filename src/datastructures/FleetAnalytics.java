@@ -0,0 +1,48 @@
+package datastructures;
+
+/**
+ * FleetAnalytics class - per-type fleet figures computed from the fleet columns
+ * Arrays are indexed by vehicle type code (Vehicle.TRUCK, VAN, OTHER).
+ */
+public class FleetAnalytics {
+    public static final double HIGH_FUEL_USAGE = 15;  // default high usage threshold, L/100km
+    public final double highUsageThreshold;         // L/100km above which a vehicle counts as high usage
+    public final int[] vehicles = new int[3];
+    public final long[] totalMileage = new long[3];
+    public final double[] totalFuelUsage = new double[3];
+    public final double[] estimatedFuelLitres = new double[3]; // mileage x fuel usage, summed
+    public final int[] highUsage = new int[3];
+    public int unassigned;                           // vehicles without a driver
+
+    // Constructor
+    public FleetAnalytics(double highUsageThreshold) {
+        this.highUsageThreshold = highUsageThreshold;
+    }
+
+    // Average mileage of one type (0 if there are none)
+    public double averageMileage(int type) {
+        return vehicles[type] == 0 ? 0 : (double) totalMileage[type] / vehicles[type];
+    }
+
+    // Average fuel usage of one type (0 if there are none)
+    public double averageFuelUsage(int type) {
+        return vehicles[type] == 0 ? 0 : totalFuelUsage[type] / vehicles[type];
+    }
+
+    // Fuel burnt over the recorded mileage of the whole fleet, in litres
+    public double totalEstimatedFuelLitres() {
+        return estimatedFuelLitres[0] + estimatedFuelLitres[1] + estimatedFuelLitres[2];
+    }
+
+    // Number of high usage vehicles in the whole fleet
+    public int totalHighUsage() {
+        return highUsage[0] + highUsage[1] + highUsage[2];
+    }
+
+    // The threshold for labels, e.g. "> 15 L/100km"
+    public String highUsageLabel() {
+        String limit = highUsageThreshold == Math.rint(highUsageThreshold)
+            ? String.valueOf((long) highUsageThreshold) : String.valueOf(highUsageThreshold);
+        return "> " + limit + " L/100km";
+    }
+}
@@ -0,0 +1,25 @@
+package datastructures;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * FleetClock class - the time as the schedulers count it
+ * Delivery deadlines, maintenance projections and odometer readings are all kept in whole
+ * minutes since the epoch; this class reads the clock in those units and turns them back into
+ * "yyyy-MM-dd HH:mm" local time for display and for the data files.
+ */
+public class FleetClock {
+    public static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    // Current time in minutes since the epoch
+    public static long nowMinutes() {
+        return System.currentTimeMillis() / 60_000;
+    }
+
+    // Minutes since the epoch as "yyyy-MM-dd HH:mm" in local time
+    public static String format(long minutes) {
+        return DATE_TIME_FORMAT.format(Instant.ofEpochSecond(minutes * 60).atZone(ZoneId.systemDefault()));
+    }
+}
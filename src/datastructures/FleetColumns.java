@@ -0,0 +1,96 @@
+package datastructures;
+
+import java.util.Arrays;
+
+/**
+ * FleetColumns class - the fleet stored column by column for analytics
+ * Each vehicle owns one slot in a set of parallel primitive arrays (mileage, fuel usage, type
+ * code, driver code), so a report reads a few contiguous arrays instead of following a pointer
+ * to every Vehicle and its strings. Type and driver are the vehicle's codes, so filters compare
+ * numbers. Removing a vehicle moves the last
+ * slot into the hole, keeping the columns dense.
+ * Not thread-safe on its own - VehicleTree updates it under its write lock and runs the
+ * kernels under its read lock.
+ */
+public class FleetColumns {
+    private int size = 0;
+    private int[] mileage = new int[64];
+    private double[] fuelUsage = new double[64];
+    private byte[] type = new byte[64];
+    private int[] driver = new int[64];
+    private Vehicle[] owners = new Vehicle[64]; // vehicle in each slot (to fix up moved slots)
+
+    // Give a new vehicle a slot
+    void add(Vehicle vehicle) {
+        if (size == owners.length) {
+            grow();
+        }
+        owners[size] = vehicle;
+        vehicle.columnSlot = size;
+        size++;
+        update(vehicle);
+    }
+
+    // Copy a vehicle's current field values into its slot
+    void update(Vehicle vehicle) {
+        int slot = vehicle.columnSlot;
+        mileage[slot] = vehicle.mileage;
+        fuelUsage[slot] = vehicle.fuelUsage;
+        type[slot] = vehicle.typeCode;
+        driver[slot] = vehicle.driverCode;
+    }
+
+    // Free a vehicle's slot by moving the last slot into it
+    void remove(Vehicle vehicle) {
+        int slot = vehicle.columnSlot;
+        int last = --size;
+        if (slot != last) {
+            mileage[slot] = mileage[last];
+            fuelUsage[slot] = fuelUsage[last];
+            type[slot] = type[last];
+            driver[slot] = driver[last];
+            owners[slot] = owners[last];
+            owners[slot].columnSlot = slot;
+        }
+        owners[last] = null;
+        vehicle.columnSlot = -1;
+    }
+
+    private void grow() {
+        int capacity = owners.length * 2;
+        mileage = Arrays.copyOf(mileage, capacity);
+        fuelUsage = Arrays.copyOf(fuelUsage, capacity);
+        type = Arrays.copyOf(type, capacity);
+        driver = Arrays.copyOf(driver, capacity);
+        owners = Arrays.copyOf(owners, capacity);
+    }
+
+    // Per-type totals in one pass over the columns
+    // The 0/1 counters are added rather than guarded by an if, so the loop has no data-dependent branches
+    FleetAnalytics analyze(double highUsageThreshold, String unassignedDriverId) {
+        FleetAnalytics result = new FleetAnalytics(highUsageThreshold);
+        int unassignedCode = SymbolTable.SHARED.code(unassignedDriverId); // -1 never matches
+        int[] counts = result.vehicles;
+        long[] mileageTotals = result.totalMileage;
+        double[] fuelTotals = result.totalFuelUsage;
+        double[] litres = result.estimatedFuelLitres;
+        int[] highUsage = result.highUsage;
+        int unassigned = 0;
+        for (int i = 0; i < size; i++) {
+            int t = type[i];
+            int km = mileage[i];
+            double usage = fuelUsage[i];
+            counts[t]++;
+            mileageTotals[t] += km;
+            fuelTotals[t] += usage;
+            litres[t] += km * usage;
+            highUsage[t] += usage > highUsageThreshold ? 1 : 0;
+            unassigned += driver[i] == unassignedCode ? 1 : 0;
+        }
+        for (int t = 0; t < litres.length; t++) {
+            litres[t] /= 100; // L/100km x km
+        }
+        result.unassigned = unassigned;
+        return result;
+    }
+}
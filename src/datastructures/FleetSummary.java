@@ -0,0 +1,51 @@
+package datastructures;
+
+/**
+ * FleetSummary class - fleet totals at one moment, taken from VehicleTree.getSummary()
+ * Values do not change after the snapshot is taken; the vehicle references are the live vehicles.
+ */
+public class FleetSummary {
+    public final int vehicleCount;
+    public final int truckCount;
+    public final int vanCount;
+    public final long totalMileage;
+    public final double totalFuelUsage;
+    public final Vehicle mostEfficient;   // lowest fuel usage (null if the fleet is empty)
+    public final Vehicle leastEfficient;  // highest fuel usage
+    public final Vehicle lowestMileage;
+    public final Vehicle highestMileage;
+
+    private final int[] counts;           // per vehicle type code
+    private final double[] fuelTotals;
+
+    // Constructor - arrays are indexed by vehicle type code and must not be shared
+    FleetSummary(int[] counts, long[] mileageTotals, double[] fuelTotals, Vehicle mostEfficient,
+                 Vehicle leastEfficient, Vehicle lowestMileage, Vehicle highestMileage) {
+        this.counts = counts;
+        this.fuelTotals = fuelTotals;
+        this.vehicleCount = counts[0] + counts[1] + counts[2];
+        this.truckCount = counts[Vehicle.TRUCK];
+        this.vanCount = counts[Vehicle.VAN];
+        this.totalMileage = mileageTotals[0] + mileageTotals[1] + mileageTotals[2];
+        this.totalFuelUsage = fuelTotals[0] + fuelTotals[1] + fuelTotals[2];
+        this.mostEfficient = mostEfficient;
+        this.leastEfficient = leastEfficient;
+        this.lowestMileage = lowestMileage;
+        this.highestMileage = highestMileage;
+    }
+
+    // Average mileage (0 for an empty fleet)
+    public double averageMileage() {
+        return vehicleCount == 0 ? 0 : (double) totalMileage / vehicleCount;
+    }
+
+    // Average fuel usage in L/100km (0 for an empty fleet)
+    public double averageFuelUsage() {
+        return vehicleCount == 0 ? 0 : totalFuelUsage / vehicleCount;
+    }
+
+    // Average fuel usage of one vehicle type (Vehicle.TRUCK, VAN or OTHER)
+    public double averageFuelUsage(int type) {
+        return counts[type] == 0 ? 0 : fuelTotals[type] / counts[type];
+    }
+}
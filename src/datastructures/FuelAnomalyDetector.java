@@ -0,0 +1,77 @@
+package datastructures;
+
+/**
+ * FuelAnomalyDetector class - streaming fuel usage baselines and outliers per vehicle type
+ * Every fuel reading (a vehicle added, or its fuel usage changed) updates its type's baseline:
+ * mean and variance with Welford's method, lower quartile, median and upper quartile with P-square
+ * estimators - constant memory, no pass over the fleet. Trucks and vans are judged against their
+ * own type, and against the quartiles rather than the mean, so a few very thirsty vehicles do not
+ * drag the threshold up. Current vehicles are also kept ordered by fuel usage per type, so the
+ * outliers (above Q3 + 1.5 IQR) are found in O(log n + k).
+ * Not thread-safe on its own - VehicleTree calls it under its lock.
+ */
+public class FuelAnomalyDetector {
+    // Running statistics of one vehicle type
+    private static class Baseline {
+        long readings = 0;
+        double mean = 0;
+        double squaredDeviations = 0; // Welford's M2: sum of squared differences from the mean
+        final P2Quantile lowerQuartile = new P2Quantile(0.25);
+        final P2Quantile median = new P2Quantile(0.5);
+        final P2Quantile upperQuartile = new P2Quantile(0.75);
+        final VehicleMultiset vehicles = new VehicleMultiset(); // current vehicles by fuel usage
+
+        void addReading(double fuelUsage) {
+            readings++;
+            double delta = fuelUsage - mean;
+            mean += delta / readings;
+            squaredDeviations += delta * (fuelUsage - mean);
+            lowerQuartile.add(fuelUsage);
+            median.add(fuelUsage);
+            upperQuartile.add(fuelUsage);
+        }
+    }
+
+    private final Baseline[] baselines = {new Baseline(), new Baseline(), new Baseline()};
+
+    // A vehicle joined the fleet - its fuel usage counts as a reading
+    void add(Vehicle vehicle) {
+        Baseline baseline = baselines[vehicle.typeCode];
+        baseline.addReading(vehicle.fuelUsage);
+        baseline.vehicles.add(vehicle.fuelUsage, vehicle);
+    }
+
+    // A vehicle left the fleet, or is about to change - past readings stay in the baseline
+    void remove(Vehicle vehicle) {
+        baselines[vehicle.typeCode].vehicles.remove(vehicle.fuelUsage, vehicle);
+    }
+
+    // Snapshot of one type's baseline (Vehicle.TRUCK, VAN or OTHER)
+    FuelBaseline baseline(int type) {
+        Baseline baseline = baselines[type];
+        double variance = baseline.readings > 1 ? baseline.squaredDeviations / (baseline.readings - 1) : 0;
+        return new FuelBaseline(Vehicle.typeName(type), baseline.readings, baseline.mean, Math.sqrt(variance),
+            baseline.lowerQuartile.value(), baseline.median.value(), baseline.upperQuartile.value());
+    }
+
+    // Current vehicles above their type's upper fence - trucks first, then vans, each by fuel usage
+    Vehicle[] outliers() {
+        Vehicle[][] perType = new Vehicle[baselines.length][];
+        int total = 0;
+        for (int type = 0; type < baselines.length; type++) {
+            if (baselines[type].readings == 0) {
+                perType[type] = new Vehicle[0];
+                continue;
+            }
+            perType[type] = baselines[type].vehicles.greaterThan(baseline(type).upperFence());
+            total += perType[type].length;
+        }
+        Vehicle[] vehicles = new Vehicle[total];
+        int index = 0;
+        for (Vehicle[] group : perType) {
+            System.arraycopy(group, 0, vehicles, index, group.length);
+            index += group.length;
+        }
+        return vehicles;
+    }
+}
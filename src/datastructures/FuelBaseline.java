@@ -0,0 +1,45 @@
+package datastructures;
+
+/**
+ * FuelBaseline class - fuel usage statistics of one vehicle type at one moment
+ * Taken from VehicleTree.getFuelBaseline(); mean and standard deviation cover every fuel reading
+ * seen so far, the quartiles are streaming estimates over the same readings.
+ */
+public class FuelBaseline {
+    public static final double FENCE_FACTOR = 1.5; // Tukey's rule: outliers lie 1.5 IQR above the third quartile
+
+    public final String type;
+    public final long readings;
+    public final double mean;
+    public final double standardDeviation;
+    public final double lowerQuartile;
+    public final double median;
+    public final double upperQuartile;
+
+    // Constructor
+    public FuelBaseline(String type, long readings, double mean, double standardDeviation,
+                        double lowerQuartile, double median, double upperQuartile) {
+        this.type = type;
+        this.readings = readings;
+        this.mean = mean;
+        this.standardDeviation = standardDeviation;
+        this.lowerQuartile = lowerQuartile;
+        this.median = median;
+        this.upperQuartile = upperQuartile;
+    }
+
+    // Interquartile range - the spread of the middle half of the readings
+    public double interquartileRange() {
+        return upperQuartile - lowerQuartile;
+    }
+
+    // Fuel usage above which a vehicle of this type is an outlier
+    public double upperFence() {
+        return upperQuartile + FENCE_FACTOR * interquartileRange();
+    }
+
+    // How many standard deviations a fuel usage lies from the mean (0 if there is no spread yet)
+    public double zScore(double fuelUsage) {
+        return standardDeviation > 0 ? (fuelUsage - mean) / standardDeviation : 0;
+    }
+}
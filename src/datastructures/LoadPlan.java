@@ -0,0 +1,75 @@
+package datastructures;
+
+/**
+ * LoadPlan class - result of LoadPlanner.plan(): which deliveries go on which vehicle
+ */
+public class LoadPlan {
+    // One vehicle's load - deliveries leave from the same origin, grouped by destination
+    public static class Load {
+        public final Vehicle vehicle;
+        public final String origin;
+        public final int capacity;         // parcels the vehicle can take
+        Delivery[] deliveries;
+        int count = 0;
+
+        Load(Vehicle vehicle, String origin, int capacity) {
+            this.vehicle = vehicle;
+            this.origin = origin;
+            this.capacity = capacity;
+            this.deliveries = new Delivery[capacity];
+        }
+
+        // Deliveries on this vehicle (one parcel each)
+        public Delivery[] deliveries() {
+            Delivery[] loaded = new Delivery[count];
+            System.arraycopy(deliveries, 0, loaded, 0, count);
+            return loaded;
+        }
+
+        public int size() {
+            return count;
+        }
+
+        public int freeSpace() {
+            return capacity - count;
+        }
+
+        // Share of the capacity used (0-100)
+        public double fillPercent() {
+            return 100.0 * count / capacity;
+        }
+
+        void add(Delivery delivery) {
+            deliveries[count++] = delivery;
+        }
+    }
+
+    public final Load[] loads;            // grouped by origin, in the order the vehicles were loaded
+    public final Delivery[] unplanned;    // deliveries left over when the vehicles ran out
+    public final double planningMillis;
+
+    // Constructor
+    LoadPlan(Load[] loads, Delivery[] unplanned, double planningMillis) {
+        this.loads = loads;
+        this.unplanned = unplanned;
+        this.planningMillis = planningMillis;
+    }
+
+    // Number of deliveries placed on a vehicle
+    public int plannedCount() {
+        int planned = 0;
+        for (Load load : loads) {
+            planned += load.count;
+        }
+        return planned;
+    }
+
+    // Parcels carried / capacity of the vehicles used (0-100)
+    public double averageFillPercent() {
+        int capacity = 0;
+        for (Load load : loads) {
+            capacity += load.capacity;
+        }
+        return capacity == 0 ? 0 : 100.0 * plannedCount() / capacity;
+    }
+}
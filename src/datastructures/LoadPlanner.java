@@ -0,0 +1,159 @@
+package datastructures;
+
+import java.util.Arrays;
+
+/**
+ * LoadPlanner class - packs pending deliveries onto vehicles so they leave full
+ * Deliveries are grouped into corridors (same origin and destination, found by their symbol
+ * codes in an open-addressing table) and every corridor is packed whole where possible, so a
+ * vehicle makes as few drops as it can. Packing is first-fit decreasing per origin: corridors
+ * largest first, each into the first vehicle already loading at that origin with room for it,
+ * otherwise onto a new vehicle - a van when the corridor fits in one, else a truck. A corridor
+ * bigger than a whole vehicle fills vehicles and the rest is packed like a smaller corridor.
+ * Vehicles are taken lowest mileage first (the order they are passed in from VehicleTree).
+ * Vehicles without a driver are left out - a delivery moved onto one would lose its driver.
+ * Deliveries carry no size, so each one counts as one parcel slot. O(n + corridors * vehicles).
+ */
+public class LoadPlanner {
+    public static final int TRUCK_CAPACITY = 20; // parcels per vehicle
+    public static final int VAN_CAPACITY = 8;
+    public static final String NO_DRIVER = "UNASSIGNED"; // driver ID of a vehicle nobody drives
+
+    // A vehicle can only be planned with a driver assigned to it
+    private static boolean hasDriver(Vehicle vehicle) {
+        return vehicle.driverId != null && !vehicle.driverId.isEmpty() && !vehicle.driverId.equals(NO_DRIVER);
+    }
+
+    // Plan loads for the deliveries using the vehicles (each vehicle gets at most one load)
+    public static LoadPlan plan(Delivery[] deliveries, Vehicle[] vehicles) {
+        long start = System.nanoTime();
+        int n = deliveries.length;
+
+        // 1. Corridor of every delivery: open addressing on (origin code, destination code)
+        int capacity = Integer.highestOneBit(Math.max(1, n) * 2) * 2;
+        int mask = capacity - 1;
+        long[] keys = new long[capacity];
+        int[] slots = new int[capacity]; // slot -> corridor + 1 (0 = empty)
+        int[] corridorOf = new int[n];
+        int[] corridorSizes = new int[n];
+        int[] corridorOrigins = new int[n];
+        int corridors = 0;
+        for (int i = 0; i < n; i++) {
+            long key = ((long) deliveries[i].originCode << 32) | (deliveries[i].destinationCode & 0xFFFFFFFFL);
+            long mixed = key * 0x9E3779B97F4A7C15L;
+            int slot = (int) (mixed ^ (mixed >>> 32)) & mask;
+            while (slots[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (slots[slot] == 0) {
+                keys[slot] = key;
+                corridorOrigins[corridors] = deliveries[i].originCode;
+                slots[slot] = ++corridors;
+            }
+            corridorOf[i] = slots[slot] - 1;
+            corridorSizes[corridorOf[i]]++;
+        }
+
+        // 2. Deliveries listed corridor by corridor, queue order kept inside a corridor (counting sort)
+        int[] corridorStart = new int[corridors + 1];
+        for (int c = 0; c < corridors; c++) {
+            corridorStart[c + 1] = corridorStart[c] + corridorSizes[c];
+        }
+        Delivery[] byCorridor = new Delivery[n];
+        int[] fill = Arrays.copyOf(corridorStart, corridors);
+        for (int i = 0; i < n; i++) {
+            byCorridor[fill[corridorOf[i]]++] = deliveries[i];
+        }
+
+        // 3. Corridors by origin, largest first: one sort of packed (origin, -size, corridor) keys
+        long[] order = new long[corridors];
+        for (int c = 0; c < corridors; c++) {
+            order[c] = ((long) corridorOrigins[c] << 42) | ((long) (0x1FFFFF - corridorSizes[c]) << 21) | c;
+        }
+        Arrays.sort(order);
+
+        // 4. First-fit decreasing, one origin at a time
+        Vehicle[] trucks = new Vehicle[vehicles.length];
+        Vehicle[] vans = new Vehicle[vehicles.length];
+        int truckCount = 0;
+        int vanCount = 0;
+        for (Vehicle vehicle : vehicles) {
+            if (!hasDriver(vehicle)) {
+                continue;
+            }
+            if (vehicle.typeCode == Vehicle.TRUCK) {
+                trucks[truckCount++] = vehicle;
+            } else if (vehicle.typeCode == Vehicle.VAN) {
+                vans[vanCount++] = vehicle;
+            }
+        }
+        int nextTruck = 0;
+        int nextVan = 0;
+        LoadPlan.Load[] loads = new LoadPlan.Load[vehicles.length];
+        int loadCount = 0;
+        Delivery[] unplanned = new Delivery[n];
+        int unplannedCount = 0;
+        int originFirstLoad = 0; // loads from originFirstLoad on belong to the current origin
+        int currentOrigin = -1;
+
+        for (long entry : order) {
+            int corridor = (int) (entry & 0x1FFFFF);
+            int origin = corridorOrigins[corridor];
+            if (origin != currentOrigin) {
+                currentOrigin = origin;
+                originFirstLoad = loadCount;
+            }
+            int next = corridorStart[corridor];
+            int end = corridorStart[corridor + 1];
+            while (next < end) {
+                int remaining = end - next;
+                // First vehicle at this origin with room for the whole (rest of the) corridor
+                LoadPlan.Load target = null;
+                for (int l = originFirstLoad; l < loadCount; l++) {
+                    if (loads[l].freeSpace() >= remaining) {
+                        target = loads[l];
+                        break;
+                    }
+                }
+                if (target == null) {
+                    // New vehicle: a van if the corridor fits in one, otherwise a truck
+                    Vehicle vehicle = null;
+                    int vehicleCapacity = 0;
+                    boolean preferVan = remaining <= VAN_CAPACITY;
+                    if (preferVan && nextVan < vanCount) {
+                        vehicle = vans[nextVan++];
+                        vehicleCapacity = VAN_CAPACITY;
+                    } else if (nextTruck < truckCount) {
+                        vehicle = trucks[nextTruck++];
+                        vehicleCapacity = TRUCK_CAPACITY;
+                    } else if (nextVan < vanCount) {
+                        vehicle = vans[nextVan++];
+                        vehicleCapacity = VAN_CAPACITY;
+                    }
+                    if (vehicle != null) {
+                        target = new LoadPlan.Load(vehicle, SymbolTable.SHARED.symbol(origin), vehicleCapacity);
+                        loads[loadCount++] = target;
+                    }
+                }
+                if (target == null) {
+                    // Out of vehicles: squeeze the rest into any space left at this origin
+                    for (int l = originFirstLoad; l < loadCount && next < end; l++) {
+                        while (loads[l].freeSpace() > 0 && next < end) {
+                            loads[l].add(byCorridor[next++]);
+                        }
+                    }
+                    while (next < end) {
+                        unplanned[unplannedCount++] = byCorridor[next++];
+                    }
+                    break;
+                }
+                while (target.freeSpace() > 0 && next < end) {
+                    target.add(byCorridor[next++]);
+                }
+            }
+        }
+
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+        return new LoadPlan(Arrays.copyOf(loads, loadCount), Arrays.copyOf(unplanned, unplannedCount), millis);
+    }
+}
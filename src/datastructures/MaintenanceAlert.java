@@ -0,0 +1,29 @@
+package datastructures;
+
+/**
+ * MaintenanceAlert class - a maintenance task that just moved into a more urgent band,
+ * raised by MaintenanceAlertWheel as the vehicle's mileage crossed the band's threshold
+ */
+public class MaintenanceAlert {
+    public final MaintenanceTask task;
+    public final String level;       // MEDIUM, HIGH, CRITICAL or DUE
+    public final int remainingKm;    // km left until the service when the alert was raised (negative = overdue)
+
+    // Constructor
+    MaintenanceAlert(MaintenanceTask task, String level, int remainingKm) {
+        this.task = task;
+        this.level = level;
+        this.remainingKm = remainingKm;
+    }
+
+    // One line for the console, e.g. "HIGH: Vehicle GT1234-22 has 940 km left until maintenance"
+    public String describe() {
+        if (remainingKm < 0) {
+            return level + ": Vehicle " + task.vehicleNumber + " is overdue for maintenance by " + (-remainingKm) + " km!";
+        }
+        if (remainingKm == 0) {
+            return level + ": Vehicle " + task.vehicleNumber + " is due for maintenance now!";
+        }
+        return level + ": Vehicle " + task.vehicleNumber + " has " + remainingKm + " km left until maintenance";
+    }
+}
@@ -0,0 +1,297 @@
+package datastructures;
+
+import java.util.Arrays;
+
+/**
+ * MaintenanceAlertWheel class - raises an alert the moment a task's remaining km crosses into a
+ * more urgent band (MEDIUM at 2000 km, HIGH at 1000, CRITICAL at 500, DUE at 0)
+ * Every vehicle has a km clock (distance driven since the wheel started following it) and a
+ * hierarchical timing wheel over that clock: level k has 64 slots of 64^k km, and each task waits
+ * in the slot of the clock reading at which it reaches its next threshold. A 64-bit mask per level
+ * marks the slots in use, so moving the clock forward jumps straight to the next filled slot
+ * instead of stepping through every km: an update costs one hash lookup plus the alerts it
+ * raises, however many tasks the fleet has. Far-off entries move down a level as the clock gets
+ * close to them. Tasks have no service date, so the wheel is driven by distance only. A vehicle's
+ * wheel is dropped with its last task, so vehicles without tasks take no memory.
+ * Not thread-safe on its own - MaintenanceScheduler calls it under its lock.
+ */
+public class MaintenanceAlertWheel {
+    public static final int MEDIUM_KM = 2000, HIGH_KM = 1000, CRITICAL_KM = 500; // same bands as getPriorityLevel
+    static final int[] THRESHOLDS = {MEDIUM_KM, HIGH_KM, CRITICAL_KM, 0};
+    static final String[] LEVELS = {"MEDIUM", "HIGH", "CRITICAL", "DUE"};
+    private static final int SLOT_BITS = 6;   // 64 slots per level
+    private static final int LEVEL_COUNT = 6; // 64^6 km ahead - far beyond any int mileage
+
+    // A task waiting for its next threshold, linked into one slot of its vehicle's wheel
+    static class Entry {
+        final MaintenanceTask task;
+        final VehicleWheel wheel;
+        long due;        // clock reading at which the threshold is reached
+        int band;        // index into THRESHOLDS of the threshold being waited for
+        int level = -1;  // -1 = not in a slot
+        int slot;
+        Entry previous, next;
+
+        Entry(MaintenanceTask task, VehicleWheel wheel) {
+            this.task = task;
+            this.wheel = wheel;
+        }
+    }
+
+    // One vehicle's km clock and wheel levels (a level's slots are created on first use)
+    static class VehicleWheel {
+        final long vehicleKey;
+        final String vehicleNumber;
+        long clock = 0;
+        final Entry[][] slots = new Entry[LEVEL_COUNT][];
+        final long[] occupied = new long[LEVEL_COUNT];
+        int entries = 0;
+
+        VehicleWheel(long vehicleKey, String vehicleNumber) {
+            this.vehicleKey = vehicleKey;
+            this.vehicleNumber = vehicleNumber;
+        }
+    }
+
+    private final RegistrationMap<VehicleWheel> wheels = new RegistrationMap<>();
+    private MaintenanceAlert[] fired = new MaintenanceAlert[8];
+    private int firedCount = 0;
+
+    // Start watching a task from its current remaining km - O(1)
+    // No alert for the band it is already in; the next threshold below is armed
+    void schedule(MaintenanceTask task) {
+        cancel(task);
+        int band = nextBand(task.mileage);
+        if (band < 0) {
+            return; // already due - nothing left to cross
+        }
+        VehicleWheel wheel = wheelFor(task.vehicleKey, task.vehicleNumber);
+        Entry entry = new Entry(task, wheel);
+        entry.band = band;
+        entry.due = wheel.clock + task.mileage - THRESHOLDS[band];
+        task.alertEntry = entry;
+        wheel.entries++;
+        place(entry);
+    }
+
+    // Stop watching a task (processed or removed) - O(1)
+    void cancel(MaintenanceTask task) {
+        Entry entry = task.alertEntry;
+        if (entry == null) {
+            return;
+        }
+        unlink(entry);
+        task.alertEntry = null;
+        release(entry.wheel);
+    }
+
+    // A vehicle drove km further: raise alerts for every task that crossed a threshold
+    // O(1) plus the alerts raised and entries moved down a level
+    void advance(String vehicleNumber, int km) {
+        if (km <= 0) {
+            return;
+        }
+        long key = RegistrationCodec.encode(vehicleNumber);
+        VehicleWheel wheel = wheels.get(key, vehicleNumber);
+        if (wheel == null) {
+            return; // no tasks for this vehicle
+        }
+        long target = wheel.clock + km;
+        while (true) {
+            // Level 0 holds entries due in the current 64 km block: fire those reached
+            fireLevelZero(wheel, target);
+            if (target >>> SLOT_BITS == wheel.clock >>> SLOT_BITS) {
+                wheel.clock = target;
+                return;
+            }
+            // Jump to the first filled slot of a higher level (the lowest level has the earliest),
+            // or straight to the target if nothing is due before it
+            int level = 1;
+            int slot = -1;
+            for (; level < LEVEL_COUNT; level++) {
+                int digit = digit(wheel.clock, level);
+                long later = digit == 63 ? 0 : wheel.occupied[level] & (-1L << (digit + 1));
+                if (later != 0) {
+                    slot = Long.numberOfTrailingZeros(later);
+                    break;
+                }
+            }
+            if (slot < 0) {
+                wheel.clock = target;
+                return;
+            }
+            int shift = SLOT_BITS * level;
+            long slotStart = ((wheel.clock >>> (shift + SLOT_BITS)) << (shift + SLOT_BITS)) | ((long) slot << shift);
+            if (slotStart > target) {
+                wheel.clock = target;
+                return;
+            }
+            // Enter the slot and spread its entries over the lower levels (or fire them)
+            wheel.clock = slotStart;
+            Entry entry = wheel.slots[level][slot];
+            wheel.slots[level][slot] = null;
+            wheel.occupied[level] &= ~(1L << slot);
+            while (entry != null) {
+                Entry next = entry.next;
+                entry.level = -1;
+                entry.previous = entry.next = null;
+                place(entry);
+                entry = next;
+            }
+        }
+    }
+
+    // Alerts raised since the last call, oldest first
+    MaintenanceAlert[] drain() {
+        MaintenanceAlert[] alerts = Arrays.copyOf(fired, firedCount);
+        Arrays.fill(fired, 0, firedCount, null);
+        firedCount = 0;
+        return alerts;
+    }
+
+    // Number of vehicles with a wheel (those with at least one task still waiting for an alert)
+    int vehicleCount() {
+        return wheels.size();
+    }
+
+    void clear() {
+        for (int i = 0; i < wheels.size(); i++) {
+            VehicleWheel wheel = wheels.valueAt(i);
+            for (Entry[] level : wheel.slots) {
+                if (level == null) {
+                    continue;
+                }
+                for (Entry entry : level) {
+                    for (; entry != null; entry = entry.next) {
+                        entry.task.alertEntry = null;
+                    }
+                }
+            }
+        }
+        wheels.clear();
+        drain();
+    }
+
+    // Index of the first threshold below the remaining km, or -1 if none is left
+    private static int nextBand(int remainingKm) {
+        for (int band = 0; band < THRESHOLDS.length; band++) {
+            if (remainingKm > THRESHOLDS[band]) {
+                return band;
+            }
+        }
+        return -1;
+    }
+
+    private static int digit(long clock, int level) {
+        return (int) (clock >>> (SLOT_BITS * level)) & 63;
+    }
+
+    // Put an entry in the slot for its due reading, or fire it if the clock has reached it
+    private void place(Entry entry) {
+        VehicleWheel wheel = entry.wheel;
+        if (entry.due <= wheel.clock) {
+            fire(entry);
+            return;
+        }
+        // The level is the highest digit in which the due reading differs from the clock
+        int level = Math.min(LEVEL_COUNT - 1, (63 - Long.numberOfLeadingZeros(entry.due ^ wheel.clock)) / SLOT_BITS);
+        int slot = digit(entry.due, level);
+        if (wheel.slots[level] == null) {
+            wheel.slots[level] = new Entry[64];
+        }
+        entry.level = level;
+        entry.slot = slot;
+        entry.previous = null;
+        entry.next = wheel.slots[level][slot];
+        if (entry.next != null) {
+            entry.next.previous = entry;
+        }
+        wheel.slots[level][slot] = entry;
+        wheel.occupied[level] |= 1L << slot;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.level < 0) {
+            return;
+        }
+        VehicleWheel wheel = entry.wheel;
+        if (entry.previous != null) {
+            entry.previous.next = entry.next;
+        } else {
+            wheel.slots[entry.level][entry.slot] = entry.next;
+            if (entry.next == null) {
+                wheel.occupied[entry.level] &= ~(1L << entry.slot);
+            }
+        }
+        if (entry.next != null) {
+            entry.next.previous = entry.previous;
+        }
+        entry.previous = entry.next = null;
+        entry.level = -1;
+    }
+
+    // Fire every level-0 entry due at or before the target (all of them if the target is in a later block)
+    private void fireLevelZero(VehicleWheel wheel, long target) {
+        long mask = wheel.occupied[0];
+        if (mask == 0) {
+            return;
+        }
+        if (target >>> SLOT_BITS == wheel.clock >>> SLOT_BITS) {
+            int last = digit(target, 0);
+            mask &= last == 63 ? -1L : (1L << (last + 1)) - 1;
+        }
+        while (mask != 0) {
+            int slot = Long.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            Entry entry = wheel.slots[0][slot];
+            wheel.slots[0][slot] = null;
+            wheel.occupied[0] &= ~(1L << slot);
+            while (entry != null) {
+                Entry next = entry.next;
+                entry.level = -1;
+                entry.previous = entry.next = null;
+                fire(entry);
+                entry = next;
+            }
+        }
+    }
+
+    // The entry's threshold was crossed at the current clock (or at the target of this advance):
+    // raise one alert for the most urgent band reached, then arm the next threshold
+    private void fire(Entry entry) {
+        int remaining = entry.task.mileage; // negative = overdue by that many km
+        int band = entry.band;
+        while (band + 1 < THRESHOLDS.length && remaining <= THRESHOLDS[band + 1]) {
+            band++;
+        }
+        if (firedCount == fired.length) {
+            fired = Arrays.copyOf(fired, firedCount * 2);
+        }
+        fired[firedCount++] = new MaintenanceAlert(entry.task, LEVELS[band], remaining);
+        if (band + 1 < THRESHOLDS.length) {
+            long dueAtZero = entry.due + THRESHOLDS[entry.band]; // clock reading with 0 km left
+            entry.band = band + 1;
+            entry.due = dueAtZero - THRESHOLDS[entry.band];
+            place(entry);
+        } else {
+            entry.task.alertEntry = null;
+            release(entry.wheel);
+        }
+    }
+
+    // One task fewer on a wheel - the wheel is dropped once it follows none
+    private void release(VehicleWheel wheel) {
+        if (--wheel.entries == 0) {
+            wheels.remove(wheel.vehicleKey, wheel.vehicleNumber);
+        }
+    }
+
+    private VehicleWheel wheelFor(long key, String vehicleNumber) {
+        VehicleWheel wheel = wheels.get(key, vehicleNumber);
+        if (wheel == null) {
+            wheel = new VehicleWheel(key, vehicleNumber);
+            wheels.put(key, vehicleNumber, wheel);
+        }
+        return wheel;
+    }
+}
@@ -0,0 +1,243 @@
+package datastructures;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+/**
+ * MaintenanceCostRollup class - maintenance spend added up as records come in
+ * Cost and service count are kept per part (service name, case-insensitive) and per month for
+ * the whole fleet; each vehicle's own MonthSeries lives with its history entry in
+ * MaintenanceHistoryStore. Adding a record updates one cell of each, so reports never go back to
+ * the history: a spend over a range of months is a binary search plus the months in it, and the
+ * top N parts or vehicles is one pass with a heap of N (top).
+ * Not thread-safe on its own - MaintenanceHistoryStore calls it under its lock.
+ */
+public class MaintenanceCostRollup {
+
+    // One row of a cost report: a month (YYYY-MM), part or vehicle with its totals
+    public static class Total {
+        public final String label;
+        public final int services;
+        public final double cost;
+
+        Total(String label, int services, double cost) {
+            this.label = label;
+            this.services = services;
+            this.cost = cost;
+        }
+
+        // Display totals as a table; the first column is headed Month, Part or Vehicle
+        public static void displayTable(String labelHeader, Total[] totals) {
+            TableRenderer table = new TableRenderer(
+                new String[] {labelHeader, "Services", "Cost (GH₵)"},
+                new int[] {25, 10, 14});
+            table.render(System.out, totals.length, (i, row) ->
+                row.cell(totals[i].label).cell(totals[i].services).cellFixed2(totals[i].cost).end());
+        }
+    }
+
+    // Totals per month, sorted by month (parallel arrays, months as yyyyMM)
+    static class MonthSeries {
+        int[] months = new int[4];
+        int[] services = new int[4];
+        double[] costs = new double[4];
+        int count = 0;
+
+        // O(1) for the newest month, otherwise a binary search and a shift of the later months
+        void add(int month, double cost) {
+            int index = count > 0 && months[count - 1] == month ? count - 1 : lowerBound(month);
+            if (index == count || months[index] != month) {
+                if (count == months.length) {
+                    months = Arrays.copyOf(months, count * 2);
+                    services = Arrays.copyOf(services, count * 2);
+                    costs = Arrays.copyOf(costs, count * 2);
+                }
+                System.arraycopy(months, index, months, index + 1, count - index);
+                System.arraycopy(services, index, services, index + 1, count - index);
+                System.arraycopy(costs, index, costs, index + 1, count - index);
+                months[index] = month;
+                services[index] = 0;
+                costs[index] = 0;
+                count++;
+            }
+            services[index]++;
+            costs[index] += cost;
+        }
+
+        // Months from one to another (inclusive, yyyyMM), oldest first
+        Total[] range(int from, int to) {
+            int first = lowerBound(from);
+            int end = to == Integer.MAX_VALUE ? count : lowerBound(to + 1);
+            Total[] totals = new Total[Math.max(0, end - first)];
+            for (int i = first; i < end; i++) {
+                totals[i - first] = new Total(monthText(months[i]), services[i], costs[i]);
+            }
+            return totals;
+        }
+
+        // First index whose month is on or after the given month
+        int lowerBound(int month) {
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (months[middle] < month) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    // A part's running totals; the name keeps the spelling it was first recorded with
+    private static class PartCosts {
+        final String name;
+        final String key;
+        int services = 0;
+        double cost = 0;
+
+        PartCosts(String name, String key) {
+            this.name = name;
+            this.key = key;
+        }
+    }
+
+    private PartCosts[] parts = new PartCosts[32];          // open addressing on the lower-case part name
+    private int partCount = 0;
+    private final MonthSeries fleet = new MonthSeries();
+    private double totalCost = 0;
+
+    // Count one service in the part and fleet rollups - O(1) when records arrive in date order
+    // date is yyyyMMdd
+    void add(int date, String part, double cost) {
+        int month = date / 100;
+        PartCosts partCosts = part(part);
+        partCosts.services++;
+        partCosts.cost += cost;
+        fleet.add(month, cost);
+        totalCost += cost;
+    }
+
+    // Spend per month of the whole fleet (yyyyMM, inclusive)
+    Total[] monthly(int fromMonth, int toMonth) {
+        return fleet.range(fromMonth, toMonth);
+    }
+
+    // The n parts with the highest total cost, most expensive first - O(parts log n)
+    Total[] topParts(int n) {
+        Total[] totals = new Total[partCount];
+        int count = 0;
+        for (PartCosts part : parts) {
+            if (part != null) {
+                totals[count++] = new Total(part.name, part.services, part.cost);
+            }
+        }
+        return top(totals, n);
+    }
+
+    double totalCost() {
+        return totalCost;
+    }
+
+    // Month as yyyyMM, or -1 if it is not a valid YYYY-MM month
+    public static int monthKey(String month) {
+        try {
+            YearMonth parsed = YearMonth.parse(month.trim());
+            return parsed.getYear() * 100 + parsed.getMonthValue();
+        } catch (DateTimeParseException | NullPointerException e) {
+            return -1;
+        }
+    }
+
+    private static String monthText(int month) {
+        return String.format("%04d-%02d", month / 100, month % 100);
+    }
+
+    // The n totals with the highest cost, most expensive first - O(totals log n)
+    // Keeps the n largest in a min-heap (smallest on top), then empties it from the back
+    static Total[] top(Total[] totals, int n) {
+        int limit = Math.max(0, Math.min(n, totals.length));
+        Total[] heap = new Total[limit];
+        int size = 0;
+        for (Total total : totals) {
+            if (size < limit) {
+                heap[size] = total;
+                siftUp(heap, size++);
+            } else if (limit > 0 && total.cost > heap[0].cost) {
+                heap[0] = total;
+                siftDown(heap, size);
+            }
+        }
+        Total[] sorted = new Total[size];
+        for (int end = size - 1; end >= 0; end--) {
+            sorted[end] = heap[0];
+            heap[0] = heap[end];
+            siftDown(heap, end);
+        }
+        return sorted;
+    }
+
+    private static void siftUp(Total[] heap, int index) {
+        Total moving = heap[index];
+        while (index > 0 && moving.cost < heap[(index - 1) / 2].cost) {
+            heap[index] = heap[(index - 1) / 2];
+            index = (index - 1) / 2;
+        }
+        heap[index] = moving;
+    }
+
+    private static void siftDown(Total[] heap, int size) {
+        if (size == 0) {
+            return;
+        }
+        Total moving = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].cost < heap[child].cost) {
+                child++;
+            }
+            if (heap[child].cost >= moving.cost) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = moving;
+    }
+
+    private PartCosts part(String name) {
+        String key = name.trim().toLowerCase();
+        int slot = partSlot(key);
+        if (parts[slot] == null) {
+            parts[slot] = new PartCosts(name.trim(), key);
+            if (++partCount * 2 > parts.length) {
+                PartCosts[] old = parts;
+                parts = new PartCosts[old.length * 2];
+                for (PartCosts moved : old) {
+                    if (moved != null) {
+                        parts[partSlot(moved.key)] = moved;
+                    }
+                }
+                slot = partSlot(key);
+            }
+        }
+        return parts[slot];
+    }
+
+    private int partSlot(String key) {
+        int mask = parts.length - 1;
+        int hash = key.hashCode() * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (parts[slot] != null && !parts[slot].key.equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
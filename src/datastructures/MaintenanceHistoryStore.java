@@ -0,0 +1,460 @@
+package datastructures;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * MaintenanceHistoryStore class - every completed service, kept on disk for good
+ * Records are appended (and fsynced) to segment files in the history directory; a segment is
+ * closed once it reaches SEGMENT_BYTES and never written again. In memory the store only keeps
+ * where each record lives (segment and byte offset), sorted by service date twice over: once
+ * per vehicle and once for the whole fleet. A vehicle's service count, total cost and monthly
+ * spend are kept alongside, so those answers are O(1) or a binary search; a date range is found
+ * by binary search and only the records in it are read from disk. Every record is also counted
+ * in the part and fleet cost rollups (MaintenanceCostRollup) as it is indexed, so spend reports
+ * never read the segments. Opening the store reads every segment once and sorts the index in
+ * one go. A damaged last line of the last segment is a write that
+ * never finished and is cut off; any other damaged line is skipped with a warning.
+ *
+ * Record line format: vehicle,date,service,cost|crc32
+ * Thread-safe.
+ */
+public class MaintenanceHistoryStore {
+    private static final String SEGMENT_PREFIX = "history-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final long SEGMENT_BYTES = 1 << 20; // close a segment at 1 MB (~20,000 records)
+
+    // Where one record lives, in date order (parallel arrays)
+    private static class Positions {
+        int[] dates = new int[8];       // yyyyMMdd
+        int[] segments = new int[8];
+        long[] offsets = new long[8];
+        int count = 0;
+
+        // Insert after every record with the same or an earlier date - O(1) when dates arrive in order
+        // (unsorted = append at the end; call sort() before the next lookup)
+        void add(int date, int segment, long offset, boolean unsorted) {
+            if (count == dates.length) {
+                dates = Arrays.copyOf(dates, count * 2);
+                segments = Arrays.copyOf(segments, count * 2);
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            int index = unsorted ? count : upperBound(date);
+            System.arraycopy(dates, index, dates, index + 1, count - index);
+            System.arraycopy(segments, index, segments, index + 1, count - index);
+            System.arraycopy(offsets, index, offsets, index + 1, count - index);
+            dates[index] = date;
+            segments[index] = segment;
+            offsets[index] = offset;
+            count++;
+        }
+
+        // Sort by date, keeping the order of records with the same date - one sort after loading
+        void sort() {
+            long[] order = new long[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = ((long) dates[i] << 32) | i; // yyyyMMdd fits in 27 bits
+            }
+            Arrays.sort(order);
+            int[] sortedSegments = new int[dates.length];
+            long[] sortedOffsets = new long[dates.length];
+            for (int i = 0; i < count; i++) {
+                int from = (int) order[i];
+                sortedSegments[i] = segments[from];
+                sortedOffsets[i] = offsets[from];
+                order[i] >>>= 32;
+            }
+            for (int i = 0; i < count; i++) {
+                dates[i] = (int) order[i];
+            }
+            segments = sortedSegments;
+            offsets = sortedOffsets;
+        }
+
+        // First index whose date is after the given date
+        int upperBound(int date) {
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (dates[middle] <= date) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        // First index whose date is on or after the given date
+        int lowerBound(int date) {
+            return upperBound(date - 1);
+        }
+    }
+
+    // One vehicle's records and spend
+    private static class VehicleHistory {
+        final String vehicleNumber;
+        final Positions positions = new Positions();
+        final MaintenanceCostRollup.MonthSeries months = new MaintenanceCostRollup.MonthSeries();
+        double cost = 0;
+
+        VehicleHistory(String vehicleNumber) {
+            this.vehicleNumber = vehicleNumber;
+        }
+    }
+
+    private final File directory;
+    private final Positions fleet = new Positions();
+    private final MaintenanceCostRollup costs = new MaintenanceCostRollup();
+    private final RegistrationMap<VehicleHistory> vehicles = new RegistrationMap<>();
+    private FileChannel[] readers = new FileChannel[4];        // per segment, opened on first read
+    private FileChannel active;
+    private int activeSegment = 0;
+    private long activeSize = 0;
+
+    // Constructor - the directory holds the history segments
+    public MaintenanceHistoryStore(String directory) {
+        this.directory = new File(directory);
+    }
+
+    // Read every segment, build the index and get ready for appending
+    // Returns the number of records found
+    public synchronized int open() throws IOException {
+        if (active != null) {
+            return fleet.count; // already open
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory " + directory);
+        }
+        File[] segments = listSegments();
+        for (int i = 0; i < segments.length; i++) {
+            int segment = segmentNumber(segments[i]);
+            boolean last = i == segments.length - 1;
+            long validBytes = indexSegment(segments[i], segment);
+            if (validBytes < segments[i].length()) {
+                System.out.println("Warning: " + (last ? "Cut off" : "Skipped") + " a damaged record at the end of "
+                    + segments[i].getName());
+            }
+            if (last) {
+                activeSegment = segment;
+                activeSize = validBytes;
+            }
+        }
+        fleet.sort();
+        for (int i = 0; i < vehicles.size(); i++) {
+            vehicles.valueAt(i).positions.sort();
+        }
+        if (activeSegment == 0) {
+            activeSegment = 1;
+        }
+        active = openSegment(activeSegment);
+        active.truncate(activeSize);
+        active.position(activeSize);
+        return fleet.count;
+    }
+
+    // Save a record for good and index it
+    public synchronized void append(MaintenanceRecord record) throws IOException {
+        int date = dateKey(record.date);
+        if (date < 0) {
+            throw new IllegalArgumentException("Date must be YYYY-MM-DD");
+        }
+        if (record.vehicleNumber.indexOf(',') >= 0 || record.partReplaced.indexOf(',') >= 0) {
+            throw new IllegalArgumentException("Vehicle and service cannot contain commas");
+        }
+        if (record.cost < 0) {
+            throw new IllegalArgumentException("Cost cannot be negative");
+        }
+        if (active == null) {
+            throw new IllegalStateException("Maintenance history is not open");
+        }
+        byte[] line = (encode(record.toRecord()) + "\n").getBytes(StandardCharsets.UTF_8);
+        if (activeSize > 0 && activeSize + line.length > SEGMENT_BYTES) {
+            FileChannel next = openSegment(activeSegment + 1); // the current one stays usable if this fails
+            active.close();
+            active = next;
+            activeSegment++;
+            activeSize = 0;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(line);
+        try {
+            while (buffer.hasRemaining()) {
+                active.write(buffer);
+            }
+            active.force(false);
+        } catch (IOException e) {
+            // Take back whatever part of the line got written, so the next record starts at activeSize
+            try {
+                active.truncate(activeSize);
+                active.position(activeSize);
+            } catch (IOException undo) {
+                e.addSuppressed(undo);
+            }
+            throw e;
+        }
+        index(record.vehicleNumber, date, record.partReplaced, record.cost, activeSegment, activeSize, false);
+        activeSize += line.length;
+    }
+
+    // Number of records in the store
+    public synchronized int size() {
+        return fleet.count;
+    }
+
+    // Total spent on a vehicle's maintenance - O(1)
+    public synchronized double totalCost(String vehicleNumber) {
+        VehicleHistory history = find(vehicleNumber);
+        return history == null ? 0 : history.cost;
+    }
+
+    // Number of services recorded for a vehicle - O(1)
+    public synchronized int serviceCount(String vehicleNumber) {
+        VehicleHistory history = find(vehicleNumber);
+        return history == null ? 0 : history.positions.count;
+    }
+
+    // The vehicle's most recent service, or null if it has none - one record read
+    public synchronized MaintenanceRecord lastService(String vehicleNumber) throws IOException {
+        VehicleHistory history = find(vehicleNumber);
+        if (history == null || history.positions.count == 0) {
+            return null;
+        }
+        Positions positions = history.positions;
+        return read(positions.segments[positions.count - 1], positions.offsets[positions.count - 1]);
+    }
+
+    // A vehicle's services from one date to another (inclusive, YYYY-MM-DD; null = open end), oldest first
+    public synchronized MaintenanceRecord[] history(String vehicleNumber, String fromDate, String toDate) throws IOException {
+        VehicleHistory history = find(vehicleNumber);
+        return history == null ? new MaintenanceRecord[0] : readRange(history.positions, fromDate, toDate);
+    }
+
+    // Services of the whole fleet from one date to another (inclusive, YYYY-MM-DD; null = open end), oldest first
+    public synchronized MaintenanceRecord[] between(String fromDate, String toDate) throws IOException {
+        return readRange(fleet, fromDate, toDate);
+    }
+
+    // Spend per month (YYYY-MM to YYYY-MM, inclusive; null = open end) of one vehicle,
+    // or of the whole fleet if vehicleNumber is null - from the rollups, no records are read
+    public synchronized MaintenanceCostRollup.Total[] monthlySpend(String vehicleNumber, String fromMonth, String toMonth) {
+        int from = fromMonth == null ? 0 : MaintenanceCostRollup.monthKey(fromMonth);
+        int to = toMonth == null ? Integer.MAX_VALUE : MaintenanceCostRollup.monthKey(toMonth);
+        if (from < 0 || to < 0) {
+            throw new IllegalArgumentException("Months must be YYYY-MM");
+        }
+        if (vehicleNumber == null) {
+            return costs.monthly(from, to);
+        }
+        VehicleHistory history = find(vehicleNumber);
+        return history == null ? new MaintenanceCostRollup.Total[0] : history.months.range(from, to);
+    }
+
+    // The n most expensive parts/services by total cost, most expensive first
+    public synchronized MaintenanceCostRollup.Total[] topParts(int n) {
+        return costs.topParts(n);
+    }
+
+    // The n vehicles with the highest maintenance spend, most expensive first
+    public synchronized MaintenanceCostRollup.Total[] topVehicles(int n) {
+        MaintenanceCostRollup.Total[] totals = new MaintenanceCostRollup.Total[vehicles.size()];
+        for (int i = 0; i < totals.length; i++) {
+            VehicleHistory history = vehicles.valueAt(i);
+            totals[i] = new MaintenanceCostRollup.Total(history.vehicleNumber, history.positions.count, history.cost);
+        }
+        return MaintenanceCostRollup.top(totals, n);
+    }
+
+    // Spend of the whole fleet over every record
+    public synchronized double fleetCost() {
+        return costs.totalCost();
+    }
+
+    // Vehicles that have at least one record, in the order they were first seen
+    public synchronized String[] vehicles() {
+        String[] numbers = new String[vehicles.size()];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = vehicles.registrationAt(i);
+        }
+        return numbers;
+    }
+
+    // Close every open segment
+    public synchronized void close() throws IOException {
+        if (active != null) {
+            active.close();
+            active = null;
+        }
+        for (int i = 0; i < readers.length; i++) {
+            if (readers[i] != null) {
+                readers[i].close();
+                readers[i] = null;
+            }
+        }
+    }
+
+    // Date as yyyyMMdd, or -1 if it is not a valid YYYY-MM-DD date
+    public static int dateKey(String date) {
+        try {
+            LocalDate parsed = LocalDate.parse(date.trim());
+            return parsed.getYear() * 10000 + parsed.getMonthValue() * 100 + parsed.getDayOfMonth();
+        } catch (DateTimeParseException | NullPointerException e) {
+            return -1;
+        }
+    }
+
+    private MaintenanceRecord[] readRange(Positions positions, String fromDate, String toDate) throws IOException {
+        int from = fromDate == null ? 0 : dateKey(fromDate);
+        int to = toDate == null ? Integer.MAX_VALUE : dateKey(toDate);
+        if (from < 0 || to < 0) {
+            throw new IllegalArgumentException("Dates must be YYYY-MM-DD");
+        }
+        int first = positions.lowerBound(from);
+        int end = positions.upperBound(to);
+        MaintenanceRecord[] records = new MaintenanceRecord[Math.max(0, end - first)];
+        for (int i = first; i < end; i++) {
+            records[i - first] = read(positions.segments[i], positions.offsets[i]);
+        }
+        return records;
+    }
+
+    private void index(String vehicleNumber, int date, String part, double cost, int segment, long offset, boolean unsorted) {
+        long key = RegistrationCodec.encode(vehicleNumber);
+        VehicleHistory history = vehicles.get(key, vehicleNumber);
+        if (history == null) {
+            history = new VehicleHistory(vehicleNumber);
+            vehicles.put(key, vehicleNumber, history);
+        }
+        history.positions.add(date, segment, offset, unsorted);
+        history.months.add(date / 100, cost);
+        history.cost += cost;
+        fleet.add(date, segment, offset, unsorted);
+        costs.add(date, part, cost);
+    }
+
+    private VehicleHistory find(String vehicleNumber) {
+        return vehicles.get(vehicleNumber);
+    }
+
+    // Index every valid line of a segment; returns its length without a damaged or unfinished last line
+    // A damaged line with more lines after it is skipped with a warning and the rest is still read
+    private long indexSegment(File file, int segment) throws IOException {
+        byte[] bytes;
+        try (FileInputStream in = new FileInputStream(file)) {
+            bytes = in.readAllBytes();
+        }
+        int start = 0;
+        while (start < bytes.length) {
+            int end = start;
+            while (end < bytes.length && bytes[end] != '\n') {
+                end++;
+            }
+            // No newline means the write never finished
+            String[] fields = end == bytes.length ? null
+                : decode(new String(bytes, start, end - start, StandardCharsets.UTF_8));
+            int date = fields == null ? -1 : dateKey(fields[1]);
+            if (date >= 0) {
+                index(fields[0], date, fields[2], Double.parseDouble(fields[3]), segment, start, true);
+            } else if (end >= bytes.length - 1) {
+                return start; // damaged last line
+            } else {
+                System.out.println("Warning: Skipped a damaged record at byte " + start + " of " + file.getName());
+            }
+            start = end + 1;
+        }
+        return bytes.length;
+    }
+
+    // Read the record starting at a byte offset of a segment
+    private MaintenanceRecord read(int segment, long offset) throws IOException {
+        FileChannel channel = segment == activeSegment ? active : reader(segment);
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+        long position = offset;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                throw new IOException("History record at " + segment + ":" + offset + " is cut short");
+            }
+            byte[] chunk = buffer.array();
+            for (int i = 0; i < read; i++) {
+                if (chunk[i] == '\n') {
+                    line.write(chunk, 0, i);
+                    String[] fields = decode(line.toString(StandardCharsets.UTF_8));
+                    if (fields == null) {
+                        throw new IOException("History record at " + segment + ":" + offset + " is damaged");
+                    }
+                    return new MaintenanceRecord(fields[0], fields[1], fields[2], Double.parseDouble(fields[3]));
+                }
+            }
+            line.write(chunk, 0, read);
+            position += read;
+        }
+    }
+
+    private FileChannel reader(int segment) throws IOException {
+        if (segment >= readers.length) {
+            readers = Arrays.copyOf(readers, Math.max(segment + 1, readers.length * 2));
+        }
+        if (readers[segment] == null) {
+            readers[segment] = FileChannel.open(segmentFile(segment).toPath(), StandardOpenOption.READ);
+        }
+        return readers[segment];
+    }
+
+    private FileChannel openSegment(int segment) throws IOException {
+        return FileChannel.open(segmentFile(segment).toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private File segmentFile(int segment) {
+        return new File(directory, String.format("%s%06d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    // Segments sorted by number (zero-padded names sort numerically)
+    private File[] listSegments() {
+        File[] segments = directory.listFiles((dir, name) ->
+            name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (segments == null) {
+            return new File[0];
+        }
+        Arrays.sort(segments);
+        return segments;
+    }
+
+    private static int segmentNumber(File segment) {
+        String name = segment.getName();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    // Attach a checksum so torn writes can be detected when the store is opened
+    private static String encode(String payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.getBytes(StandardCharsets.UTF_8));
+        return payload + "|" + Long.toHexString(crc.getValue());
+    }
+
+    // Verify the checksum and split the payload - returns null for a corrupt line
+    private static String[] decode(String line) {
+        int separator = line.lastIndexOf('|');
+        if (separator < 0) {
+            return null;
+        }
+        String payload = line.substring(0, separator);
+        CRC32 crc = new CRC32();
+        crc.update(payload.getBytes(StandardCharsets.UTF_8));
+        if (!Long.toHexString(crc.getValue()).equals(line.substring(separator + 1))) {
+            return null;
+        }
+        String[] fields = payload.split(",", -1);
+        return fields.length == 4 ? fields : null;
+    }
+}
@@ -2,37 +2,57 @@ package datastructures;
 
 /**
  * MaintenanceRecord class - represents a completed maintenance service record
- * Stores details of maintenance work done on vehicles
+ * Stores details of maintenance work done on a vehicle; kept in the MaintenanceHistoryStore
  */
 public class MaintenanceRecord {
     // Maintenance record attributes
-    public String date;
+    public String vehicleNumber;
+    public String date;          // yyyy-MM-dd
     public String partReplaced;
     public double cost;
 
     // Constructor to create a maintenance record
-    public MaintenanceRecord(String date, String partReplaced, double cost) {
+    public MaintenanceRecord(String vehicleNumber, String date, String partReplaced, double cost) {
+        this.vehicleNumber = vehicleNumber;
         this.date = date;
         this.partReplaced = partReplaced;
         this.cost = cost;
     }
 
+    // History file format: vehicle,date,service,cost
+    public String toRecord() {
+        return vehicleNumber + "," + date + "," + partReplaced + "," + cost;
+    }
+
+    // Column layout of maintenance record tables
+    public static final TableRenderer TABLE = new TableRenderer(
+        new String[] {"Vehicle", "Date", "Service/Part", "Cost (GH₵)"},
+        new int[] {12, 12, 25, 10});
+
+    // Add this record as one row of a maintenance record table
+    public void appendRow(TableRenderer.Row row) {
+        row.cell(vehicleNumber).cell(date).cell(partReplaced).cellFixed2(cost).end();
+    }
+
     // Display maintenance record information in table format
     public void displayInfo() {
-        System.out.printf("| %-12s | %-25s | %-10.2f |%n", 
-            date, partReplaced, cost);
+        TableRenderer.Row row = TABLE.row();
+        appendRow(row);
+        row.printTo(System.out);
+    }
+
+    // Display a list of maintenance records as a complete table (buffered, paged if enabled)
+    public static void displayTable(MaintenanceRecord[] records) {
+        TABLE.render(System.out, records.length, (i, row) -> records[i].appendRow(row));
     }
 
     // Static method to display table header for maintenance records
     public static void displayTableHeader() {
-        System.out.println("+" + "-".repeat(14) + "+" + "-".repeat(27) + "+" + "-".repeat(12) + "+");
-        System.out.printf("| %-12s | %-25s | %-10s |%n", 
-            "Date", "Service/Part", "Cost (GH₵)");
-        System.out.println("+" + "-".repeat(14) + "+" + "-".repeat(27) + "+" + "-".repeat(12) + "+");
+        TABLE.printHeader(System.out);
     }
 
     // Static method to display table footer
     public static void displayTableFooter() {
-        System.out.println("+" + "-".repeat(14) + "+" + "-".repeat(27) + "+" + "-".repeat(12) + "+");
+        TABLE.printFooter(System.out);
     }
 }
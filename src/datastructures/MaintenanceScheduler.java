@@ -1,63 +1,182 @@
 package datastructures;
 
+import java.io.IOException;
+
 /**
  * MaintenanceScheduler class - manages maintenance tasks using custom priority queue (min-heap)
- * Tasks are prioritized by mileage (lower mileage = higher priority)
- 
+ * Tasks are prioritized by projected due time: the km left divided by how fast the vehicle is
+ * driven (km/day from its OdometerLog readings, DEFAULT_KM_PER_DAY until it has enough of them),
+ * so a vehicle driven 800 km a day comes before one driven 50 km a day with the same km left.
+ * The projection is recomputed in O(1) whenever a task's km change; ties go to lower mileage.
+ * Each vehicle's tasks are also linked from a RegistrationMap, so a mileage update for one vehicle
+ * touches only its own tasks (one sift each) instead of the whole heap. Remaining km go negative
+ * once a service is overdue. A MaintenanceAlertWheel follows every task, so mileage updates raise MEDIUM/HIGH/CRITICAL/DUE
+ * alerts exactly when a task crosses into the band; collect them with drainAlerts().
+ * Safe to use from several threads: every operation holds the scheduler's monitor, so each
+ * one sees and leaves the heap in a consistent state.
  */
 public class MaintenanceScheduler {
     private static final int MAX_TASKS = 100;
+    public static final double DEFAULT_KM_PER_DAY = 100; // assumed until a vehicle's readings give a speed
     private MaintenanceTask[] heap = new MaintenanceTask[MAX_TASKS];
     private int size = 0;
+    private int nextTaskId = 0; // last task ID handed out
+    private final ChangeTracker changes = new ChangeTracker(); // tasks changed since the last save
+    private final MaintenanceAlertWheel alerts = new MaintenanceAlertWheel();
+    private final RegistrationMap<MaintenanceTask> byVehicle = new RegistrationMap<>(); // vehicle -> first of its tasks
+    private final OdometerLog odometer; // null = every vehicle is assumed to drive DEFAULT_KM_PER_DAY
+
+    // Constructor - projections use the default speed for every vehicle
+    public MaintenanceScheduler() {
+        this(null);
+    }
+
+    // Constructor - projections use the vehicles' measured speeds
+    public MaintenanceScheduler(OdometerLog odometer) {
+        this.odometer = odometer;
+    }
 
     // Add a maintenance task to the priority queue
-    public void addTask(MaintenanceTask task) {
+    // Returns false (and leaves the task without an ID) if the scheduler is full
+    public synchronized boolean addTask(MaintenanceTask task) {
         if (size >= MAX_TASKS) {
             System.out.println("Maintenance scheduler is full!");
-            return;
+            return false;
+        }
+        
+        // Give the task an ID unless it already has one (tasks loaded from a patch file)
+        if (task.id == 0) {
+            task.id = ++nextTaskId;
+        } else {
+            nextTaskId = Math.max(nextTaskId, task.id);
         }
+        changes.changed(task);
+        project(task, FleetClock.nowMinutes());
         
         heap[size] = task;
+        task.heapIndex = size;
         heapifyUp(size);
         size++;
+        link(task);
+        alerts.schedule(task);
         System.out.println("Scheduled maintenance for: " + task.vehicleNumber);
+        return true;
     }
 
-    // Process the highest priority maintenance task (lowest mileage)
-    public void processNextTask() {
+    // Process the highest priority maintenance task (earliest projected due time)
+    // Returns the processed task, or null if there was nothing to process
+    public synchronized MaintenanceTask processNextTask() {
         if (size == 0) {
             System.out.println("No maintenance tasks available.");
-            return;
+            return null;
         }
 
-        // Remove and return the highest priority task (root of min-heap)
-        MaintenanceTask task = heap[0];
+        MaintenanceTask task = pollNextTask();
         System.out.println("\nServicing vehicle with highest priority:");
         MaintenanceTask.displayTableHeader();
         task.displayInfo();
         MaintenanceTask.displayTableFooter();
-        
+        return task;
+    }
+
+    // Remove and return the highest priority task without printing (used when replaying the journal)
+    public synchronized MaintenanceTask pollNextTask() {
+        if (size == 0) {
+            return null;
+        }
+
+        // Remove the root of the min-heap
+        MaintenanceTask task = heap[0];
+
         // Replace root with last element and heapify down
         heap[0] = heap[size - 1];
+        heap[0].heapIndex = 0;
         size--;
         if (size > 0) {
             heapifyDown(0);
         }
+        task.heapIndex = -1;
+        unlink(task);
+        changes.removed(task);
+        alerts.cancel(task);
+        return task;
+    }
+
+    // Find a maintenance task by its ID
+    public synchronized MaintenanceTask findTaskById(int id) {
+        for (int i = 0; i < size; i++) {
+            if (heap[i].id == id) {
+                return heap[i];
+            }
+        }
+        return null;
+    }
+
+    // Remove a maintenance task by its ID (used when loading patch files and replaying the journal)
+    // Returns the removed task, or null if not found
+    public synchronized MaintenanceTask removeTaskById(int id) {
+        for (int i = 0; i < size; i++) {
+            if (heap[i].id == id) {
+                return removeAt(i);
+            }
+        }
+        return null;
+    }
+
+    private MaintenanceTask removeAt(int i) {
+        MaintenanceTask removed = heap[i];
+        // Move the last element into the gap and restore the heap in both directions
+        heap[i] = heap[size - 1];
+        heap[i].heapIndex = i;
+        size--;
+        if (i < size) {
+            heapifyDown(i);
+            heapifyUp(i);
+        }
+        removed.heapIndex = -1;
+        unlink(removed);
+        changes.removed(removed);
+        alerts.cancel(removed);
+        return removed;
+    }
+
+    // Change the mileage of one task and restore the heap order
+    public synchronized void updateTaskMileage(MaintenanceTask task, int mileage) {
+        if (task.heapIndex < 0 || heap[task.heapIndex] != task) {
+            return; // not scheduled here
+        }
+        task.mileage = mileage;
+        project(task, FleetClock.nowMinutes());
+        resift(task);
+        changes.changed(task);
+        alerts.schedule(task); // re-armed from the new mileage
+    }
+
+    // Number the tasks 1..n in the order getAllTasks() returns them
+    // Called when data/maintenance.txt is rewritten, so the IDs match the file order at the next load
+    public synchronized void renumberTasks() {
+        for (int i = 0; i < size; i++) {
+            heap[i].id = i + 1;
+        }
+        nextTaskId = size;
+    }
+
+    // Tasks changed since the last save (for incremental saving)
+    public ChangeTracker getChanges() {
+        return changes;
     }
 
     // Display all scheduled tasks (without removing them)
     public void showAllTasks() {
+        // Create a copy and sort by priority to display in order (without holding the scheduler)
+        MaintenanceTask[] sortedTasks = getAllTasks();
+        int size = sortedTasks.length;
         if (size == 0) {
             System.out.println("No pending maintenance tasks.");
             return;
         }
 
         System.out.println("\nPending Maintenance Tasks (Priority Order):");
-        // Create a copy and sort by priority to display in order
-        MaintenanceTask[] sortedTasks = new MaintenanceTask[size];
-        for (int i = 0; i < size; i++) {
-            sortedTasks[i] = heap[i];
-        }
         
         // Simple sorting for display purposes
         for (int i = 0; i < size - 1; i++) {
@@ -70,20 +189,23 @@ public class MaintenanceScheduler {
             }
         }
         
-        MaintenanceTask.displayTableHeader();
-        for (int i = 0; i < size; i++) {
-            sortedTasks[i].displayInfo();
-        }
-        MaintenanceTask.displayTableFooter();
+        MaintenanceTask.displayTable(sortedTasks);
     }
 
     // Check if scheduler has any pending tasks
-    public boolean isEmpty() {
+    public synchronized boolean isEmpty() {
         return size == 0;
     }
 
+    // Visit every task in heap order (not sorted) without copying the heap
+    public synchronized void forEachTask(RecordVisitor<MaintenanceTask> visitor) throws IOException {
+        for (int i = 0; i < size; i++) {
+            visitor.visit(heap[i]);
+        }
+    }
+
     // Get all maintenance tasks as an array (for file storage)
-    public MaintenanceTask[] getAllTasks() {
+    public synchronized MaintenanceTask[] getAllTasks() {
         MaintenanceTask[] tasks = new MaintenanceTask[size];
         for (int i = 0; i < size; i++) {
             tasks[i] = heap[i];
@@ -92,9 +214,10 @@ public class MaintenanceScheduler {
     }
 
     // Check if an identical maintenance task already exists (same vehicle and same mileage)
-    public boolean taskExists(String vehicleNumber, int mileage) {
+    public synchronized boolean taskExists(String vehicleNumber, int mileage) {
+        long vehicleKey = RegistrationCodec.encode(vehicleNumber);
         for (int i = 0; i < size; i++) {
-            if (heap[i].vehicleNumber.equals(vehicleNumber) && heap[i].mileage == mileage) {
+            if (heap[i].mileage == mileage && heap[i].isFor(vehicleKey, vehicleNumber)) {
                 return true;
             }
         }
@@ -102,9 +225,10 @@ public class MaintenanceScheduler {
     }
 
     // Find a maintenance task by vehicle number and mileage
-    public MaintenanceTask findTask(String vehicleNumber, int mileage) {
+    public synchronized MaintenanceTask findTask(String vehicleNumber, int mileage) {
+        long vehicleKey = RegistrationCodec.encode(vehicleNumber);
         for (int i = 0; i < size; i++) {
-            if (heap[i].vehicleNumber.equals(vehicleNumber) && heap[i].mileage == mileage) {
+            if (heap[i].mileage == mileage && heap[i].isFor(vehicleKey, vehicleNumber)) {
                 return heap[i];
             }
         }
@@ -112,45 +236,130 @@ public class MaintenanceScheduler {
     }
 
     // Update all maintenance tasks for a vehicle when its mileage increases
-    public void updateTasksForVehicle(String vehicleNumber, int additionalMileage) {
-        boolean updated = false;
-        for (int i = 0; i < size; i++) {
-            if (heap[i].vehicleNumber.equals(vehicleNumber)) {
-                int oldMileage = heap[i].mileage;
-                heap[i].mileage = Math.max(0, oldMileage - additionalMileage);
-                updated = true;
+    // Only the vehicle's own tasks are touched - O(k log n) for k tasks of the vehicle
+    public synchronized void updateTasksForVehicle(String vehicleNumber, int additionalMileage) {
+        MaintenanceTask task = byVehicle.get(vehicleNumber);
+        if (task == null) {
+            return;
+        }
+        long now = FleetClock.nowMinutes();
+        for (; task != null; task = task.nextForVehicle) {
+            task.mileage -= additionalMileage; // negative = overdue by that many km
+            project(task, now);
+            resift(task);
+            changes.changed(task);
+        }
+        alerts.advance(vehicleNumber, additionalMileage);
+        System.out.println("Maintenance schedules updated for vehicle: " + vehicleNumber);
+    }
+
+    // Update the tasks of many vehicles at once (e.g. a day of deliveries). A vehicle may appear more
+    // than once - its mileages are added up first, so each of its tasks is moved in the heap only once.
+    // Only the listed vehicles' tasks are touched - O(m + k log n) for m entries and k tasks changed.
+    // Returns the number of tasks changed.
+    public synchronized int updateTasksForVehicles(String[] vehicleNumbers, int[] additionalMileage, int count) {
+        RegistrationMap<int[]> totals = new RegistrationMap<>(); // vehicle -> {total mileage}
+        for (int i = 0; i < count; i++) {
+            int[] total = totals.get(vehicleNumbers[i]);
+            if (total == null) {
+                totals.put(vehicleNumbers[i], new int[] {additionalMileage[i]});
+            } else {
+                total[0] += additionalMileage[i];
             }
         }
-        
-        if (updated) {
-            // Re-heapify the entire heap to maintain priority order
-            for (int i = size / 2 - 1; i >= 0; i--) {
-                heapifyDown(i);
+
+        int updated = 0;
+        long now = FleetClock.nowMinutes();
+        for (int i = 0; i < totals.size(); i++) {
+            String vehicleNumber = totals.registrationAt(i);
+            int total = totals.valueAt(i)[0];
+            MaintenanceTask task = byVehicle.get(vehicleNumber);
+            if (task == null || total == 0) {
+                continue;
+            }
+            for (; task != null; task = task.nextForVehicle) {
+                task.mileage -= total; // negative = overdue by that many km
+                project(task, now);
+                resift(task);
+                changes.changed(task);
+                updated++;
             }
-            System.out.println("Maintenance schedules updated for vehicle: " + vehicleNumber);
+            alerts.advance(vehicleNumber, total);
         }
+        return updated;
+    }
+
+    // When the task's km run out at its vehicle's speed, counted from now - O(1)
+    private void project(MaintenanceTask task, long now) {
+        double kmPerDay = odometer == null ? Double.NaN : odometer.kmPerDay(task.vehicleNumber);
+        if (!(kmPerDay > 0)) {
+            kmPerDay = DEFAULT_KM_PER_DAY; // no speed measured yet, or the vehicle has stood still
+        }
+        task.kmPerDay = kmPerDay;
+        task.projectedDue = now + (long) Math.ceil(Math.max(0, task.mileage) * 1440.0 / kmPerDay);
+    }
+
+    // Alerts raised by mileage updates since the last call, oldest first
+    public synchronized MaintenanceAlert[] drainAlerts() {
+        return alerts.drain();
     }
 
     // Clear all tasks from scheduler
-    public void clear() {
+    public synchronized void clear() {
         size = 0;
+        byVehicle.clear();
+        alerts.clear();
     }
 
     // Get the number of pending tasks
-    public int getTaskCount() {
+    public synchronized int getTaskCount() {
         return size;
     }
 
+    // Move a task whose priority changed to its place in the heap (up or down)
+    private void resift(MaintenanceTask task) {
+        heapifyDown(task.heapIndex);
+        heapifyUp(task.heapIndex);
+    }
+
+    // Put a task at the front of its vehicle's list
+    private void link(MaintenanceTask task) {
+        MaintenanceTask first = byVehicle.put(task.vehicleKey, task.vehicleNumber, task);
+        task.previousForVehicle = null;
+        task.nextForVehicle = first;
+        if (first != null) {
+            first.previousForVehicle = task;
+        }
+    }
+
+    // Take a task out of its vehicle's list (the vehicle's entry goes with its last task)
+    private void unlink(MaintenanceTask task) {
+        MaintenanceTask next = task.nextForVehicle;
+        if (task.previousForVehicle != null) {
+            task.previousForVehicle.nextForVehicle = next;
+        } else if (next != null) {
+            byVehicle.put(task.vehicleKey, task.vehicleNumber, next);
+        } else {
+            byVehicle.remove(task.vehicleKey, task.vehicleNumber);
+        }
+        if (next != null) {
+            next.previousForVehicle = task.previousForVehicle;
+        }
+        task.previousForVehicle = task.nextForVehicle = null;
+    }
+
     // Maintain min-heap property by moving element up
     private void heapifyUp(int index) {
         if (index == 0) return; // Root reached
         
         int parentIndex = (index - 1) / 2;
         if (heap[index].compareTo(heap[parentIndex]) < 0) {
-            // Swap with parent if current element has higher priority (lower mileage)
+            // Swap with parent if current element has higher priority (due sooner)
             MaintenanceTask temp = heap[index];
             heap[index] = heap[parentIndex];
             heap[parentIndex] = temp;
+            heap[index].heapIndex = index;
+            temp.heapIndex = parentIndex;
             heapifyUp(parentIndex);
         }
     }
@@ -174,6 +383,8 @@ public class MaintenanceScheduler {
             MaintenanceTask temp = heap[index];
             heap[index] = heap[smallest];
             heap[smallest] = temp;
+            heap[index].heapIndex = index;
+            temp.heapIndex = smallest;
             heapifyDown(smallest);
         }
     }
@@ -2,45 +2,113 @@ package datastructures;
 
 /**
  * MaintenanceTask class - represents a scheduled maintenance task
- * Uses custom comparison for priority ordering (lower mileage = higher priority)
+ * Uses custom comparison for priority ordering (earlier projected due time = higher priority,
+ * then lower mileage); the projection is set by MaintenanceScheduler from the vehicle's km/day
  */
-public class MaintenanceTask {
+public class MaintenanceTask extends VersionedEntity {
     // Task attributes
     public String vehicleNumber;
-    public int mileage; // Lower mileage = higher priority (needs service sooner)
+    public long vehicleKey; // vehicleNumber packed by RegistrationCodec
+    public int mileage; // km left until the service (negative = overdue by that many km)
+    public double kmPerDay;   // speed the projection assumes (measured or the scheduler's default)
+    public long projectedDue; // minutes since the epoch when the km run out at that speed
+    int id; // assigned by MaintenanceScheduler - identifies the task in patch files
+    MaintenanceAlertWheel.Entry alertEntry; // where the task waits for its next alert (null = none)
+    int heapIndex = -1; // position in MaintenanceScheduler's heap (-1 = not scheduled)
+    MaintenanceTask previousForVehicle, nextForVehicle; // the scheduler's list of the vehicle's tasks
 
     // Constructor to create a maintenance task
     public MaintenanceTask(String vehicleNumber, int mileage) {
         this.vehicleNumber = vehicleNumber;
+        this.vehicleKey = RegistrationCodec.encode(vehicleNumber);
         this.mileage = mileage;
     }
 
-    // Compare method for priority queue - smaller mileage gets higher priority
+    // Constructor for a task that already has an ID (loaded from a patch file)
+    public MaintenanceTask(int id, String vehicleNumber, int mileage) {
+        this(vehicleNumber, mileage);
+        this.id = id;
+    }
+
+    // Compare method for priority queue - earlier projected due time, then smaller mileage, gets higher priority
     public int compareTo(MaintenanceTask other) {
-        return this.mileage - other.mileage; // Min-heap behavior
+        if (this.projectedDue != other.projectedDue) {
+            return this.projectedDue < other.projectedDue ? -1 : 1; // Min-heap behavior
+        }
+        return this.mileage - other.mileage;
+    }
+
+    // True if the task belongs to the vehicle (vehicleKey = RegistrationCodec.encode(vehicleNumber))
+    boolean isFor(long vehicleKey, String vehicleNumber) {
+        return RegistrationCodec.equals(this.vehicleKey, this.vehicleNumber, vehicleKey, vehicleNumber);
+    }
+
+    // Task ID identifies the task in patch files
+    @Override
+    public String key() {
+        return String.valueOf(id);
+    }
+
+    // Patch record format - the ID followed by the data/maintenance.txt fields
+    @Override
+    public String toRecord() {
+        return id + "," + vehicleNumber + "," + mileage;
+    }
+
+    // Get the scheduler-assigned task ID
+    public int getId() {
+        return id;
+    }
+
+    // Priority level derived from the remaining mileage
+    public String getPriorityLevel() {
+        if (mileage <= 500) return "CRITICAL";
+        if (mileage <= 1000) return "HIGH";
+        if (mileage <= 2000) return "MEDIUM";
+        return "LOW";
+    }
+
+    // Column layout of maintenance task tables
+    public static final TableRenderer TABLE = new TableRenderer(
+        new String[] {"Vehicle", "Mileage", "Priority", "km/day", "Due (est.)"},
+        new int[] {12, 8, 8, 8, 16});
+
+    // Add this task as one row of a maintenance task table
+    public void appendRow(TableRenderer.Row row) {
+        row.cell(vehicleNumber).cell(mileage).cell(getPriorityLevel()).cell(Math.round(kmPerDay))
+            .cell(projectedDueText()).end();
+    }
+
+    // Projected due time as "yyyy-MM-dd HH:mm" in local time ("now" once it has passed, "overdue" past 0 km)
+    public String projectedDueText() {
+        if (mileage < 0) {
+            return "overdue";
+        }
+        if (mileage == 0 || projectedDue <= FleetClock.nowMinutes()) {
+            return "now";
+        }
+        return FleetClock.format(projectedDue);
     }
 
     // Display task information in table format
     public void displayInfo() {
-        String priority = "LOW";
-        if (mileage <= 500) priority = "CRITICAL";
-        else if (mileage <= 1000) priority = "HIGH";
-        else if (mileage <= 2000) priority = "MEDIUM";
-        
-        System.out.printf("| %-12s | %-8d | %-8s |%n", 
-            vehicleNumber, mileage, priority);
+        TableRenderer.Row row = TABLE.row();
+        appendRow(row);
+        row.printTo(System.out);
+    }
+
+    // Display a list of maintenance tasks as a complete table (buffered, paged if enabled)
+    public static void displayTable(MaintenanceTask[] tasks) {
+        TABLE.render(System.out, tasks.length, (i, row) -> tasks[i].appendRow(row));
     }
 
     // Static method to display table header for maintenance tasks
     public static void displayTableHeader() {
-        System.out.println("+" + "-".repeat(14) + "+" + "-".repeat(10) + "+" + "-".repeat(10) + "+");
-        System.out.printf("| %-12s | %-8s | %-8s |%n", 
-            "Vehicle", "Mileage", "Priority");
-        System.out.println("+" + "-".repeat(14) + "+" + "-".repeat(10) + "+" + "-".repeat(10) + "+");
+        TABLE.printHeader(System.out);
     }
 
     // Static method to display table footer
     public static void displayTableFooter() {
-        System.out.println("+" + "-".repeat(14) + "+" + "-".repeat(10) + "+" + "-".repeat(10) + "+");
+        TABLE.printFooter(System.out);
     }
 }
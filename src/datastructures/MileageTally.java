@@ -0,0 +1,45 @@
+package datastructures;
+
+/**
+ * MileageTally class - kilometres driven per vehicle, added up over many deliveries
+ * Totals sit in a RegistrationMap, so each delivery costs one hash probe; they come out as one
+ * entry per vehicle, in the order the vehicles were first seen, ready for one tree update and
+ * one scheduler pass per vehicle.
+ * Not thread-safe.
+ */
+public class MileageTally {
+    private final RegistrationMap<int[]> totals = new RegistrationMap<>(); // vehicle -> {km}
+
+    // Add kilometres to a vehicle's total
+    public void add(String vehicle, int km) {
+        int[] total = totals.get(vehicle);
+        if (total == null) {
+            totals.put(vehicle, new int[] {km});
+        } else {
+            total[0] += km;
+        }
+    }
+
+    // Number of distinct vehicles
+    public int size() {
+        return totals.size();
+    }
+
+    // Vehicles in the order first seen
+    public String[] vehicles() {
+        String[] vehicles = new String[totals.size()];
+        for (int i = 0; i < vehicles.length; i++) {
+            vehicles[i] = totals.registrationAt(i);
+        }
+        return vehicles;
+    }
+
+    // Total kilometres per vehicle, parallel to vehicles()
+    public int[] mileage() {
+        int[] mileage = new int[totals.size()];
+        for (int i = 0; i < mileage.length; i++) {
+            mileage[i] = totals.valueAt(i)[0];
+        }
+        return mileage;
+    }
+}
@@ -0,0 +1,157 @@
+package datastructures;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * MpmcRingBuffer class - bounded lock-free queue for many producers and many consumers
+ * Every slot carries a sequence number that says whose turn it is: a producer may fill slot
+ * (pos % capacity) when its sequence equals pos, a consumer may empty it when it equals pos + 1.
+ * Producers and consumers claim positions with a compare-and-set, so no thread ever blocks
+ * another and each offer/poll takes effect at a single atomic step (linearizable).
+ * The head and tail counters live on separate cache lines, so producers bumping the tail do not
+ * keep invalidating the line consumers read the head from (false sharing).
+ * DeliveryQueue offers from many threads but drains from one at a time, under its scheduler lock.
+ */
+public class MpmcRingBuffer<T> {
+    // Counters are spread out in one array: 16 longs = 128 bytes between them and around them,
+    // which covers 64-byte cache lines and the adjacent-line prefetcher
+    private static final int TAIL = 16; // next position to fill
+    private static final int HEAD = 32; // next position to empty
+
+    private final int capacity;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLongArray counters = new AtomicLongArray(48);
+
+    // Constructor - the buffer holds at most capacity elements
+    public MpmcRingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i); // slot i is free for position i
+        }
+    }
+
+    // Add an element at the tail - returns false if the buffer is full
+    public boolean offer(T element) {
+        while (true) {
+            long pos = counters.get(TAIL);
+            int index = (int) (pos % capacity);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                // Slot is free for this position - try to claim it
+                if (counters.compareAndSet(TAIL, pos, pos + 1)) {
+                    slots.set(index, element);
+                    sequences.set(index, pos + 1); // publish to consumers
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false; // the slot still holds an element from the previous lap - full
+            }
+            // Another producer claimed this position first - retry with the new tail
+        }
+    }
+
+    // Remove and return the element at the head - returns null if the buffer is empty
+    public T poll() {
+        while (true) {
+            long pos = counters.get(HEAD);
+            int index = (int) (pos % capacity);
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                // Slot has been published for this position - try to claim it
+                if (counters.compareAndSet(HEAD, pos, pos + 1)) {
+                    T element = slots.get(index);
+                    slots.set(index, null);
+                    sequences.set(index, pos + capacity); // free the slot for the next lap
+                    return element;
+                }
+            } else if (diff < 0) {
+                return null; // nothing has been published here yet - empty
+            }
+            // Another consumer took this position first - retry with the new head
+        }
+    }
+
+    // Remove up to max elements from the head into target[offset..] with a single claim
+    // Returns the number of elements moved (0 if the buffer is empty)
+    public int drainTo(T[] target, int offset, int max) {
+        while (true) {
+            long pos = counters.get(HEAD);
+            // Count how many consecutive slots from the head are published
+            int available = 0;
+            while (available < max) {
+                long p = pos + available;
+                if (sequences.get((int) (p % capacity)) != p + 1) {
+                    break;
+                }
+                available++;
+            }
+            if (available == 0) {
+                // Empty, or another consumer moved the head - check which
+                if (counters.get(HEAD) == pos) {
+                    return 0;
+                }
+                continue;
+            }
+            // Claim the whole run at once; on failure another consumer got there first
+            if (counters.compareAndSet(HEAD, pos, pos + available)) {
+                for (int i = 0; i < available; i++) {
+                    long p = pos + i;
+                    int index = (int) (p % capacity);
+                    target[offset + i] = slots.get(index);
+                    slots.set(index, null);
+                    sequences.set(index, p + capacity); // free the slot for the next lap
+                }
+                return available;
+            }
+        }
+    }
+
+    // Approximate number of elements (exact when no offer/poll is running)
+    public int size() {
+        long size = counters.get(TAIL) - counters.get(HEAD);
+        if (size < 0) {
+            return 0;
+        }
+        return (int) Math.min(size, capacity);
+    }
+
+    // Check if the buffer is empty (approximate while offers/polls are running)
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // Maximum number of elements
+    public int capacity() {
+        return capacity;
+    }
+
+    // Visit the elements from head to tail in place, in order
+    // Only consistent while no offer/poll is running - callers must exclude them
+    public void forEach(RecordVisitor<? super T> visitor) throws IOException {
+        long start = counters.get(HEAD);
+        long end = counters.get(TAIL);
+        for (long pos = start; pos < end; pos++) {
+            visitor.visit(slots.get((int) (pos % capacity)));
+        }
+    }
+
+    // Copy the elements from head to tail into an array, in order
+    // Only consistent while no offer/poll is running - callers must exclude them
+    public Object[] snapshot() {
+        long start = counters.get(HEAD);
+        int size = (int) (counters.get(TAIL) - start);
+        Object[] elements = new Object[size];
+        for (int i = 0; i < size; i++) {
+            elements[i] = slots.get((int) ((start + i) % capacity));
+        }
+        return elements;
+    }
+}
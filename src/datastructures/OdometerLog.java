@@ -0,0 +1,197 @@
+package datastructures;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * OdometerLog class - recent odometer readings of every vehicle and how fast it is driven
+ * Each vehicle keeps its last SAMPLES readings (time, km) in a ring buffer. The speed in km per
+ * day is the distance between the oldest and newest reading over the time between them, so a
+ * new reading updates it in O(1): it overwrites the oldest slot and one division follows.
+ * Readings less than MIN_SPAN_MINUTES apart give no speed yet (kmPerDay returns NaN). Readings
+ * that come faster than MIN_GAP_MINUTES apart replace the newest one instead of taking a slot,
+ * so a full ring always spans at least MIN_SPAN_MINUTES however often a vehicle reports.
+ * Readings are appended to a log file (one "vehicle,minutes,km" line each, not fsynced - a lost
+ * reading only makes the estimate a little older); opening the log replays it and rewrites it
+ * with only the kept readings once it has grown to several times that.
+ * Thread-safe.
+ */
+public class OdometerLog {
+    public static final int SAMPLES = 16;                    // readings kept per vehicle
+    public static final long MIN_SPAN_MINUTES = 6 * 60;      // shortest span a speed is measured over
+    private static final long MINUTES_PER_DAY = 24 * 60;
+    // Gap kept between readings - every gap but the newest is at least this, and SAMPLES - 2 of them cover MIN_SPAN_MINUTES
+    private static final long MIN_GAP_MINUTES = (MIN_SPAN_MINUTES + SAMPLES - 3) / (SAMPLES - 2);
+
+    // One vehicle's ring buffer of readings, oldest overwritten first
+    private static class Series {
+        final long[] minutes = new long[SAMPLES];
+        final int[] km = new int[SAMPLES];
+        int next = 0;   // slot the next reading goes into
+        int count = 0;
+        double kmPerDay = Double.NaN;
+
+        int newest() {
+            return (next + SAMPLES - 1) % SAMPLES;
+        }
+
+        int oldest() {
+            return (next + SAMPLES - count) % SAMPLES;
+        }
+
+        // Slot of the reading before the newest one (count must be at least 2)
+        int previous() {
+            return (next + SAMPLES - 2) % SAMPLES;
+        }
+
+        // Add a reading and recompute the speed - O(1)
+        // Returns false if the reading was ignored (older than the newest one)
+        boolean add(long time, int odometerKm) {
+            if (count > 0) {
+                int newest = newest();
+                if (time < minutes[newest]) {
+                    return false;
+                }
+                if (odometerKm < km[newest]) {
+                    count = 0; // odometer went back (corrected or re-registered) - start over
+                } else if (time == minutes[newest]
+                        || count > 1 && minutes[newest] - minutes[previous()] < MIN_GAP_MINUTES) {
+                    next = newest; // same minute, or the newest came too soon after the one before - replace it
+                    count--;
+                }
+            }
+            minutes[next] = time;
+            km[next] = odometerKm;
+            next = (next + 1) % SAMPLES;
+            count = Math.min(count + 1, SAMPLES);
+            int oldest = oldest();
+            int newest = newest();
+            long span = minutes[newest] - minutes[oldest];
+            kmPerDay = span < MIN_SPAN_MINUTES ? Double.NaN
+                : (km[newest] - km[oldest]) * (double) MINUTES_PER_DAY / span;
+            return true;
+        }
+    }
+
+    private final File file;
+    private final RegistrationMap<Series> series = new RegistrationMap<>();
+    private int lines = 0;                    // readings in the file, kept or not
+    private FileChannel channel;
+
+    // Constructor - readings are kept in the given file
+    public OdometerLog(String fileName) {
+        this.file = new File(fileName);
+    }
+
+    // Read the log (compacting it if it has grown) and get ready for appending
+    // Returns the number of vehicles with readings
+    public synchronized int open() throws IOException {
+        if (channel != null) {
+            return series.size(); // already open
+        }
+        if (file.exists()) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split(",");
+                    if (fields.length != 3) {
+                        continue; // torn last line
+                    }
+                    try {
+                        seriesFor(fields[0]).add(Long.parseLong(fields[1]), Integer.parseInt(fields[2]));
+                        lines++;
+                    } catch (NumberFormatException e) {
+                        // torn last line
+                    }
+                }
+            }
+        }
+        if (lines > 4 * SAMPLES * Math.max(1, series.size())) {
+            compact();
+        }
+        channel = FileChannel.open(file.toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return series.size();
+    }
+
+    // Record one reading (minutes since the epoch) - O(1) plus the append
+    public synchronized void record(String vehicleNumber, int odometerKm, long minutes) throws IOException {
+        if (seriesFor(vehicleNumber).add(minutes, odometerKm)) {
+            write(vehicleNumber + "," + minutes + "," + odometerKm + "\n");
+        }
+    }
+
+    // Record readings of many vehicles taken at the same time with one append
+    public synchronized void recordAll(String[] vehicleNumbers, int[] odometerKm, int count, long minutes) throws IOException {
+        StringBuilder sb = new StringBuilder(count * 24);
+        for (int i = 0; i < count; i++) {
+            if (seriesFor(vehicleNumbers[i]).add(minutes, odometerKm[i])) {
+                sb.append(vehicleNumbers[i]).append(',').append(minutes).append(',').append(odometerKm[i]).append('\n');
+            }
+        }
+        if (sb.length() > 0) {
+            write(sb.toString());
+        }
+    }
+
+    // Measured km per day of a vehicle, or NaN if its readings do not span MIN_SPAN_MINUTES yet - O(1)
+    public synchronized double kmPerDay(String vehicleNumber) {
+        Series found = series.get(vehicleNumber);
+        return found == null ? Double.NaN : found.kmPerDay;
+    }
+
+    // Number of readings kept for a vehicle
+    public synchronized int sampleCount(String vehicleNumber) {
+        Series found = series.get(vehicleNumber);
+        return found == null ? 0 : found.count;
+    }
+
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void write(String text) throws IOException {
+        if (channel == null) {
+            return; // not opened - readings are kept in memory only
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        lines += text.length() - text.replace("\n", "").length();
+    }
+
+    // Rewrite the file with only the kept readings, oldest first per vehicle
+    private void compact() throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        lines = 0;
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(temp, StandardCharsets.UTF_8))) {
+            for (int v = 0; v < series.size(); v++) {
+                Series vehicle = series.valueAt(v);
+                for (int i = 0, slot = vehicle.oldest(); i < vehicle.count; i++, slot = (slot + 1) % SAMPLES) {
+                    writer.write(series.registrationAt(v) + "," + vehicle.minutes[slot] + "," + vehicle.km[slot] + "\n");
+                    lines++;
+                }
+            }
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Series seriesFor(String vehicleNumber) {
+        long key = RegistrationCodec.encode(vehicleNumber);
+        Series found = series.get(key, vehicleNumber);
+        if (found == null) {
+            found = new Series();
+            series.put(key, vehicleNumber, found);
+        }
+        return found;
+    }
+}
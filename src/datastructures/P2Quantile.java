@@ -0,0 +1,115 @@
+package datastructures;
+
+import java.util.Arrays;
+
+/**
+ * P2Quantile class - streaming estimate of one quantile (e.g. the median) in constant memory
+ * P-square algorithm (Jain and Chlamtac): five markers track the minimum, the maximum, the
+ * quantile and two points half-way to it. Each new value moves the markers one step towards
+ * their ideal positions, adjusting their heights with a parabolic fit, so no values are kept.
+ * The first five values are kept and the quantile is exact up to then.
+ */
+public class P2Quantile {
+    private final double p;                          // quantile, 0 < p < 1
+    private final double[] heights = new double[5];  // marker heights (estimated values)
+    private final int[] positions = new int[5];      // actual marker positions (1-based ranks)
+    private final double[] desired = new double[5];  // ideal marker positions
+    private final double[] increments;               // how far each ideal position moves per value
+    private long count = 0;
+
+    // Constructor - p = 0.5 for the median, 0.25/0.75 for the quartiles
+    public P2Quantile(double p) {
+        if (p <= 0 || p >= 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+        this.p = p;
+        this.increments = new double[] {0, p / 2, p, (1 + p) / 2, 1};
+    }
+
+    // Add one observation
+    public void add(double value) {
+        if (count < 5) {
+            heights[(int) count++] = value;
+            if (count == 5) {
+                Arrays.sort(heights);
+                for (int i = 0; i < 5; i++) {
+                    positions[i] = i + 1;
+                }
+                desired[0] = 1;
+                desired[1] = 1 + 2 * p;
+                desired[2] = 1 + 4 * p;
+                desired[3] = 3 + 2 * p;
+                desired[4] = 5;
+            }
+            return;
+        }
+        count++;
+
+        // Find the cell the value falls into, widening the extremes if needed
+        int cell;
+        if (value < heights[0]) {
+            heights[0] = value;
+            cell = 0;
+        } else if (value >= heights[4]) {
+            heights[4] = value;
+            cell = 3;
+        } else {
+            cell = 0;
+            while (value >= heights[cell + 1]) {
+                cell++;
+            }
+        }
+        for (int i = cell + 1; i < 5; i++) {
+            positions[i]++;
+        }
+        for (int i = 0; i < 5; i++) {
+            desired[i] += increments[i];
+        }
+
+        // Move the three middle markers one step if they drifted from their ideal position
+        for (int i = 1; i <= 3; i++) {
+            double drift = desired[i] - positions[i];
+            if ((drift >= 1 && positions[i + 1] - positions[i] > 1)
+                    || (drift <= -1 && positions[i - 1] - positions[i] < -1)) {
+                int step = drift > 0 ? 1 : -1;
+                double candidate = parabolic(i, step);
+                if (heights[i - 1] < candidate && candidate < heights[i + 1]) {
+                    heights[i] = candidate;
+                } else {
+                    heights[i] = heights[i] + step * (heights[i + step] - heights[i]) / (positions[i + step] - positions[i]);
+                }
+                positions[i] += step;
+            }
+        }
+    }
+
+    // Piecewise-parabolic prediction of marker i's height after moving it by step
+    private double parabolic(int i, int step) {
+        double outer = (double) step / (positions[i + 1] - positions[i - 1]);
+        double right = (positions[i] - positions[i - 1] + step) * (heights[i + 1] - heights[i]) / (positions[i + 1] - positions[i]);
+        double left = (positions[i + 1] - positions[i] - step) * (heights[i] - heights[i - 1]) / (positions[i] - positions[i - 1]);
+        return heights[i] + outer * (right + left);
+    }
+
+    // Current estimate (NaN before the first observation)
+    public double value() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (count <= 5) {
+            // Exact quantile of the few values seen so far (linear interpolation between ranks)
+            double[] sorted = Arrays.copyOf(heights, (int) count);
+            Arrays.sort(sorted);
+            double rank = p * (count - 1);
+            int below = (int) Math.floor(rank);
+            int above = Math.min(below + 1, (int) count - 1);
+            return sorted[below] + (rank - below) * (sorted[above] - sorted[below]);
+        }
+        return heights[2];
+    }
+
+    // Number of observations
+    public long count() {
+        return count;
+    }
+}
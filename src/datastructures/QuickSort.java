@@ -127,12 +127,12 @@ public class QuickSort {
      * Partition method for registration number sorting
      */
     private static int partitionByRegistration(Vehicle[] vehicles, int low, int high) {
-        String pivot = vehicles[high].registrationNumber; // Choose last element as pivot
+        Vehicle pivot = vehicles[high]; // Choose last element as pivot
         int i = low - 1; // Index of smaller element
         
         for (int j = low; j < high; j++) {
             // If current element is smaller than or equal to pivot
-            if (vehicles[j].registrationNumber.compareToIgnoreCase(pivot) <= 0) {
+            if (RegistrationCodec.compare(vehicles[j], pivot) <= 0) {
                 i++;
                 swap(vehicles, i, j);
             }
@@ -0,0 +1,12 @@
+package datastructures;
+
+import java.io.IOException;
+
+/**
+ * RecordVisitor interface - receives the records of a data structure one at a time
+ * Used to walk a structure in place (a cursor) instead of copying it into an array first,
+ * e.g. when streaming a report straight to a file.
+ */
+public interface RecordVisitor<T> {
+    void visit(T record) throws IOException;
+}
@@ -0,0 +1,87 @@
+package datastructures;
+
+/**
+ * RegistrationCodec class - packs a registration number into one long
+ * Ghanaian plates (region letters, serial number, year: GT1234-22) use only letters, digits and
+ * '-', so each character fits in a base-38 digit (0 = end, '-' = 1, '0'-'9' = 2-11, 'A'-'Z' =
+ * 12-37, lower case counts as upper case) and up to 12 characters fit in 63 bits. The first
+ * character is the most significant digit, so comparing two codes gives the same order as
+ * compareToIgnoreCase on the strings, and equal codes mean equal plates - one long comparison.
+ * Anything else (longer plates, spaces, other characters) gets a fallback code: a negative
+ * number made from a hash of the upper-cased text. Fallback codes are not unique and not
+ * ordered, so equals/compare check the strings for those.
+ */
+public class RegistrationCodec {
+    private static final int MAX_LENGTH = 12; // 38^12 < 2^63
+    private static final int BASE = 38;
+
+    // Code for a registration number (no allocation)
+    public static long encode(String registration) {
+        int length = registration.length();
+        if (length == 0 || length > MAX_LENGTH) {
+            return fallback(registration);
+        }
+        long code = 0;
+        for (int i = 0; i < MAX_LENGTH; i++) {
+            int digit = 0; // positions past the end stay 0, so shorter plates sort first
+            if (i < length) {
+                digit = digit(registration.charAt(i));
+                if (digit < 0) {
+                    return fallback(registration);
+                }
+            }
+            code = code * BASE + digit;
+        }
+        return code;
+    }
+
+    // True if the code holds the whole plate (not a fallback hash)
+    public static boolean isExact(long code) {
+        return code >= 0;
+    }
+
+    // Same plate (case-insensitive)? codeA/codeB must be the encodings of a/b
+    public static boolean equals(long codeA, String a, long codeB, String b) {
+        if (codeA != codeB) {
+            return false;
+        }
+        return isExact(codeA) || a.equalsIgnoreCase(b);
+    }
+
+    // Order of two plates, same as a.compareToIgnoreCase(b)
+    public static int compare(long codeA, String a, long codeB, String b) {
+        if (isExact(codeA) && isExact(codeB)) {
+            return Long.compare(codeA, codeB);
+        }
+        return a.compareToIgnoreCase(b);
+    }
+
+    // Order of two vehicles by registration number
+    public static int compare(Vehicle a, Vehicle b) {
+        return compare(a.registrationKey, a.registrationNumber, b.registrationKey, b.registrationNumber);
+    }
+
+    // Base-38 digit of a character, or -1 if it cannot be packed
+    private static int digit(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return 12 + (c - 'A');
+        }
+        if (c >= 'a' && c <= 'z') {
+            return 12 + (c - 'a');
+        }
+        if (c >= '0' && c <= '9') {
+            return 2 + (c - '0');
+        }
+        return c == '-' ? 1 : -1;
+    }
+
+    // Negative code from a 64-bit hash of the upper-cased text
+    private static long fallback(String registration) {
+        long hash = 0xcbf29ce484222325L; // FNV-1a
+        for (int i = 0; i < registration.length(); i++) {
+            hash ^= Character.toUpperCase(registration.charAt(i));
+            hash *= 0x100000001b3L;
+        }
+        return hash | Long.MIN_VALUE;
+    }
+}
@@ -0,0 +1,187 @@
+package datastructures;
+
+import java.util.Arrays;
+
+/**
+ * RegistrationMap class - hash map from registration number to a value
+ * Entries are kept in dense arrays (registration code, registration text, value) in the order
+ * they were added; a hash table of entry numbers on the RegistrationCodec code finds them
+ * (open addressing, linear probing). Plate codes end in zero bits, so codes are mixed before
+ * masking. A lookup hashes and compares longs and allocates nothing; the text is only compared
+ * for fallback codes. Removal moves the last entry into the gap (so the order is only kept until
+ * the first removal) and shifts the rest of the probe run back instead of leaving tombstones.
+ * The table is kept at most half full and is filled completely before it replaces the old one,
+ * and a lookup never probes more than one pass over it, so a reader racing a writer fails or
+ * misses but never loops - VehicleTree relies on that for its optimistic reads.
+ * Not thread-safe.
+ */
+public class RegistrationMap<V> {
+    private int[] table = new int[16];         // hash slot -> entry + 1 (0 = empty)
+    private long[] keys = new long[8];         // per entry: RegistrationCodec code
+    private String[] registrations = new String[8];
+    private Object[] values = new Object[8];
+    private int count = 0;
+
+    // Value for a registration number, or null
+    public V get(String registration) {
+        return get(RegistrationCodec.encode(registration), registration);
+    }
+
+    // Value for a registration number whose code is already known (key = RegistrationCodec.encode)
+    @SuppressWarnings("unchecked")
+    public V get(long key, String registration) {
+        int entry = indexOf(key, registration);
+        return entry < 0 ? null : (V) values[entry];
+    }
+
+    // Entry number of a registration number (0..size()-1), or -1 if it has none
+    public int indexOf(long key, String registration) {
+        int[] table = this.table;
+        int mask = table.length - 1;
+        int slot = home(key, mask);
+        for (int probes = 0; probes < table.length; probes++) {
+            int entry = table[slot] - 1;
+            if (entry < 0) {
+                return -1;
+            }
+            if (keys[entry] == key && RegistrationCodec.equals(key, registration, keys[entry], registrations[entry])) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Set the value of a registration number - returns the value it replaced, or null
+    public V put(String registration, V value) {
+        return put(RegistrationCodec.encode(registration), registration, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(long key, String registration, V value) {
+        int slot = find(key, registration);
+        if (table[slot] != 0) {
+            int entry = table[slot] - 1;
+            V previous = (V) values[entry];
+            registrations[entry] = registration;
+            values[entry] = value;
+            return previous;
+        }
+        if (count == values.length) {
+            keys = Arrays.copyOf(keys, count * 2);
+            registrations = Arrays.copyOf(registrations, count * 2);
+            values = Arrays.copyOf(values, count * 2);
+        }
+        keys[count] = key;
+        registrations[count] = registration;
+        values[count] = value;
+        table[slot] = ++count;
+        if (count * 2 > table.length) {
+            grow(); // keep the table at most half full so probe runs stay short
+        }
+        return null;
+    }
+
+    // Remove a registration number - returns its value, or null if it had none
+    public V remove(String registration) {
+        return remove(RegistrationCodec.encode(registration), registration);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(long key, String registration) {
+        int slot = find(key, registration);
+        if (table[slot] == 0) {
+            return null;
+        }
+        int entry = table[slot] - 1;
+        V removed = (V) values[entry];
+        clearSlot(slot);
+        // Move the last entry into the freed place and point its slot there
+        int last = --count;
+        if (entry != last) {
+            table[find(keys[last], registrations[last])] = entry + 1;
+            keys[entry] = keys[last];
+            registrations[entry] = registrations[last];
+            values[entry] = values[last];
+        }
+        keys[last] = 0;
+        registrations[last] = null;
+        values[last] = null;
+        return removed;
+    }
+
+    // Number of registration numbers in the map
+    public int size() {
+        return count;
+    }
+
+    // Registration number of entry 0..size()-1 (in the order added, until the first removal)
+    public String registrationAt(int entry) {
+        return registrations[entry];
+    }
+
+    // Value of entry 0..size()-1
+    @SuppressWarnings("unchecked")
+    public V valueAt(int entry) {
+        return (V) values[entry];
+    }
+
+    // Remove every entry
+    public void clear() {
+        table = new int[16];
+        keys = new long[8];
+        registrations = new String[8];
+        values = new Object[8];
+        count = 0;
+    }
+
+    // Slot holding the registration number, or the empty slot where it would go
+    private int find(long key, String registration) {
+        int mask = table.length - 1;
+        int slot = home(key, mask);
+        while (table[slot] != 0) {
+            int entry = table[slot] - 1;
+            if (keys[entry] == key && RegistrationCodec.equals(key, registration, keys[entry], registrations[entry])) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Empty a slot and move later entries of its probe run back if their home slot allows it
+    private void clearSlot(int slot) {
+        int mask = table.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (table[next] != 0) {
+            int home = home(keys[table[next] - 1], mask);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                table[gap] = table[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[gap] = 0;
+    }
+
+    // Build the bigger table completely before publishing it (optimistic readers may be looking)
+    private void grow() {
+        int[] bigger = new int[table.length * 2];
+        int mask = bigger.length - 1;
+        for (int entry = 0; entry < count; entry++) {
+            int slot = home(keys[entry], mask);
+            while (bigger[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            bigger[slot] = entry + 1;
+        }
+        table = bigger;
+    }
+
+    // Home slot of a code - plate codes end in zero bits, so all 64 bits are mixed before masking
+    private static int home(long key, int mask) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,255 @@
+package datastructures;
+
+import java.util.Arrays;
+
+/**
+ * RoadNetwork class - towns joined by roads (loaded from data/roads.txt), with shortest routes
+ * Towns are identified by their SymbolTable.SHARED code, the same code Delivery.originCode and
+ * Driver.locationCode hold, and roads are kept as per-town arrays of neighbour codes and lengths.
+ * route() finds one path with A*, steered by the straight-line distance to the destination from
+ * the TownDirectory. distanceKm() answers from a cache of shortest distances: the first lookup
+ * from a town runs Dijkstra once for every destination, after that each lookup is an array read.
+ * warmUp() fills the cache for the depots up front. Adding a road clears the cache.
+ * Thread-safe.
+ */
+public class RoadNetwork {
+    public static final double NO_ROUTE = -1;
+
+    private final TownDirectory towns;         // positions for the A* estimate
+    private int[][] neighbours = new int[16][];
+    private double[][] lengths = new double[16][];
+    private int[] degree = new int[16];
+    private int roads = 0;
+    private double estimateScale = 1;          // <= shortest road / straight line, keeps A* exact (0 = no estimate)
+    private double[][] distanceCache = new double[16][]; // per origin: distance to every town
+
+    // Constructor - towns gives the straight-line distances A* steers by
+    public RoadNetwork(TownDirectory towns) {
+        this.towns = towns;
+    }
+
+    // Add a two-way road between two towns
+    public synchronized void addRoad(String from, String to, double lengthKm) {
+        if (lengthKm <= 0) {
+            throw new IllegalArgumentException("Road length must be greater than 0");
+        }
+        int a = SymbolTable.SHARED.intern(from);
+        int b = SymbolTable.SHARED.intern(to);
+        ensureCapacity(Math.max(a, b) + 1);
+        link(a, b, lengthKm);
+        link(b, a, lengthKm);
+        roads++;
+        // A* may only underestimate: scale the straight-line distance down if this road beats it,
+        // and drop the estimate altogether once a road leads to a town without a position
+        if (towns.contains(a) && towns.contains(b)) {
+            double straightLine = towns.distanceKm(a, b);
+            if (straightLine > 0) {
+                estimateScale = Math.min(estimateScale, lengthKm / straightLine);
+            }
+        } else {
+            estimateScale = 0;
+        }
+        distanceCache = new double[neighbours.length][];
+    }
+
+    // Number of roads
+    public synchronized int roadCount() {
+        return roads;
+    }
+
+    // Shortest road distance in km between two towns, or NO_ROUTE
+    public double distanceKm(String from, String to) {
+        return distanceKm(SymbolTable.SHARED.code(from), SymbolTable.SHARED.code(to));
+    }
+
+    // Shortest road distance in km between two town codes, or NO_ROUTE - O(1) once the origin is cached
+    public synchronized double distanceKm(int from, int to) {
+        if (!hasTown(from) || !hasTown(to)) {
+            return NO_ROUTE;
+        }
+        if (distanceCache[from] == null) {
+            distanceCache[from] = shortestDistancesFrom(from);
+        }
+        double distance = distanceCache[from][to];
+        return distance == Double.POSITIVE_INFINITY ? NO_ROUTE : distance;
+    }
+
+    // Work out the distances from each depot now, so lookups from them never wait
+    public synchronized void warmUp(String[] depots) {
+        for (String depot : depots) {
+            int code = SymbolTable.SHARED.code(depot);
+            if (hasTown(code) && distanceCache[code] == null) {
+                distanceCache[code] = shortestDistancesFrom(code);
+            }
+        }
+    }
+
+    // Shortest route between two towns (A*), or null if either is unknown or unreachable
+    public synchronized Route route(String from, String to) {
+        int origin = SymbolTable.SHARED.code(from);
+        int destination = SymbolTable.SHARED.code(to);
+        if (!hasTown(origin) || !hasTown(destination)) {
+            return null;
+        }
+        boolean estimate = estimateScale > 0 && towns.contains(destination);
+        double[] distances = new double[neighbours.length];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        int[] previous = new int[neighbours.length];
+        boolean[] settled = new boolean[neighbours.length];
+        distances[origin] = 0;
+        previous[origin] = -1;
+        TownHeap open = new TownHeap();
+        open.push(origin, 0);
+        while (!open.isEmpty()) {
+            int town = open.pop();
+            if (settled[town]) {
+                continue; // stale entry - the town was reached more cheaply already
+            }
+            if (town == destination) {
+                return buildRoute(previous, destination, distances[destination]);
+            }
+            settled[town] = true;
+            for (int i = 0; i < degree[town]; i++) {
+                int next = neighbours[town][i];
+                double distance = distances[town] + lengths[town][i];
+                if (distance < distances[next]) {
+                    distances[next] = distance;
+                    previous[next] = town;
+                    double remaining = estimate ? estimateScale * towns.distanceKm(next, destination) : 0;
+                    open.push(next, distance + remaining);
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean hasTown(int code) {
+        return code >= 0 && code < degree.length && degree[code] > 0;
+    }
+
+    // Dijkstra from one town to all others (POSITIVE_INFINITY = unreachable)
+    private double[] shortestDistancesFrom(int origin) {
+        double[] distances = new double[neighbours.length];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        distances[origin] = 0;
+        TownHeap open = new TownHeap();
+        open.push(origin, 0);
+        while (!open.isEmpty()) {
+            double reached = open.peekKey();
+            int town = open.pop();
+            if (reached > distances[town]) {
+                continue; // stale entry
+            }
+            for (int i = 0; i < degree[town]; i++) {
+                int next = neighbours[town][i];
+                double distance = reached + lengths[town][i];
+                if (distance < distances[next]) {
+                    distances[next] = distance;
+                    open.push(next, distance);
+                }
+            }
+        }
+        return distances;
+    }
+
+    private Route buildRoute(int[] previous, int destination, double distanceKm) {
+        int stops = 0;
+        for (int town = destination; town != -1; town = previous[town]) {
+            stops++;
+        }
+        String[] path = new String[stops];
+        for (int town = destination; town != -1; town = previous[town]) {
+            path[--stops] = SymbolTable.SHARED.symbol(town);
+        }
+        return new Route(path, distanceKm);
+    }
+
+    // One-way link (a shorter road between the same towns replaces the longer one)
+    private void link(int from, int to, double lengthKm) {
+        for (int i = 0; i < degree[from]; i++) {
+            if (neighbours[from][i] == to) {
+                lengths[from][i] = Math.min(lengths[from][i], lengthKm);
+                return;
+            }
+        }
+        if (neighbours[from] == null) {
+            neighbours[from] = new int[4];
+            lengths[from] = new double[4];
+        } else if (degree[from] == neighbours[from].length) {
+            neighbours[from] = Arrays.copyOf(neighbours[from], degree[from] * 2);
+            lengths[from] = Arrays.copyOf(lengths[from], degree[from] * 2);
+        }
+        neighbours[from][degree[from]] = to;
+        lengths[from][degree[from]] = lengthKm;
+        degree[from]++;
+    }
+
+    private void ensureCapacity(int size) {
+        if (size > neighbours.length) {
+            int length = Math.max(size, neighbours.length * 2);
+            neighbours = Arrays.copyOf(neighbours, length);
+            lengths = Arrays.copyOf(lengths, length);
+            degree = Arrays.copyOf(degree, length);
+        }
+    }
+
+    // Binary min-heap of (town, key) pairs in two arrays; a town may appear more than once
+    private static class TownHeap {
+        private int[] towns = new int[32];
+        private double[] keys = new double[32];
+        private int size = 0;
+
+        void push(int town, double key) {
+            if (size == towns.length) {
+                towns = Arrays.copyOf(towns, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            int index = size++;
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                towns[index] = towns[parent];
+                keys[index] = keys[parent];
+                index = parent;
+            }
+            towns[index] = town;
+            keys[index] = key;
+        }
+
+        double peekKey() {
+            return keys[0];
+        }
+
+        int pop() {
+            int top = towns[0];
+            size--;
+            int lastTown = towns[size];
+            double lastKey = keys[size];
+            int index = 0;
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (keys[child] >= lastKey) {
+                    break;
+                }
+                towns[index] = towns[child];
+                keys[index] = keys[child];
+                index = child;
+            }
+            towns[index] = lastTown;
+            keys[index] = lastKey;
+            return top;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package datastructures;
+
+/**
+ * Route class - shortest road route between two towns, from RoadNetwork.route()
+ */
+public class Route {
+    public final String[] towns;     // origin first, destination last
+    public final double distanceKm;
+
+    // Constructor
+    Route(String[] towns, double distanceKm) {
+        this.towns = towns;
+        this.distanceKm = distanceKm;
+    }
+
+    // Driving time in minutes at an average speed (rounded up)
+    public int travelMinutes(double averageSpeedKmh) {
+        return (int) Math.ceil(distanceKm / averageSpeedKmh * 60);
+    }
+
+    // Towns joined with arrows, e.g. "Accra -> Nsawam -> Suhum"
+    public String describe() {
+        return String.join(" -> ", towns);
+    }
+}
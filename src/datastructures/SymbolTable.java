@@ -0,0 +1,89 @@
+package datastructures;
+
+/**
+ * SymbolTable class - dictionary that gives every distinct string a small int code
+ * Codes are handed out in order (0, 1, 2, ...), so a column of codes can replace a column of
+ * strings and two values compare with one int comparison. Lookups use open addressing over an
+ * int array (code + 1, 0 = empty slot), so finding a code allocates nothing.
+ * intern is synchronized; symbol(code) needs no lock for a code obtained from intern.
+ * SHARED is the table the entity classes use for repeated values (types, IDs, locations):
+ * every record then points at one String instance per distinct value.
+ */
+public class SymbolTable {
+    public static final SymbolTable SHARED = new SymbolTable();
+
+    private volatile String[] symbols = new String[16]; // code -> string
+    private int[] slots = new int[32];                  // hash slot -> code + 1 (0 = empty)
+    private int count = 0;
+
+    // Code of a string, adding it if it is new
+    public synchronized int intern(String value) {
+        int slot = find(value);
+        if (slots[slot] != 0) {
+            return slots[slot] - 1;
+        }
+        if (count == symbols.length) {
+            String[] bigger = new String[symbols.length * 2];
+            System.arraycopy(symbols, 0, bigger, 0, count);
+            symbols = bigger;
+        }
+        symbols[count] = value;
+        slots[slot] = ++count;
+        if (count * 2 > slots.length) {
+            rehash(); // keep the table at most half full so probe runs stay short
+        }
+        return count - 1;
+    }
+
+    // The single shared instance of a string (null stays null)
+    public String canonical(String value) {
+        return value == null ? null : symbol(intern(value));
+    }
+
+    // Code of a string, or -1 if it was never interned
+    public synchronized int code(String value) {
+        int slot = find(value);
+        return slots[slot] - 1;
+    }
+
+    // String for a code
+    public String symbol(int code) {
+        return symbols[code];
+    }
+
+    // Number of distinct strings
+    public synchronized int size() {
+        return count;
+    }
+
+    // Slot holding the value, or the empty slot where it would go (linear probing)
+    private int find(String value) {
+        int mask = slots.length - 1;
+        int slot = mix(value.hashCode()) & mask;
+        while (slots[slot] != 0 && !symbols[slots[slot] - 1].equals(value)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        int[] old = slots;
+        slots = new int[old.length * 2];
+        int mask = slots.length - 1;
+        for (int entry : old) {
+            if (entry != 0) {
+                int slot = mix(symbols[entry - 1].hashCode()) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = entry;
+            }
+        }
+    }
+
+    // Spread the hash bits so similar strings (DRV001, DRV002) do not cluster
+    private static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,509 @@
+package datastructures;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * SystemReport class - streams the system report to a file in one pass
+ * Each data structure is walked once with a cursor (no array copies); every record is written
+ * as soon as it is visited while the summaries are accumulated on the way, so the summary
+ * section comes last. Vehicle totals come from the aggregates VehicleTree keeps up to date and
+ * from its column arrays. Output goes through a 256 KB buffer straight into a file channel.
+ * The same pass can produce plain text, CSV (one row per record, first column = record type)
+ * or JSON.
+ */
+public class SystemReport {
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    // Output formats - the file extension is used by callers to name the report
+    public enum Format {
+        TEXT("txt"), CSV("csv"), JSON("json");
+
+        public final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    // Running totals collected during the pass
+    private int drivers = 0;
+    private double totalExperience = 0;
+    private int deliveries = 0;
+    private int tasks = 0;
+    private MaintenanceTask mostUrgent = null;
+
+    private final Sink sink;
+
+    private SystemReport(Sink sink) {
+        this.sink = sink;
+    }
+
+    // Write the report for the given structures to path
+    // The caller should keep the structures from changing meanwhile if it needs a consistent report
+    public static void write(String path, Format format, String generatedOn, VehicleTree vehicleTree,
+                             DriverQueue driverQueue, DeliveryQueue deliveryQueue,
+                             MaintenanceScheduler scheduler) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(path),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        Writer out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8), BUFFER_SIZE);
+        try {
+            Sink sink;
+            switch (format) {
+                case CSV: sink = new CsvSink(out); break;
+                case JSON: sink = new JsonSink(out); break;
+                default: sink = new TextSink(out); break;
+            }
+            new SystemReport(sink).run(generatedOn, vehicleTree, driverQueue, deliveryQueue, scheduler);
+        } finally {
+            out.close(); // flushes the buffer and closes the channel
+        }
+    }
+
+    private void run(String generatedOn, VehicleTree vehicleTree, DriverQueue driverQueue,
+                     DeliveryQueue deliveryQueue, MaintenanceScheduler scheduler) throws IOException {
+        sink.begin(generatedOn);
+
+        sink.beginSection("vehicle", "DETAILED VEHICLE LIST", "Reg Number\tType\tMileage\tFuel Usage\tDriver ID",
+            new String[] {"registration", "type", "mileage", "fuel_usage", "driver_id"});
+        vehicleTree.forEachVehicle(vehicle -> {
+            sink.text(vehicle.registrationNumber);
+            sink.text(vehicle.type);
+            sink.number(vehicle.mileage);
+            sink.decimal2(vehicle.fuelUsage);
+            sink.text(vehicle.driverId);
+            sink.endRow();
+        });
+        sink.endSection();
+
+        sink.beginSection("driver", "DETAILED DRIVER LIST", "Driver ID\tName\tExperience\tLocation",
+            new String[] {"driver_id", "name", "experience_years", "location"});
+        driverQueue.forEachDriver(driver -> {
+            drivers++;
+            totalExperience += driver.experienceYears;
+            sink.text(driver.driverId);
+            sink.text(driver.name);
+            sink.number(driver.experienceYears);
+            sink.text(driver.currentLocation);
+            sink.endRow();
+        });
+        sink.endSection();
+
+        sink.beginSection("delivery", "PENDING DELIVERIES", "Package ID\tOrigin\tDestination\tVehicle\tDriver\tETA",
+            new String[] {"package_id", "origin", "destination", "vehicle", "driver", "eta"});
+        deliveryQueue.forEachDelivery(delivery -> {
+            deliveries++;
+            sink.text(delivery.packageId);
+            sink.text(delivery.origin);
+            sink.text(delivery.destination);
+            sink.text(delivery.assignedVehicle);
+            sink.text(delivery.assignedDriver);
+            sink.text(delivery.eta);
+            sink.endRow();
+        });
+        sink.endSection();
+
+        sink.beginSection("maintenance", "PENDING MAINTENANCE TASKS", "Vehicle\tMileage\tPriority\tkm/day\tDue (est.)",
+            new String[] {"vehicle", "mileage", "priority", "km_per_day", "projected_due"});
+        scheduler.forEachTask(task -> {
+            tasks++;
+            if (mostUrgent == null || task.compareTo(mostUrgent) < 0) {
+                mostUrgent = task; // same order as the scheduler: earliest projected due time
+            }
+            sink.text(task.vehicleNumber);
+            sink.number(task.mileage);
+            sink.text(task.getPriorityLevel());
+            sink.number(Math.round(task.kmPerDay));
+            sink.text(task.projectedDueText());
+            sink.endRow();
+        });
+        sink.endSection();
+
+        // Summaries - complete now that every structure has been visited once
+        sink.beginSummary();
+        FleetSummary fleet = vehicleTree.getSummary();
+        sink.summaryGroup("vehicles", "VEHICLE SUMMARY");
+        sink.summaryNumber("total", "Total Vehicles", fleet.vehicleCount);
+        sink.summaryNumber("trucks", "- Trucks", fleet.truckCount);
+        sink.summaryNumber("vans", "- Vans", fleet.vanCount);
+        if (fleet.vehicleCount > 0) {
+            sink.summaryDecimal("average_mileage", "- Average Mileage", fleet.averageMileage(), 2, " km");
+            sink.summaryDecimal("average_fuel_usage", "- Average Fuel Usage", fleet.averageFuelUsage(), 2, " L/100km");
+            FleetAnalytics analytics = vehicleTree.analyzeFleet(FleetAnalytics.HIGH_FUEL_USAGE);
+            sink.summaryNumber("high_fuel_usage", "- High Fuel Usage (" + analytics.highUsageLabel() + ")",
+                analytics.totalHighUsage());
+            sink.summaryNumber("unassigned", "- Without a Driver", analytics.unassigned);
+            sink.summaryDecimal("estimated_fuel_litres", "- Estimated Fuel Used", analytics.totalEstimatedFuelLitres(), 1, " L");
+        }
+        sink.summaryGroup("drivers", "DRIVER SUMMARY");
+        sink.summaryNumber("available", "Total Available Drivers", drivers);
+        if (drivers > 0) {
+            sink.summaryDecimal("average_experience", "- Average Experience", totalExperience / drivers, 1, " years");
+        }
+        sink.summaryGroup("deliveries", "DELIVERY SUMMARY");
+        sink.summaryNumber("pending", "Pending Deliveries", deliveries);
+        sink.summaryGroup("maintenance", "MAINTENANCE SUMMARY");
+        sink.summaryNumber("pending", "Pending Maintenance Tasks", tasks);
+        if (mostUrgent != null) {
+            sink.summaryText("most_urgent_vehicle", "Most Urgent", mostUrgent.vehicleNumber,
+                " (" + mostUrgent.mileage + " km until service, due " + mostUrgent.projectedDueText() + ")");
+            sink.summaryNumber("most_urgent_mileage", null, mostUrgent.mileage);
+        }
+        sink.end();
+    }
+
+    // Append a number with a fixed number of decimals (no format-string parsing)
+    private static void appendDecimal(Writer out, double value, int decimals) throws IOException {
+        long scale = decimals == 1 ? 10 : 100;
+        long scaled = Math.round(Math.abs(value) * scale);
+        StringBuilder sb = new StringBuilder(16);
+        if (value < 0 && scaled != 0) {
+            sb.append('-');
+        }
+        sb.append(scaled / scale).append('.');
+        long fraction = scaled % scale;
+        if (decimals == 2 && fraction < 10) {
+            sb.append('0');
+        }
+        sb.append(fraction);
+        out.write(sb.toString());
+    }
+
+    // Receives the report in order; one implementation per output format
+    private interface Sink {
+        void begin(String generatedOn) throws IOException;
+        // title and textHeader are for the text format, recordType and columns for CSV/JSON
+        void beginSection(String recordType, String title, String textHeader, String[] columns) throws IOException;
+        void text(String value) throws IOException;
+        void number(long value) throws IOException;
+        void decimal2(double value) throws IOException;
+        void endRow() throws IOException;
+        void endSection() throws IOException;
+        void beginSummary() throws IOException;
+        void summaryGroup(String key, String title) throws IOException;
+        void summaryNumber(String key, String label, long value) throws IOException;
+        void summaryDecimal(String key, String label, double value, int decimals, String unit) throws IOException;
+        // label == null means the value only appears in machine-readable formats
+        void summaryText(String key, String label, String value, String textSuffix) throws IOException;
+        void end() throws IOException;
+    }
+
+    // Human-readable report, tab-separated detail lists like the original system_report.txt
+    private static class TextSink implements Sink {
+        private final Writer out;
+        private boolean firstField = true;
+
+        TextSink(Writer out) {
+            this.out = out;
+        }
+
+        public void begin(String generatedOn) throws IOException {
+            out.write("=== VEHICLE TRACKING & MAINTENANCE SYSTEM REPORT ===\n");
+            out.write("Generated on: " + generatedOn + "\n");
+            out.write("===============================================\n\n");
+        }
+
+        public void beginSection(String recordType, String title, String textHeader, String[] columns) throws IOException {
+            out.write(title + ":\n");
+            out.write(textHeader + "\n");
+            out.write("-".repeat(textHeader.length() + 16) + "\n");
+        }
+
+        private void separator() throws IOException {
+            if (!firstField) {
+                out.write('\t');
+            }
+            firstField = false;
+        }
+
+        public void text(String value) throws IOException {
+            separator();
+            out.write(value);
+        }
+
+        public void number(long value) throws IOException {
+            separator();
+            out.write(Long.toString(value));
+        }
+
+        public void decimal2(double value) throws IOException {
+            separator();
+            appendDecimal(out, value, 2);
+        }
+
+        public void endRow() throws IOException {
+            out.write('\n');
+            firstField = true;
+        }
+
+        public void endSection() throws IOException {
+            out.write('\n');
+        }
+
+        public void beginSummary() {
+        }
+
+        public void summaryGroup(String key, String title) throws IOException {
+            out.write("\n" + title + ":\n");
+        }
+
+        public void summaryNumber(String key, String label, long value) throws IOException {
+            if (label != null) {
+                out.write(label + ": " + value + "\n");
+            }
+        }
+
+        public void summaryDecimal(String key, String label, double value, int decimals, String unit) throws IOException {
+            out.write(label + ": ");
+            appendDecimal(out, value, decimals);
+            out.write(unit + "\n");
+        }
+
+        public void summaryText(String key, String label, String value, String textSuffix) throws IOException {
+            out.write(label + ": Vehicle " + value + textSuffix + "\n");
+        }
+
+        public void end() throws IOException {
+            out.write("\n=== END OF REPORT ===\n");
+        }
+    }
+
+    // One CSV row per record: record type first, then the record's columns; summaries as key/value rows
+    private static class CsvSink implements Sink {
+        private final Writer out;
+        private String recordType;
+        private String group;
+        private boolean rowStarted = false;
+
+        CsvSink(Writer out) {
+            this.out = out;
+        }
+
+        public void begin(String generatedOn) throws IOException {
+            out.write("# generated_on," + generatedOn + "\n");
+        }
+
+        public void beginSection(String type, String title, String textHeader, String[] columns) throws IOException {
+            recordType = type;
+            out.write("record_type");
+            for (String column : columns) {
+                out.write(',');
+                out.write(column);
+            }
+            out.write('\n');
+        }
+
+        public void text(String value) throws IOException {
+            startField();
+            // Quote fields that contain separators, quotes or line breaks
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(value);
+            }
+        }
+
+        public void number(long value) throws IOException {
+            startField();
+            out.write(Long.toString(value));
+        }
+
+        public void decimal2(double value) throws IOException {
+            startField();
+            appendDecimal(out, value, 2);
+        }
+
+        // The record type column comes before the first field of a row
+        private void startField() throws IOException {
+            if (!rowStarted) {
+                out.write(recordType);
+                rowStarted = true;
+            }
+            out.write(',');
+        }
+
+        public void endRow() throws IOException {
+            out.write('\n');
+            rowStarted = false;
+        }
+
+        public void endSection() throws IOException {
+            out.write('\n');
+        }
+
+        public void beginSummary() throws IOException {
+            out.write("record_type,group,key,value\n");
+        }
+
+        public void summaryGroup(String key, String title) {
+            group = key;
+        }
+
+        public void summaryNumber(String key, String label, long value) throws IOException {
+            out.write("summary," + group + "," + key + "," + value + "\n");
+        }
+
+        public void summaryDecimal(String key, String label, double value, int decimals, String unit) throws IOException {
+            out.write("summary," + group + "," + key + ",");
+            appendDecimal(out, value, decimals);
+            out.write('\n');
+        }
+
+        public void summaryText(String key, String label, String value, String textSuffix) throws IOException {
+            recordType = "summary," + group + "," + key;
+            text(value); // writes the prefix and the quoted value
+            endRow();
+        }
+
+        public void end() {
+        }
+    }
+
+    // {"generatedOn": ..., "vehicles": [...], ..., "summary": {"vehicles": {...}, ...}}
+    private static class JsonSink implements Sink {
+        private final Writer out;
+        private String[] columns;
+        private int field;
+        private boolean firstRow;
+        private boolean firstInGroup;
+        private boolean firstGroup;
+
+        JsonSink(Writer out) {
+            this.out = out;
+        }
+
+        public void begin(String generatedOn) throws IOException {
+            out.write("{\"generatedOn\":");
+            string(generatedOn);
+        }
+
+        public void beginSection(String recordType, String title, String textHeader, String[] columns) throws IOException {
+            this.columns = columns;
+            this.firstRow = true;
+            this.field = 0;
+            out.write(",\n\"" + plural(recordType) + "\":[");
+        }
+
+        private static String plural(String recordType) {
+            switch (recordType) {
+                case "delivery": return "deliveries";
+                case "maintenance": return "maintenanceTasks";
+                default: return recordType + "s";
+            }
+        }
+
+        // JSON uses the same camelCase names as the HTTP API: fuel_usage -> fuelUsage
+        private static String camelCase(String name) {
+            StringBuilder sb = new StringBuilder(name.length());
+            boolean upper = false;
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (c == '_') {
+                    upper = true;
+                } else {
+                    sb.append(upper ? Character.toUpperCase(c) : c);
+                    upper = false;
+                }
+            }
+            return sb.toString();
+        }
+
+        private void key() throws IOException {
+            if (field == 0) {
+                out.write(firstRow ? "\n{" : ",\n{");
+                firstRow = false;
+            } else {
+                out.write(',');
+            }
+            string(camelCase(columns[field++]));
+            out.write(':');
+        }
+
+        public void text(String value) throws IOException {
+            key();
+            string(value);
+        }
+
+        public void number(long value) throws IOException {
+            key();
+            out.write(Long.toString(value));
+        }
+
+        public void decimal2(double value) throws IOException {
+            key();
+            appendDecimal(out, value, 2);
+        }
+
+        public void endRow() throws IOException {
+            out.write('}');
+            field = 0;
+        }
+
+        public void endSection() throws IOException {
+            out.write(']');
+        }
+
+        public void beginSummary() throws IOException {
+            out.write(",\n\"summary\":{");
+            firstGroup = true;
+        }
+
+        public void summaryGroup(String key, String title) throws IOException {
+            out.write(firstGroup ? "" : "},");
+            firstGroup = false;
+            string(key);
+            out.write(":{");
+            firstInGroup = true;
+        }
+
+        private void summaryKey(String key) throws IOException {
+            if (!firstInGroup) {
+                out.write(',');
+            }
+            firstInGroup = false;
+            string(camelCase(key));
+            out.write(':');
+        }
+
+        public void summaryNumber(String key, String label, long value) throws IOException {
+            summaryKey(key);
+            out.write(Long.toString(value));
+        }
+
+        public void summaryDecimal(String key, String label, double value, int decimals, String unit) throws IOException {
+            summaryKey(key);
+            appendDecimal(out, value, decimals);
+        }
+
+        public void summaryText(String key, String label, String value, String textSuffix) throws IOException {
+            summaryKey(key);
+            string(value);
+        }
+
+        public void end() throws IOException {
+            out.write(firstGroup ? "}}\n" : "}}}\n");
+        }
+
+        private void string(String value) throws IOException {
+            out.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    out.write('\\');
+                    out.write(c);
+                } else if (c < 0x20) {
+                    out.write(String.format("\\u%04x", (int) c));
+                } else {
+                    out.write(c);
+                }
+            }
+            out.write('"');
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package datastructures;
+
+import java.io.PrintStream;
+
+/**
+ * TableRenderer class - draws the bordered console tables used by every listing
+ * Rule and header lines are built once per table; rows are padded by hand into a reusable
+ * StringBuilder (no printf format parsing) and written in large blocks instead of one
+ * console write per row. Long listings can be split into pages.
+ *
+ * +--------------+-------+
+ * | Registration | Type  |
+ * +--------------+-------+
+ */
+public class TableRenderer {
+    private static final int FLUSH_THRESHOLD = 16 * 1024; // characters buffered before writing to the console
+    private static final String SPACES = " ".repeat(64);  // padding source
+
+    // Decides whether to continue after a full page (e.g. "Press Enter for more")
+    public interface Pager {
+        boolean nextPage(int rowsShown, int totalRows);
+    }
+
+    // Appends row number index of a listing
+    public interface RowSource {
+        void appendRow(int index, Row row);
+    }
+
+    // Paging settings shared by all tables - off until setPaging is called
+    private static volatile int pageSize = 0;
+    private static volatile Pager pager = null;
+
+    private final int[] widths;
+    private final String rule;      // +------+----+
+    private final String headerRow; // | Name | ID |
+
+    // Constructor - one column per header, widths are the minimum cell widths (longer values widen the cell)
+    public TableRenderer(String[] headers, int[] widths) {
+        this.widths = widths.clone();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append('+');
+        for (int width : widths) {
+            for (int i = 0; i < width + 2; i++) {
+                sb.append('-');
+            }
+            sb.append('+');
+        }
+        this.rule = sb.toString();
+
+        Row header = new Row();
+        for (String title : headers) {
+            header.cell(title);
+        }
+        header.end();
+        this.headerRow = header.sb.substring(0, header.sb.length() - 1); // without the line break
+    }
+
+    // Turn on paging for long listings (pageSize 0 or a null pager turns it off)
+    public static void setPaging(int rowsPerPage, Pager listener) {
+        pageSize = rowsPerPage;
+        pager = listener;
+    }
+
+    // Top rule, column titles and the rule under them
+    public void printHeader(PrintStream out) {
+        out.print(rule + "\n" + headerRow + "\n" + rule + "\n");
+    }
+
+    // Closing rule
+    public void printFooter(PrintStream out) {
+        out.print(rule + "\n");
+    }
+
+    // Start an empty row buffer (for printing a single record with Row.printTo)
+    public Row row() {
+        return new Row();
+    }
+
+    // Print a whole table: header, rows 0..rowCount-1 (paged if enabled) and footer
+    public void render(PrintStream out, int rowCount, RowSource source) {
+        int rowsPerPage = pageSize;
+        Pager listener = pager;
+        boolean paging = rowsPerPage > 0 && listener != null && rowCount > rowsPerPage;
+
+        Row row = new Row();
+        row.sb.append(rule).append('\n').append(headerRow).append('\n').append(rule).append('\n');
+        int shown = 0;
+        while (shown < rowCount) {
+            source.appendRow(shown, row);
+            shown++;
+            if (row.sb.length() >= FLUSH_THRESHOLD) {
+                row.printTo(out);
+            }
+            if (paging && shown % rowsPerPage == 0 && shown < rowCount) {
+                row.sb.append(rule).append('\n');
+                row.printTo(out);
+                if (!listener.nextPage(shown, rowCount)) {
+                    out.print("(" + shown + " of " + rowCount + " rows shown)\n");
+                    return;
+                }
+                row.sb.append(rule).append('\n');
+            }
+        }
+        row.sb.append(rule).append('\n');
+        row.printTo(out);
+    }
+
+    // Builds table rows cell by cell into a shared buffer
+    public class Row {
+        private final StringBuilder sb = new StringBuilder(256);
+        private int column = 0;
+
+        // Left-aligned text cell
+        public Row cell(String value) {
+            sb.append(column == 0 ? "| " : " ");
+            String text = value != null ? value : "null";
+            sb.append(text);
+            pad(widths[column] - text.length());
+            sb.append(" |");
+            column++;
+            return this;
+        }
+
+        // Left-aligned text cell, cut to the column width
+        public Row cellTruncated(String value) {
+            String text = value != null ? value : "null";
+            return cell(text.length() > widths[column] ? text.substring(0, widths[column]) : text);
+        }
+
+        // Left-aligned integer cell
+        public Row cell(long value) {
+            sb.append(column == 0 ? "| " : " ");
+            int start = sb.length();
+            sb.append(value);
+            pad(widths[column] - (sb.length() - start));
+            sb.append(" |");
+            column++;
+            return this;
+        }
+
+        // Left-aligned number with two decimals (same rounding as %.2f for the values we store)
+        public Row cellFixed2(double value) {
+            sb.append(column == 0 ? "| " : " ");
+            int start = sb.length();
+            long cents = Math.round(Math.abs(value) * 100);
+            if (value < 0 && cents != 0) {
+                sb.append('-');
+            }
+            sb.append(cents / 100).append('.');
+            long fraction = cents % 100;
+            if (fraction < 10) {
+                sb.append('0');
+            }
+            sb.append(fraction);
+            pad(widths[column] - (sb.length() - start));
+            sb.append(" |");
+            column++;
+            return this;
+        }
+
+        // Finish the current row
+        public void end() {
+            sb.append('\n');
+            column = 0;
+        }
+
+        private void pad(int count) {
+            while (count > 0) {
+                int chunk = Math.min(count, SPACES.length());
+                sb.append(SPACES, 0, chunk);
+                count -= chunk;
+            }
+        }
+
+        // Write the buffered rows and empty the buffer
+        public void printTo(PrintStream out) {
+            out.print(sb);
+            sb.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package datastructures;
+
+import java.util.Arrays;
+
+/**
+ * TownDirectory class - map positions of the towns the fleet serves (loaded from data/towns.txt)
+ * Towns are kept by their code in SymbolTable.SHARED, the same code Driver.locationCode holds,
+ * so looking up a driver's town is an array access. The other towns ordered by straight-line
+ * distance are worked out once per town and cached, so "nearest towns to X" costs nothing after
+ * the first call. Thread-safe.
+ */
+public class TownDirectory {
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private double[] latitudes = new double[0];   // radians, indexed by town code
+    private double[] longitudes = new double[0];
+    private boolean[] known = new boolean[0];
+    private int[] towns = new int[16];            // codes of the known towns, in the order added
+    private int count = 0;
+    private int[][] nearestCache = new int[0][];  // per town code: other towns, nearest first
+
+    // Add a town (or move it) - latitude/longitude in degrees
+    public synchronized void add(String town, double latitude, double longitude) {
+        int code = SymbolTable.SHARED.intern(town);
+        if (code >= known.length) {
+            int length = Math.max(code + 1, known.length * 2);
+            latitudes = Arrays.copyOf(latitudes, length);
+            longitudes = Arrays.copyOf(longitudes, length);
+            known = Arrays.copyOf(known, length);
+        }
+        if (!known[code]) {
+            if (count == towns.length) {
+                towns = Arrays.copyOf(towns, count * 2);
+            }
+            towns[count++] = code;
+            known[code] = true;
+        }
+        latitudes[code] = Math.toRadians(latitude);
+        longitudes[code] = Math.toRadians(longitude);
+        nearestCache = new int[known.length][]; // distances changed - recompute on demand
+    }
+
+    // True if the town (a SymbolTable.SHARED code) has a position
+    public synchronized boolean contains(int code) {
+        return code >= 0 && code < known.length && known[code];
+    }
+
+    // True if the town has a position
+    public boolean contains(String town) {
+        return contains(SymbolTable.SHARED.code(town));
+    }
+
+    // Number of towns
+    public synchronized int size() {
+        return count;
+    }
+
+    // Straight-line (great-circle) distance in km between two known towns
+    public synchronized double distanceKm(int from, int to) {
+        double dLatitude = latitudes[to] - latitudes[from];
+        double dLongitude = longitudes[to] - longitudes[from];
+        double a = Math.sin(dLatitude / 2) * Math.sin(dLatitude / 2)
+            + Math.cos(latitudes[from]) * Math.cos(latitudes[to]) * Math.sin(dLongitude / 2) * Math.sin(dLongitude / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // Codes of the other towns, nearest first (empty if the town is unknown) - do not modify
+    public synchronized int[] nearest(int code) {
+        if (!contains(code)) {
+            return new int[0];
+        }
+        if (nearestCache[code] == null) {
+            nearestCache[code] = sortByDistance(code);
+        }
+        return nearestCache[code];
+    }
+
+    // The other towns sorted by distance from one town (insertion sort - a few dozen towns)
+    private int[] sortByDistance(int code) {
+        int[] others = new int[count - 1];
+        double[] distances = new double[count - 1];
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            int town = towns[i];
+            if (town == code) {
+                continue;
+            }
+            double distance = distanceKm(code, town);
+            int j = n - 1;
+            while (j >= 0 && distances[j] > distance) {
+                others[j + 1] = others[j];
+                distances[j + 1] = distances[j];
+                j--;
+            }
+            others[j + 1] = town;
+            distances[j + 1] = distance;
+            n++;
+        }
+        return others;
+    }
+}
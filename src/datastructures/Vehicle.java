@@ -2,22 +2,61 @@ package datastructures;
 
 /**
  * Vehicle class - represents a vehicle (truck or van) in the system
+ * Type and driver ID are shared strings from SymbolTable.SHARED with a numeric code next to them,
+ * so comparing them is an int comparison. Change them with setType/setDriverId (or through
+ * VehicleTree.update while the vehicle is in a tree) so the codes stay in step.
  */
-public class Vehicle {
+public class Vehicle extends VersionedEntity {
+    // Type codes
+    public static final byte TRUCK = 0, VAN = 1, OTHER = 2;
+    private static final String[] TYPE_NAMES = {"Truck", "Van", "Other"};
+
     // Vehicle attributes
     public String registrationNumber;
+    public long registrationKey; // registrationNumber packed by RegistrationCodec
     public String type; // truck or van
+    public byte typeCode; // TRUCK, VAN or OTHER
     public int mileage;
     public double fuelUsage; // Litres per 100km
     public String driverId;
+    public int driverCode; // driverId's code in SymbolTable.SHARED
+    int columnSlot = -1; // slot in the tree's FleetColumns (-1 while not in a tree)
 
     // Constructor to create a vehicle
     public Vehicle(String registrationNumber, String type, int mileage, double fuelUsage, String driverId) {
         this.registrationNumber = registrationNumber;
-        this.type = type;
+        this.registrationKey = RegistrationCodec.encode(registrationNumber);
+        this.type = SymbolTable.SHARED.canonical(type);
+        this.typeCode = typeCode(type);
         this.mileage = mileage;
         this.fuelUsage = fuelUsage;
-        this.driverId = driverId;
+        this.driverCode = SymbolTable.SHARED.intern(driverId);
+        this.driverId = SymbolTable.SHARED.symbol(driverCode);
+    }
+
+    // Type code for a type name (case-insensitive; anything else than truck or van is OTHER)
+    public static byte typeCode(String type) {
+        if (type.equalsIgnoreCase("truck")) {
+            return TRUCK;
+        }
+        return type.equalsIgnoreCase("van") ? VAN : OTHER;
+    }
+
+    // Display name of a type code
+    public static String typeName(int typeCode) {
+        return TYPE_NAMES[typeCode];
+    }
+
+    // Set the type and its code
+    public void setType(String type) {
+        this.type = SymbolTable.SHARED.canonical(type);
+        this.typeCode = typeCode(type);
+    }
+
+    // Set the driver ID and its code
+    public void setDriverId(String driverId) {
+        this.driverCode = SymbolTable.SHARED.intern(driverId);
+        this.driverId = SymbolTable.SHARED.symbol(driverCode);
     }
 
     // Getter methods for accessing private fields from Main class
@@ -41,22 +80,47 @@ public class Vehicle {
         return driverId; // For now, using driverId as driver name
     }
 
+    // Registration number identifies the vehicle in patch files
+    @Override
+    public String key() {
+        return registrationNumber;
+    }
+
+    // Record format used in data/vehicles.txt
+    @Override
+    public String toRecord() {
+        return String.format("%s,%s,%d,%.2f,%s", registrationNumber, type, mileage, fuelUsage, driverId);
+    }
+
+    // Column layout of vehicle tables
+    public static final TableRenderer TABLE = new TableRenderer(
+        new String[] {"Registration", "Type", "Mileage", "Fuel Usage", "Driver ID"},
+        new int[] {12, 5, 8, 10, 12});
+
+    // Add this vehicle as one row of a vehicle table
+    public void appendRow(TableRenderer.Row row) {
+        row.cell(registrationNumber).cell(type).cell(mileage).cellFixed2(fuelUsage).cell(driverId).end();
+    }
+
     // Display vehicle information in table format
     public void displayInfo() {
-        System.out.printf("| %-12s | %-5s | %-8d | %-10.2f | %-12s |%n", 
-            registrationNumber, type, mileage, fuelUsage, driverId);
+        TableRenderer.Row row = TABLE.row();
+        appendRow(row);
+        row.printTo(System.out);
+    }
+
+    // Display a list of vehicles as a complete table (buffered, paged if enabled)
+    public static void displayTable(Vehicle[] vehicles) {
+        TABLE.render(System.out, vehicles.length, (i, row) -> vehicles[i].appendRow(row));
     }
 
     // Static method to display table header for vehicles
     public static void displayTableHeader() {
-        System.out.println("+" + "-".repeat(14) + "+" + "-".repeat(7) + "+" + "-".repeat(10) + "+" + "-".repeat(12) + "+" + "-".repeat(14) + "+");
-        System.out.printf("| %-12s | %-5s | %-8s | %-10s | %-12s |%n", 
-            "Registration", "Type", "Mileage", "Fuel Usage", "Driver ID");
-        System.out.println("+" + "-".repeat(14) + "+" + "-".repeat(7) + "+" + "-".repeat(10) + "+" + "-".repeat(12) + "+" + "-".repeat(14) + "+");
+        TABLE.printHeader(System.out);
     }
 
     // Static method to display table footer
     public static void displayTableFooter() {
-        System.out.println("+" + "-".repeat(14) + "+" + "-".repeat(7) + "+" + "-".repeat(10) + "+" + "-".repeat(12) + "+" + "-".repeat(14) + "+");
+        TABLE.printFooter(System.out);
     }
 }
@@ -0,0 +1,279 @@
+package datastructures;
+
+/**
+ * VehicleMultiset class - vehicles ordered by a numeric key (e.g. fuel usage), duplicates allowed
+ * Self-balancing AVL tree: several vehicles may share a key, ties are ordered by registration
+ * number so every vehicle has exactly one place. Adding, removing and finding the smallest or
+ * largest entry take O(log n) whatever order the vehicles arrive in. Every node knows the size
+ * of its subtree, so a range query counts its matches in O(log n) and then visits only them:
+ * O(log n + k) for k results, already in key order.
+ * The key is stored with the entry, so remove with the key the vehicle was added with.
+ * Not thread-safe - the owner (VehicleTree) guards it with its own lock.
+ */
+public class VehicleMultiset {
+    private static class Node {
+        final double key;
+        final Vehicle vehicle;
+        Node left, right;
+        int height = 1;
+        int size = 1; // entries in this subtree
+
+        Node(double key, Vehicle vehicle) {
+            this.key = key;
+            this.vehicle = vehicle;
+        }
+    }
+
+    private Node root;
+    private int size = 0;
+
+    // Add a vehicle under the given key
+    public void add(double key, Vehicle vehicle) {
+        root = insert(root, key, vehicle);
+        size++;
+    }
+
+    // Remove the entry for this vehicle and key - returns false if there is none
+    public boolean remove(double key, Vehicle vehicle) {
+        int before = size;
+        root = delete(root, key, vehicle.registrationNumber);
+        return size < before;
+    }
+
+    // Number of entries
+    public int size() {
+        return size;
+    }
+
+    // Vehicle with the smallest key (null if empty)
+    public Vehicle first() {
+        Node node = root;
+        if (node == null) {
+            return null;
+        }
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node.vehicle;
+    }
+
+    // Vehicle with the largest key (null if empty)
+    public Vehicle last() {
+        Node node = root;
+        if (node == null) {
+            return null;
+        }
+        while (node.right != null) {
+            node = node.right;
+        }
+        return node.vehicle;
+    }
+
+    // Vehicles with minKey <= key <= maxKey, in ascending key order - O(log n + k)
+    public Vehicle[] range(double minKey, double maxKey) {
+        if (minKey > maxKey) {
+            return new Vehicle[0];
+        }
+        Vehicle[] vehicles = new Vehicle[countAtMost(root, maxKey) - countBelow(root, minKey)];
+        fillRange(root, minKey, maxKey, vehicles, new int[]{0});
+        return vehicles;
+    }
+
+    // Vehicles with a key strictly below the given one, in ascending key order
+    public Vehicle[] lessThan(double key) {
+        return range(Double.NEGATIVE_INFINITY, Math.nextDown(key));
+    }
+
+    // Vehicles with a key strictly greater than the given one, in ascending key order
+    public Vehicle[] greaterThan(double key) {
+        return range(Math.nextUp(key), Double.POSITIVE_INFINITY);
+    }
+
+    // The count smallest entries, smallest first (fewer if the multiset is smaller)
+    public Vehicle[] lowest(int count) {
+        Vehicle[] vehicles = new Vehicle[Math.max(0, Math.min(count, size))];
+        fillLowest(root, vehicles, new int[]{0});
+        return vehicles;
+    }
+
+    // The count largest entries, largest first (fewer if the multiset is smaller)
+    public Vehicle[] highest(int count) {
+        Vehicle[] vehicles = new Vehicle[Math.max(0, Math.min(count, size))];
+        fillHighest(root, vehicles, new int[]{0});
+        return vehicles;
+    }
+
+    // Entries with a key below the given one - whole left subtrees are counted from their stored size
+    private static int countBelow(Node node, double key) {
+        int count = 0;
+        while (node != null) {
+            if (node.key < key) {
+                count += 1 + size(node.left);
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    // Entries with a key at or below the given one
+    private static int countAtMost(Node node, double key) {
+        int count = 0;
+        while (node != null) {
+            if (node.key <= key) {
+                count += 1 + size(node.left);
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    // In-order fill that skips subtrees lying entirely outside the range
+    private static void fillRange(Node node, double minKey, double maxKey, Vehicle[] array, int[] index) {
+        if (node == null) {
+            return;
+        }
+        if (minKey <= node.key) {
+            fillRange(node.left, minKey, maxKey, array, index);
+        }
+        if (node.key >= minKey && node.key <= maxKey) {
+            array[index[0]++] = node.vehicle;
+        }
+        if (node.key <= maxKey) {
+            fillRange(node.right, minKey, maxKey, array, index);
+        }
+    }
+
+    // In-order fill that stops once the array is full
+    private static void fillLowest(Node node, Vehicle[] array, int[] index) {
+        if (node == null || index[0] == array.length) {
+            return;
+        }
+        fillLowest(node.left, array, index);
+        if (index[0] < array.length) {
+            array[index[0]++] = node.vehicle;
+            fillLowest(node.right, array, index);
+        }
+    }
+
+    // Reverse in-order fill that stops once the array is full
+    private static void fillHighest(Node node, Vehicle[] array, int[] index) {
+        if (node == null || index[0] == array.length) {
+            return;
+        }
+        fillHighest(node.right, array, index);
+        if (index[0] < array.length) {
+            array[index[0]++] = node.vehicle;
+            fillHighest(node.left, array, index);
+        }
+    }
+
+    // Order by key, then by registration number
+    private static int compare(double key, String registrationNumber, Node node) {
+        int result = Double.compare(key, node.key);
+        return result != 0 ? result : registrationNumber.compareTo(node.vehicle.registrationNumber);
+    }
+
+    private Node insert(Node node, double key, Vehicle vehicle) {
+        if (node == null) {
+            return new Node(key, vehicle);
+        }
+        if (compare(key, vehicle.registrationNumber, node) < 0) {
+            node.left = insert(node.left, key, vehicle);
+        } else {
+            node.right = insert(node.right, key, vehicle);
+        }
+        return rebalance(node);
+    }
+
+    private Node delete(Node node, double key, String registrationNumber) {
+        if (node == null) {
+            return null; // not found
+        }
+        int cmp = compare(key, registrationNumber, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, key, registrationNumber);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, key, registrationNumber);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            } else if (node.right == null) {
+                return node.left;
+            }
+            // Two children - the smallest entry on the right takes this node's place
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = removeSmallest(node.right);
+            successor.left = node.left;
+            return rebalance(successor);
+        }
+        return rebalance(node);
+    }
+
+    // Unlink the smallest node of a subtree and return the rebalanced rest
+    private Node removeSmallest(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeSmallest(node.left);
+        return rebalance(node);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    // Recompute height and subtree size from the children
+    private static void refresh(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    // Restore the AVL property (child heights differ by at most one) with one or two rotations
+    private static Node rebalance(Node node) {
+        refresh(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node top = node.left;
+        node.left = top.right;
+        top.right = node;
+        refresh(node);
+        refresh(top);
+        return top;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node top = node.right;
+        node.right = top.left;
+        top.left = node;
+        refresh(node);
+        refresh(top);
+        return top;
+    }
+}
@@ -1,11 +1,24 @@
 package datastructures;
 
+import java.io.IOException;
+import java.util.concurrent.locks.StampedLock;
+
 /**
  * VehicleTree class - implements Binary Search Tree for vehicle management
  * Vehicles are organized by mileage for efficient searching and sorting
+ * Safe to use from several threads and optimized for reads: searches run without locking
+ * (optimistic reads that are retried under a read lock if a writer got in the way),
+ * traversals share a read lock and changes take the write lock.
  */
 public class VehicleTree {
     private VehicleNode root; // root of the BST
+    private int count = 0; // number of vehicles in the tree
+    private final ChangeTracker changes = new ChangeTracker(); // vehicles changed since the last save
+    private final FleetAggregates aggregates = new FleetAggregates(); // running totals for summaries
+    private final FuelAnomalyDetector fuelAnomalies = new FuelAnomalyDetector(); // fuel baselines per type
+    private final FleetColumns columns = new FleetColumns(); // column copy of the fleet for analytics
+    private final RegistrationMap<Vehicle> byRegistration = new RegistrationMap<>(); // registration lookups in O(1)
+    private final StampedLock lock = new StampedLock(); // guards root, count and the nodes
 
     // Constructor - initialize empty tree
     public VehicleTree() {
@@ -14,7 +27,18 @@ public class VehicleTree {
 
     // Public method to insert vehicle by mileage
     public void insert(Vehicle vehicle) {
-        root = insertRecursive(root, vehicle);
+        long stamp = lock.writeLock();
+        try {
+            root = insertRecursive(root, vehicle);
+            count++;
+            aggregates.add(vehicle);
+            fuelAnomalies.add(vehicle);
+            columns.add(vehicle);
+            byRegistration.put(vehicle.registrationKey, vehicle.registrationNumber, vehicle);
+            changes.changed(vehicle);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
     }
 
     // Recursive helper method to insert a node in correct position
@@ -35,7 +59,68 @@ public class VehicleTree {
 
     // Public method to search vehicle by mileage
     public Vehicle searchByMileage(int mileage) {
-        return searchRecursive(root, mileage);
+        // Optimistic read - no lock taken unless a writer changed the tree meanwhile
+        long stamp = lock.tryOptimisticRead();
+        try {
+            Vehicle result = searchRecursive(root, mileage);
+            if (lock.validate(stamp)) {
+                return result;
+            }
+        } catch (RuntimeException e) {
+            // Saw the tree half-way through a change - fall through and retry under the read lock
+        }
+        stamp = lock.readLock();
+        try {
+            return searchRecursive(root, mileage);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Find all vehicles with mileage between minMileage and maxMileage (inclusive), in mileage order
+    public Vehicle[] searchByMileageRange(int minMileage, int maxMileage) {
+        long stamp = lock.readLock();
+        try {
+            // Count matches first, then fill array (only subtrees that can overlap the range are visited)
+            Vehicle[] vehicles = new Vehicle[countInRange(root, minMileage, maxMileage)];
+            fillRange(root, minMileage, maxMileage, vehicles, new int[]{0});
+            return vehicles;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Count vehicles in the mileage range, skipping subtrees that lie entirely outside it
+    private int countInRange(VehicleNode node, int minMileage, int maxMileage) {
+        if (node == null) {
+            return 0;
+        }
+        int mileage = node.vehicle.mileage;
+        int count = (mileage >= minMileage && mileage <= maxMileage) ? 1 : 0;
+        if (minMileage < mileage) {
+            count += countInRange(node.left, minMileage, maxMileage);   // smaller mileages are on the left
+        }
+        if (maxMileage >= mileage) {
+            count += countInRange(node.right, minMileage, maxMileage);  // equal or larger on the right
+        }
+        return count;
+    }
+
+    // Fill the array with vehicles in the mileage range using a pruned in-order traversal
+    private void fillRange(VehicleNode node, int minMileage, int maxMileage, Vehicle[] array, int[] index) {
+        if (node == null) {
+            return;
+        }
+        int mileage = node.vehicle.mileage;
+        if (minMileage < mileage) {
+            fillRange(node.left, minMileage, maxMileage, array, index);
+        }
+        if (mileage >= minMileage && mileage <= maxMileage) {
+            array[index[0]++] = node.vehicle;
+        }
+        if (maxMileage >= mileage) {
+            fillRange(node.right, minMileage, maxMileage, array, index);
+        }
     }
 
     // Recursive helper method to search by mileage
@@ -56,28 +141,222 @@ public class VehicleTree {
 
     // Public method to remove vehicle by registration number
     public boolean remove(String registrationNumber) {
-        Vehicle toRemove = searchByRegistration(registrationNumber);
-        if (toRemove == null) {
-            return false; // Vehicle not found
+        long stamp = lock.writeLock();
+        try {
+            Vehicle toRemove = byRegistration.get(registrationNumber);
+            if (toRemove == null) {
+                return false; // Vehicle not found
+            }
+            root = removeRecursive(root, toRemove);
+            count--;
+            aggregates.remove(toRemove);
+            fuelAnomalies.remove(toRemove);
+            columns.remove(toRemove);
+            byRegistration.remove(toRemove.registrationKey, toRemove.registrationNumber);
+            changes.removed(toRemove);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Change a vehicle's mileage and move it to its new position in the tree
+    // Returns the updated vehicle, or null if it was not found
+    public Vehicle updateMileage(String registrationNumber, int newMileage) {
+        long stamp = lock.writeLock();
+        try {
+            Vehicle vehicle = byRegistration.get(registrationNumber);
+            if (vehicle == null) {
+                return null;
+            }
+            // The tree is ordered by mileage, so the node has to be re-inserted
+            aggregates.remove(vehicle);
+            root = removeRecursive(root, vehicle);
+            vehicle.mileage = newMileage;
+            root = insertRecursive(root, vehicle);
+            aggregates.add(vehicle);
+            columns.update(vehicle);
+            changes.changed(vehicle);
+            return vehicle;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Replace all fields of a vehicle (e.g. from a saved record) and keep the tree and totals in order
+    // Returns the updated vehicle, or null if it was not found
+    public Vehicle update(String registrationNumber, String type, int mileage, double fuelUsage, String driverId) {
+        long stamp = lock.writeLock();
+        try {
+            Vehicle vehicle = byRegistration.get(registrationNumber);
+            if (vehicle == null) {
+                return null;
+            }
+            // A new fuel usage or type is a new reading for the fuel baselines
+            boolean newReading = vehicle.fuelUsage != fuelUsage || vehicle.typeCode != Vehicle.typeCode(type);
+            aggregates.remove(vehicle);
+            if (newReading) {
+                fuelAnomalies.remove(vehicle);
+            }
+            if (vehicle.mileage != mileage) {
+                root = removeRecursive(root, vehicle);
+                vehicle.mileage = mileage;
+                root = insertRecursive(root, vehicle);
+            }
+            vehicle.setType(type);
+            vehicle.fuelUsage = fuelUsage;
+            vehicle.setDriverId(driverId);
+            aggregates.add(vehicle);
+            if (newReading) {
+                fuelAnomalies.add(vehicle);
+            }
+            columns.update(vehicle);
+            changes.changed(vehicle);
+            return vehicle;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Record a new fuel usage reading (L/100km) for a vehicle
+    // Returns the updated vehicle, or null if it was not found
+    public Vehicle updateFuelUsage(String registrationNumber, double fuelUsage) {
+        long stamp = lock.writeLock();
+        try {
+            Vehicle vehicle = byRegistration.get(registrationNumber);
+            if (vehicle == null) {
+                return null;
+            }
+            aggregates.remove(vehicle);
+            fuelAnomalies.remove(vehicle);
+            vehicle.fuelUsage = fuelUsage;
+            aggregates.add(vehicle);
+            fuelAnomalies.add(vehicle);
+            columns.update(vehicle);
+            changes.changed(vehicle);
+            return vehicle;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Vehicles with minFuelUsage <= fuel usage <= maxFuelUsage, most efficient first
+    // Answered from the fuel usage index in O(log n + k) - only the matches are copied
+    public Vehicle[] findByFuelUsage(double minFuelUsage, double maxFuelUsage) {
+        long stamp = lock.readLock();
+        try {
+            return aggregates.byFuelUsage().range(minFuelUsage, maxFuelUsage);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Vehicles using less than the given fuel usage, most efficient first
+    public Vehicle[] findFuelUsageBelow(double fuelUsage) {
+        long stamp = lock.readLock();
+        try {
+            return aggregates.byFuelUsage().lessThan(fuelUsage);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Vehicles using more than the given fuel usage, most efficient first
+    public Vehicle[] findFuelUsageAbove(double fuelUsage) {
+        long stamp = lock.readLock();
+        try {
+            return aggregates.byFuelUsage().greaterThan(fuelUsage);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // The count most fuel-efficient vehicles (lowest usage first)
+    public Vehicle[] mostFuelEfficient(int count) {
+        long stamp = lock.readLock();
+        try {
+            return aggregates.byFuelUsage().lowest(count);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // The count least fuel-efficient vehicles (highest usage first)
+    public Vehicle[] leastFuelEfficient(int count) {
+        long stamp = lock.readLock();
+        try {
+            return aggregates.byFuelUsage().highest(count);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Per-type mileage, fuel and driver figures computed in one pass over the fleet columns
+    public FleetAnalytics analyzeFleet(double highUsageThreshold) {
+        long stamp = lock.readLock();
+        try {
+            return columns.analyze(highUsageThreshold, "UNASSIGNED");
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Fuel usage baseline of one vehicle type (Vehicle.TRUCK, VAN or OTHER)
+    public FuelBaseline getFuelBaseline(int type) {
+        long stamp = lock.readLock();
+        try {
+            return fuelAnomalies.baseline(type);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Vehicles whose fuel usage is an outlier for their type right now (see FuelAnomalyDetector)
+    public Vehicle[] findFuelOutliers() {
+        long stamp = lock.readLock();
+        try {
+            return fuelAnomalies.outliers();
+        } finally {
+            lock.unlockRead(stamp);
         }
-        root = removeRecursive(root, toRemove.mileage, registrationNumber);
-        return true;
     }
 
-    // Recursive helper method to remove a node
-    private VehicleNode removeRecursive(VehicleNode current, int mileage, String registrationNumber) {
+    // Fleet totals, averages and extremes - kept up to date on every change, so no pass over the fleet
+    // The mileage extremes are a walk down the tree's left and right edges: O(height), which is
+    // O(n) in the worst case because the tree is not balanced (vehicles added in mileage order)
+    public FleetSummary getSummary() {
+        long stamp = lock.readLock();
+        try {
+            // Lowest and highest mileage are the leftmost and rightmost nodes
+            VehicleNode lowest = root, highest = root;
+            while (lowest != null && lowest.left != null) {
+                lowest = lowest.left;
+            }
+            while (highest != null && highest.right != null) {
+                highest = highest.right;
+            }
+            return aggregates.summary(lowest != null ? lowest.vehicle : null,
+                highest != null ? highest.vehicle : null);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Recursive helper method to remove a node (the vehicle's mileage must be the one it was inserted with)
+    private VehicleNode removeRecursive(VehicleNode current, Vehicle vehicle) {
         if (current == null) {
             return null;
         }
 
         // Navigate to the correct node
-        if (mileage < current.vehicle.mileage) {
-            current.left = removeRecursive(current.left, mileage, registrationNumber);
-        } else if (mileage > current.vehicle.mileage) {
-            current.right = removeRecursive(current.right, mileage, registrationNumber);
+        if (vehicle.mileage < current.vehicle.mileage) {
+            current.left = removeRecursive(current.left, vehicle);
+        } else if (vehicle.mileage > current.vehicle.mileage) {
+            current.right = removeRecursive(current.right, vehicle);
         } else {
-            // Found the mileage, check if it's the exact vehicle
-            if (current.vehicle.registrationNumber.equals(registrationNumber)) {
+            // Found the mileage, check if it's the exact vehicle (one long comparison for normal plates)
+            if (RegistrationCodec.equals(current.vehicle.registrationKey, current.vehicle.registrationNumber,
+                    vehicle.registrationKey, vehicle.registrationNumber)) {
                 // Node to delete found - handle 3 cases
                 if (current.left == null) {
                     return current.right; // Case 1: No left child
@@ -87,11 +366,11 @@ public class VehicleTree {
 
                 // Case 3: Node has two children - replace with inorder successor
                 current.vehicle = findMinValue(current.right);
-                current.right = removeRecursive(current.right, current.vehicle.mileage, current.vehicle.registrationNumber);
+                current.right = removeRecursive(current.right, current.vehicle);
             } else {
                 // Same mileage but different vehicle, search both subtrees
-                current.left = removeRecursive(current.left, mileage, registrationNumber);
-                current.right = removeRecursive(current.right, mileage, registrationNumber);
+                current.left = removeRecursive(current.left, vehicle);
+                current.right = removeRecursive(current.right, vehicle);
             }
         }
         return current;
@@ -107,66 +386,111 @@ public class VehicleTree {
 
     // Public method to search vehicle by registration number
     public Vehicle searchByRegistration(String registrationNumber) {
-        return searchByRegistrationRecursive(root, registrationNumber);
-    }
-
-    // Recursive helper to search by registration (searches entire tree)
-    private Vehicle searchByRegistrationRecursive(VehicleNode current, String registrationNumber) {
-        if (current == null) return null;
-
-        if (current.vehicle.registrationNumber.equals(registrationNumber)) {
-            return current.vehicle;
+        // Optimistic read - no lock taken unless a writer changed the tree meanwhile
+        long stamp = lock.tryOptimisticRead();
+        try {
+            Vehicle result = byRegistration.get(registrationNumber);
+            if (lock.validate(stamp)) {
+                return result;
+            }
+        } catch (RuntimeException e) {
+            // Saw the tree half-way through a change - fall through and retry under the read lock
+        }
+        stamp = lock.readLock();
+        try {
+            return byRegistration.get(registrationNumber);
+        } finally {
+            lock.unlockRead(stamp);
         }
-
-        // Search left subtree first, then right if not found
-        Vehicle leftResult = searchByRegistrationRecursive(current.left, registrationNumber);
-        if (leftResult != null) return leftResult;
-
-        return searchByRegistrationRecursive(current.right, registrationNumber);
     }
 
     // Display all vehicles in sorted order (by mileage)
     public void displayAllVehicles() {
-        if (root == null) {
+        // Copy the vehicles first so the tree is not locked while printing
+        Vehicle[] vehicles = getAllVehicles();
+        if (vehicles.length == 0) {
             System.out.println("No vehicles in the system.");
             return;
         }
         System.out.println("\n=== All Vehicles (sorted by mileage) ===");
-        Vehicle.displayTableHeader();
-        inOrderTraversal(root);
-        Vehicle.displayTableFooter();
+        Vehicle.displayTable(vehicles);
     }
 
-    // In-order traversal - visits nodes in sorted order
-    private void inOrderTraversal(VehicleNode node) {
-        if (node != null) {
-            inOrderTraversal(node.left);    // Visit left subtree
-            node.vehicle.displayInfo();      // Process current node
-            inOrderTraversal(node.right);    // Visit right subtree
+    // Check if the tree is empty
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // Get the number of vehicles in the tree
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int result = count;
+        if (lock.validate(stamp)) {
+            return result;
+        }
+        stamp = lock.readLock();
+        try {
+            return count;
+        } finally {
+            lock.unlockRead(stamp);
         }
     }
 
-    // Check if the tree is empty
-    public boolean isEmpty() {
-        return root == null;
+    // Vehicles changed since the last save (for incremental saving)
+    public ChangeTracker getChanges() {
+        return changes;
     }
 
     // Get all vehicles as an array (for fuel efficiency analysis)
     public Vehicle[] getAllVehicles() {
-        if (root == null) {
-            return new Vehicle[0];
+        long stamp = lock.readLock();
+        try {
+            if (root == null) {
+                return new Vehicle[0];
+            }
+
+            // Count nodes first, then fill array
+            int count = countNodes(root);
+            Vehicle[] vehicles = new Vehicle[count];
+
+            // Fill array using in-order traversal
+            fillArray(root, vehicles, new int[]{0}); // using array for pass-by-reference
+
+            return vehicles;
+        } finally {
+            lock.unlockRead(stamp);
         }
-        
-        // Count nodes first, then fill array
-        int count = countNodes(root);
-        Vehicle[] vehicles = new Vehicle[count];
-        
-        // Fill array using in-order traversal
-        fillArray(root, vehicles, new int[]{0}); // using array for pass-by-reference
-        
-        return vehicles;
     }
     
+    // Visit every vehicle in mileage order without copying the tree (holds the read lock meanwhile)
+    // Iterative in-order walk with an explicit stack, so a lopsided tree cannot overflow the call stack
+    public void forEachVehicle(RecordVisitor<Vehicle> visitor) throws IOException {
+        long stamp = lock.readLock();
+        try {
+            VehicleNode[] stack = new VehicleNode[32];
+            int depth = 0;
+            VehicleNode current = root;
+            while (current != null || depth > 0) {
+                // Go as far left as possible, remembering the path
+                while (current != null) {
+                    if (depth == stack.length) {
+                        VehicleNode[] bigger = new VehicleNode[stack.length * 2];
+                        System.arraycopy(stack, 0, bigger, 0, depth);
+                        stack = bigger;
+                    }
+                    stack[depth++] = current;
+                    current = current.left;
+                }
+                current = stack[--depth];
+                stack[depth] = null;
+                visitor.visit(current.vehicle);
+                current = current.right;
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
     // Helper method to count total nodes in tree
     private int countNodes(VehicleNode node) {
         if (node == null) {
@@ -194,24 +518,26 @@ public class VehicleTree {
         sortVehiclesByRegistration(vehicles);
         
         // Perform binary search
-        return binarySearchRecursive(vehicles, registrationNumber, 0, vehicles.length - 1);
+        return binarySearchRecursive(vehicles, RegistrationCodec.encode(registrationNumber), registrationNumber,
+            0, vehicles.length - 1);
     }
     
     // Recursive binary search implementation
-    private Vehicle binarySearchRecursive(Vehicle[] vehicles, String target, int left, int right) {
+    private Vehicle binarySearchRecursive(Vehicle[] vehicles, long targetKey, String target, int left, int right) {
         if (left > right) {
             return null; // Not found
         }
         
         int mid = left + (right - left) / 2;
-        int comparison = target.compareTo(vehicles[mid].registrationNumber);
+        int comparison = RegistrationCodec.compare(targetKey, target, vehicles[mid].registrationKey,
+            vehicles[mid].registrationNumber);
         
         if (comparison == 0) {
             return vehicles[mid]; // Found!
         } else if (comparison < 0) {
-            return binarySearchRecursive(vehicles, target, left, mid - 1); // Search left half
+            return binarySearchRecursive(vehicles, targetKey, target, left, mid - 1); // Search left half
         } else {
-            return binarySearchRecursive(vehicles, target, mid + 1, right); // Search right half
+            return binarySearchRecursive(vehicles, targetKey, target, mid + 1, right); // Search right half
         }
     }
     
@@ -222,7 +548,7 @@ public class VehicleTree {
             Vehicle key = vehicles[i];
             int j = i - 1;
             
-            while (j >= 0 && vehicles[j].registrationNumber.compareTo(key.registrationNumber) > 0) {
+            while (j >= 0 && RegistrationCodec.compare(vehicles[j], key) > 0) {
                 vehicles[j + 1] = vehicles[j];
                 j = j - 1;
             }
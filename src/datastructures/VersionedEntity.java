@@ -0,0 +1,16 @@
+package datastructures;
+
+/**
+ * VersionedEntity class - base class for records that are saved to the data files
+ * A changed record is queued once in its data structure's ChangeTracker until the next save,
+ * so the incremental save only writes records that really changed.
+ */
+public abstract class VersionedEntity {
+    boolean queued = false; // already waiting in a ChangeTracker
+
+    // Key that identifies this record in a patch file
+    public abstract String key();
+
+    // Comma-separated record as stored in the data files
+    public abstract String toRecord();
+}
@@ -0,0 +1,326 @@
+package datastructures;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * WriteAheadLog class - append-only journal of changes to the data files
+ * Every change is appended as one compact line instead of rewriting a whole file.
+ * Appends are made durable by a background committer that fsyncs in groups (group commit),
+ * and the log is split into segments so old segments can be deleted once the base data
+ * files have been rewritten to include them (compaction).
+ * Appenders wait for their commit on a ReentrantLock condition rather than a monitor, so a
+ * virtual thread waiting for the fsync unmounts instead of pinning its carrier thread.
+ *
+ * Record line format: lsn,OP,field1,field2,...|crc32
+ */
+public class WriteAheadLog {
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final long GROUP_COMMIT_WINDOW_MILLIS = 2; // time to wait for more records before fsync
+
+    // Callback used when replaying the log at startup
+    public interface RecordHandler {
+        void apply(long lsn, String[] fields);
+    }
+
+    private final File directory;
+
+    // Active segment - only written by the committer or by rotate(), both holding channelLock
+    private final Object channelLock = new Object();
+    private FileChannel channel;
+
+    // Pending records waiting for the next group commit - guarded by commitLock
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private final Condition recordsPending = commitLock.newCondition(); // the committer waits here
+    private final Condition committed = commitLock.newCondition();      // appenders wait here
+    private StringBuilder pending = new StringBuilder();
+    private long lastLsn = 0;      // last sequence number handed out
+    private long durableLsn = 0;   // last sequence number known to be on disk
+    private IOException failure;   // first write error, reported to every waiting appender
+    private boolean running = false;
+
+    private Thread committer;
+
+    // Constructor - the directory holds the log segments
+    public WriteAheadLog(String directory) {
+        this.directory = new File(directory);
+    }
+
+    // Read every valid record from all segments, in order, and pass it to the handler
+    // Returns the highest sequence number seen (0 if the log is empty)
+    public long replay(RecordHandler handler) throws IOException {
+        long highest = 0;
+        for (File segment : listSegments()) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(segment), StandardCharsets.UTF_8));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = decode(line);
+                    if (fields == null) {
+                        break; // torn or corrupt tail - the rest of this segment was never committed
+                    }
+                    long lsn = Long.parseLong(fields[0]);
+                    handler.apply(lsn, Arrays.copyOfRange(fields, 1, fields.length));
+                    highest = Math.max(highest, lsn);
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return highest;
+    }
+
+    // Open a fresh segment for appending and start the group-commit thread
+    // afterLsn is the highest sequence number already used (by the log or the base files)
+    public void open(long afterLsn) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Could not create journal directory " + directory);
+        }
+        synchronized (channelLock) {
+            commitLock.lock();
+            try {
+                lastLsn = afterLsn;
+                durableLsn = afterLsn;
+                running = true;
+            } finally {
+                commitLock.unlock();
+            }
+            channel = openSegment(afterLsn + 1);
+        }
+        committer = new Thread(this::commitLoop, "wal-committer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    // Append a record and return its sequence number (not yet durable - see awaitDurable)
+    public long append(String op, Object... fields) {
+        commitLock.lock();
+        try {
+            long lsn = ++lastLsn;
+            StringBuilder payload = new StringBuilder(64);
+            payload.append(lsn).append(',').append(op);
+            for (Object field : fields) {
+                payload.append(',').append(field);
+            }
+            pending.append(encode(payload.toString())).append('\n');
+            recordsPending.signal(); // wake up the committer
+            return lsn;
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    // Block until the record with the given sequence number has been fsynced
+    public void awaitDurable(long lsn) throws IOException {
+        commitLock.lock();
+        try {
+            while (durableLsn < lsn) {
+                if (failure != null) {
+                    throw failure;
+                }
+                if (!running) {
+                    throw new IOException("Journal is closed");
+                }
+                try {
+                    committed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for journal commit");
+                }
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    // Convenience method - append a record and wait until it is on disk
+    public long appendDurable(String op, Object... fields) throws IOException {
+        long lsn = append(op, fields);
+        awaitDurable(lsn);
+        return lsn;
+    }
+
+    // Wait until everything appended so far is on disk
+    public void flush() throws IOException {
+        long lsn;
+        commitLock.lock();
+        try {
+            lsn = lastLsn;
+        } finally {
+            commitLock.unlock();
+        }
+        awaitDurable(lsn);
+    }
+
+    // Close the active segment and start a new one
+    // Returns the last sequence number contained in the closed segments
+    public long rotate() throws IOException {
+        synchronized (channelLock) {
+            long boundary = commitPending(); // anything appended so far belongs to the old segment
+            channel.close();
+            channel = openSegment(boundary + 1);
+            return boundary;
+        }
+    }
+
+    // Delete closed segments whose records are all <= lsn (they are now part of the base files)
+    public void discardUpTo(long lsn) {
+        File[] segments = listSegments();
+        // A segment ends right before the next one starts; the last segment is the active one
+        for (int i = 0; i < segments.length - 1; i++) {
+            long nextStart = segmentStart(segments[i + 1]);
+            if (nextStart - 1 <= lsn) {
+                if (!segments[i].delete()) {
+                    System.out.println("Warning: Could not delete journal segment " + segments[i].getName());
+                }
+            }
+        }
+    }
+
+    // Commit what is pending and close the active segment
+    public void close() throws IOException {
+        synchronized (channelLock) {
+            if (channel == null) {
+                return;
+            }
+            commitPending();
+            commitLock.lock();
+            try {
+                running = false;
+                recordsPending.signalAll();
+                committed.signalAll();
+            } finally {
+                commitLock.unlock();
+            }
+            channel.close();
+            channel = null;
+        }
+    }
+
+    // Background loop - waits for records, gives other appenders a moment to join the batch, then fsyncs once
+    private void commitLoop() {
+        while (true) {
+            commitLock.lock();
+            try {
+                while (running && pending.length() == 0) {
+                    try {
+                        recordsPending.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (!running) {
+                    return;
+                }
+            } finally {
+                commitLock.unlock();
+            }
+            try {
+                Thread.sleep(GROUP_COMMIT_WINDOW_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (channelLock) {
+                if (channel == null) {
+                    return;
+                }
+                try {
+                    commitPending();
+                } catch (IOException e) {
+                    commitLock.lock();
+                    try {
+                        failure = e;
+                        committed.signalAll();
+                    } finally {
+                        commitLock.unlock();
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    // Write and fsync all pending records - caller must hold channelLock
+    // Returns the last sequence number that is now durable
+    private long commitPending() throws IOException {
+        StringBuilder batch;
+        long batchLsn;
+        commitLock.lock();
+        try {
+            batch = pending;
+            batchLsn = lastLsn;
+            pending = new StringBuilder();
+        } finally {
+            commitLock.unlock();
+        }
+        if (batch.length() > 0) {
+            ByteBuffer buffer = ByteBuffer.wrap(batch.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        commitLock.lock();
+        try {
+            durableLsn = batchLsn;
+            committed.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+        return batchLsn;
+    }
+
+    private FileChannel openSegment(long firstLsn) throws IOException {
+        File segment = new File(directory, String.format("%s%020d%s", SEGMENT_PREFIX, firstLsn, SEGMENT_SUFFIX));
+        return FileChannel.open(segment.toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    // Segments sorted by first sequence number (zero-padded names sort numerically)
+    private File[] listSegments() {
+        File[] segments = directory.listFiles((dir, name) ->
+            name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (segments == null) {
+            return new File[0];
+        }
+        Arrays.sort(segments);
+        return segments;
+    }
+
+    private static long segmentStart(File segment) {
+        String name = segment.getName();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    // Attach a checksum so torn writes can be detected on replay
+    private static String encode(String payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload.getBytes(StandardCharsets.UTF_8));
+        return payload + "|" + Long.toHexString(crc.getValue());
+    }
+
+    // Verify the checksum and split the payload - returns null for a corrupt line
+    private static String[] decode(String line) {
+        int separator = line.lastIndexOf('|');
+        if (separator < 0) {
+            return null;
+        }
+        String payload = line.substring(0, separator);
+        CRC32 crc = new CRC32();
+        crc.update(payload.getBytes(StandardCharsets.UTF_8));
+        if (!Long.toHexString(crc.getValue()).equals(line.substring(separator + 1))) {
+            return null;
+        }
+        String[] fields = payload.split(",", -1);
+        return fields.length >= 2 ? fields : null;
+    }
+}
@@ -0,0 +1,122 @@
+package datastructures;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * DeliveryQueueStressTest - many threads booking and dispatching deliveries at once
+ * Producers enqueue through the lock-free intake while consumers drain earliest-deadline-first
+ * and a saver thread keeps draining the change tracker like the background persister does.
+ * Every delivery must come out exactly once, and the saved patches must hold exactly one add
+ * and one removal per delivery.
+ * Run: java -cp out datastructures.DeliveryQueueStressTest (exit status 1 on failure)
+ */
+public class DeliveryQueueStressTest {
+    private static final int PRODUCERS = 8;
+    private static final int CONSUMERS = 4;
+    private static final int PER_PRODUCER = 25_000;
+    private static final int TOTAL = PRODUCERS * PER_PRODUCER;
+
+    public static void main(String[] args) throws Exception {
+        DeliveryQueue queue = new DeliveryQueue(TOTAL);
+        AtomicIntegerArray taken = new AtomicIntegerArray(TOTAL); // times each delivery came out
+        AtomicInteger consumed = new AtomicInteger();
+        AtomicInteger patchAdds = new AtomicInteger();
+        AtomicInteger patchRemovals = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[PRODUCERS + CONSUMERS + 1];
+
+        for (int p = 0; p < PRODUCERS; p++) {
+            int first = p * PER_PRODUCER;
+            threads[p] = new Thread(() -> {
+                await(start);
+                for (int i = first; i < first + PER_PRODUCER; i++) {
+                    // Deadlines spread over the day so the heap really reorders them
+                    String eta = String.format("2030-01-01 %02d:%02d", (i * 7) % 24, i % 60);
+                    if (!queue.enqueue(new Delivery("PKG" + i, "Accra", "Kumasi", "GT1234-22", "DRV001", eta))) {
+                        throw new IllegalStateException("enqueue refused below capacity");
+                    }
+                }
+            });
+        }
+        for (int c = 0; c < CONSUMERS; c++) {
+            threads[PRODUCERS + c] = new Thread(() -> {
+                await(start);
+                Delivery[] batch = new Delivery[32];
+                while (consumed.get() < TOTAL) {
+                    int count = queue.drainEarliest(batch, batch.length);
+                    for (int i = 0; i < count; i++) {
+                        taken.incrementAndGet(Integer.parseInt(batch[i].packageId.substring(3)));
+                    }
+                    consumed.addAndGet(count);
+                    if (count == 0) {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+        threads[threads.length - 1] = new Thread(() -> {
+            await(start);
+            while (consumed.get() < TOTAL) {
+                countPatch(queue.getChanges().drainPatch(), patchAdds, patchRemovals);
+            }
+        });
+
+        long began = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        countPatch(queue.getChanges().drainPatch(), patchAdds, patchRemovals);
+        long millis = (System.nanoTime() - began) / 1_000_000;
+
+        int failures = 0;
+        for (int i = 0; i < TOTAL; i++) {
+            if (taken.get(i) != 1) {
+                System.out.println("Error: PKG" + i + " came out " + taken.get(i) + " times");
+                if (++failures == 10) {
+                    break;
+                }
+            }
+        }
+        failures += check("queue empty", queue.isEmpty() && queue.size() == 0);
+        failures += check("one tracked add per delivery (" + patchAdds.get() + ")", patchAdds.get() == TOTAL);
+        failures += check("one tracked removal per delivery (" + patchRemovals.get() + ")", patchRemovals.get() == TOTAL);
+        System.out.println(TOTAL + " deliveries through " + PRODUCERS + " producers and " + CONSUMERS
+            + " consumers in " + millis + " ms");
+        System.out.println(failures == 0 ? "PASS" : "FAIL");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // Count the "U," and "X," lines of a drained patch
+    private static void countPatch(String patch, AtomicInteger adds, AtomicInteger removals) {
+        int start = 0;
+        while (start < patch.length()) {
+            if (patch.charAt(start) == 'U') {
+                adds.incrementAndGet();
+            } else {
+                removals.incrementAndGet();
+            }
+            start = patch.indexOf('\n', start) + 1;
+        }
+    }
+
+    private static int check(String what, boolean ok) {
+        if (!ok) {
+            System.out.println("Error: expected " + what);
+        }
+        return ok ? 0 : 1;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package datastructures;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * DriverQueueStressTest - many threads making drivers available and assigning them at once
+ * Each thread adds a driver and then assigns one (the front of the queue, or the driver it just
+ * added), so the queue never runs dry and never passes its capacity. Every driver must be
+ * assigned exactly once and the per-town index must end up as empty as the queue.
+ * Run: java -cp out datastructures.DriverQueueStressTest (exit status 1 on failure)
+ */
+public class DriverQueueStressTest {
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 50_000;
+    private static final int TOTAL = THREADS * PER_THREAD;
+    private static final String[] TOWNS = {"Accra", "Kumasi", "Tamale", "Ho"};
+
+    public static void main(String[] args) throws Exception {
+        DriverQueue queue = new DriverQueue();
+        AtomicIntegerArray assigned = new AtomicIntegerArray(TOTAL); // times each driver was handed out
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+
+        for (int t = 0; t < THREADS; t++) {
+            int first = t * PER_THREAD;
+            String town = TOWNS[t % TOWNS.length];
+            threads[t] = new Thread(() -> {
+                await(start);
+                for (int i = first; i < first + PER_THREAD; i++) {
+                    queue.enqueue(new Driver("DRV" + i, "Driver " + i, 5, town));
+                    // Half the time the driver just added; another thread may have taken them already
+                    Driver driver = i % 2 == 0 ? null : queue.removeById("DRV" + i);
+                    if (driver == null) {
+                        driver = queue.dequeue();
+                    }
+                    assigned.incrementAndGet(Integer.parseInt(driver.driverId.substring(3)));
+                    if (i % 1000 == 0) {
+                        queue.getChanges().drainPatch(); // a save running alongside
+                    }
+                }
+            });
+        }
+
+        long began = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long millis = (System.nanoTime() - began) / 1_000_000;
+
+        int failures = 0;
+        for (int i = 0; i < TOTAL; i++) {
+            if (assigned.get(i) != 1) {
+                System.out.println("Error: DRV" + i + " was assigned " + assigned.get(i) + " times");
+                if (++failures == 10) {
+                    break;
+                }
+            }
+        }
+        if (!queue.isEmpty() || queue.size() != 0) {
+            System.out.println("Error: expected an empty queue, size is " + queue.size());
+            failures++;
+        }
+        for (String town : TOWNS) {
+            if (queue.countAt(town) != 0) {
+                System.out.println("Error: " + queue.countAt(town) + " drivers still filed under " + town);
+                failures++;
+            }
+        }
+        System.out.println(TOTAL + " drivers through " + THREADS + " threads in " + millis + " ms");
+        System.out.println(failures == 0 ? "PASS" : "FAIL");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package datastructures;
+
+/**
+ * LoadPlannerTest - vehicles without a driver never get a load
+ * A fleet mixing driven vehicles with ones marked UNASSIGNED (or with no driver ID at all) is
+ * planned against pending deliveries: every load must go to a vehicle with a driver, even when
+ * the driverless ones have the lowest mileage, and every delivery must be either planned once or
+ * left unplanned. A fleet with no drivers at all plans nothing.
+ * Run: java -cp out datastructures.LoadPlannerTest (exit status 1 on failure)
+ */
+public class LoadPlannerTest {
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        Delivery[] deliveries = deliveries();
+
+        Vehicle[] mixed = {
+            new Vehicle("GT1001-22", "Van", 100, 9.5, "UNASSIGNED"),
+            new Vehicle("GT1002-22", "Truck", 200, 12.0, "UNASSIGNED"),
+            new Vehicle("GT1003-22", "Van", 300, 9.5, ""),
+            new Vehicle("GT1004-22", "Truck", 400, 12.0, "DRV001"),
+            new Vehicle("GT1005-22", "Van", 500, 9.5, "DRV002")
+        };
+        mixed[2].driverId = null;
+        LoadPlan plan = LoadPlanner.plan(deliveries, mixed);
+        int planned = 0;
+        for (LoadPlan.Load load : plan.loads) {
+            String driver = load.vehicle.driverId;
+            expect(load.vehicle.registrationNumber + " has a driver (" + driver + ")",
+                driver != null && !driver.isEmpty() && !driver.equals(LoadPlanner.NO_DRIVER));
+            planned += load.size();
+        }
+        expect("loads on the two driven vehicles only (" + plan.loads.length + ")", plan.loads.length == 2);
+        expect("every delivery planned or unplanned (" + planned + " + " + plan.unplanned.length + ")",
+            planned + plan.unplanned.length == deliveries.length);
+        expect("driven vehicles filled before anything is left over",
+            planned == Math.min(deliveries.length, LoadPlanner.TRUCK_CAPACITY + LoadPlanner.VAN_CAPACITY));
+
+        Vehicle[] driverless = {
+            new Vehicle("GT2001-22", "Truck", 100, 12.0, "UNASSIGNED"),
+            new Vehicle("GT2002-22", "Van", 200, 9.5, "UNASSIGNED")
+        };
+        plan = LoadPlanner.plan(deliveries, driverless);
+        expect("no loads without drivers", plan.loads.length == 0);
+        expect("every delivery unplanned without drivers", plan.unplanned.length == deliveries.length);
+
+        System.out.println(failures == 0 ? "PASS" : "FAIL");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // 12 parcels from Accra to Kumasi and 5 from Tema to Ho, booked on the two driven vehicles
+    private static Delivery[] deliveries() {
+        Delivery[] deliveries = new Delivery[17];
+        for (int i = 0; i < deliveries.length; i++) {
+            String id = String.format("PKG%03d", 900 + i);
+            deliveries[i] = i < 12
+                ? new Delivery(id, "Accra", "Kumasi", "GT1004-22", "DRV001", "2026-10-18 14:30")
+                : new Delivery(id, "Tema", "Ho", "GT1005-22", "DRV002", "2026-10-18 16:45");
+        }
+        return deliveries;
+    }
+
+    private static void expect(String what, boolean ok) {
+        if (!ok) {
+            failures++;
+            System.out.println("Error: expected " + what);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package datastructures;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * MaintenanceCostRollupTest - cost reports from the rollups against sums worked out by brute force
+ * Random service records (out of date order, parts in mixed case) go into a MaintenanceHistoryStore
+ * in a temporary directory; every monthly, per-vehicle, top-N and total figure is then recomputed
+ * by scanning the generated records and compared. The store is reopened and checked again, so
+ * the rollups rebuilt from the segments are covered too.
+ * Run: java -cp out datastructures.MaintenanceCostRollupTest (exit status 1 on failure)
+ */
+public class MaintenanceCostRollupTest {
+    private static final int RECORDS = 5_000;
+    private static final String[] VEHICLES = {"GT1234-22", "GR2456-22", "AS9257-21", "CR7890-23", "NR5813-21", "ER7035-22"};
+    private static final String[] PARTS = {"Oil Change", "oil change", "Brake Pads", "Tyres", "Battery", "Air Filter", "TYRES"};
+    private static final double EPSILON = 1e-6;
+
+    private static int failures = 0;
+
+    public static void main(String[] args) throws Exception {
+        File directory = Files.createTempDirectory("cost-rollup-test").toFile();
+        Random random = new Random(42);
+        MaintenanceRecord[] records = new MaintenanceRecord[RECORDS];
+        MaintenanceHistoryStore store = new MaintenanceHistoryStore(directory.getPath());
+        store.open();
+        for (int i = 0; i < RECORDS; i++) {
+            String date = String.format("%04d-%02d-%02d", 2022 + random.nextInt(3), 1 + random.nextInt(12), 1 + random.nextInt(28));
+            double cost = random.nextInt(100_000) / 100.0;
+            records[i] = new MaintenanceRecord(VEHICLES[random.nextInt(VEHICLES.length)], date,
+                PARTS[random.nextInt(PARTS.length)], cost);
+            store.append(records[i]);
+        }
+        verify("after appending", store, records);
+        store.close();
+
+        store = new MaintenanceHistoryStore(directory.getPath());
+        store.open();
+        verify("after reopening", store, records);
+        store.close();
+
+        for (File segment : directory.listFiles()) {
+            segment.delete();
+        }
+        directory.delete();
+        System.out.println(failures == 0 ? "PASS" : "FAIL");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static void verify(String when, MaintenanceHistoryStore store, MaintenanceRecord[] records) throws IOException {
+        double fleet = 0;
+        for (MaintenanceRecord record : records) {
+            fleet += record.cost;
+        }
+        check(when + ": fleet cost", store.fleetCost(), fleet);
+
+        // Every month of the whole fleet and of each vehicle, and a range in the middle
+        checkMonths(when, store, records, null, null, null);
+        for (String vehicle : VEHICLES) {
+            check(when + ": total of " + vehicle, store.totalCost(vehicle), sum(records, vehicle, null, null));
+            checkMonths(when, store, records, vehicle, null, null);
+            checkMonths(when, store, records, vehicle, "2023-03", "2023-11");
+        }
+        checkMonths(when, store, records, null, "2022-12", "2024-02");
+        check(when + ": unknown vehicle", store.totalCost("XX0000-00"), 0);
+
+        // Top parts: names grouped case-insensitively, most expensive first
+        MaintenanceCostRollup.Total[] parts = store.topParts(3);
+        expect(when + ": three top parts", parts.length == 3);
+        double previous = Double.MAX_VALUE;
+        for (MaintenanceCostRollup.Total part : parts) {
+            double cost = 0;
+            int services = 0;
+            for (MaintenanceRecord record : records) {
+                if (record.partReplaced.equalsIgnoreCase(part.label)) {
+                    cost += record.cost;
+                    services++;
+                }
+            }
+            check(when + ": part " + part.label, part.cost, cost);
+            expect(when + ": services of " + part.label, part.services == services);
+            expect(when + ": parts in cost order", part.cost <= previous);
+            previous = part.cost;
+        }
+        expect(when + ": no part costlier than the top one", parts[0].cost >= maxPartCost(records) - EPSILON);
+
+        // Top vehicles: all of them, most expensive first, matching the brute-force totals
+        MaintenanceCostRollup.Total[] vehicles = store.topVehicles(VEHICLES.length + 5);
+        expect(when + ": every vehicle ranked", vehicles.length == VEHICLES.length);
+        previous = Double.MAX_VALUE;
+        for (MaintenanceCostRollup.Total vehicle : vehicles) {
+            check(when + ": ranked " + vehicle.label, vehicle.cost, sum(records, vehicle.label, null, null));
+            expect(when + ": vehicles in cost order", vehicle.cost <= previous);
+            previous = vehicle.cost;
+        }
+    }
+
+    // Compare monthlySpend with a scan, month by month (vehicle null = fleet; months null = open end)
+    private static void checkMonths(String when, MaintenanceHistoryStore store, MaintenanceRecord[] records,
+                                    String vehicle, String from, String to) {
+        MaintenanceCostRollup.Total[] months = store.monthlySpend(vehicle, from, to);
+        double total = 0;
+        String last = "";
+        for (MaintenanceCostRollup.Total month : months) {
+            check(when + ": " + (vehicle == null ? "fleet" : vehicle) + " in " + month.label,
+                month.cost, sum(records, vehicle, month.label, month.label));
+            expect(when + ": months in order", month.label.compareTo(last) > 0);
+            last = month.label;
+            total += month.cost;
+        }
+        check(when + ": " + (vehicle == null ? "fleet" : vehicle) + " from " + from + " to " + to,
+            total, sum(records, vehicle, from, to));
+    }
+
+    // Spend of a vehicle (null = fleet) in the months from..to (YYYY-MM, inclusive; null = open end)
+    private static double sum(MaintenanceRecord[] records, String vehicle, String from, String to) {
+        double total = 0;
+        for (MaintenanceRecord record : records) {
+            String month = record.date.substring(0, 7);
+            if ((vehicle == null || record.vehicleNumber.equals(vehicle))
+                    && (from == null || month.compareTo(from) >= 0)
+                    && (to == null || month.compareTo(to) <= 0)) {
+                total += record.cost;
+            }
+        }
+        return total;
+    }
+
+    private static double maxPartCost(MaintenanceRecord[] records) {
+        double max = 0;
+        for (String part : PARTS) {
+            double cost = 0;
+            for (MaintenanceRecord record : records) {
+                if (record.partReplaced.equalsIgnoreCase(part)) {
+                    cost += record.cost;
+                }
+            }
+            max = Math.max(max, cost);
+        }
+        return max;
+    }
+
+    private static void check(String what, double actual, double expected) {
+        if (Math.abs(actual - expected) > EPSILON * Math.max(1, Math.abs(expected))) {
+            System.out.println("Error: " + what + " is " + actual + ", expected " + expected);
+            failures++;
+        }
+    }
+
+    private static void expect(String what, boolean ok) {
+        if (!ok) {
+            System.out.println("Error: expected " + what);
+            failures++;
+        }
+    }
+}
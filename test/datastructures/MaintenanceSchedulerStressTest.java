@@ -0,0 +1,134 @@
+package datastructures;
+
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * MaintenanceSchedulerStressTest - many threads scheduling, updating and removing tasks at once
+ * Each worker owns one vehicle: it adds tasks for it, drives it further (alone or in a batch
+ * update) and removes tasks by ID, and keeps the remaining km it expects for each of its tasks.
+ * A watcher thread keeps copying the task list and draining alerts meanwhile. At the end every
+ * task must have exactly the km its worker expects and polling must return them in priority order.
+ * Run: java -cp out datastructures.MaintenanceSchedulerStressTest (exit status 1 on failure)
+ */
+public class MaintenanceSchedulerStressTest {
+    private static final int WORKERS = 4;
+    private static final int STEPS = 20_000;     // per worker
+    private static final int TASKS_PER_VEHICLE = 20; // WORKERS x this stays below the scheduler's capacity
+
+    private static final AtomicInteger failures = new AtomicInteger();
+    private static final PrintStream console = System.out;
+
+    public static void main(String[] args) throws Exception {
+        MaintenanceScheduler scheduler = new MaintenanceScheduler();
+        MaintenanceTask[][] tasks = new MaintenanceTask[WORKERS][TASKS_PER_VEHICLE];
+        int[][] expected = new int[WORKERS][TASKS_PER_VEHICLE];
+        AtomicBoolean working = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[WORKERS];
+
+        System.setOut(new PrintStream(PrintStream.nullOutputStream())); // the scheduler reports every change
+        for (int w = 0; w < WORKERS; w++) {
+            int worker = w;
+            String vehicle = String.format("GT%04d-22", 1000 + w);
+            workers[w] = new Thread(() -> {
+                await(start);
+                Random random = new Random(worker);
+                MaintenanceTask[] own = tasks[worker];
+                int[] km = expected[worker];
+                for (int step = 0; step < STEPS; step++) {
+                    int slot = random.nextInt(TASKS_PER_VEHICLE);
+                    int choice = random.nextInt(4);
+                    if (own[slot] == null) {
+                        km[slot] = random.nextInt(3000);
+                        own[slot] = new MaintenanceTask(vehicle, km[slot]);
+                        scheduler.addTask(own[slot]);
+                    } else if (choice == 0) {
+                        expect("removal of " + vehicle + "'s task", scheduler.removeTaskById(own[slot].getId()) == own[slot]);
+                        own[slot] = null;
+                    } else if (choice == 1) {
+                        int driven = random.nextInt(200);
+                        scheduler.updateTasksForVehicles(new String[] {vehicle, vehicle}, new int[] {driven, driven}, 2);
+                        drive(own, km, 2 * driven);
+                    } else {
+                        int driven = random.nextInt(200);
+                        scheduler.updateTasksForVehicle(vehicle, driven);
+                        drive(own, km, driven);
+                    }
+                }
+            });
+        }
+        Thread watcher = new Thread(() -> {
+            await(start);
+            while (working.get()) {
+                MaintenanceTask[] all = scheduler.getAllTasks();
+                expect("at most " + WORKERS * TASKS_PER_VEHICLE + " tasks", all.length <= WORKERS * TASKS_PER_VEHICLE);
+                for (MaintenanceTask task : all) {
+                    expect("no empty heap slot in a copy", task != null);
+                }
+                scheduler.drainAlerts();
+            }
+        });
+
+        long began = System.nanoTime();
+        for (Thread thread : workers) {
+            thread.start();
+        }
+        watcher.start();
+        start.countDown();
+        for (Thread thread : workers) {
+            thread.join();
+        }
+        working.set(false);
+        watcher.join();
+        long millis = (System.nanoTime() - began) / 1_000_000;
+        System.setOut(console);
+
+        int live = 0;
+        for (int w = 0; w < WORKERS; w++) {
+            for (int slot = 0; slot < TASKS_PER_VEHICLE; slot++) {
+                MaintenanceTask task = tasks[w][slot];
+                if (task != null) {
+                    live++;
+                    expect(task.vehicleNumber + " task with " + expected[w][slot] + " km left (has " + task.mileage + ")",
+                        task.mileage == expected[w][slot]);
+                }
+            }
+        }
+        expect(live + " tasks left (scheduler has " + scheduler.getTaskCount() + ")", scheduler.getTaskCount() == live);
+        MaintenanceTask previous = null;
+        for (MaintenanceTask task = scheduler.pollNextTask(); task != null; task = scheduler.pollNextTask()) {
+            expect("tasks polled in priority order", previous == null || previous.compareTo(task) <= 0);
+            previous = task;
+        }
+        System.out.println(WORKERS * STEPS + " scheduler operations through " + WORKERS + " threads in " + millis + " ms");
+        System.out.println(failures.get() == 0 ? "PASS" : "FAIL");
+        System.exit(failures.get() == 0 ? 0 : 1);
+    }
+
+    // Expected km left after the worker's vehicle drove further
+    private static void drive(MaintenanceTask[] own, int[] km, int driven) {
+        for (int slot = 0; slot < own.length; slot++) {
+            if (own[slot] != null) {
+                km[slot] -= driven;
+            }
+        }
+    }
+
+    private static void expect(String what, boolean ok) {
+        if (!ok && failures.incrementAndGet() <= 10) {
+            console.println("Error: expected " + what);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
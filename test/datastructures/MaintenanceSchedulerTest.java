@@ -0,0 +1,116 @@
+package datastructures;
+
+import java.util.Random;
+
+/**
+ * MaintenanceSchedulerTest - per-vehicle mileage updates against remaining km worked out by hand
+ * Random tasks for a handful of vehicles take random mileage updates (one vehicle or a batch at
+ * a time) and random removals. Every task must end with exactly its starting km minus what its
+ * vehicle drove since it was added - going negative once overdue - and polling the scheduler
+ * must return the tasks in priority order. The alert wheel is checked on its own: crossing 0 km
+ * reports the overdue amount, and a vehicle's wheel goes away with its last task.
+ * Run: java -cp out datastructures.MaintenanceSchedulerTest (exit status 1 on failure)
+ */
+public class MaintenanceSchedulerTest {
+    private static final String[] VEHICLES = {"GT1234-22", "GR2456-22", "AS9257-21", "CR7890-23", "NR5813-21"};
+    private static final int STEPS = 2_000;
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        checkScheduler();
+        checkAlertWheel();
+        System.out.println(failures == 0 ? "PASS" : "FAIL");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static void checkScheduler() {
+        Random random = new Random(11);
+        MaintenanceScheduler scheduler = new MaintenanceScheduler();
+        MaintenanceTask[] tasks = new MaintenanceTask[STEPS];
+        int[] expected = new int[STEPS];
+        boolean[] removed = new boolean[STEPS];
+        int added = 0;
+
+        for (int step = 0; step < STEPS; step++) {
+            int choice = random.nextInt(10);
+            if (choice < 3 && scheduler.getTaskCount() < 90) {
+                String vehicle = VEHICLES[random.nextInt(VEHICLES.length)];
+                expected[added] = random.nextInt(5000);
+                tasks[added] = new MaintenanceTask(vehicle, expected[added]);
+                scheduler.addTask(tasks[added++]);
+            } else if (choice < 7) {
+                String vehicle = VEHICLES[random.nextInt(VEHICLES.length)];
+                int km = random.nextInt(300);
+                scheduler.updateTasksForVehicle(vehicle, km);
+                drive(tasks, expected, removed, added, vehicle, km);
+            } else if (choice < 9) {
+                String[] vehicles = {VEHICLES[random.nextInt(VEHICLES.length)], VEHICLES[random.nextInt(VEHICLES.length)]};
+                int[] km = {random.nextInt(300), random.nextInt(300)};
+                scheduler.updateTasksForVehicles(vehicles, km, 2);
+                drive(tasks, expected, removed, added, vehicles[0], km[0]);
+                drive(tasks, expected, removed, added, vehicles[1], km[1]);
+            } else if (added > 0) {
+                int victim = random.nextInt(added);
+                MaintenanceTask task = scheduler.removeTaskById(tasks[victim].getId());
+                expect("removal of task " + victim, (task == tasks[victim]) == !removed[victim]);
+                removed[victim] = true;
+            }
+        }
+        scheduler.drainAlerts();
+
+        for (int i = 0; i < added; i++) {
+            if (!removed[i] && tasks[i].mileage != expected[i]) {
+                System.out.println("Error: task " + i + " has " + tasks[i].mileage + " km left, expected " + expected[i]);
+                failures++;
+            }
+        }
+        int remaining = scheduler.getTaskCount();
+        MaintenanceTask previous = null;
+        for (int i = 0; i < remaining; i++) {
+            MaintenanceTask task = scheduler.pollNextTask();
+            expect("tasks polled in priority order", previous == null || previous.compareTo(task) <= 0);
+            previous = task;
+        }
+        expect("an empty scheduler", scheduler.isEmpty() && scheduler.pollNextTask() == null);
+    }
+
+    // Expected remaining km after a vehicle drove km further
+    private static void drive(MaintenanceTask[] tasks, int[] expected, boolean[] removed, int added, String vehicle, int km) {
+        for (int i = 0; i < added; i++) {
+            if (!removed[i] && tasks[i].vehicleNumber.equals(vehicle)) {
+                expected[i] -= km;
+            }
+        }
+    }
+
+    private static void checkAlertWheel() {
+        MaintenanceAlertWheel wheel = new MaintenanceAlertWheel();
+        MaintenanceTask first = new MaintenanceTask("GT1234-22", 300);
+        MaintenanceTask second = new MaintenanceTask("GT1234-22", 2500);
+        wheel.schedule(first);
+        wheel.schedule(second);
+        expect("one wheel for one vehicle", wheel.vehicleCount() == 1);
+
+        first.mileage -= 450;
+        second.mileage -= 450;
+        wheel.advance("GT1234-22", 450);
+        MaintenanceAlert[] alerts = wheel.drain();
+        expect("one alert after crossing 0 km", alerts.length == 1 && alerts[0].task == first);
+        expect("the overdue km reported", alerts.length == 1 && alerts[0].remainingKm == -150
+            && alerts[0].level.equals("DUE") && alerts[0].describe().contains("overdue for maintenance by 150 km"));
+        expect("the wheel kept for the other task", wheel.vehicleCount() == 1);
+
+        wheel.cancel(second);
+        expect("the wheel dropped with its last task", wheel.vehicleCount() == 0);
+        wheel.advance("GT1234-22", 5000);
+        expect("no alerts for a vehicle without tasks", wheel.drain().length == 0);
+    }
+
+    private static void expect(String what, boolean ok) {
+        if (!ok) {
+            System.out.println("Error: expected " + what);
+            failures++;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package datastructures;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * MpmcRingBufferBenchmark - offer/poll throughput of MpmcRingBuffer under contention, against the
+ * same ring with its head and tail as two plain AtomicLong fields (no cache-line padding)
+ * Producers and consumers hammer one small ring; each round is run for the padded ring and the
+ * unpadded one, with many consumers (general MPMC use) and with one consumer (how DeliveryQueue
+ * drains its intake). Every element must come out exactly once, so the run is also a stress test.
+ * False sharing needs the producers and consumers on different cores: on a single-CPU machine
+ * both rings measure the same. Pass a number of elements per producer to run longer.
+ * Run: java -cp out datastructures.MpmcRingBufferBenchmark [elements] (exit status 1 on failure)
+ */
+public class MpmcRingBufferBenchmark {
+    private static final int CAPACITY = 1024;
+    private static final int PRODUCERS = 4;
+    private static final int ROUNDS = 3;
+    private static final long STOP = -1; // tells a consumer every element has been taken
+
+    private static int failures = 0;
+
+    // The ring operations the benchmark needs
+    interface Ring {
+        boolean offer(Long element);
+        Long poll();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int perProducer = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        System.out.println(Runtime.getRuntime().availableProcessors() + " CPUs, " + PRODUCERS + " producers, "
+            + perProducer + " elements each");
+        for (int consumers : new int[] {4, 1}) {
+            for (int round = 0; round < ROUNDS; round++) { // first round warms the JIT up
+                MpmcRingBuffer<Long> padded = new MpmcRingBuffer<>(CAPACITY);
+                long paddedRate = run(new Ring() {
+                    @Override
+                    public boolean offer(Long element) {
+                        return padded.offer(element);
+                    }
+
+                    @Override
+                    public Long poll() {
+                        return padded.poll();
+                    }
+                }, consumers, perProducer);
+                long unpaddedRate = run(new UnpaddedRing(CAPACITY), consumers, perProducer);
+                System.out.printf("%d consumer(s), round %d: padded %,d ops/s, unpadded %,d ops/s (%+.0f%%)%n",
+                    consumers, round + 1, paddedRate, unpaddedRate, 100.0 * (paddedRate - unpaddedRate) / unpaddedRate);
+            }
+        }
+        System.out.println(failures == 0 ? "PASS" : "FAIL");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // Push every element through the ring; returns offers + polls per second
+    private static long run(Ring ring, int consumers, int perProducer) throws InterruptedException {
+        long total = (long) PRODUCERS * perProducer;
+        AtomicLong sum = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[PRODUCERS + consumers];
+        for (int p = 0; p < PRODUCERS; p++) {
+            long first = (long) p * perProducer;
+            threads[p] = new Thread(() -> {
+                await(start);
+                for (long i = first; i < first + perProducer; i++) {
+                    put(ring, i);
+                }
+            });
+        }
+        for (int c = 0; c < consumers; c++) {
+            threads[PRODUCERS + c] = new Thread(() -> {
+                await(start);
+                long localSum = 0;
+                while (true) {
+                    Long element = ring.poll();
+                    if (element == null) {
+                        Thread.yield();
+                    } else if (element == STOP) {
+                        break;
+                    } else {
+                        localSum += element;
+                    }
+                }
+                sum.addAndGet(localSum);
+            });
+        }
+
+        long began = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (int p = 0; p < PRODUCERS; p++) {
+            threads[p].join();
+        }
+        for (int c = 0; c < consumers; c++) {
+            put(ring, STOP); // one stop marker per consumer, after every element
+        }
+        for (int c = 0; c < consumers; c++) {
+            threads[PRODUCERS + c].join();
+        }
+        long nanos = System.nanoTime() - began;
+
+        long expectedSum = total * (total - 1) / 2;
+        if (sum.get() != expectedSum) {
+            System.out.println("Error: elements out of the ring sum to " + sum.get() + ", expected " + expectedSum);
+            failures++;
+        }
+        return (long) (2 * total / (nanos / 1e9));
+    }
+
+    private static void put(Ring ring, long element) {
+        while (!ring.offer(element)) {
+            Thread.yield();
+        }
+    }
+
+    // MpmcRingBuffer's algorithm with head and tail as two adjacent AtomicLong objects
+    private static class UnpaddedRing implements Ring {
+        private final int capacity;
+        private final AtomicReferenceArray<Long> slots;
+        private final AtomicLongArray sequences;
+        private final AtomicLong tail = new AtomicLong();
+        private final AtomicLong head = new AtomicLong();
+
+        UnpaddedRing(int capacity) {
+            this.capacity = capacity;
+            this.slots = new AtomicReferenceArray<>(capacity);
+            this.sequences = new AtomicLongArray(capacity);
+            for (int i = 0; i < capacity; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        @Override
+        public boolean offer(Long element) {
+            while (true) {
+                long pos = tail.get();
+                int index = (int) (pos % capacity);
+                long diff = sequences.get(index) - pos;
+                if (diff == 0) {
+                    if (tail.compareAndSet(pos, pos + 1)) {
+                        slots.set(index, element);
+                        sequences.set(index, pos + 1);
+                        return true;
+                    }
+                } else if (diff < 0) {
+                    return false;
+                }
+            }
+        }
+
+        @Override
+        public Long poll() {
+            while (true) {
+                long pos = head.get();
+                int index = (int) (pos % capacity);
+                long diff = sequences.get(index) - (pos + 1);
+                if (diff == 0) {
+                    if (head.compareAndSet(pos, pos + 1)) {
+                        Long element = slots.get(index);
+                        slots.set(index, null);
+                        sequences.set(index, pos + capacity);
+                        return element;
+                    }
+                } else if (diff < 0) {
+                    return null;
+                }
+            }
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
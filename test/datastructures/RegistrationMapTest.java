@@ -0,0 +1,90 @@
+package datastructures;
+
+import java.util.Random;
+
+/**
+ * RegistrationMapTest - random puts and removals against a plain list searched by brute force
+ * Registration numbers come from a small pool (plates that differ only in the year, plus
+ * fallback codes that are not plate-shaped), so entries are replaced, removed and added back
+ * many times and probe runs collide. After every step the map must agree with the list on the
+ * size and on the value of every number in the pool, and its entries must be exactly the list's.
+ * Run: java -cp out datastructures.RegistrationMapTest (exit status 1 on failure)
+ */
+public class RegistrationMapTest {
+    private static final int STEPS = 200_000;
+
+    private static int failures = 0;
+
+    public static void main(String[] args) {
+        String[] pool = new String[300];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = i % 10 == 9 ? "fleet-" + i : String.format("GT%04d-%02d", i / 3, 20 + i % 3);
+        }
+        Random random = new Random(7);
+        RegistrationMap<Integer> map = new RegistrationMap<>();
+        String[] listKeys = new String[pool.length];
+        int[] listValues = new int[pool.length];
+        int listSize = 0;
+
+        for (int step = 0; step < STEPS && failures < 10; step++) {
+            String registration = pool[random.nextInt(pool.length)];
+            int found = indexOf(listKeys, listSize, registration);
+            if (random.nextInt(3) == 0) {
+                Integer removed = map.remove(registration);
+                expect("removed value of " + registration, found < 0 ? removed == null
+                    : removed != null && removed == listValues[found]);
+                if (found >= 0) {
+                    listKeys[found] = listKeys[--listSize];
+                    listValues[found] = listValues[listSize];
+                }
+            } else {
+                Integer previous = map.put(registration, step);
+                expect("replaced value of " + registration, found < 0 ? previous == null
+                    : previous != null && previous == listValues[found]);
+                if (found < 0) {
+                    found = listSize++;
+                    listKeys[found] = registration;
+                }
+                listValues[found] = step;
+            }
+            if (step % 97 == 0) {
+                verify(map, pool, listKeys, listValues, listSize);
+            }
+        }
+        verify(map, pool, listKeys, listValues, listSize);
+
+        map.clear();
+        expect("empty map after clear", map.size() == 0 && map.get(pool[0]) == null);
+        System.out.println(failures == 0 ? "PASS" : "FAIL");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static void verify(RegistrationMap<Integer> map, String[] pool, String[] listKeys, int[] listValues, int listSize) {
+        expect("size " + listSize + " (map has " + map.size() + ")", map.size() == listSize);
+        for (String registration : pool) {
+            int found = indexOf(listKeys, listSize, registration);
+            Integer value = map.get(registration);
+            expect("value of " + registration, found < 0 ? value == null : value != null && value == listValues[found]);
+        }
+        for (int i = 0; i < map.size(); i++) {
+            int found = indexOf(listKeys, listSize, map.registrationAt(i));
+            expect("entry " + map.registrationAt(i) + " in the list", found >= 0 && map.valueAt(i) == listValues[found]);
+        }
+    }
+
+    private static int indexOf(String[] keys, int size, String registration) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i].equals(registration)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void expect(String what, boolean ok) {
+        if (!ok) {
+            System.out.println("Error: expected " + what);
+            failures++;
+        }
+    }
+}
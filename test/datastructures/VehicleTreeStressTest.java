@@ -0,0 +1,174 @@
+package datastructures;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * VehicleTreeStressTest - readers on the optimistic-read paths while writers reshape the tree
+ * A fixed set of vehicles (even mileages) stays in the tree the whole time; writer threads keep
+ * inserting, re-mileaging and removing their own vehicles (odd mileages) around them. Readers
+ * look the fixed vehicles up by registration and by mileage and take full snapshots, and must
+ * never miss one, see a wrong one or get a snapshot with them out of mileage order (the other
+ * vehicles in a snapshot are live objects the writers may re-mileage later). At the end the tree,
+ * its registration index and its summary must all agree with what the writers left behind.
+ * Run: java -cp out datastructures.VehicleTreeStressTest (exit status 1 on failure)
+ */
+public class VehicleTreeStressTest {
+    private static final int FIXED = 500;
+    private static final int WRITERS = 2;
+    private static final int READERS = 4;
+    private static final int WRITES = 100_000; // per writer
+    private static final int CHURN = 200;      // vehicles per writer that come and go
+
+    private static final AtomicInteger failures = new AtomicInteger();
+
+    public static void main(String[] args) throws Exception {
+        VehicleTree tree = new VehicleTree();
+        Random random = new Random(3);
+        for (int i : shuffled(FIXED, random)) {
+            tree.insert(new Vehicle(fixed(i), i % 2 == 0 ? "Truck" : "Van", i * 100, 8 + i % 7, "DRV001"));
+        }
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicInteger reads = new AtomicInteger();
+        int[] remaining = new int[WRITERS];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] writers = new Thread[WRITERS];
+        Thread[] readers = new Thread[READERS];
+
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            writers[w] = new Thread(() -> {
+                await(start);
+                Random local = new Random(100 + writer);
+                boolean[] present = new boolean[CHURN];
+                for (int step = 0; step < WRITES; step++) {
+                    int i = local.nextInt(CHURN);
+                    String registration = churn(writer, i);
+                    int mileage = local.nextInt(FIXED * 50) * 2 + 1; // odd - never a fixed vehicle's
+                    if (!present[i]) {
+                        tree.insert(new Vehicle(registration, "Van", mileage, 9.5, "UNASSIGNED"));
+                        present[i] = true;
+                    } else if (local.nextBoolean()) {
+                        expect("update of " + registration, tree.updateMileage(registration, mileage) != null);
+                    } else {
+                        expect("removal of " + registration, tree.remove(registration));
+                        present[i] = false;
+                    }
+                }
+                for (boolean kept : present) {
+                    remaining[writer] += kept ? 1 : 0;
+                }
+            });
+        }
+        for (int r = 0; r < READERS; r++) {
+            int reader = r;
+            readers[r] = new Thread(() -> {
+                await(start);
+                Random local = new Random(200 + reader);
+                while (writing.get()) {
+                    int i = local.nextInt(FIXED);
+                    Vehicle byRegistration = tree.searchByRegistration(fixed(i));
+                    expect("lookup of " + fixed(i), byRegistration != null && byRegistration.registrationNumber.equals(fixed(i)));
+                    Vehicle byMileage = tree.searchByMileage(i * 100);
+                    expect("vehicle at " + i * 100 + " km", byMileage != null && byMileage.registrationNumber.equals(fixed(i)));
+                    Vehicle churned = tree.searchByRegistration(churn(local.nextInt(WRITERS), local.nextInt(CHURN)));
+                    expect("a removed or the right vehicle", churned == null || churned.registrationNumber.charAt(0) == 'W');
+                    int size = tree.size();
+                    expect("size " + size + " in range", size >= FIXED && size <= FIXED + WRITERS * CHURN);
+                    if (local.nextInt(50) == 0) {
+                        checkSnapshot(tree.getAllVehicles());
+                    }
+                    reads.incrementAndGet();
+                }
+            });
+        }
+
+        long began = System.nanoTime();
+        for (Thread thread : writers) {
+            thread.start();
+        }
+        for (Thread thread : readers) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : writers) {
+            thread.join();
+        }
+        writing.set(false);
+        for (Thread thread : readers) {
+            thread.join();
+        }
+        long millis = (System.nanoTime() - began) / 1_000_000;
+
+        int expected = FIXED;
+        for (int kept : remaining) {
+            expected += kept;
+        }
+        Vehicle[] all = tree.getAllVehicles();
+        checkSnapshot(all);
+        for (int i = 1; i < all.length; i++) {
+            expect("final snapshot in mileage order", all[i - 1].mileage <= all[i].mileage);
+        }
+        expect("size " + expected + " at the end (tree has " + tree.size() + ")", tree.size() == expected && all.length == expected);
+        expect("summary of " + expected + " vehicles", tree.getSummary().vehicleCount == expected);
+        for (Vehicle vehicle : all) {
+            expect("index entry for " + vehicle.registrationNumber, tree.searchByRegistration(vehicle.registrationNumber) == vehicle);
+        }
+        System.out.println(WRITERS * WRITES + " writes and " + reads.get() + " reader rounds in " + millis + " ms");
+        System.out.println(failures.get() == 0 ? "PASS" : "FAIL");
+        System.exit(failures.get() == 0 ? 0 : 1);
+    }
+
+    // A snapshot must hold every fixed vehicle, in mileage order
+    private static void checkSnapshot(Vehicle[] vehicles) {
+        int fixed = 0;
+        int lastMileage = -1;
+        for (Vehicle vehicle : vehicles) {
+            if (vehicle.registrationNumber.charAt(0) == 'G') {
+                expect("fixed vehicles in mileage order", vehicle.mileage > lastMileage);
+                lastMileage = vehicle.mileage;
+                fixed++;
+            }
+        }
+        expect("every fixed vehicle in the snapshot (" + fixed + ")", fixed == FIXED);
+    }
+
+    private static String fixed(int i) {
+        return String.format("GT%04d-20", i);
+    }
+
+    private static String churn(int writer, int i) {
+        return String.format("WR%04d-%02d", i, 30 + writer);
+    }
+
+    // 0..n-1 in random order, so the fixed vehicles do not build a degenerate tree
+    private static int[] shuffled(int n, Random random) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order;
+    }
+
+    private static void expect(String what, boolean ok) {
+        if (!ok && failures.incrementAndGet() <= 10) {
+            System.out.println("Error: expected " + what);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}